@@ -1,6 +1,10 @@
 package org.csu.sdolp;
 
+import org.csu.sdolp.storage.disk.DiskManager;
+import org.csu.sdolp.storage.page.Page;
+
 import java.io.File;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -17,11 +21,29 @@ public class DatabaseManager {
     }
 
     public void createDatabase(String dbName) {
+        createDatabase(dbName, Page.DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * 创建数据库并按指定的页大小初始化数据文件，页大小记录在文件头中，之后不能再修改。
+     */
+    public void createDatabase(String dbName, int pageSize) {
+        if (!Page.isValidPageSize(pageSize)) {
+            throw new RuntimeException("Unsupported page size " + pageSize
+                    + ": must be a power of two between " + Page.MIN_PAGE_SIZE + " and " + Page.MAX_PAGE_SIZE + " bytes.");
+        }
         File dbDir = new File(DB_ROOT_DIR, dbName);
         if (dbDir.exists()) {
             throw new RuntimeException("Database '" + dbName + "' already exists.");
         }
         dbDir.mkdirs();
+        DiskManager diskManager = new DiskManager(getDbFilePath(dbName), pageSize);
+        try {
+            diskManager.open();
+            diskManager.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to initialize data file for database '" + dbName + "'.", e);
+        }
     }
 
     public List<String> listDatabases() {
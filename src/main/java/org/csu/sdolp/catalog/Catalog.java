@@ -3,6 +3,7 @@ package org.csu.sdolp.catalog;
 import org.csu.sdolp.DatabaseManager;
 import org.csu.sdolp.common.model.*;
 import org.csu.sdolp.storage.buffer.BufferPoolManager;
+import org.csu.sdolp.storage.column.ColumnarTable;
 import org.csu.sdolp.storage.disk.DiskManager;
 import org.csu.sdolp.storage.page.Page;
 import org.csu.sdolp.storage.page.PageId;
@@ -91,6 +92,18 @@ public class Catalog {
 
         // 加载或初始化目录
         loadCatalog();
+        dropOrphanIndexSegments();
+    }
+
+    /**
+     * 索引的元数据只保存在内存中，重新打开数据库后旧索引的表空间文件不再被引用，删除它们回收空间。
+     */
+    private void dropOrphanIndexSegments() throws IOException {
+        for (String segment : bufferPoolManager.getSegmentNames()) {
+            if (segment.startsWith(IndexInfo.segmentName(""))) {
+                bufferPoolManager.dropSegment(segment);
+            }
+        }
     }
 
     public List<String> getAllTableNames() { return new ArrayList<>(tables.keySet());}
@@ -130,6 +143,8 @@ public class Catalog {
             // 2. 加载所有列并重建 Schema
             Page columnsPage = bufferPoolManager.getPage(columnsTableFirstPageId);
             List<Tuple> columnMetaTuples = columnsPage.getAllTuples(columnsTableSchema);
+            // 已删除表的槽位会被复用，列的元数据不一定按槽位顺序排列，按列序号排序
+            columnMetaTuples.sort(Comparator.comparingInt(t -> (int) t.getValues().get(3).getValue()));
 
             // 重新构建内存中的 TableInfo
             for (String tableName : tableIds.keySet()) {
@@ -145,7 +160,10 @@ public class Catalog {
 
                 Schema schema = new Schema(columns);
                 int firstPageId = (int) getTableTuple(tableName).getValues().get(2).getValue();
-                tables.put(tableName, new TableInfo(tableName, schema, new PageId(firstPageId)));
+                // 存储引擎不在目录表中记录，由表首页是否为列存头页识别
+                TableEngine engine = ColumnarTable.isHeaderPage(bufferPoolManager.getPage(new PageId(firstPageId)))
+                        ? TableEngine.COLUMNAR : TableEngine.ROW;
+                tables.put(tableName, new TableInfo(tableName, schema, new PageId(firstPageId), engine));
             }
 
             Page usersPage = bufferPoolManager.getPage(usersTableFirstPageId);
@@ -283,11 +301,20 @@ public class Catalog {
     }
 
     public TableInfo createTable(String tableName, Schema schema) throws IOException {
+        return createTable(tableName, schema, TableEngine.ROW);
+    }
+
+    public TableInfo createTable(String tableName, Schema schema, TableEngine engine) throws IOException {
         if (tables.containsKey(tableName)) {
             throw new IllegalArgumentException("Table " + tableName + " already exists.");
         }
-        // 1. 为新表分配一个数据页
-        PageId firstPageId = bufferPoolManager.newPage().getPageId();
+        // 1. 为新表分配一个数据页 (表的第一个区的第一页)，列存表的第一页是列存头页
+        Page firstPage = bufferPoolManager.newPage(TableInfo.segmentName(tableName));
+        PageId firstPageId = firstPage.getPageId();
+        if (engine == TableEngine.COLUMNAR) {
+            ColumnarTable.format(firstPage, schema.getColumns().size());
+            bufferPoolManager.flushPage(firstPageId);
+        }
 
         // 2. 将新表的元数据持久化到目录表中
         int newTableId = nextTableId.getAndIncrement();
@@ -310,7 +337,7 @@ public class Catalog {
         bufferPoolManager.flushPage(columnsTableFirstPageId);
 
         // 3. 更新内存缓存
-        TableInfo tableInfo = new TableInfo(tableName, schema, firstPageId);
+        TableInfo tableInfo = new TableInfo(tableName, schema, firstPageId, engine);
         tables.put(tableName, tableInfo);
         tableIds.put(tableName, newTableId);
 
@@ -319,8 +346,9 @@ public class Catalog {
     /**
      * 从目录中删除一个表
      * @param tableName 要删除的表名
+     * @return 表的页随表空间文件一起删除时返回 true；页在主文件中时返回 false，由调用方另行回收
      */
-    public void dropTable(String tableName) throws IOException {
+    public boolean dropTable(String tableName) throws IOException {
         Integer tableId = tableIds.get(tableName);
         if (tableId == null) {
             throw new IllegalArgumentException("Table " + tableName + " does not exist.");
@@ -336,6 +364,46 @@ public class Catalog {
         // 3. 从 _catalog_columns 元数据页中删除该表的所有列条目
         deleteTupleFromMetaDataPage(columnsTableFirstPageId, columnsTableSchema, 0, new Value(tableId));
 
+        // 4. 表的堆页在自己的表空间文件中时，直接删除文件回收空间
+        return bufferPoolManager.dropSegment(TableInfo.segmentName(tableName));
+    }
+
+    /**
+     * 让表引用 firstPageId 作为首页并原地改写 _catalog_tables，耗时与表的大小无关。
+     * 清空表时传入新分配的空页，撤销清空时传入原来的首页；换下的页链表由调用方处理。
+     * 调用方须先写好 TRUNCATE_TABLE 日志，并在事务中锁住 _catalog_tables 的首页 (见 getTablesTableFirstPageId)。
+     * @return 改写前的表信息
+     */
+    public TableInfo truncateTable(String tableName, PageId firstPageId) throws IOException {
+        TableInfo oldTableInfo = getTable(tableName);
+        if (oldTableInfo == null) {
+            throw new IllegalArgumentException("Table " + tableName + " does not exist.");
+        }
+        int tableId = tableIds.get(tableName);
+
+        // 1. 原地改写 _catalog_tables 中表的首页号 (记录长度不变)
+        Page tablesPage = bufferPoolManager.getPage(tablesTableFirstPageId);
+        for (int slotIndex = 0; slotIndex < tablesPage.getNumTuples(); slotIndex++) {
+            Tuple t = tablesPage.getTuple(slotIndex, tablesTableSchema);
+            if (t != null && (int) t.getValues().get(0).getValue() == tableId) {
+                Tuple updated = new Tuple(Arrays.asList(
+                        t.getValues().get(0), t.getValues().get(1), new Value(firstPageId.getPageNum())
+                ));
+                tablesPage.updateTuple(slotIndex, updated.toBytes());
+            }
+        }
+        bufferPoolManager.flushPage(tablesTableFirstPageId);
+
+        // 2. 更新内存缓存
+        tables.put(tableName, new TableInfo(tableName, oldTableInfo.getSchema(), firstPageId, oldTableInfo.getEngine()));
+        return oldTableInfo;
+    }
+
+    /**
+     * _catalog_tables 的首页，原地改写表的首页号之前须对它加排他锁。
+     */
+    public PageId getTablesTableFirstPageId() {
+        return tablesTableFirstPageId;
     }
 
     /**
@@ -367,7 +435,7 @@ public class Catalog {
         bufferPoolManager.flushPage(columnsTableFirstPageId);
 
         // 3. 更新内存缓存中的 TableInfo
-        TableInfo newTableInfo = new TableInfo(tableName, newSchema, tableInfo.getFirstPageId());
+        TableInfo newTableInfo = new TableInfo(tableName, newSchema, tableInfo.getFirstPageId(), tableInfo.getEngine());
         tables.put(tableName, newTableInfo);
     }
 
@@ -376,22 +444,14 @@ public class Catalog {
      */
     private void deleteTupleFromMetaDataPage(PageId pageId, Schema schema, int columnIndex, Value value) throws IOException {
         Page page = bufferPoolManager.getPage(pageId);
-        List<Tuple> tuples = page.getAllTuples(schema);
-
-        // 找到所有需要删除的元组的槽位索引
-        List<Integer> slotsToDelete = new ArrayList<>();
-        for (int i = 0; i < tuples.size(); i++) {
-            Tuple t = tuples.get(i);
+        // 删除只把槽位置为墓碑，其他槽位号不变，可以按槽位顺序逐个删除
+        int numTuples = page.getNumTuples();
+        for (int slotIndex = 0; slotIndex < numTuples; slotIndex++) {
+            Tuple t = page.getTuple(slotIndex, schema);
             if (t != null && t.getValues().get(columnIndex).getValue().equals(value.getValue())) {
-                slotsToDelete.add(i);
+                page.deleteTuple(slotIndex);
             }
         }
-
-        // 物理删除所有元组。注意：从后往前删除可以避免索引混乱。
-        Collections.sort(slotsToDelete, Collections.reverseOrder());
-        for (Integer slotIndex : slotsToDelete) {
-            page.deleteTuple(slotIndex);
-        }
         bufferPoolManager.flushPage(pageId);
     }
 
@@ -495,17 +555,21 @@ public class Catalog {
     /**
      * 删除一个表上的所有索引元数据。
      * @param tableName 表名
+     * @return 页仍留在主文件中 (没有自己的表空间文件) 的索引，由调用方另行回收
      */
-    public void dropIndexesForTable(String tableName) {
-        List<String> indexesToRemove = indices.values().stream()
-                .filter(indexInfo -> indexInfo.getTableName().equalsIgnoreCase(tableName))
-                .map(IndexInfo::getIndexName)
-                .collect(Collectors.toList());
+    public List<IndexInfo> dropIndexesForTable(String tableName) throws IOException {
+        List<IndexInfo> indexesToRemove = getIndexesForTable(tableName);
+        List<IndexInfo> indexesInMainFile = new ArrayList<>();
 
-        for (String indexName : indexesToRemove) {
+        for (IndexInfo indexInfo : indexesToRemove) {
+            String indexName = indexInfo.getIndexName();
             indices.remove(indexName);
+            if (!bufferPoolManager.dropSegment(IndexInfo.segmentName(indexName))) {
+                indexesInMainFile.add(indexInfo);
+            }
             System.out.println("[Catalog] Dropped index metadata '" + indexName + "' for table '" + tableName + "'.");
         }
+        return indexesInMainFile;
     }
 
     // 内部类用于在内存中表示权限
@@ -35,4 +35,15 @@ public class IndexInfo implements Serializable {
     public void setRootPageId(int rootPageId) {
         this.rootPageId = rootPageId;
     }
+
+    /**
+     * 索引的 B+ 树页所在的存储段：保存在段自己的表空间文件中，或在主文件中按区连续分配。
+     */
+    public String getSegmentName() {
+        return segmentName(indexName);
+    }
+
+    public static String segmentName(String indexName) {
+        return "index:" + indexName.toLowerCase();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package org.csu.sdolp.catalog;
+
+/**
+ * 表的存储引擎 (CREATE TABLE ... ENGINE = ...)。
+ */
+public enum TableEngine {
+    /** 行存：元组保存在 Slotted Page 组成的堆页链表中 (TableHeap) */
+    ROW,
+    /** 列存：每列一条页链表，按列编码存放 (ColumnarTable)，适合只读取少数列的分析查询 */
+    COLUMNAR;
+
+    /**
+     * 按名称 (不区分大小写) 查找存储引擎。
+     * @throws IllegalArgumentException 名称不合法时
+     */
+    public static TableEngine fromName(String name) {
+        return valueOf(name.toUpperCase());
+    }
+}
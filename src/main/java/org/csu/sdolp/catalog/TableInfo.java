@@ -12,11 +12,33 @@ public class TableInfo {
     private final String tableName;
     private final Schema schema;
     private final PageId firstPageId;
+    // 列存表的 firstPageId 指向列存的头页，而不是第一个堆页
+    private final TableEngine engine;
 
     public TableInfo(String tableName, Schema schema, PageId firstPageId) {
+        this(tableName, schema, firstPageId, TableEngine.ROW);
+    }
+
+    public TableInfo(String tableName, Schema schema, PageId firstPageId, TableEngine engine) {
         this.tableName = tableName;
         this.schema = schema;
         this.firstPageId = firstPageId;
+        this.engine = engine;
+    }
+
+    public boolean isColumnar() {
+        return engine == TableEngine.COLUMNAR;
+    }
+
+    /**
+     * 表的堆页所在的存储段：保存在段自己的表空间文件中，或在主文件中按区连续分配。
+     */
+    public String getSegmentName() {
+        return segmentName(tableName);
+    }
+
+    public static String segmentName(String tableName) {
+        return "table:" + tableName.toLowerCase();
     }
 
 }
\ No newline at end of file
@@ -17,11 +17,9 @@ import org.csu.sdolp.transaction.TransactionManager;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.security.NoSuchAlgorithmException;
 import java.net.Socket;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
@@ -84,13 +82,14 @@ public class MysqlProtocolHandler implements Runnable {
     public void run() {
         System.out.println("MySQL Protocol Handler started for connection ID: " + connectionId);
         try (InputStream in = clientSocket.getInputStream();
-             OutputStream out = clientSocket.getOutputStream()) {
+             PacketWriter out = new PacketWriter(clientSocket.getOutputStream())) {
 
             // 为了认证，我们需要一个临时的 Catalog 实例。
             // 我们连接到默认数据库来获取用户信息。
             switchDatabase("default");
 
             byte[] salt = sendHandshake(out, 0);
+            out.flush();
             System.out.println("Sent handshake packet to client.");
 
             Packet authPacket = readPacket(in);
@@ -99,13 +98,16 @@ public class MysqlProtocolHandler implements Runnable {
                 return;
             }
 
-            if (!authenticate(authPacket, salt, out)) {
+            boolean authenticated = authenticate(authPacket, salt, out);
+            out.flush();
+            if (!authenticated) {
                 System.err.println("Authentication failed for connection ID: " + connectionId);
                 return;
             }
 
             System.out.println("User '" + session.getUsername() + "' authenticated successfully for connection ID: " + connectionId);
             sendOkPacket(out, authPacket.sequenceId + 1, 0, 0);
+            out.flush();
 
             while (!clientSocket.isClosed()) {
                 Packet commandPacket = readPacket(in);
@@ -113,9 +115,12 @@ public class MysqlProtocolHandler implements Runnable {
 
                 if (!session.isAuthenticated()) {
                     sendErrorPacket(out, 1, 1045, "28000", "Access denied. Please log in.");
+                    out.flush();
                     continue;
                 }
                 handleCommand(commandPacket, out);
+                // 一个命令的所有报文写完后统一刷新，结果集较大时 PacketWriter 会按阈值提前写出
+                out.flush();
             }
 
         } catch (IOException e) {
@@ -136,7 +141,7 @@ public class MysqlProtocolHandler implements Runnable {
         }
     }
 
-    private boolean authenticate(Packet authPacket, byte[] salt, OutputStream out) throws IOException, NoSuchAlgorithmException {
+    private boolean authenticate(Packet authPacket, byte[] salt, PacketWriter out) throws IOException, NoSuchAlgorithmException {
         int pos = 4 + 4 + 1 + 23;
         int userStart = -1;
         for (int i = pos; i < authPacket.payload.length; i++) {
@@ -170,7 +175,7 @@ public class MysqlProtocolHandler implements Runnable {
         }
     }
 
-    private byte[] sendHandshake(OutputStream out, int sequenceId) throws IOException {
+    private byte[] sendHandshake(PacketWriter out, int sequenceId) throws IOException {
         ByteArrayOutputStream packet = new ByteArrayOutputStream();
         packet.write(10);
         String serverVersion = "8.0.28-minidb";
@@ -209,7 +214,7 @@ public class MysqlProtocolHandler implements Runnable {
         return fullSalt;
     }
 
-    private void handleCommand(Packet commandPacket, OutputStream out) throws Exception {
+    private void handleCommand(Packet commandPacket, PacketWriter out) throws Exception {
         if (commandPacket.payload.length == 0) {
             return;
         }
@@ -275,28 +280,24 @@ public class MysqlProtocolHandler implements Runnable {
 
                     if (iterator != null && iterator.getOutputSchema() != null) {
                         Schema schema = iterator.getOutputSchema();
-                        List<Tuple> results = new ArrayList<>();
-                        System.out.println("[DEBUG] Collecting results for query: " + sql);
-                        int rowCount = 0;
-
-                        while (iterator.hasNext()) {
-                            Tuple tuple = iterator.next();
-                            results.add(tuple);
-                            rowCount++;
-                        }
-
-                        System.out.println("[DEBUG] Found " + rowCount + " rows");
-
                         int currentSeqId = serverSequenceId;
                         currentSeqId = sendResultSetHeader(out, currentSeqId, schema.getColumns().size());
-                        // 在调用 sendFieldPackets 之前，为 effectiveTableName 提供一个非 null 的默认值
-                        String tableNameForPacket = (effectiveTableName == null) ? "" : effectiveTableName;
                         currentSeqId = sendFieldPackets(out, currentSeqId, schema, effectiveTableName);
                         currentSeqId = sendEofPacket(out, currentSeqId);
 
-                        if (!results.isEmpty()) {
-                            currentSeqId = sendRowPackets(out, currentSeqId, results, schema);
+                        // 结果行直接从迭代器流式写出，不在内存中收集整个结果集
+                        int firstRowSeqId = currentSeqId;
+                        try {
+                            currentSeqId = sendRowPackets(out, currentSeqId, iterator, schema);
+                        } catch (IOException | RuntimeException e) {
+                            // 结果集已经开始发送：丢弃写了一半的行，错误包沿用它的序号代替剩余的行
+                            System.err.println("Error while streaming rows: " + e.getMessage());
+                            out.abortPacket();
+                            sendErrorPacket(out, out.getNextSequenceId(), 1064, "42000", "Error: " + e.getMessage());
+                            transactionManager.abort(txn);
+                            return;
                         }
+                        System.out.println("[DEBUG] Streamed " + (currentSeqId - firstRowSeqId) + " rows");
                         sendEofPacket(out, currentSeqId);
                     } else {
                         if (iterator != null && iterator.hasNext()) {
@@ -320,6 +321,7 @@ public class MysqlProtocolHandler implements Runnable {
                 } catch (Exception e) {
                     System.err.println("Error executing query: " + e.getMessage());
                     e.printStackTrace(); // 打印完整堆栈以供调试
+                    out.abortPacket();
                     if (e instanceof SemanticException && e.getMessage().toLowerCase().contains("access denied")) {
                         sendErrorPacket(out, serverSequenceId, 1142, "42000", e.getMessage());
                     } else {
@@ -338,7 +340,7 @@ public class MysqlProtocolHandler implements Runnable {
         }
     }
 
-    private boolean handleSpecialQuery(String sql, OutputStream out, int sequenceId) throws IOException {
+    private boolean handleSpecialQuery(String sql, PacketWriter out, int sequenceId) throws IOException {
         String sqlLower = sql.toLowerCase().trim();
         // 处理 SHOW CREATE TABLE
         if (sqlLower.contains("show create table")) {
@@ -389,6 +391,8 @@ public class MysqlProtocolHandler implements Runnable {
         }
 
         if (sqlLower.startsWith("set ")) {
+            // 其余 SET 语句 (客户端连接时发送的字符集等) 直接忽略
+            session.applySetCommand(sql);
             sendOkPacket(out, sequenceId, 0, 0);
             return true;
         }
@@ -423,7 +427,7 @@ public class MysqlProtocolHandler implements Runnable {
         return false;
     }
 
-    private boolean handleShowStatus(OutputStream out, int sequenceId) throws IOException {
+    private boolean handleShowStatus(PacketWriter out, int sequenceId) throws IOException {
         sendResultSetHeader(out, sequenceId, 2);
         sendSimpleFieldPacket(out, sequenceId + 1, "Variable_name");
         sendSimpleFieldPacket(out, sequenceId + 2, "Value");
@@ -439,7 +443,7 @@ public class MysqlProtocolHandler implements Runnable {
     }
 
 
-    private int sendSimpleFieldPacket(OutputStream out, int sequenceId, String fieldName) throws IOException {
+    private int sendSimpleFieldPacket(PacketWriter out, int sequenceId, String fieldName) throws IOException {
         ByteArrayOutputStream bos = new ByteArrayOutputStream();
         bos.write(writeLengthEncodedString("def"));
         bos.write(writeLengthEncodedString(""));
@@ -457,11 +461,11 @@ public class MysqlProtocolHandler implements Runnable {
         return writePacket(out, bos.toByteArray(), sequenceId);
     }
 
-    private int sendResultSetHeader(OutputStream out, int sequenceId, int fieldCount) throws IOException {
+    private int sendResultSetHeader(PacketWriter out, int sequenceId, int fieldCount) throws IOException {
         return writePacket(out, writeLengthEncodedInt(fieldCount), sequenceId);
     }
 
-    private int sendFieldPackets(OutputStream out, int sequenceId, Schema schema, String tableName) throws IOException {
+    private int sendFieldPackets(PacketWriter out, int sequenceId, Schema schema, String tableName) throws IOException {
         for (Column col : schema.getColumns()) {
             ByteArrayOutputStream bos = new ByteArrayOutputStream();
             bos.write(writeLengthEncodedString("def"));           // catalog
@@ -508,35 +512,30 @@ public class MysqlProtocolHandler implements Runnable {
         return sequenceId;
     }
 
-    private int sendRowPackets(OutputStream out, int sequenceId, List<Tuple> tuples, Schema schema) throws IOException {
-        for (Tuple tuple : tuples) {
-            ByteArrayOutputStream bos = new ByteArrayOutputStream();
-            for (int i = 0; i < tuple.getValues().size(); i++) {
-                org.csu.sdolp.common.model.Value val = tuple.getValues().get(i);
-                if (val.getValue() == null) {
-                    bos.write(0xfb);
+    private int sendRowPackets(PacketWriter out, int sequenceId, TupleIterator iterator, Schema schema) throws IOException {
+        int columnCount = schema.getColumns().size();
+        while (iterator.hasNext()) {
+            Tuple tuple = iterator.next();
+            if (tuple == null) {
+                continue;
+            }
+            // 每一行直接编码进 PacketWriter 的缓冲区
+            out.beginPacket(sequenceId);
+            for (int i = 0; i < columnCount; i++) {
+                Object val = tuple.getValues().get(i).getValue();
+                if (val == null) {
+                    out.writeNull();
                 } else {
-                    switch (schema.getColumns().get(i).getType()) {
-                        case INT:
-                        case BOOLEAN:
-                            // 发送整数的字符串表示
-                            bos.write(writeLengthEncodedString(val.getValue().toString()));
-                            break;
-                        case VARCHAR:
-                        case DECIMAL:
-                        case DATE:
-                        default:
-                            bos.write(writeLengthEncodedString(val.getValue().toString()));
-                            break;
-                    }
+                    // 文本协议中所有类型都以字符串形式发送
+                    out.writeLengthEncodedString(val.toString());
                 }
             }
-            sequenceId = writePacket(out, bos.toByteArray(), sequenceId);
+            sequenceId = out.endPacket();
         }
         return sequenceId;
     }
 
-    private int sendEofPacket(OutputStream out, int sequenceId) throws IOException {
+    private int sendEofPacket(PacketWriter out, int sequenceId) throws IOException {
         byte[] eofPacket = {(byte) 0xfe, 0x00, 0x00, 0x02, 0x00};
         return writePacket(out, eofPacket, sequenceId);
     }
@@ -570,18 +569,11 @@ public class MysqlProtocolHandler implements Runnable {
         return new Packet(sequenceId, payload);
     }
 
-    private int writePacket(OutputStream out, byte[] payload, int sequenceId) throws IOException {
-        int payloadLength = payload.length;
-        out.write(payloadLength & 0xFF);
-        out.write((payloadLength >> 8) & 0xFF);
-        out.write((payloadLength >> 16) & 0xFF);
-        out.write(sequenceId & 0xFF);
-        out.write(payload);
-        out.flush();
-        return sequenceId + 1;
+    private int writePacket(PacketWriter out, byte[] payload, int sequenceId) throws IOException {
+        return out.writePacket(payload, sequenceId);
     }
 
-    private int sendOkPacket(OutputStream out, int sequenceId, int affectedRows, int lastInsertId) throws IOException {
+    private int sendOkPacket(PacketWriter out, int sequenceId, int affectedRows, int lastInsertId) throws IOException {
         ByteArrayOutputStream packet = new ByteArrayOutputStream();
         packet.write(0x00);
         packet.write(writeLengthEncodedInt(affectedRows));
@@ -593,7 +585,7 @@ public class MysqlProtocolHandler implements Runnable {
         return writePacket(out, packet.toByteArray(), sequenceId);
     }
 
-    private int sendErrorPacket(OutputStream out, int sequenceId, int errorCode, String sqlState, String message) throws IOException {
+    private int sendErrorPacket(PacketWriter out, int sequenceId, int errorCode, String sqlState, String message) throws IOException {
         ByteArrayOutputStream packet = new ByteArrayOutputStream();
         packet.write(0xFF);
         packet.write(writeInt(errorCode, 2));
@@ -637,7 +629,7 @@ public class MysqlProtocolHandler implements Runnable {
         return bos.toByteArray();
     }
 
-    private boolean handleShowVariables(String sql, OutputStream out, int sequenceId) throws IOException {
+    private boolean handleShowVariables(String sql, PacketWriter out, int sequenceId) throws IOException {
         sendResultSetHeader(out, sequenceId, 2);
         sendSimpleFieldPacket(out, sequenceId + 1, "Variable_name");
         sendSimpleFieldPacket(out, sequenceId + 2, "Value");
@@ -659,7 +651,7 @@ public class MysqlProtocolHandler implements Runnable {
         return true;
     }
 
-    private boolean handleShowEngines(OutputStream out, int sequenceId) throws IOException {
+    private boolean handleShowEngines(PacketWriter out, int sequenceId) throws IOException {
         sendResultSetHeader(out, sequenceId, 6);
         sendSimpleFieldPacket(out, sequenceId + 1, "Engine");
         sendSimpleFieldPacket(out, sequenceId + 2, "Support");
@@ -682,7 +674,7 @@ public class MysqlProtocolHandler implements Runnable {
         return true;
     }
 
-    private boolean handleSystemVariables(String sql, OutputStream out, int sequenceId) throws IOException {
+    private boolean handleSystemVariables(String sql, PacketWriter out, int sequenceId) throws IOException {
         sendResultSetHeader(out, sequenceId, 1);
         sendSimpleFieldPacket(out, sequenceId + 1, "Value");
         sendEofPacket(out, sequenceId + 2);
@@ -695,7 +687,7 @@ public class MysqlProtocolHandler implements Runnable {
         return true;
     }
 
-    private boolean handleInformationSchema(String sql, OutputStream out, int sequenceId) throws IOException {
+    private boolean handleInformationSchema(String sql, PacketWriter out, int sequenceId) throws IOException {
         String sqlLower = sql.toLowerCase();
 
         if (sqlLower.contains("engines")) {
@@ -722,7 +714,7 @@ public class MysqlProtocolHandler implements Runnable {
         return true;
     }
 
-    private boolean handleShowFullTables(OutputStream out, int sequenceId) throws IOException {
+    private boolean handleShowFullTables(PacketWriter out, int sequenceId) throws IOException {
         System.out.println("Intercepted SHOW FULL TABLES query. Returning table list.");
 
         // 1. 获取所有表名
@@ -745,7 +737,7 @@ public class MysqlProtocolHandler implements Runnable {
 
         return true;
     }
-    private boolean handleInformationSchemaColumns(String sql, OutputStream out, int sequenceId) throws IOException {
+    private boolean handleInformationSchemaColumns(String sql, PacketWriter out, int sequenceId) throws IOException {
         System.out.println("Intercepted information_schema.columns query");
 
         // Parse the table name from the query if present
@@ -780,7 +772,7 @@ public class MysqlProtocolHandler implements Runnable {
         return true;
     }
 
-    private boolean handleInformationSchemaTables(String sql, OutputStream out, int sequenceId) throws IOException {
+    private boolean handleInformationSchemaTables(String sql, PacketWriter out, int sequenceId) throws IOException {
         System.out.println("Intercepted information_schema.tables query");
 
         sequenceId = sendResultSetHeader(out, sequenceId, 2);
@@ -812,7 +804,7 @@ public class MysqlProtocolHandler implements Runnable {
         }
         return null;
     }
-    private boolean handleShowCreateTable(String sql, OutputStream out, int sequenceId) throws IOException {
+    private boolean handleShowCreateTable(String sql, PacketWriter out, int sequenceId) throws IOException {
         System.out.println("Intercepted SHOW CREATE TABLE query: " + sql);
 
         // 从 SQL 中提取表名
@@ -897,7 +889,7 @@ public class MysqlProtocolHandler implements Runnable {
         }
         return null;
     }
-    private boolean handleShowFullColumns(String sql, OutputStream out, int sequenceId) throws IOException {
+    private boolean handleShowFullColumns(String sql, PacketWriter out, int sequenceId) throws IOException {
         System.out.println("Intercepted SHOW FULL COLUMNS query: " + sql);
 
         // 从 SQL 中提取表名
@@ -0,0 +1,189 @@
+package org.csu.sdolp.cli.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * MySQL 报文写入器。
+ * 报文先写入连接内复用的缓冲区，累计超过阈值时才写到 socket，一个命令处理完后由调用方 flush。
+ * 结果行通过 beginPacket / endPacket 直接在缓冲区中编码，不再为每一行创建临时字节流。
+ */
+public class PacketWriter extends OutputStream {
+
+    public static final int DEFAULT_FLUSH_THRESHOLD = 64 * 1024;
+    private static final int HEADER_SIZE = 4;
+    private static final int MAX_PAYLOAD_LENGTH = 0xFFFFFF;
+
+    private final OutputStream out;
+    private final int flushThreshold;
+    private byte[] buffer;
+    private int position = 0;
+    // 正在编码的报文在缓冲区中的起始位置，-1 表示当前没有未结束的报文
+    private int packetStart = -1;
+    private int packetSequenceId;
+    // 最后一个已结束报文之后的序号
+    private int nextSequenceId;
+
+    public PacketWriter(OutputStream out) {
+        this(out, DEFAULT_FLUSH_THRESHOLD);
+    }
+
+    public PacketWriter(OutputStream out, int flushThreshold) {
+        this.out = out;
+        this.flushThreshold = flushThreshold;
+        this.buffer = new byte[flushThreshold + 1024];
+    }
+
+    /**
+     * 写入一个完整的报文。
+     * @return 下一个报文的序号
+     */
+    public int writePacket(byte[] payload, int sequenceId) throws IOException {
+        beginPacket(sequenceId);
+        write(payload, 0, payload.length);
+        return endPacket();
+    }
+
+    /**
+     * 开始一个报文，预留 4 字节报文头，之后写入的字节都属于该报文的负载。
+     */
+    public void beginPacket(int sequenceId) {
+        if (packetStart >= 0) {
+            throw new IllegalStateException("Previous packet has not been ended.");
+        }
+        ensureCapacity(HEADER_SIZE);
+        packetStart = position;
+        packetSequenceId = sequenceId;
+        position += HEADER_SIZE;
+    }
+
+    /**
+     * 结束当前报文并回填长度和序号，缓冲区超过阈值时写出到底层流。
+     * @return 下一个报文的序号
+     */
+    public int endPacket() throws IOException {
+        if (packetStart < 0) {
+            throw new IllegalStateException("No packet has been started.");
+        }
+        int payloadLength = position - packetStart - HEADER_SIZE;
+        if (payloadLength > MAX_PAYLOAD_LENGTH) {
+            throw new IOException("Packet payload too large: " + payloadLength + " bytes.");
+        }
+        buffer[packetStart] = (byte) payloadLength;
+        buffer[packetStart + 1] = (byte) (payloadLength >> 8);
+        buffer[packetStart + 2] = (byte) (payloadLength >> 16);
+        buffer[packetStart + 3] = (byte) packetSequenceId;
+        packetStart = -1;
+        nextSequenceId = packetSequenceId + 1;
+        if (position >= flushThreshold) {
+            drain();
+        }
+        return nextSequenceId;
+    }
+
+    /**
+     * 丢弃未结束的报文：缓冲区回退到报文开始处，之前的完整报文不受影响。
+     * 编码一行出错 (如负载超过上限) 时先调用它，再发送错误包。没有未结束的报文时不做任何事。
+     */
+    public void abortPacket() {
+        if (packetStart >= 0) {
+            position = packetStart;
+            packetStart = -1;
+        }
+    }
+
+    /**
+     * 最后一个已结束报文之后的序号，即被丢弃的报文或下一个报文应使用的序号。
+     */
+    public int getNextSequenceId() {
+        return nextSequenceId;
+    }
+
+    public void writeLengthEncodedInt(long n) {
+        if (n < 251) {
+            write((int) n);
+        } else if (n < 65536) {
+            write(0xfc);
+            writeLittleEndian(n, 2);
+        } else if (n < 16777216) {
+            write(0xfd);
+            writeLittleEndian(n, 3);
+        } else {
+            write(0xfe);
+            writeLittleEndian(n, 8);
+        }
+    }
+
+    public void writeLengthEncodedString(String s) {
+        byte[] data = (s == null ? "" : s).getBytes(StandardCharsets.UTF_8);
+        writeLengthEncodedInt(data.length);
+        write(data, 0, data.length);
+    }
+
+    /**
+     * 写入 NULL 列 (0xFB)。
+     */
+    public void writeNull() {
+        write(0xfb);
+    }
+
+    private void writeLittleEndian(long value, int length) {
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            buffer[position++] = (byte) (value >> (i * 8));
+        }
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        ensureCapacity(len);
+        System.arraycopy(b, off, buffer, position, len);
+        position += len;
+    }
+
+    /**
+     * 把缓冲区中所有完整的报文写到底层流并刷新。
+     */
+    @Override
+    public void flush() throws IOException {
+        if (packetStart >= 0) {
+            throw new IllegalStateException("Cannot flush in the middle of a packet.");
+        }
+        drain();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (packetStart < 0) {
+                drain();
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private void drain() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    private void ensureCapacity(int extra) {
+        if (position + extra > buffer.length) {
+            // 单个报文超过缓冲区时扩容，之后仍复用扩容后的缓冲区
+            byte[] larger = new byte[Math.max(buffer.length * 2, position + extra)];
+            System.arraycopy(buffer, 0, larger, 0, position);
+            buffer = larger;
+        }
+    }
+}
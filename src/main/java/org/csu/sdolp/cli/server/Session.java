@@ -3,6 +3,9 @@ package org.csu.sdolp.cli.server;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 /**
  * 代表一个客户端会话，存储连接状态信息。
  */
@@ -15,6 +18,22 @@ public class Session {
     @Setter
     @Getter
     private String currentDatabase;
+    /**
+     * 查询的并行度 (degree of parallelism)，通过 "SET PARALLELISM = n" 设置，默认 1 表示串行执行。
+     */
+    @Getter
+    private int parallelism = 1;
+    /**
+     * 是否使用批量 (向量化) 执行，通过 "SET VECTORIZED = ON|OFF" 设置；为 null 时沿用执行引擎的默认值。
+     */
+    @Getter
+    @Setter
+    private Boolean vectorized;
+
+    private static final Pattern SET_PARALLELISM = Pattern.compile(
+            "^\\s*SET\\s+(?:SESSION\\s+)?PARALLELISM\\s*=\\s*(\\d+)\\s*;?\\s*$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern SET_VECTORIZED = Pattern.compile(
+            "^\\s*SET\\s+(?:SESSION\\s+)?VECTORIZED\\s*=\\s*(ON|OFF|TRUE|FALSE|1|0)\\s*;?\\s*$", Pattern.CASE_INSENSITIVE);
 
     public Session(int connectionId) {
         this.connectionId = connectionId;
@@ -38,4 +57,30 @@ public class Session {
         return isAuthenticated;
     }
 
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * 尝试把语句作为会话变量设置处理。
+     * @return 语句是 "SET PARALLELISM = n" 或 "SET VECTORIZED = ON|OFF" 并已生效时返回生效的设置，否则返回 null
+     */
+    public String applySetCommand(String sql) {
+        Matcher matcher = SET_PARALLELISM.matcher(sql);
+        if (matcher.matches()) {
+            setParallelism(Integer.parseInt(matcher.group(1)));
+            return "parallelism set to " + parallelism;
+        }
+        matcher = SET_VECTORIZED.matcher(sql);
+        if (matcher.matches()) {
+            String mode = matcher.group(1).toUpperCase();
+            vectorized = mode.equals("ON") || mode.equals("TRUE") || mode.equals("1");
+            return "vectorized execution " + (vectorized ? "enabled" : "disabled");
+        }
+        return null;
+    }
+
 }
\ No newline at end of file
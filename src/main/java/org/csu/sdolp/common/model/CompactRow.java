@@ -0,0 +1,423 @@
+package org.csu.sdolp.common.model;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 紧凑行：执行器内部使用的原始类型行表示。
+ * 每列占 long[] 中的一个字：定长类型直接保存数值 (FLOAT / DOUBLE 保存位模式，DATE 保存 epoch day)；
+ * 变长类型 (VARCHAR / CHAR / DECIMAL) 保存 (slab 偏移 << 32 | 长度)，数据放在一块 byte[] 中。
+ * 一行只有 3 个对象 (行本身、long[]、byte[])，而 List&lt;Value&gt; 表示需要 2 + 2 * 列数 个对象。
+ * 列类型数组由同一模式的所有行共享。getValues 只在需要时 (结果输出、写入存储) 才物化为 Value 列表。
+ */
+public final class CompactRow extends Tuple {
+
+    private static final byte[] EMPTY_SLAB = new byte[0];
+
+    private final DataType[] types;
+    private final long[] words;
+    private final byte[] slab;
+    // NULL 位图，没有 NULL 时为 null
+    private final long[] nulls;
+    private List<Value> materialized;
+
+    private CompactRow(DataType[] types, long[] words, byte[] slab, long[] nulls) {
+        this.types = types;
+        this.words = words;
+        this.slab = slab;
+        this.nulls = nulls;
+    }
+
+    /**
+     * 把任意元组转换为紧凑行，已经是紧凑行时直接返回。
+     * @param typeHint 期望的列类型 (通常来自输出模式)，与实际类型一致时共享该数组
+     */
+    public static CompactRow of(Tuple tuple, DataType[] typeHint) {
+        if (tuple instanceof CompactRow row) {
+            return row;
+        }
+        List<Value> values = tuple.getValues();
+        Builder builder = new Builder(typesOf(values, typeHint));
+        for (int i = 0; i < values.size(); i++) {
+            builder.set(i, values.get(i));
+        }
+        CompactRow row = builder.build();
+        row.setRid(tuple.getRid());
+        return row;
+    }
+
+    /**
+     * 从元组中取出若干列组成新的紧凑行 (投影、分组键)。
+     */
+    public static CompactRow project(Tuple tuple, int[] columns, DataType[] typeHint) {
+        if (!(tuple instanceof CompactRow source)) {
+            DataType[] types = new DataType[columns.length];
+            Value[] values = new Value[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                values[i] = tuple.getValue(columns[i]);
+                types[i] = values[i].getType();
+            }
+            Builder builder = new Builder(share(types, typeHint));
+            for (int i = 0; i < columns.length; i++) {
+                builder.set(i, values[i]);
+            }
+            return builder.build();
+        }
+        DataType[] types = new DataType[columns.length];
+        int slabLength = 0;
+        for (int i = 0; i < columns.length; i++) {
+            types[i] = source.types[columns[i]];
+            if (isVariable(types[i])) {
+                slabLength += (int) source.words[columns[i]];
+            }
+        }
+        long[] words = new long[columns.length];
+        byte[] slab = slabLength == 0 ? EMPTY_SLAB : new byte[slabLength];
+        long[] nulls = null;
+        int position = 0;
+        for (int i = 0; i < columns.length; i++) {
+            int column = columns[i];
+            if (source.isNull(column)) {
+                nulls = setBit(nulls, i, columns.length);
+            }
+            if (isVariable(types[i])) {
+                int length = (int) source.words[column];
+                System.arraycopy(source.slab, (int) (source.words[column] >>> 32), slab, position, length);
+                words[i] = ((long) position << 32) | length;
+                position += length;
+            } else {
+                words[i] = source.words[column];
+            }
+        }
+        return new CompactRow(share(types, typeHint), words, slab, nulls);
+    }
+
+    /**
+     * 拼接左右两行 (连接结果)。
+     */
+    public static CompactRow concat(CompactRow left, CompactRow right, DataType[] typeHint) {
+        int leftCount = left.types.length;
+        int count = leftCount + right.types.length;
+        DataType[] types = new DataType[count];
+        System.arraycopy(left.types, 0, types, 0, leftCount);
+        System.arraycopy(right.types, 0, types, leftCount, right.types.length);
+
+        long[] words = new long[count];
+        System.arraycopy(left.words, 0, words, 0, leftCount);
+        System.arraycopy(right.words, 0, words, leftCount, right.types.length);
+        // 右行的变长列偏移整体后移左行 slab 的长度
+        long shift = (long) left.slab.length << 32;
+        for (int i = leftCount; i < count; i++) {
+            if (isVariable(types[i])) {
+                words[i] += shift;
+            }
+        }
+
+        byte[] slab;
+        if (right.slab.length == 0) {
+            slab = left.slab;
+        } else if (left.slab.length == 0) {
+            slab = right.slab; // 此时 shift 为 0
+        } else {
+            slab = Arrays.copyOf(left.slab, left.slab.length + right.slab.length);
+            System.arraycopy(right.slab, 0, slab, left.slab.length, right.slab.length);
+        }
+
+        long[] nulls = null;
+        for (int i = 0; i < count; i++) {
+            if (i < leftCount ? left.isNull(i) : right.isNull(i - leftCount)) {
+                nulls = setBit(nulls, i, count);
+            }
+        }
+        return new CompactRow(share(types, typeHint), words, slab, nulls);
+    }
+
+    /**
+     * 取模式中各列的类型，用作 of / project / concat 的类型提示。
+     */
+    public static DataType[] typesOf(Schema schema) {
+        List<Column> columns = schema.getColumns();
+        DataType[] types = new DataType[columns.size()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = columns.get(i).getType();
+        }
+        return types;
+    }
+
+    private static DataType[] typesOf(List<Value> values, DataType[] typeHint) {
+        DataType[] types = new DataType[values.size()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = values.get(i).getType();
+        }
+        return share(types, typeHint);
+    }
+
+    private static DataType[] share(DataType[] types, DataType[] typeHint) {
+        return typeHint != null && Arrays.equals(types, typeHint) ? typeHint : types;
+    }
+
+    private static boolean isVariable(DataType type) {
+        return type == DataType.VARCHAR || type == DataType.CHAR || type == DataType.DECIMAL;
+    }
+
+    private static long[] setBit(long[] bits, int index, int count) {
+        if (bits == null) {
+            bits = new long[(count + 63) >>> 6];
+        }
+        bits[index >>> 6] |= 1L << index;
+        return bits;
+    }
+
+    // --- 访问接口 ---
+
+    public int getColumnCount() {
+        return types.length;
+    }
+
+    public DataType getType(int column) {
+        return types[column];
+    }
+
+    public boolean isNull(int column) {
+        return nulls != null && (nulls[column >>> 6] & (1L << column)) != 0;
+    }
+
+    public int getInt(int column) {
+        return (int) words[column];
+    }
+
+    public boolean getBoolean(int column) {
+        return words[column] != 0;
+    }
+
+    /**
+     * 以 double 读取数值列 (INT / FLOAT / DOUBLE)。
+     */
+    public double getDouble(int column) {
+        return switch (types[column]) {
+            case INT -> (int) words[column];
+            case FLOAT -> Float.intBitsToFloat((int) words[column]);
+            case DOUBLE -> Double.longBitsToDouble(words[column]);
+            default -> throw new IllegalStateException("Column " + column + " is not numeric: " + types[column]);
+        };
+    }
+
+    public long getEpochDay(int column) {
+        return words[column];
+    }
+
+    public String getString(int column) {
+        return new String(slab, (int) (words[column] >>> 32), (int) words[column], StandardCharsets.UTF_8);
+    }
+
+    public BigDecimal getDecimal(int column) {
+        int offset = (int) (words[column] >>> 32);
+        int length = (int) words[column];
+        int scale = (slab[offset] << 24) | ((slab[offset + 1] & 0xFF) << 16) | ((slab[offset + 2] & 0xFF) << 8) | (slab[offset + 3] & 0xFF);
+        return new BigDecimal(new BigInteger(slab, offset + 4, length - 4), scale);
+    }
+
+    /**
+     * 只解码一列，不物化整行。
+     */
+    @Override
+    public Value getValue(int column) {
+        if (materialized != null) {
+            return materialized.get(column);
+        }
+        DataType type = types[column];
+        if (isNull(column)) {
+            return new Value(type, null);
+        }
+        return switch (type) {
+            case INT -> new Value(getInt(column));
+            case FLOAT -> new Value(Float.intBitsToFloat((int) words[column]));
+            case DOUBLE -> new Value(Double.longBitsToDouble(words[column]));
+            case BOOLEAN -> new Value(getBoolean(column));
+            case DATE -> new Value(LocalDate.ofEpochDay(words[column]));
+            case DECIMAL -> new Value(getDecimal(column));
+            case VARCHAR -> new Value(getString(column));
+            case CHAR -> new Value(DataType.CHAR, getString(column));
+        };
+    }
+
+    @Override
+    public List<Value> getValues() {
+        if (materialized == null) {
+            List<Value> values = new ArrayList<>(types.length);
+            for (int i = 0; i < types.length; i++) {
+                values.add(getValue(i));
+            }
+            materialized = Collections.unmodifiableList(values);
+        }
+        return materialized;
+    }
+
+    /**
+     * 按列比较两行，不创建 Value；NULL 排在最前。两边类型不同时退回 Value 的比较。
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public int compareColumn(int column, CompactRow other) {
+        boolean thisNull = isNull(column);
+        boolean otherNull = other.isNull(column);
+        if (thisNull || otherNull) {
+            return thisNull == otherNull ? 0 : (thisNull ? -1 : 1);
+        }
+        DataType type = types[column];
+        if (type != other.types[column]) {
+            return ((Comparable) getValue(column).getValue()).compareTo(other.getValue(column).getValue());
+        }
+        return switch (type) {
+            case INT, DATE -> Long.compare(words[column], other.words[column]);
+            case BOOLEAN -> Boolean.compare(getBoolean(column), other.getBoolean(column));
+            case FLOAT, DOUBLE -> Double.compare(getDouble(column), other.getDouble(column));
+            case DECIMAL -> getDecimal(column).compareTo(other.getDecimal(column));
+            case VARCHAR, CHAR -> compareStrings(column, other);
+        };
+    }
+
+    /**
+     * 先按 UTF-8 字节比较；第一个不同的字节中有 ASCII 字符时字节序与 String.compareTo 一致，否则解码后比较。
+     */
+    private int compareStrings(int column, CompactRow other) {
+        int offset = (int) (words[column] >>> 32);
+        int length = (int) words[column];
+        int otherOffset = (int) (other.words[column] >>> 32);
+        int otherLength = (int) other.words[column];
+        int mismatch = Arrays.mismatch(slab, offset, offset + length, other.slab, otherOffset, otherOffset + otherLength);
+        if (mismatch < 0) {
+            return 0;
+        }
+        if (mismatch == length || mismatch == otherLength) {
+            return Integer.compare(length, otherLength);
+        }
+        byte b1 = slab[offset + mismatch];
+        byte b2 = other.slab[otherOffset + mismatch];
+        if (b1 >= 0 || b2 >= 0) {
+            return Integer.compare(b1 & 0xFF, b2 & 0xFF);
+        }
+        return getString(column).compareTo(other.getString(column));
+    }
+
+    /**
+     * 按列值判断相等 (用作哈希聚合的分组键)。
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CompactRow other) || !Arrays.equals(types, other.types)) return false;
+        for (int i = 0; i < types.length; i++) {
+            boolean thisNull = isNull(i);
+            if (thisNull != other.isNull(i)) return false;
+            if (thisNull) continue;
+            if (isVariable(types[i])) {
+                int offset = (int) (words[i] >>> 32);
+                int otherOffset = (int) (other.words[i] >>> 32);
+                if (!Arrays.equals(slab, offset, offset + (int) words[i],
+                        other.slab, otherOffset, otherOffset + (int) other.words[i])) {
+                    return false;
+                }
+            } else if (words[i] != other.words[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < types.length; i++) {
+            int h;
+            if (isNull(i)) {
+                h = 0;
+            } else if (isVariable(types[i])) {
+                h = 1;
+                int offset = (int) (words[i] >>> 32);
+                for (int j = offset, end = offset + (int) words[i]; j < end; j++) {
+                    h = 31 * h + slab[j];
+                }
+            } else {
+                h = Long.hashCode(words[i]);
+            }
+            hash = 31 * hash + h;
+        }
+        return hash;
+    }
+
+    /**
+     * 逐列构造紧凑行。
+     */
+    public static final class Builder {
+        private final DataType[] types;
+        private final long[] words;
+        private long[] nulls;
+        private byte[] slab = EMPTY_SLAB;
+        private int position = 0;
+
+        public Builder(DataType[] types) {
+            this.types = types;
+            this.words = new long[types.length];
+        }
+
+        public Builder setInt(int column, int value) {
+            words[column] = value;
+            return this;
+        }
+
+        public Builder setNull(int column) {
+            nulls = setBit(nulls, column, types.length);
+            return this;
+        }
+
+        public Builder set(int column, Value value) {
+            Object v = value == null ? null : value.getValue();
+            if (v == null) {
+                return setNull(column);
+            }
+            switch (types[column]) {
+                case INT -> words[column] = (Integer) v;
+                case FLOAT -> words[column] = Float.floatToRawIntBits((Float) v);
+                case DOUBLE -> words[column] = Double.doubleToRawLongBits((Double) v);
+                case BOOLEAN -> words[column] = (Boolean) v ? 1 : 0;
+                case DATE -> words[column] = ((LocalDate) v).toEpochDay();
+                case VARCHAR, CHAR -> append(column, ((String) v).getBytes(StandardCharsets.UTF_8), 0);
+                case DECIMAL -> {
+                    BigDecimal decimal = (BigDecimal) v;
+                    append(column, decimal.unscaledValue().toByteArray(), decimal.scale());
+                }
+            }
+            return this;
+        }
+
+        // DECIMAL 在数据前写入 4 字节 scale
+        private void append(int column, byte[] bytes, int scale) {
+            boolean decimal = types[column] == DataType.DECIMAL;
+            int length = bytes.length + (decimal ? 4 : 0);
+            if (position + length > slab.length) {
+                slab = Arrays.copyOf(slab, Math.max(slab.length * 2, Math.max(position + length, 32)));
+            }
+            int start = position;
+            if (decimal) {
+                slab[position++] = (byte) (scale >>> 24);
+                slab[position++] = (byte) (scale >>> 16);
+                slab[position++] = (byte) (scale >>> 8);
+                slab[position++] = (byte) scale;
+            }
+            System.arraycopy(bytes, 0, slab, position, bytes.length);
+            position += bytes.length;
+            words[column] = ((long) start << 32) | length;
+        }
+
+        public CompactRow build() {
+            byte[] exact = position == slab.length ? slab : Arrays.copyOf(slab, position);
+            return new CompactRow(types, words, exact, nulls);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.csu.sdolp.common.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 连接时的左右两行视图，可重复使用。
+ * 连接条件在它上面求值，列序号小于左行列数的读左行，其余读右行，不拼接也不复制任何数据。
+ * 只有满足条件的组合才由执行器拼接为 CompactRow。
+ */
+public final class JoinedRow extends Tuple {
+
+    private Tuple left;
+    private Tuple right;
+    private int leftCount;
+
+    public JoinedRow reset(Tuple left, int leftCount, Tuple right) {
+        this.left = left;
+        this.leftCount = leftCount;
+        this.right = right;
+        return this;
+    }
+
+    @Override
+    public Value getValue(int column) {
+        return column < leftCount ? left.getValue(column) : right.getValue(column - leftCount);
+    }
+
+    @Override
+    public List<Value> getValues() {
+        List<Value> values = new ArrayList<>(left.getValues());
+        values.addAll(right.getValues());
+        return values;
+    }
+}
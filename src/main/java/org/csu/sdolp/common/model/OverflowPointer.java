@@ -0,0 +1,37 @@
+package org.csu.sdolp.common.model;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 溢出指针：堆页记录中代替大字符串值保存的指针，指向存放实际内容的溢出页链。
+ * 编码为 9 字节：标记字节 0xFF + 第一个溢出页号 (4) + 值的字节长度 (4)。
+ * 合法的 UTF-8 编码中不会出现 0xFF，因此字符串列可以据此区分内联值和溢出指针，各记录格式都不需要额外的标志位。
+ *
+ * @param firstPageNum 溢出页链的第一页
+ * @param length       值的 UTF-8 字节长度
+ */
+public record OverflowPointer(int firstPageNum, int length) {
+
+    public static final byte MARKER = (byte) 0xFF;
+    public static final int SIZE = 9;
+
+    /**
+     * 判断从 offset 开始、长度为 length 的字符串编码是否为溢出指针。
+     */
+    public static boolean isPointer(ByteBuffer data, int offset, int length) {
+        return length == SIZE && data.get(offset) == MARKER;
+    }
+
+    public static OverflowPointer read(ByteBuffer data, int offset) {
+        return new OverflowPointer(data.getInt(offset + 1), data.getInt(offset + 5));
+    }
+
+    public byte[] toBytes() {
+        return ByteBuffer.allocate(SIZE).put(MARKER).putInt(firstPageNum).putInt(length).array();
+    }
+
+    @Override
+    public String toString() {
+        return "<overflow " + length + " bytes @" + firstPageNum + ">";
+    }
+}
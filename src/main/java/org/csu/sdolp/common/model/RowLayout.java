@@ -0,0 +1,270 @@
+package org.csu.sdolp.common.model;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 行格式 (Tuple.FORMAT_ROW) 的布局。
+ * 记录体 (格式版本头之后) 依次为：
+ * <pre>
+ * | 列数 (2) | NULL 位图 | 定长列 (按模式顺序) | 变长列结束偏移表 (每列 2 字节) | 变长列数据 |
+ * </pre>
+ * 定长列位于固定偏移，变长列通过偏移表定位，因此访问任意一列都是 O(1)。
+ * 偏移均相对于记录体起点。为 NULL 的定长列仍占据其位置 (填 0)，为 NULL 的变长列长度为 0。
+ * 记录中保存的列数可能少于当前模式 (ALTER TABLE ADD COLUMN 之前写入的记录)，缺少的列按 NULL 处理。
+ */
+public final class RowLayout {
+
+    private static final int COLUMN_COUNT_SIZE = 2;
+    private static final int NULL_BITMAP_OFFSET = COLUMN_COUNT_SIZE;
+    private static final int VAR_OFFSET_SIZE = 2;
+    private static final int MAX_ROW_BODY = 0xFFFF;
+    private static final byte[] EMPTY = new byte[0];
+
+    private final DataType[] types;
+    private final int nullBitmapSize;
+    // 定长列的偏移；变长列为 -1
+    private final int[] fixedOffsets;
+    // 变长列在偏移表中的序号；定长列为 -1
+    private final int[] varSlots;
+    private final int varCount;
+    private final int varTableOffset;
+    private final int varDataOffset;
+    // 列数较少的布局 (旧记录)，按需创建
+    private final RowLayout[] prefixes;
+
+    private RowLayout(DataType[] types) {
+        this.types = types;
+        int n = types.length;
+        this.nullBitmapSize = (n + 7) / 8;
+        this.fixedOffsets = new int[n];
+        this.varSlots = new int[n];
+        int offset = NULL_BITMAP_OFFSET + nullBitmapSize;
+        int vars = 0;
+        for (int i = 0; i < n; i++) {
+            int width = fixedWidth(types[i]);
+            if (width < 0) {
+                fixedOffsets[i] = -1;
+                varSlots[i] = vars++;
+            } else {
+                fixedOffsets[i] = offset;
+                varSlots[i] = -1;
+                offset += width;
+            }
+        }
+        this.varCount = vars;
+        this.varTableOffset = offset;
+        this.varDataOffset = offset + vars * VAR_OFFSET_SIZE;
+        this.prefixes = new RowLayout[n];
+    }
+
+    public static RowLayout of(Schema schema) {
+        List<Column> columns = schema.getColumns();
+        DataType[] types = new DataType[columns.size()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = columns.get(i).getType();
+        }
+        return new RowLayout(types);
+    }
+
+    /**
+     * 定长类型的编码宽度，变长类型 (VARCHAR / CHAR) 返回 -1。
+     */
+    public static int fixedWidth(DataType type) {
+        return switch (type) {
+            case INT, FLOAT, DATE -> 4;
+            case DOUBLE -> 8;
+            case BOOLEAN -> 1;
+            case DECIMAL -> 9;
+            case VARCHAR, CHAR -> -1;
+        };
+    }
+
+    /**
+     * 只包含前 columnCount 列的布局，用于读取列数较少的旧记录。
+     */
+    public RowLayout forColumnCount(int columnCount) {
+        if (columnCount == types.length) {
+            return this;
+        }
+        if (columnCount > types.length) {
+            throw new IllegalStateException("Row has " + columnCount + " columns but schema only has " + types.length);
+        }
+        RowLayout prefix = prefixes[columnCount];
+        if (prefix == null) {
+            DataType[] prefixTypes = new DataType[columnCount];
+            System.arraycopy(types, 0, prefixTypes, 0, columnCount);
+            prefix = new RowLayout(prefixTypes);
+            prefixes[columnCount] = prefix;
+        }
+        return prefix;
+    }
+
+    /**
+     * 读取记录中保存的列数。
+     */
+    public static int storedColumnCount(ByteBuffer data, int base) {
+        return data.getShort(base) & 0xFFFF;
+    }
+
+    public int getColumnCount() {
+        return types.length;
+    }
+
+    public boolean isNull(ByteBuffer data, int base, int column) {
+        if (column >= types.length) {
+            return true;
+        }
+        return (data.get(base + NULL_BITMAP_OFFSET + (column >> 3)) & (1 << (column & 7))) != 0;
+    }
+
+    /**
+     * 列数据的绝对偏移：定长列为常量偏移，变长列查偏移表。
+     */
+    public int valueOffset(ByteBuffer data, int base, int column) {
+        int fixed = fixedOffsets[column];
+        if (fixed >= 0) {
+            return base + fixed;
+        }
+        int slot = varSlots[column];
+        return base + (slot == 0 ? varDataOffset : varEnd(data, base, slot - 1));
+    }
+
+    /**
+     * 变长列的字节长度。
+     */
+    public int varLength(ByteBuffer data, int base, int column) {
+        int slot = varSlots[column];
+        int start = slot == 0 ? varDataOffset : varEnd(data, base, slot - 1);
+        return varEnd(data, base, slot) - start;
+    }
+
+    private int varEnd(ByteBuffer data, int base, int slot) {
+        return data.getShort(base + varTableOffset + slot * VAR_OFFSET_SIZE) & 0xFFFF;
+    }
+
+    /**
+     * 解码一列，调用方需先确认该列不为 NULL。溢出的字符串列解码为值为 OverflowPointer 的 Value。
+     */
+    public Value readValue(ByteBuffer data, int base, int column) {
+        int offset = valueOffset(data, base, column);
+        return switch (types[column]) {
+            case INT -> new Value(data.getInt(offset));
+            case FLOAT -> new Value(data.getFloat(offset));
+            case DOUBLE -> new Value(data.getDouble(offset));
+            case BOOLEAN -> new Value(data.get(offset) == 1);
+            case DATE -> new Value(LocalDate.ofEpochDay(data.getInt(offset)));
+            case DECIMAL -> new Value(BigDecimal.valueOf(data.getLong(offset + 1), data.get(offset)));
+            // 与其他格式保持一致，CHAR 列也解码为 VARCHAR 类型的 Value
+            case VARCHAR, CHAR -> {
+                int length = varLength(data, base, column);
+                yield OverflowPointer.isPointer(data, offset, length)
+                        ? new Value(DataType.VARCHAR, OverflowPointer.read(data, offset))
+                        : new Value(utf8String(data, offset, length));
+            }
+        };
+    }
+
+    private static String utf8String(ByteBuffer data, int offset, int length) {
+        if (data.hasArray()) {
+            return new String(data.array(), data.arrayOffset() + offset, length, StandardCharsets.UTF_8);
+        }
+        // 内存映射的页面没有底层数组，先复制出字节
+        byte[] bytes = new byte[length];
+        data.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 从 base 开始解码整条记录，只解码投影中需要的列；缺少的列和 NULL 列解码为值为 null 的 Value。
+     * @param schemaColumns 当前模式的全部列 (可能多于记录中保存的列)
+     */
+    public List<Value> decode(ByteBuffer data, int base, List<Column> schemaColumns, boolean[] projection) {
+        List<Value> values = new ArrayList<>(schemaColumns.size());
+        for (int i = 0; i < schemaColumns.size(); i++) {
+            DataType type = schemaColumns.get(i).getType();
+            if (projection != null && !projection[i]) {
+                values.add(Value.unloaded(type));
+            } else if (isNull(data, base, i)) {
+                values.add(new Value(type, null));
+            } else {
+                values.add(readValue(data, base, i));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * 按值的类型编码一条记录 (包括格式版本头)。
+     * @return 编码结果；记录体超过 2 字节偏移能表示的范围时返回 null
+     */
+    public static byte[] encode(List<Value> values) {
+        DataType[] types = new DataType[values.size()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = values.get(i).getType();
+        }
+        RowLayout layout = new RowLayout(types);
+
+        byte[][] varBytes = new byte[layout.varCount][];
+        int bodyLength = layout.varDataOffset;
+        for (int i = 0; i < types.length; i++) {
+            int slot = layout.varSlots[i];
+            if (slot >= 0) {
+                Object value = values.get(i).getValue();
+                if (value == null) {
+                    varBytes[slot] = EMPTY;
+                } else if (value instanceof OverflowPointer pointer) {
+                    varBytes[slot] = pointer.toBytes();
+                } else {
+                    varBytes[slot] = ((String) value).getBytes(StandardCharsets.UTF_8);
+                }
+                bodyLength += varBytes[slot].length;
+            }
+        }
+        if (bodyLength > MAX_ROW_BODY) {
+            return null;
+        }
+
+        byte[] bytes = new byte[Tuple.FORMAT_HEADER_SIZE + bodyLength];
+        bytes[0] = Tuple.FORMAT_ROW;
+        ByteBuffer body = ByteBuffer.wrap(bytes, Tuple.FORMAT_HEADER_SIZE, bodyLength).slice();
+        body.putShort(0, (short) types.length);
+        int end = layout.varDataOffset;
+        for (int i = 0; i < types.length; i++) {
+            Value value = values.get(i);
+            if (value.getValue() == null) {
+                int bitmapIndex = NULL_BITMAP_OFFSET + (i >> 3);
+                body.put(bitmapIndex, (byte) (body.get(bitmapIndex) | (1 << (i & 7))));
+            }
+            int slot = layout.varSlots[i];
+            if (slot >= 0) {
+                body.put(end, varBytes[slot]);
+                end += varBytes[slot].length;
+                body.putShort(layout.varTableOffset + slot * VAR_OFFSET_SIZE, (short) end);
+            } else if (value.getValue() != null) {
+                writeFixed(body, layout.fixedOffsets[i], value);
+            }
+        }
+        return bytes;
+    }
+
+    private static void writeFixed(ByteBuffer body, int offset, Value value) {
+        switch (value.getType()) {
+            case INT -> body.putInt(offset, (Integer) value.getValue());
+            case FLOAT -> body.putFloat(offset, (Float) value.getValue());
+            case DOUBLE -> body.putDouble(offset, (Double) value.getValue());
+            case BOOLEAN -> body.put(offset, (byte) ((Boolean) value.getValue() ? 1 : 0));
+            case DATE -> body.putInt(offset, Math.toIntExact(((LocalDate) value.getValue()).toEpochDay()));
+            case DECIMAL -> {
+                BigDecimal decimal = (BigDecimal) value.getValue();
+                body.put(offset, (byte) decimal.scale());
+                body.putLong(offset + 1, decimal.unscaledValue().longValueExact());
+            }
+            default -> throw new IllegalStateException("Not a fixed-width type: " + value.getType());
+        }
+    }
+}
@@ -16,6 +16,8 @@ import java.util.stream.Collectors;
 public class Schema {
     private final List<Column> columns;
     private String primaryKeyColumnName;
+    // 行格式布局，按需创建
+    private RowLayout rowLayout;
 
     public Schema(List<Column> columns) {
         this.columns = columns;
@@ -25,6 +27,18 @@ public class Schema {
         this.primaryKeyColumnName = primaryKeyColumnName;
     }
 
+    /**
+     * 该模式下行格式 (Tuple.FORMAT_ROW) 的布局。
+     */
+    public RowLayout getRowLayout() {
+        RowLayout layout = rowLayout;
+        if (layout == null) {
+            layout = RowLayout.of(this);
+            rowLayout = layout;
+        }
+        return layout;
+    }
+
     public int getTupleLength() {
         return columns.size();
     }
@@ -12,8 +12,17 @@ import java.util.List;
 
 /**
  * 表示一条记录（行），由多个 Value 组成。
+ * 序列化后的记录以 1 字节的格式版本头开始，其后是各列的编码。
  */
 public class Tuple {
+    /** 旧格式：DECIMAL 和 DATE 以带长度前缀的字符串存储。旧版本写入的页面元组没有版本头，按此格式读取。 */
+    public static final byte FORMAT_TEXT = 1;
+    /** 二进制格式：DECIMAL 为 scale + long，DATE 为 int epoch day，均为定长；各列仍按顺序排列。 */
+    public static final byte FORMAT_BINARY = 2;
+    /** 行格式：带列数、NULL 位图和变长列偏移表的行头，定长列位于固定偏移，见 RowLayout。 */
+    public static final byte FORMAT_ROW = 3;
+    public static final int FORMAT_HEADER_SIZE = 1;
+
     private final List<Value> values;
     @Setter
     @Getter
@@ -23,21 +32,60 @@ public class Tuple {
         this.values = values;
     }
 
+    /**
+     * 供不以 Value 列表存储数据的子类 (CompactRow、JoinedRow) 使用，子类需重写 getValues 和 getValue。
+     */
+    protected Tuple() {
+        this.values = null;
+    }
 
     public List<Value> getValues() {
         return values;
     }
 
     /**
-     * 将整条记录序列化为字节数组。
+     * 读取一列。执行器和谓词应优先使用它，紧凑行可以只解码这一列而不物化整行。
+     */
+    public Value getValue(int column) {
+        return getValues().get(column);
+    }
+
+    /**
+     * 将整条记录序列化为字节数组 (含格式版本头)。
+     * 优先使用行格式，只有存在无法用定长编码表示的值 (或记录过大) 时才退回文本格式。
      * @return 序列化后的字节数组
      */
     public byte[] toBytes() {
+        List<Value> values = getValues();
+        for (Value value : values) {
+            if (!value.isBinaryEncodable()) {
+                return toBytes(FORMAT_TEXT);
+            }
+        }
+        byte[] bytes = RowLayout.encode(values);
+        return bytes != null ? bytes : toBytes(FORMAT_TEXT);
+    }
+
+    /**
+     * 按指定格式序列化整条记录 (含格式版本头)。
+     * 只有行格式能表示 NULL。
+     */
+    public byte[] toBytes(byte format) {
+        List<Value> values = getValues();
+        if (format == FORMAT_ROW) {
+            return RowLayout.encode(values);
+        }
+        for (Value value : values) {
+            if (value.getValue() == null) {
+                throw new IllegalArgumentException("NULL values can only be stored in the row format.");
+            }
+        }
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         DataOutputStream dos = new DataOutputStream(baos);
         try {
+            dos.writeByte(format);
             for (Value value : values) {
-                value.serialize(dos);
+                value.serialize(dos, format);
             }
             dos.close();
         } catch (IOException e) {
@@ -48,22 +96,51 @@ public class Tuple {
     }
 
     /**
-     * 从字节数组反序列化为一条记录。
+     * 从字节数组 (含格式版本头) 反序列化为一条记录。
      * @param data   字节数组
      * @param schema 表的模式
      * @return 反序列化后的 Tuple 对象
      */
     public static Tuple fromBytes(byte[] data, Schema schema) {
         ByteBuffer buffer = ByteBuffer.wrap(data);
-        List<Value> values = new ArrayList<>();
-        for (Column column : schema.getColumns()) {
-            values.add(Value.deserialize(buffer, column.getType()));
+        byte format = buffer.get();
+        return fromBuffer(buffer, schema, null, format);
+    }
+
+    /**
+     * 从缓冲区的当前位置反序列化一条记录的各列 (不含格式版本头)，只解码投影中需要的列。
+     * 未被选中的列直接跳过其字节，对应位置填入 Value.unloaded 占位值，列序号保持不变。
+     * 记录中缺少的列 (在 ALTER TABLE ADD COLUMN 之前写入) 解码为 NULL。
+     * @param buffer     字节缓冲 (可以直接是页面数据的视图)
+     * @param schema     表的模式
+     * @param projection 每列是否需要解码，为 null 时解码全部列
+     * @param format     元组编码格式
+     */
+    public static Tuple fromBuffer(ByteBuffer buffer, Schema schema, boolean[] projection, byte format) {
+        List<Column> columns = schema.getColumns();
+        if (format == FORMAT_ROW) {
+            int base = buffer.position();
+            RowLayout layout = schema.getRowLayout().forColumnCount(RowLayout.storedColumnCount(buffer, base));
+            return new Tuple(layout.decode(buffer, base, columns, projection));
+        }
+        List<Value> values = new ArrayList<>(columns.size());
+        for (int i = 0; i < columns.size(); i++) {
+            DataType type = columns.get(i).getType();
+            if (!buffer.hasRemaining()) {
+                values.add(new Value(type, null));
+            } else if (projection == null || projection[i]) {
+                values.add(Value.deserialize(buffer, type, format));
+            } else {
+                Value.skip(buffer, type, format);
+                values.add(Value.unloaded(type));
+            }
         }
         return new Tuple(values);
     }
     
     @Override
     public String toString() {
+        List<Value> values = getValues();
         StringBuilder sb = new StringBuilder("Tuple{");
         for (int i = 0; i < values.size(); i++) {
             sb.append(values.get(i).toString());
@@ -15,6 +15,15 @@ public class Value {
     private final DataType type;
     private final Object value;
 
+    // 投影下推时未解码列的占位值，按类型共享
+    private static final Value[] UNLOADED = new Value[DataType.values().length];
+
+    static {
+        for (DataType dataType : DataType.values()) {
+            UNLOADED[dataType.ordinal()] = new Value(dataType, null);
+        }
+    }
+
     public Value(Integer value) {
         this.type = DataType.INT;
         this.value = value;
@@ -61,23 +70,59 @@ public class Value {
         return value;
     }
 
+    /**
+     * 判断该值是否为尚未读取的溢出值 (值为 OverflowPointer)。
+     */
+    public boolean isExternal() {
+        return value instanceof OverflowPointer;
+    }
+
+    /**
+     * 判断该值能否使用定长的二进制编码 (Tuple.FORMAT_ROW)。
+     * DECIMAL 的未缩放值需要放得进 long、scale 放得进 byte，DATE 的 epoch day 需要放得进 int。
+     */
+    public boolean isBinaryEncodable() {
+        if (value == null) {
+            return true;
+        }
+        if (type == DataType.DECIMAL) {
+            BigDecimal decimal = (BigDecimal) value;
+            return decimal.scale() >= Byte.MIN_VALUE && decimal.scale() <= Byte.MAX_VALUE
+                    && decimal.unscaledValue().bitLength() < Long.SIZE;
+        }
+        if (type == DataType.DATE) {
+            long epochDay = ((LocalDate) value).toEpochDay();
+            return epochDay >= Integer.MIN_VALUE && epochDay <= Integer.MAX_VALUE;
+        }
+        return true;
+    }
+
     /**
      * 将值序列化为字节数组。
-     * @param out 输出流
+     * @param out    输出流
+     * @param format 元组编码格式 (Tuple.FORMAT_TEXT / Tuple.FORMAT_BINARY)，只影响 DECIMAL 和 DATE
      * @throws IOException
      */
-    public void serialize(DataOutputStream out) throws IOException {
+    public void serialize(DataOutputStream out, byte format) throws IOException {
         switch (type) {
             case INT:
                 out.writeInt((Integer) value);
                 break;
             case VARCHAR:
             case CHAR://CHAR和VARCHAR使用相同的序列化方式
-                byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+                byte[] bytes = value instanceof OverflowPointer pointer
+                        ? pointer.toBytes() : ((String) value).getBytes(StandardCharsets.UTF_8);
                 out.writeInt(bytes.length); // 先写入字符串长度
                 out.write(bytes);          // 再写入字符串内容
                 break;
             case DECIMAL:
+                if (format == Tuple.FORMAT_BINARY) {
+                    // 定长 9 字节：scale (1) + 未缩放值 (long)
+                    BigDecimal decimal = (BigDecimal) value;
+                    out.writeByte(decimal.scale());
+                    out.writeLong(decimal.unscaledValue().longValueExact());
+                    break;
+                }
                 // 将 BigDecimal 转换为字符串进行存储
                 String decimalStr = ((BigDecimal) value).toPlainString();
                 byte[] decimalBytes = decimalStr.getBytes(StandardCharsets.UTF_8);
@@ -85,6 +130,11 @@ public class Value {
                 out.write(decimalBytes);
                 break;
             case DATE:
+                if (format == Tuple.FORMAT_BINARY) {
+                    // 定长 4 字节 epoch day
+                    out.writeInt(Math.toIntExact(((LocalDate) value).toEpochDay()));
+                    break;
+                }
                 // 将 LocalDate 转换为 ISO 格式的字符串 (e.g., "2025-09-13")
                 String dateStr = ((LocalDate) value).toString();
                 byte[] dateBytes = dateStr.getBytes(StandardCharsets.UTF_8);
@@ -109,24 +159,37 @@ public class Value {
      * 从字节缓冲中反序列化一个值。
      * @param buffer 字节缓冲
      * @param type   要读取的值的类型
+     * @param format 元组编码格式
      * @return 读取到的 Value 对象
      */
-    public static Value deserialize(ByteBuffer buffer, DataType type) {
+    public static Value deserialize(ByteBuffer buffer, DataType type, byte format) {
         switch (type) {
             case INT:
                 return new Value(buffer.getInt());
             case VARCHAR:
             case CHAR:
                 int length = buffer.getInt();
+                if (OverflowPointer.isPointer(buffer, buffer.position(), length)) {
+                    OverflowPointer pointer = OverflowPointer.read(buffer, buffer.position());
+                    buffer.position(buffer.position() + length);
+                    return new Value(DataType.VARCHAR, pointer);
+                }
                 byte[] bytes = new byte[length];
                 buffer.get(bytes);
                 return new Value(new String(bytes, StandardCharsets.UTF_8));
             case DECIMAL:
+                if (format == Tuple.FORMAT_BINARY) {
+                    int scale = buffer.get();
+                    return new Value(BigDecimal.valueOf(buffer.getLong(), scale));
+                }
                 int decimalLen = buffer.getInt();
                 byte[] decimalBytes = new byte[decimalLen];
                 buffer.get(decimalBytes);
                 return new Value(new BigDecimal(new String(decimalBytes, StandardCharsets.UTF_8)));
             case DATE:
+                if (format == Tuple.FORMAT_BINARY) {
+                    return new Value(LocalDate.ofEpochDay(buffer.getInt()));
+                }
                 int dateLen = buffer.getInt();
                 byte[] dateBytes = new byte[dateLen];
                 buffer.get(dateBytes);
@@ -142,9 +205,56 @@ public class Value {
         }
     }
 
+    /**
+     * 跳过缓冲区中一个已序列化的值，只移动 position，不创建任何对象。
+     * @param buffer 字节缓冲
+     * @param type   要跳过的值的类型
+     * @param format 元组编码格式
+     */
+    public static void skip(ByteBuffer buffer, DataType type, byte format) {
+        buffer.position(buffer.position() + encodedLength(buffer, buffer.position(), type, format));
+    }
+
+    /**
+     * 计算从 offset 开始的一个已序列化值占用的字节数 (绝对读取，不移动 position)。
+     */
+    public static int encodedLength(ByteBuffer buffer, int offset, DataType type, byte format) {
+        switch (type) {
+            case INT:
+            case FLOAT:
+                return 4;
+            case DOUBLE:
+                return 8;
+            case BOOLEAN:
+                return 1;
+            case DECIMAL:
+                if (format == Tuple.FORMAT_BINARY) {
+                    return 9;
+                }
+                return 4 + buffer.getInt(offset);
+            case DATE:
+                if (format == Tuple.FORMAT_BINARY) {
+                    return 4;
+                }
+                return 4 + buffer.getInt(offset);
+            case VARCHAR:
+            case CHAR:
+                return 4 + buffer.getInt(offset);
+            default:
+                throw new UnsupportedOperationException("Unsupported data type for deserialization: " + type);
+        }
+    }
+
+    /**
+     * 投影下推时未被解码的列的占位值 (值为 null)，上层算子不会读取这些列。
+     */
+    public static Value unloaded(DataType type) {
+        return UNLOADED[type.ordinal()];
+    }
+
     @Override
     public String toString() {
-        return value.toString();
+        return String.valueOf(value);
     }
 
     // ====== 核心修复点 (Phase 4 Bug Fix) ======
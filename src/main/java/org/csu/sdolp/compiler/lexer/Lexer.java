@@ -67,6 +67,11 @@ public class Lexer {
         keywords.put("show", TokenType.SHOW);
         keywords.put("tables", TokenType.TABLES);
         keywords.put("full", TokenType.FULL);
+        keywords.put("page_size", TokenType.PAGE_SIZE);
+        keywords.put("with", TokenType.WITH);
+        keywords.put("engine", TokenType.ENGINE);
+        keywords.put("load", TokenType.LOAD);
+        keywords.put("truncate", TokenType.TRUNCATE);
         keywords.put("user", TokenType.USER);
         keywords.put("identified", TokenType.IDENTIFIED);
         keywords.put("grant", TokenType.GRANT);
@@ -63,6 +63,11 @@ public enum TokenType {
     SHOW,       // "SHOW"
     TABLES,     // "TABLES"
     FULL,       // "FULL"
+    PAGE_SIZE,  // "PAGE_SIZE"
+    WITH,       // "WITH"
+    ENGINE,     // "ENGINE"
+    LOAD,       // "LOAD"
+    TRUNCATE,   // "TRUNCATE"
 
     // ---- 标识符 (Identifier) ----
     IDENTIFIER, // 表名、列名等
@@ -9,13 +9,16 @@ import org.csu.sdolp.compiler.parser.ast.dcl.GrantStatementNode;
 import org.csu.sdolp.compiler.parser.ast.ddl.*;
 import org.csu.sdolp.compiler.parser.ast.dml.DeleteStatementNode;
 import org.csu.sdolp.compiler.parser.ast.dml.InsertStatementNode;
+import org.csu.sdolp.compiler.parser.ast.dml.LoadDataStatementNode;
 import org.csu.sdolp.compiler.parser.ast.dml.SelectStatementNode;
 import org.csu.sdolp.compiler.parser.ast.dml.UpdateStatementNode;
 import org.csu.sdolp.compiler.parser.ast.expression.*;
 import org.csu.sdolp.compiler.parser.ast.misc.*;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -82,6 +85,9 @@ public class Parser {
         if (match(TokenType.INSERT)) {
             return parseInsertStatement();
         }
+        if (match(TokenType.LOAD)) {
+            return parseLoadDataStatement();
+        }
         if (match(TokenType.DELETE)) {
             return parseDeleteStatement();
         }
@@ -94,6 +100,9 @@ public class Parser {
             }
             return parseDropTableStatement();
         }
+        if (match(TokenType.TRUNCATE)) {
+            return parseTruncateTableStatement();
+        }
         if (match(TokenType.USE)) {
             return parseUseDatabaseStatement();
         }
@@ -149,10 +158,22 @@ public class Parser {
         return new DropDatabaseStatementNode(dbName);
     }
 
+    /**
+     * CREATE DATABASE name [PAGE_SIZE [=] n [K | KB]]，页大小以字节为单位，带 K / KB 后缀时以 KB 为单位。
+     */
     private StatementNode parseCreateDatabaseStatement() {
         consume(TokenType.DATABASE, "Expected 'DATABASE' after 'CREATE'");
         Token dbNameToken = consume(TokenType.IDENTIFIER, "database name");
-        return new CreateDatabaseStatementNode(new IdentifierNode(dbNameToken.lexeme()));
+        Integer pageSize = null;
+        if (match(TokenType.PAGE_SIZE)) {
+            match(TokenType.EQUAL);
+            pageSize = Integer.parseInt(consume(TokenType.INTEGER_CONST, "integer value for PAGE_SIZE").lexeme());
+            if (check(TokenType.IDENTIFIER) && (peek().lexeme().equalsIgnoreCase("K") || peek().lexeme().equalsIgnoreCase("KB"))) {
+                advance();
+                pageSize *= 1024;
+            }
+        }
+        return new CreateDatabaseStatementNode(new IdentifierNode(dbNameToken.lexeme()), pageSize);
     }
 
     private CreateUserStatementNode parseCreateUserStatement() {
@@ -191,6 +212,12 @@ public class Parser {
         return new DropTableStatementNode(tableName);
     }
 
+    private TruncateTableStatementNode parseTruncateTableStatement() {
+        consume(TokenType.TABLE, "'TABLE' keyword after 'TRUNCATE'");
+        IdentifierNode tableName = new IdentifierNode(consume(TokenType.IDENTIFIER, "table name").lexeme());
+        return new TruncateTableStatementNode(tableName);
+    }
+
 
     private CreateTableStatementNode parseCreateTableStatement() {
         consume(TokenType.TABLE, "'TABLE' keyword after 'CREATE'");
@@ -217,7 +244,36 @@ public class Parser {
 
         consume(TokenType.RPAREN, "')' after column definitions");
 
-        return new CreateTableStatementNode(tableName, columns, primaryKeyColumn);
+        Map<String, String> options = parseTableOptions();
+        return new CreateTableStatementNode(tableName, columns, primaryKeyColumn, options);
+    }
+
+    /**
+     * 表选项 [ENGINE = name] [WITH (name = value [, ...])]，两者顺序任意。
+     * 选项名不区分大小写，值可以是标识符、字符串或整数；ENGINE 记为名为 engine 的选项。
+     */
+    private Map<String, String> parseTableOptions() {
+        Map<String, String> options = new LinkedHashMap<>();
+        while (true) {
+            if (match(TokenType.ENGINE)) {
+                consume(TokenType.EQUAL, "'=' after 'ENGINE'");
+                options.put("engine", consume(TokenType.IDENTIFIER, "storage engine name").lexeme());
+            } else if (match(TokenType.WITH)) {
+                consume(TokenType.LPAREN, "'(' after 'WITH'");
+                do {
+                    String name = consume(TokenType.IDENTIFIER, "table option name").lexeme().toLowerCase();
+                    consume(TokenType.EQUAL, "'=' after table option name");
+                    Token value = peek();
+                    if (!match(TokenType.IDENTIFIER, TokenType.STRING_CONST, TokenType.INTEGER_CONST)) {
+                        throw new ParseException(value, "value for table option '" + name + "'");
+                    }
+                    options.put(name, value.lexeme());
+                } while (match(TokenType.COMMA));
+                consume(TokenType.RPAREN, "')' after table options");
+            } else {
+                return options;
+            }
+        }
     }
 
     private CreateIndexStatementNode parseCreateIndexStatement() {
@@ -346,15 +402,41 @@ public class Parser {
         }
         consume(TokenType.RPAREN, "')' after column list");
         consume(TokenType.VALUES, "'VALUES' keyword");
-        consume(TokenType.LPAREN, "'(' before value list");
-        List<ExpressionNode> values = new ArrayList<>();
-        if (!check(TokenType.RPAREN)) {
-            do {
-                values.add(parsePrimaryExpression());
-            } while (match(TokenType.COMMA));
+        List<List<ExpressionNode>> rows = new ArrayList<>();
+        do {
+            consume(TokenType.LPAREN, "'(' before value list");
+            List<ExpressionNode> values = new ArrayList<>();
+            if (!check(TokenType.RPAREN)) {
+                do {
+                    values.add(parsePrimaryExpression());
+                } while (match(TokenType.COMMA));
+            }
+            consume(TokenType.RPAREN, "')' after value list");
+            rows.add(values);
+        } while (match(TokenType.COMMA));
+        return new InsertStatementNode(tableName, columns, rows);
+    }
+
+    /**
+     * LOAD DATA INFILE 'file' INTO TABLE t。
+     * DATA 和 INFILE 不作为保留字 (data 常被用作列名)，按标识符的文本匹配。
+     */
+    private LoadDataStatementNode parseLoadDataStatement() {
+        consumeWord("DATA");
+        consumeWord("INFILE");
+        String fileName = consume(TokenType.STRING_CONST, "file name string after 'INFILE'").lexeme();
+        consume(TokenType.INTO, "'INTO' keyword after file name");
+        consume(TokenType.TABLE, "'TABLE' keyword after 'INTO'");
+        IdentifierNode tableName = new IdentifierNode(consume(TokenType.IDENTIFIER, "table name").lexeme());
+        return new LoadDataStatementNode(fileName, tableName);
+    }
+
+    private void consumeWord(String word) {
+        if (check(TokenType.IDENTIFIER) && peek().lexeme().equalsIgnoreCase(word)) {
+            advance();
+            return;
         }
-        consume(TokenType.RPAREN, "')' after value list");
-        return new InsertStatementNode(tableName, columns, values);
+        throw new ParseException(peek(), "'" + word + "' keyword");
     }
 
     private DeleteStatementNode parseDeleteStatement() {
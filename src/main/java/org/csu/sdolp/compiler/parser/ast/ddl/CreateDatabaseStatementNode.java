@@ -3,5 +3,8 @@ package org.csu.sdolp.compiler.parser.ast.ddl;
 import org.csu.sdolp.compiler.parser.ast.expression.IdentifierNode;
 import org.csu.sdolp.compiler.parser.ast.StatementNode;
 
-public record CreateDatabaseStatementNode(IdentifierNode databaseName) implements StatementNode {
-}
\ No newline at end of file
+/**
+ * @param pageSize 数据库的页大小 (字节)，未指定时为 null，使用默认页大小
+ */
+public record CreateDatabaseStatementNode(IdentifierNode databaseName, Integer pageSize) implements StatementNode {
+}
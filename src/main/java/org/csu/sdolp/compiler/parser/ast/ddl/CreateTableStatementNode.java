@@ -5,14 +5,17 @@ import org.csu.sdolp.compiler.parser.ast.expression.IdentifierNode;
 import org.csu.sdolp.compiler.parser.ast.StatementNode;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author hidyouth
  * @description: 表示一个 CREATE TABLE 语句
+ * options 为 ENGINE = ... 和 WITH (...) 中的表选项，选项名为小写
  */
 public record CreateTableStatementNode(
         IdentifierNode tableName,
         List<ColumnDefinitionNode> columns,
-        IdentifierNode primaryKeyColumn
+        IdentifierNode primaryKeyColumn,
+        Map<String, String> options
 ) implements StatementNode {
 }
@@ -0,0 +1,13 @@
+package org.csu.sdolp.compiler.parser.ast.ddl;
+
+import org.csu.sdolp.compiler.parser.ast.expression.IdentifierNode;
+import org.csu.sdolp.compiler.parser.ast.StatementNode;
+
+/**
+ * AST 节点: 表示 TRUNCATE TABLE 语句
+ * @param tableName 要清空的表名
+ */
+public record TruncateTableStatementNode(
+        IdentifierNode tableName
+) implements StatementNode {
+}
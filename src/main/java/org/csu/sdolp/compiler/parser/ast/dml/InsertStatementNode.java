@@ -7,12 +7,12 @@ import org.csu.sdolp.compiler.parser.ast.StatementNode;
 import java.util.List;
 
 /**
- * AST 节点: 表示 INSERT 语句
+ * AST 节点: 表示 INSERT 语句，rows 中的每个值列表对应 VALUES 后的一行
  */
 public record InsertStatementNode(
         IdentifierNode tableName,
         List<IdentifierNode> columns,
-        List<ExpressionNode> values
+        List<List<ExpressionNode>> rows
 ) implements StatementNode {
 }
 
@@ -0,0 +1,13 @@
+package org.csu.sdolp.compiler.parser.ast.dml;
+
+import org.csu.sdolp.compiler.parser.ast.StatementNode;
+import org.csu.sdolp.compiler.parser.ast.expression.IdentifierNode;
+
+/**
+ * AST 节点: 表示 LOAD DATA INFILE 'file' INTO TABLE t 语句
+ */
+public record LoadDataStatementNode(
+        String fileName,
+        IdentifierNode tableName
+) implements StatementNode {
+}
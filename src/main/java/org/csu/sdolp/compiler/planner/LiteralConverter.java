@@ -0,0 +1,117 @@
+package org.csu.sdolp.compiler.planner;
+
+import org.csu.sdolp.common.model.DataType;
+import org.csu.sdolp.common.model.Value;
+import org.csu.sdolp.compiler.lexer.TokenType;
+import org.csu.sdolp.compiler.parser.ast.expression.LiteralNode;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 字面量转换器。
+ * 统一负责把 SQL 字面量转换成 Value：INSERT、UPDATE ... SET、WHERE / HAVING 的常量
+ * 以及索引扫描的查找键都通过这里解析，所有地方支持的类型集合一致。
+ */
+public final class LiteralConverter {
+
+    private LiteralConverter() {
+    }
+
+    /**
+     * 字面量本身的类型：整数 -> INT，小数 -> DECIMAL，字符串 -> VARCHAR，TRUE/FALSE -> BOOLEAN。
+     */
+    public static DataType naturalType(LiteralNode literal) {
+        TokenType type = literal.literal().type();
+        return switch (type) {
+            case INTEGER_CONST -> DataType.INT;
+            case DECIMAL_CONST -> DataType.DECIMAL;
+            case STRING_CONST -> DataType.VARCHAR;
+            case TRUE, FALSE -> DataType.BOOLEAN;
+            default -> throw new IllegalArgumentException("Unsupported literal type: " + type);
+        };
+    }
+
+    /**
+     * 按字面量本身的类型转换。
+     */
+    public static Value toValue(LiteralNode literal) {
+        return toValue(literal, naturalType(literal));
+    }
+
+    /**
+     * 判断字面量能否转换为目标列类型。
+     * 整数可以写入 DECIMAL/FLOAT/DOUBLE，小数可以写入 FLOAT/DOUBLE，字符串可以写入 CHAR 和 DATE。
+     */
+    public static boolean isCompatible(LiteralNode literal, DataType targetType) {
+        TokenType type = literal.literal().type();
+        return switch (targetType) {
+            case INT -> type == TokenType.INTEGER_CONST;
+            case DECIMAL, FLOAT, DOUBLE -> type == TokenType.INTEGER_CONST || type == TokenType.DECIMAL_CONST;
+            case VARCHAR, CHAR, DATE -> type == TokenType.STRING_CONST;
+            case BOOLEAN -> type == TokenType.TRUE || type == TokenType.FALSE;
+        };
+    }
+
+    /**
+     * 把字面量转换为目标列类型的值。
+     * @throws IllegalArgumentException 字面量与目标类型不兼容，或内容无法解析 (如非法日期)
+     */
+    public static Value toValue(LiteralNode literal, DataType targetType) {
+        if (!isCompatible(literal, targetType)) {
+            throw new IllegalArgumentException("Cannot convert literal '" + literal.literal().lexeme()
+                    + "' to type " + targetType + ".");
+        }
+        String lexeme = literal.literal().lexeme();
+        try {
+            return switch (targetType) {
+                case INT -> new Value(Integer.parseInt(lexeme));
+                case DECIMAL -> new Value(new BigDecimal(lexeme));
+                case FLOAT -> new Value(Float.parseFloat(lexeme));
+                case DOUBLE -> new Value(Double.parseDouble(lexeme));
+                case VARCHAR -> new Value(lexeme);
+                // 使用可以指定类型的构造函数
+                case CHAR -> new Value(DataType.CHAR, lexeme);
+                case DATE -> new Value(LocalDate.parse(lexeme));
+                case BOOLEAN -> new Value(literal.literal().type() == TokenType.TRUE);
+            };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid " + targetType + " literal '" + lexeme + "'.", e);
+        }
+    }
+
+    /**
+     * 把文本 (如 CSV 文件中的字段) 解析为目标列类型的值，null 表示 SQL NULL。
+     * 数值两端的空白被忽略；BOOLEAN 接受 true/false (不区分大小写) 和 1/0。
+     * @throws IllegalArgumentException 内容无法解析为目标类型
+     */
+    public static Value fromText(String text, DataType targetType) {
+        if (text == null) {
+            return new Value(targetType, null);
+        }
+        try {
+            return switch (targetType) {
+                case INT -> new Value(Integer.parseInt(text.trim()));
+                case DECIMAL -> new Value(new BigDecimal(text.trim()));
+                case FLOAT -> new Value(Float.parseFloat(text.trim()));
+                case DOUBLE -> new Value(Double.parseDouble(text.trim()));
+                case VARCHAR -> new Value(text);
+                case CHAR -> new Value(DataType.CHAR, text);
+                case DATE -> new Value(LocalDate.parse(text.trim()));
+                case BOOLEAN -> new Value(parseBoolean(text.trim()));
+            };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid " + targetType + " value '" + text + "'.", e);
+        }
+    }
+
+    private static boolean parseBoolean(String text) {
+        if (text.equalsIgnoreCase("true") || text.equals("1")) {
+            return true;
+        }
+        if (text.equalsIgnoreCase("false") || text.equals("0")) {
+            return false;
+        }
+        throw new IllegalArgumentException("not a boolean");
+    }
+}
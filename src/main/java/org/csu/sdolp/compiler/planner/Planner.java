@@ -2,6 +2,7 @@ package org.csu.sdolp.compiler.planner;
 
 import org.csu.sdolp.catalog.Catalog;
 import org.csu.sdolp.catalog.IndexInfo;
+import org.csu.sdolp.catalog.TableEngine;
 import org.csu.sdolp.catalog.TableInfo;
 import org.csu.sdolp.common.model.Column;
 import org.csu.sdolp.common.model.DataType;
@@ -15,9 +16,11 @@ import org.csu.sdolp.compiler.parser.ast.dcl.GrantStatementNode;
 import org.csu.sdolp.compiler.parser.ast.ddl.*;
 import org.csu.sdolp.compiler.parser.ast.dml.DeleteStatementNode;
 import org.csu.sdolp.compiler.parser.ast.dml.InsertStatementNode;
+import org.csu.sdolp.compiler.parser.ast.dml.LoadDataStatementNode;
 import org.csu.sdolp.compiler.parser.ast.dml.SelectStatementNode;
 import org.csu.sdolp.compiler.parser.ast.dml.UpdateStatementNode;
 import org.csu.sdolp.compiler.parser.ast.expression.*;
+import org.csu.sdolp.storage.disk.PageCompression;
 import org.csu.sdolp.compiler.parser.ast.misc.*;
 import org.csu.sdolp.compiler.planner.plan.*;
 import org.csu.sdolp.compiler.planner.plan.dcl.CreateUserPlanNode;
@@ -25,6 +28,7 @@ import org.csu.sdolp.compiler.planner.plan.dcl.GrantPlanNode;
 import org.csu.sdolp.compiler.planner.plan.ddl.*;
 import org.csu.sdolp.compiler.planner.plan.dml.DeletePlanNode;
 import org.csu.sdolp.compiler.planner.plan.dml.InsertPlanNode;
+import org.csu.sdolp.compiler.planner.plan.dml.LoadDataPlanNode;
 import org.csu.sdolp.compiler.planner.plan.dml.UpdatePlanNode;
 import org.csu.sdolp.compiler.planner.plan.query.*;
 import org.csu.sdolp.compiler.planner.plan.show.ShowColumnsPlanNode;
@@ -32,10 +36,11 @@ import org.csu.sdolp.compiler.planner.plan.show.ShowCreateTablePlanNode;
 import org.csu.sdolp.compiler.planner.plan.show.ShowDatabasesPlanNode;
 import org.csu.sdolp.compiler.planner.plan.show.ShowTablesPlanNode;
 
-import java.math.BigDecimal;
-import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -56,11 +61,14 @@ public class Planner {
             return createTablePlan(stmt);
         }
         if (ast instanceof CreateDatabaseStatementNode stmt) {
-            return new CreateDatabasePlanNode(stmt.databaseName().getName());
+            return new CreateDatabasePlanNode(stmt.databaseName().getName(), stmt.pageSize());
         }
         if (ast instanceof InsertStatementNode stmt) {
             return createInsertPlan(stmt);
         }
+        if (ast instanceof LoadDataStatementNode stmt) {
+            return new LoadDataPlanNode(catalog.getTable(stmt.tableName().getName()), stmt.fileName());
+        }
         if (ast instanceof SelectStatementNode stmt) {
             return createSelectPlan(stmt);
         }
@@ -73,6 +81,9 @@ public class Planner {
         if (ast instanceof DropTableStatementNode stmt) {
             return createDropTablePlan(stmt);
         }
+        if (ast instanceof TruncateTableStatementNode stmt) {
+            return new TruncateTablePlanNode(stmt.tableName().getName());
+        }
         if (ast instanceof DropDatabaseStatementNode stmt) {
             return new DropDatabasePlanNode(stmt.databaseName().getName());
         }
@@ -115,60 +126,35 @@ public class Planner {
                         DataType.valueOf(colDef.dataType().getName().toUpperCase())))
                 .collect(Collectors.toList());
         Schema schema = new Schema(columns, ast.primaryKeyColumn() != null ? ast.primaryKeyColumn().getName() : null);
-        return new CreateTablePlanNode(tableName, schema);
+        String compression = ast.options().get(CreateTablePlanNode.COMPRESSION_OPTION);
+        String engine = ast.options().get(CreateTablePlanNode.ENGINE_OPTION);
+        return new CreateTablePlanNode(tableName, schema,
+                compression == null ? PageCompression.NONE : PageCompression.fromName(compression),
+                engine == null ? TableEngine.ROW : TableEngine.fromName(engine));
     }
 
     private PlanNode createInsertPlan(InsertStatementNode ast) {
         TableInfo tableInfo = catalog.getTable(ast.tableName().getName());
         Schema schema = tableInfo.getSchema();
-        List<Value> values = new ArrayList<>();
-
-        // --- 核心修改：根据 Schema 类型来解析字面量 ---
-        for (int i = 0; i < ast.values().size(); i++) {
-            ExpressionNode expr = ast.values().get(i);
-            // 找到此位置对应的列定义
-            String colName = ast.columns().get(i).getName();
-            Column column = schema.getColumn(colName);
-            DataType expectedType = column.getType();
-
-            if (expr instanceof LiteralNode literal) {
-                String lexeme = literal.literal().lexeme();
-                TokenType tokenType = literal.literal().type();
-
-                switch (expectedType) {
-                    case INT:
-                        values.add(new Value(Integer.parseInt(lexeme)));
-                        break;
-                    case VARCHAR:
-                        values.add(new Value(lexeme));
-                        break;
-                    case DECIMAL:
-                        values.add(new Value(new BigDecimal(lexeme)));
-                        break;
-                    case DATE:
-                        values.add(new Value(LocalDate.parse(lexeme)));
-                        break;
-                    case BOOLEAN:
-                        values.add(new Value(tokenType == TokenType.TRUE));
-                        break;
-                    case FLOAT: //
-                        values.add(new Value(Float.parseFloat(lexeme)));
-                        break;
-                    case DOUBLE: //
-                        values.add(new Value(Double.parseDouble(lexeme)));
-                        break;
-                    case CHAR: //
-                        // 使用可以指定类型的构造函数
-                        values.add(new Value(DataType.CHAR, lexeme));
-                        break;
-                    default:
-                        throw new IllegalStateException("Unsupported data type in planner for INSERT: " + expectedType);
+        List<Tuple> tuples = new ArrayList<>(ast.rows().size());
+
+        for (List<ExpressionNode> row : ast.rows()) {
+            List<Value> values = new ArrayList<>();
+            // --- 核心修改：根据 Schema 类型来解析字面量 ---
+            for (int i = 0; i < row.size(); i++) {
+                ExpressionNode expr = row.get(i);
+                // 找到此位置对应的列定义
+                String colName = ast.columns().get(i).getName();
+                Column column = schema.getColumn(colName);
+                DataType expectedType = column.getType();
+
+                if (expr instanceof LiteralNode literal) {
+                    values.add(LiteralConverter.toValue(literal, expectedType));
                 }
             }
+            tuples.add(new Tuple(values));
         }
-
-        Tuple tuple = new Tuple(values);
-        return new InsertPlanNode(tableInfo, List.of(tuple));
+        return new InsertPlanNode(tableInfo, tuples);
     }
 
     /**
@@ -208,13 +194,13 @@ public class Planner {
             // 优化器：没有找到合适的索引
             System.out.println("[Planner] No suitable index found for query. Using Sequential Scan.");
             // 将 WHERE 子句（如果存在）直接下推到 SeqScanPlanNode
-            plan = new SeqScanPlanNode(fromTableInfo, ast.whereClause());
+            plan = new SeqScanPlanNode(fromTableInfo, ast.whereClause(), findRequiredColumns(fromTableInfo, ast));
             // 注意：我们不再在这里创建 FilterPlanNode，因为过滤逻辑已经被下推了
         }
         // 3. JOIN 层
         if (ast.joinTable() != null) {
             TableInfo rightTableInfo = catalog.getTable(ast.joinTable().getName());
-            PlanNode rightPlan = new SeqScanPlanNode(rightTableInfo, null);
+            PlanNode rightPlan = new SeqScanPlanNode(rightTableInfo, null, findRequiredColumns(rightTableInfo, ast));
             plan = new JoinPlanNode(plan, rightPlan, ast.joinCondition());
         }
 
@@ -292,6 +278,58 @@ public class Planner {
         return plan;
     }
 
+    /**
+     * 投影下推：找出查询中引用到的该表的列 (SELECT 列表、WHERE、ON、GROUP BY、HAVING、ORDER BY)。
+     * 同名列宁可多解码也不遗漏，带其他表限定符的列不计入。
+     * @return 升序的列序号；SELECT * 或用到全部列时返回 null
+     */
+    private int[] findRequiredColumns(TableInfo tableInfo, SelectStatementNode ast) {
+        if (ast.isSelectAll()) {
+            return null;
+        }
+        String tableName = tableInfo.getTableName();
+        Set<String> referenced = new HashSet<>();
+        for (ExpressionNode expr : ast.selectList()) {
+            collectColumnNames(expr, tableName, referenced);
+        }
+        collectColumnNames(ast.whereClause(), tableName, referenced);
+        collectColumnNames(ast.joinCondition(), tableName, referenced);
+        collectColumnNames(ast.havingClause(), tableName, referenced);
+        if (ast.groupByClause() != null) {
+            for (IdentifierNode groupBy : ast.groupByClause()) {
+                collectColumnNames(groupBy, tableName, referenced);
+            }
+        }
+        if (ast.orderByClause() != null) {
+            collectColumnNames(ast.orderByClause().column(), tableName, referenced);
+        }
+
+        List<Column> columns = tableInfo.getSchema().getColumns();
+        int[] ordinals = new int[columns.size()];
+        int count = 0;
+        for (int i = 0; i < columns.size(); i++) {
+            if (referenced.contains(columns.get(i).getName().toLowerCase())) {
+                ordinals[count++] = i;
+            }
+        }
+        return count == columns.size() ? null : Arrays.copyOf(ordinals, count);
+    }
+
+    private void collectColumnNames(ExpressionNode node, String tableName, Set<String> names) {
+        if (node instanceof IdentifierNode idNode) {
+            if (idNode.getTableQualifier() == null || idNode.getTableQualifier().equalsIgnoreCase(tableName)) {
+                names.add(idNode.getName().toLowerCase());
+            }
+        } else if (node instanceof AggregateExpressionNode aggNode) {
+            if (!aggNode.isStar()) {
+                collectColumnNames(aggNode.argument(), tableName, names);
+            }
+        } else if (node instanceof BinaryExpressionNode binNode) {
+            collectColumnNames(binNode.left(), tableName, names);
+            collectColumnNames(binNode.right(), tableName, names);
+        }
+    }
+
     /**
      * 新增的辅助方法，用于递归地从表达式树中收集所有聚合函数节点。
      */
@@ -437,11 +475,7 @@ public class Planner {
 
     private Value extractValueFromPredicate(ExpressionNode predicate) {
         if (predicate instanceof BinaryExpressionNode binaryExpr && binaryExpr.right() instanceof LiteralNode literal) {
-            if (literal.literal().type() == TokenType.INTEGER_CONST) {
-                return new Value(Integer.parseInt(literal.literal().lexeme()));
-            } else if (literal.literal().type() == TokenType.STRING_CONST) {
-                return new Value(literal.literal().lexeme());
-            }
+            return LiteralConverter.toValue(literal);
         }
         throw new IllegalStateException("Could not extract value from predicate for index scan. This indicates a planner bug.");
     }
@@ -4,13 +4,24 @@ import org.csu.sdolp.compiler.planner.plan.PlanNode;
 
 public class CreateDatabasePlanNode extends PlanNode {
     private final String dbName;
+    // 页大小 (字节)，为 null 时使用默认页大小
+    private final Integer pageSize;
 
     public CreateDatabasePlanNode(String dbName) {
+        this(dbName, null);
+    }
+
+    public CreateDatabasePlanNode(String dbName, Integer pageSize) {
         super(null); // DDL operations don't return tuples.
         this.dbName = dbName;
+        this.pageSize = pageSize;
     }
 
     public String getDbName() {
         return dbName;
     }
-}
\ No newline at end of file
+
+    public Integer getPageSize() {
+        return pageSize;
+    }
+}
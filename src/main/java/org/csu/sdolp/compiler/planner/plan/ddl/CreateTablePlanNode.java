@@ -1,21 +1,54 @@
 package org.csu.sdolp.compiler.planner.plan.ddl;
 
+import org.csu.sdolp.catalog.TableEngine;
 import org.csu.sdolp.common.model.Schema;
 import org.csu.sdolp.compiler.planner.plan.PlanNode;
+import org.csu.sdolp.storage.disk.PageCompression;
 
 /**
  * @author hidyouth
  * @description: 创建表的执行计划节点
  */
 public class CreateTablePlanNode extends PlanNode {
+    // WITH (compression = none | deflate_fast | deflate)
+    public static final String COMPRESSION_OPTION = "compression";
+    // ENGINE = row | columnar
+    public static final String ENGINE_OPTION = "engine";
+
     private final String tableName;
+    private final PageCompression compression;
+    private final TableEngine engine;
 
     public CreateTablePlanNode(String tableName, Schema schema) {
+        this(tableName, schema, PageCompression.NONE);
+    }
+
+    public CreateTablePlanNode(String tableName, Schema schema, PageCompression compression) {
+        this(tableName, schema, compression, TableEngine.ROW);
+    }
+
+    public CreateTablePlanNode(String tableName, Schema schema, PageCompression compression, TableEngine engine) {
         super(schema); // CreateTable "输出"的是新表的Schema
         this.tableName = tableName;
+        this.compression = compression;
+        this.engine = engine;
     }
 
     public String getTableName() {
         return tableName;
     }
+
+    /**
+     * 表的表空间文件使用的页面压缩方式。
+     */
+    public PageCompression getCompression() {
+        return compression;
+    }
+
+    /**
+     * 表的存储引擎 (行存或列存)。
+     */
+    public TableEngine getEngine() {
+        return engine;
+    }
 }
@@ -0,0 +1,19 @@
+package org.csu.sdolp.compiler.planner.plan.ddl;
+
+import org.csu.sdolp.compiler.planner.plan.PlanNode;
+
+/**
+ * 清空表的执行计划节点
+ */
+public class TruncateTablePlanNode extends PlanNode {
+    private final String tableName;
+
+    public TruncateTablePlanNode(String tableName) {
+        super(null); // DDL 不向上层返回元组
+        this.tableName = tableName;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+}
@@ -0,0 +1,27 @@
+package org.csu.sdolp.compiler.planner.plan.dml;
+
+import org.csu.sdolp.catalog.TableInfo;
+import org.csu.sdolp.compiler.planner.plan.PlanNode;
+
+/**
+ * 批量装载 (LOAD DATA INFILE) 的执行计划节点。
+ * 文件中的行按 CSV 格式流式读取，每行的字段依次对应表的各列。
+ */
+public class LoadDataPlanNode extends PlanNode {
+    private final TableInfo tableInfo;
+    private final String fileName;
+
+    public LoadDataPlanNode(TableInfo tableInfo, String fileName) {
+        super(null);
+        this.tableInfo = tableInfo;
+        this.fileName = fileName;
+    }
+
+    public TableInfo getTableInfo() {
+        return tableInfo;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+}
@@ -11,12 +11,22 @@ import org.csu.sdolp.compiler.planner.plan.PlanNode;
 public class SeqScanPlanNode extends PlanNode {
     private final TableInfo tableInfo;
     private final ExpressionNode predicate;
+    // 上层算子实际用到的列序号 (升序)，为 null 表示需要全部列
+    private final int[] requiredColumns;
 
     // 修改构造函数以接受谓词
     public SeqScanPlanNode(TableInfo tableInfo, ExpressionNode predicate) {
+        this(tableInfo, predicate, null);
+    }
+
+    /**
+     * @param requiredColumns 需要解码的列序号；输出 Schema 仍是整张表的 Schema，未列出的列只是不被解码
+     */
+    public SeqScanPlanNode(TableInfo tableInfo, ExpressionNode predicate, int[] requiredColumns) {
         super(tableInfo.getSchema()); // 顺序扫描输出的是整张表的原始 Schema
         this.tableInfo = tableInfo;
         this.predicate = predicate;
+        this.requiredColumns = requiredColumns;
     }
 
     public TableInfo getTableInfo() {
@@ -28,4 +38,8 @@ public class SeqScanPlanNode extends PlanNode {
         return predicate;
     }
 
+    public int[] getRequiredColumns() {
+        return requiredColumns;
+    }
+
 }
@@ -1,6 +1,7 @@
 package org.csu.sdolp.compiler.semantic;
 
 import org.csu.sdolp.catalog.Catalog;
+import org.csu.sdolp.catalog.TableEngine;
 import org.csu.sdolp.catalog.TableInfo;
 import org.csu.sdolp.cli.server.Session;
 import org.csu.sdolp.common.exception.SemanticException;
@@ -12,20 +13,30 @@ import org.csu.sdolp.compiler.parser.ast.*;
 import org.csu.sdolp.compiler.parser.ast.dcl.CreateUserStatementNode;
 import org.csu.sdolp.compiler.parser.ast.dcl.GrantStatementNode;
 import org.csu.sdolp.compiler.parser.ast.ddl.AlterTableStatementNode;
+import org.csu.sdolp.compiler.parser.ast.ddl.CreateIndexStatementNode;
 import org.csu.sdolp.compiler.parser.ast.ddl.CreateTableStatementNode;
 import org.csu.sdolp.compiler.parser.ast.ddl.DropTableStatementNode;
+import org.csu.sdolp.compiler.parser.ast.ddl.TruncateTableStatementNode;
 import org.csu.sdolp.compiler.parser.ast.dml.DeleteStatementNode;
 import org.csu.sdolp.compiler.parser.ast.dml.InsertStatementNode;
+import org.csu.sdolp.compiler.parser.ast.dml.LoadDataStatementNode;
 import org.csu.sdolp.compiler.parser.ast.dml.SelectStatementNode;
 import org.csu.sdolp.compiler.parser.ast.dml.UpdateStatementNode;
 import org.csu.sdolp.compiler.parser.ast.expression.*;
 import org.csu.sdolp.compiler.parser.ast.misc.ShowTablesStatementNode;
+import org.csu.sdolp.compiler.planner.LiteralConverter;
+import org.csu.sdolp.compiler.planner.plan.ddl.CreateTablePlanNode;
+import org.csu.sdolp.storage.disk.PageCompression;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -51,6 +62,8 @@ public class SemanticAnalyzer {
             analyzeCreateTable((CreateTableStatementNode) node, session);
         } else if (node instanceof InsertStatementNode) {
             analyzeInsert((InsertStatementNode) node, session);
+        } else if (node instanceof LoadDataStatementNode loadData) {
+            analyzeLoadData(loadData, session);
         } else if (node instanceof SelectStatementNode) {
             analyzeSelect((SelectStatementNode) node, session);
         } else if (node instanceof DeleteStatementNode) {
@@ -59,8 +72,12 @@ public class SemanticAnalyzer {
             analyzeUpdate((UpdateStatementNode) node, session);
         } else if (node instanceof DropTableStatementNode dropTable) {
             analyzeDropTable(dropTable, session);
+        } else if (node instanceof TruncateTableStatementNode truncateTable) {
+            analyzeTruncateTable(truncateTable, session);
         } else if (node instanceof AlterTableStatementNode alterTable) {
             analyzeAlterTable(alterTable, session);
+        } else if (node instanceof CreateIndexStatementNode createIndex) {
+            rejectColumnar(getTableOrThrow(createIndex.getTableName().getName()), "CREATE INDEX");
         } else if (node instanceof ShowTablesStatementNode) { //
             analyzeShowTables((ShowTablesStatementNode) node);
         } else if (node instanceof CreateUserStatementNode createUser) {
@@ -148,6 +165,32 @@ public class SemanticAnalyzer {
                 throw new SemanticException("Invalid data type '" + colDef.dataType().getName() + "' for column '" + colDef.columnName().getName() + "'.");
             }
         }
+        // 检查表选项
+        for (Map.Entry<String, String> option : node.options().entrySet()) {
+            if (option.getKey().equals(CreateTablePlanNode.ENGINE_OPTION)) {
+                TableEngine engine;
+                try {
+                    engine = TableEngine.fromName(option.getValue());
+                } catch (IllegalArgumentException e) {
+                    throw new SemanticException("Invalid engine '" + option.getValue() + "'. Expected one of "
+                            + Arrays.toString(TableEngine.values()) + ".");
+                }
+                // 列存表没有 B+ 树索引，也就无法检查主键唯一性
+                if (engine == TableEngine.COLUMNAR && node.primaryKeyColumn() != null) {
+                    throw new SemanticException("Columnar tables do not support PRIMARY KEY.");
+                }
+                continue;
+            }
+            if (!option.getKey().equals(CreateTablePlanNode.COMPRESSION_OPTION)) {
+                throw new SemanticException("Unknown table option '" + option.getKey() + "'.");
+            }
+            try {
+                PageCompression.fromName(option.getValue());
+            } catch (IllegalArgumentException e) {
+                throw new SemanticException("Invalid compression '" + option.getValue() + "'. Expected one of "
+                        + Arrays.toString(PageCompression.values()) + ".");
+            }
+        }
     }
 
     private void analyzeInsert(InsertStatementNode node,Session session) {
@@ -158,11 +201,17 @@ public class SemanticAnalyzer {
         TableInfo tableInfo = getTableOrThrow(tableName);
         Schema schema = tableInfo.getSchema();
 
-        if (node.columns().size() != node.values().size()) {
-            throw new SemanticException("Number of columns does not match number of values.");
+        for (List<ExpressionNode> row : node.rows()) {
+            if (node.columns().size() != row.size()) {
+                throw new SemanticException("Number of columns does not match number of values.");
+            }
+        }
+        // 列存表不存储 NULL，每一列都必须给出值
+        if (tableInfo.isColumnar() && node.columns().size() != schema.getColumns().size()) {
+            throw new SemanticException("INSERT into columnar table '" + tableName + "' must provide a value for every column.");
         }
 
-        // 检查插入的列是否存在，以及值类型是否匹配
+        // 检查插入的列是否存在，以及每一行的值类型是否匹配
         for (int i = 0; i < node.columns().size(); i++) {
             String colName = node.columns().get(i).getName();
             Column schemaCol = schema.getColumns().stream()
@@ -170,38 +219,27 @@ public class SemanticAnalyzer {
                     .findFirst()
                     .orElseThrow(() -> new SemanticException("Column '" + colName + "' does not exist in table '" + tableName + "'."));
 
-            ExpressionNode valueNode = node.values().get(i);
-            if (!(valueNode instanceof LiteralNode)) {
-                throw new SemanticException("INSERT statements currently only support literal values.");
-            }
-            LiteralNode literal = (LiteralNode) valueNode;
-            DataType expectedType = schemaCol.getType();
-            DataType actualType = getLiteralType(literal);
-
-            // 允许将整数插入 DECIMAL 类型的列
-            if (expectedType == DataType.DECIMAL && actualType == DataType.INT) {
-                // This is a valid cast, continue.
-            } else if (expectedType == DataType.FLOAT && (actualType == DataType.INT || actualType == DataType.DECIMAL)) {
-                // Allow inserting INT/DECIMAL into FLOAT
-            } else if (expectedType == DataType.DOUBLE && (actualType == DataType.INT || actualType == DataType.DECIMAL || actualType == DataType.FLOAT)) {
-                // Allow inserting INT/DECIMAL/FLOAT into DOUBLE
-            } else if (expectedType == DataType.CHAR && actualType == DataType.VARCHAR) {
-                // Allow inserting string literal into CHAR column
-            } else if (expectedType != actualType) {
-                // 检查是否是合法的 DATE 字符串
-                if (expectedType == DataType.DATE && actualType == DataType.VARCHAR) {
-                    try {
-                        LocalDate.parse(literal.literal().lexeme());
-                    } catch (DateTimeParseException e) {
-                        throw new SemanticException("Invalid DATE format for column '" + colName + "'. Expected 'YYYY-MM-DD'.");
-                    }
-                } else {
-                    throw new SemanticException("Data type mismatch for column '" + colName + "'. Expected " + expectedType + " but got " + actualType + ".");
+            for (List<ExpressionNode> row : node.rows()) {
+                ExpressionNode valueNode = row.get(i);
+                if (!(valueNode instanceof LiteralNode)) {
+                    throw new SemanticException("INSERT statements currently only support literal values.");
                 }
+                checkLiteralType(colName, schemaCol.getType(), (LiteralNode) valueNode);
             }
         }
     }
 
+    private void analyzeLoadData(LoadDataStatementNode node, Session session) {
+        // 读取服务器上的文件，与 CREATE USER 一样只允许 root 执行
+        if (!"root".equalsIgnoreCase(session.getUsername())) {
+            throw new SemanticException("Access denied for user '" + session.getUsername() + "'. FILE privilege required for LOAD DATA.");
+        }
+        getTableOrThrow(node.tableName().getName());
+        if (!Files.isReadable(Path.of(node.fileName()))) {
+            throw new SemanticException("File '" + node.fileName() + "' not found or not readable.");
+        }
+    }
+
     private void analyzeSelect(SelectStatementNode node,Session session) {
         String tableName = node.fromTable().getName();
         // 权限检查
@@ -323,6 +361,7 @@ public class SemanticAnalyzer {
             throw new SemanticException("Access denied for user '" + session.getUsername() + "'. DELETE command denied on table '" + tableName + "'.");
         }
         TableInfo tableInfo = getTableOrThrow(tableName);
+        rejectColumnar(tableInfo, "DELETE");
 
         // 检查 WHERE 子句
         if (node.whereClause() != null) {
@@ -337,6 +376,7 @@ public class SemanticAnalyzer {
             throw new SemanticException("Access denied for user '" + session.getUsername() + "'. UPDATE command denied on table '" + tableName + "'.");
         }
         TableInfo tableInfo = getTableOrThrow(tableName);
+        rejectColumnar(tableInfo, "UPDATE");
 
         for (SetClauseNode clause : node.setClauses()) {
             // *** 检查带限定符的列 ***
@@ -345,10 +385,7 @@ public class SemanticAnalyzer {
             if (!(clause.value() instanceof LiteralNode literal)) {
                 throw new SemanticException("SET clause currently only supports literal values.");
             }
-            DataType actualType = getLiteralType(literal);
-            if (expectedType != actualType) {
-                throw new SemanticException("Data type mismatch for column '" + column.getName() + "'. Expected " + expectedType + " but got " + actualType + ".");
-            }
+            checkLiteralType(column.getName(), expectedType, literal);
         }
         if (node.whereClause() != null) {
             analyzeExpression(node.whereClause(), tableInfo);
@@ -364,6 +401,14 @@ public class SemanticAnalyzer {
         getTableOrThrow(node.tableName().getName());
     }
 
+    private void analyzeTruncateTable(TruncateTableStatementNode node, Session session) {
+        // 与 DROP TABLE 一样只有 root 可以清空表
+        if (!"root".equalsIgnoreCase(session.getUsername())) {
+            throw new SemanticException("Access denied for user '" + session.getUsername() + "'. DROP privilege required for TRUNCATE TABLE.");
+        }
+        rejectColumnar(getTableOrThrow(node.tableName().getName()), "TRUNCATE TABLE");
+    }
+
     private void analyzeAlterTable(AlterTableStatementNode node,Session session) {
         // 只有 root 可以改表结构
         if (!"root".equalsIgnoreCase(session.getUsername())) {
@@ -371,6 +416,7 @@ public class SemanticAnalyzer {
         }
         String tableName = node.tableName().getName();
         TableInfo tableInfo = getTableOrThrow(tableName);
+        rejectColumnar(tableInfo, "ALTER TABLE");
 
         // 检查要添加的列名是否已存在
         String newColumnName = node.newColumnDefinition().columnName().getName();
@@ -401,6 +447,15 @@ public class SemanticAnalyzer {
         return tableInfo;
     }
 
+    /**
+     * 列存表只支持 INSERT、SELECT 和 DROP TABLE。
+     */
+    private void rejectColumnar(TableInfo tableInfo, String operation) {
+        if (tableInfo.isColumnar()) {
+            throw new SemanticException(operation + " is not supported on columnar table '" + tableInfo.getTableName() + "'.");
+        }
+    }
+
     private Column checkColumnExists(TableInfo tableInfo, IdentifierNode columnIdentifier) {
         String tableName = tableInfo.getTableName();
         String columnName = columnIdentifier.getName();
@@ -418,6 +473,25 @@ public class SemanticAnalyzer {
                 .orElseThrow(() -> new SemanticException("Column '" + columnName + "' not found in table '" + tableName + "'."));
     }
 
+    /**
+     * 检查字面量能否转换为列的类型。INSERT、UPDATE ... SET 和 WHERE 共用 LiteralConverter 的兼容规则，
+     * 保证通过语义检查的字面量在计划和执行阶段都能被转换。
+     */
+    private void checkLiteralType(String columnName, DataType expectedType, LiteralNode literal) {
+        DataType actualType = getLiteralType(literal);
+        if (!LiteralConverter.isCompatible(literal, expectedType)) {
+            throw new SemanticException("Data type mismatch for column '" + columnName + "'. Expected " + expectedType + " but got " + actualType + ".");
+        }
+        // 检查是否是合法的 DATE 字符串
+        if (expectedType == DataType.DATE) {
+            try {
+                LocalDate.parse(literal.literal().lexeme());
+            } catch (DateTimeParseException e) {
+                throw new SemanticException("Invalid DATE format for column '" + columnName + "'. Expected 'YYYY-MM-DD'.");
+            }
+        }
+    }
+
     private DataType getLiteralType(LiteralNode literal) {
         TokenType type = literal.literal().type();
         String lexeme = literal.literal().lexeme();
@@ -451,11 +525,7 @@ public class SemanticAnalyzer {
             // 处理 col op literal (常见于 WHERE)
             if (binaryExpr.left() instanceof IdentifierNode colNode && binaryExpr.right() instanceof LiteralNode literalNode) {
                 Column column = checkColumnExistsInJoinedTables(leftTable, rightTable, colNode);
-                DataType expectedType = column.getType();
-                DataType actualType = getLiteralType(literalNode);
-                if (expectedType != actualType) {
-                    throw new SemanticException("Data type mismatch for column '" + colNode.getFullName() + "'. Expected " + expectedType + " but got " + actualType + ".");
-                }
+                checkLiteralType(colNode.getFullName(), column.getType(), literalNode);
                 // 处理 col op col (常见于 JOIN ON)
             } else if (binaryExpr.left() instanceof IdentifierNode leftCol && binaryExpr.right() instanceof IdentifierNode rightCol) {
                 checkColumnExistsInJoinedTables(leftTable, rightTable, leftCol);
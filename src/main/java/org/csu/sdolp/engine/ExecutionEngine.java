@@ -1,19 +1,17 @@
 package org.csu.sdolp.engine;
 
+import lombok.Getter;
+import lombok.Setter;
 import org.csu.sdolp.DatabaseManager;
 import org.csu.sdolp.catalog.Catalog;
 import org.csu.sdolp.common.model.Schema;
-import org.csu.sdolp.common.model.Value;
-import org.csu.sdolp.compiler.parser.ast.expression.BinaryExpressionNode;
-import org.csu.sdolp.compiler.parser.ast.ExpressionNode;
-import org.csu.sdolp.compiler.parser.ast.expression.IdentifierNode;
-import org.csu.sdolp.compiler.parser.ast.expression.LiteralNode;
 import org.csu.sdolp.compiler.planner.plan.*;
 import org.csu.sdolp.compiler.planner.plan.dcl.CreateUserPlanNode;
 import org.csu.sdolp.compiler.planner.plan.dcl.GrantPlanNode;
 import org.csu.sdolp.compiler.planner.plan.ddl.*;
 import org.csu.sdolp.compiler.planner.plan.dml.DeletePlanNode;
 import org.csu.sdolp.compiler.planner.plan.dml.InsertPlanNode;
+import org.csu.sdolp.compiler.planner.plan.dml.LoadDataPlanNode;
 import org.csu.sdolp.compiler.planner.plan.dml.UpdatePlanNode;
 import org.csu.sdolp.compiler.planner.plan.query.*;
 import org.csu.sdolp.compiler.planner.plan.show.*;
@@ -23,17 +21,21 @@ import org.csu.sdolp.executor.dcl.GrantExecutor;
 import org.csu.sdolp.executor.ddl.*;
 import org.csu.sdolp.executor.dml.*;
 import org.csu.sdolp.executor.expressions.AbstractPredicate;
-import org.csu.sdolp.executor.expressions.ComparisonPredicate;
+import org.csu.sdolp.executor.parallel.ParallelAggregateExecutor;
+import org.csu.sdolp.executor.parallel.ParallelSeqScanExecutor;
 import org.csu.sdolp.executor.show.*;
+import org.csu.sdolp.executor.vector.*;
+import org.csu.sdolp.catalog.TableInfo;
 import org.csu.sdolp.storage.buffer.BufferPoolManager;
+import org.csu.sdolp.storage.column.ColumnarTable;
 import org.csu.sdolp.transaction.LockManager;
 import org.csu.sdolp.transaction.Transaction;
 import org.csu.sdolp.transaction.log.LogManager;
-import org.csu.sdolp.executor.expressions.LogicalPredicate;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 
@@ -43,6 +45,24 @@ public class ExecutionEngine {
     private final LogManager logManager;
     private final LockManager lockManager;
     private final DatabaseManager dbManager;
+    /**
+     * 没有在会话中 "SET VECTORIZED = ON|OFF" 时是否启用批量 (向量化) 执行模式。启用时扫描、过滤、投影、聚合和 LIMIT
+     * 使用批量算子，再通过 BatchToRowAdapter 交给上层的行式算子。
+     * 默认关闭：批量扫描把页面数据直接解码到列向量 (定长列为原生数组)，分组聚合这类分析型查询明显更快；
+     * 但结果仍要经 BatchToRowAdapter 逐行物化，返回大量行的查询没有收益，因此由会话在分析型负载下按需开启。
+     */
+    @Getter
+    @Setter
+    private boolean vectorizedExecution = false;
+    /**
+     * 并行扫描和并行聚合共用的工作线程池，每个查询最多同时占用会话并行度个任务。
+     */
+    private static final ForkJoinPool PARALLEL_POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    /**
+     * 堆表的后台清理，DELETE 之后请求清理被删空的页，DROP TABLE / TRUNCATE TABLE 之后回收不再被引用的页。未设置时不做清理。
+     */
+    @Setter
+    private HeapVacuum heapVacuum;
 
 
     public ExecutionEngine(BufferPoolManager bufferPoolManager, Catalog catalog,
@@ -55,10 +75,24 @@ public class ExecutionEngine {
     }
 
     public TupleIterator execute(PlanNode plan, Transaction txn) throws IOException, InterruptedException {
-        return buildExecutorTree(plan, txn);
+        return execute(plan, txn, 1);
     }
 
-    private TupleIterator buildExecutorTree(PlanNode plan, Transaction txn) throws IOException, InterruptedException {
+    /**
+     * @param parallelism 并行度 (通常来自会话设置)，大于 1 时顺序扫描和扫描之上的聚合按 morsel 并行执行
+     */
+    public TupleIterator execute(PlanNode plan, Transaction txn, int parallelism) throws IOException, InterruptedException {
+        return execute(plan, txn, parallelism, null);
+    }
+
+    /**
+     * @param vectorized 是否使用批量执行模式 (通常来自会话设置)，为 null 时按 vectorizedExecution 决定
+     */
+    public TupleIterator execute(PlanNode plan, Transaction txn, int parallelism, Boolean vectorized) throws IOException, InterruptedException {
+        return buildExecutorTree(plan, txn, Math.max(1, parallelism), vectorized != null ? vectorized : vectorizedExecution);
+    }
+
+    private TupleIterator buildExecutorTree(PlanNode plan, Transaction txn, int parallelism, boolean vectorized) throws IOException, InterruptedException {
         // --- DDL/DCL Executors for Databases ---
         if (plan instanceof CreateDatabasePlanNode createDbPlan) {
             return new CreateDatabaseExecutor(createDbPlan, dbManager);
@@ -76,27 +110,48 @@ public class ExecutionEngine {
             return new DropDatabaseExecutor(dropDbPlan, dbManager);
         }
 
+        if (parallelism > 1) {
+            TupleIterator parallelExecutor = buildParallelExecutor(plan, txn, parallelism);
+            if (parallelExecutor != null) {
+                return parallelExecutor;
+            }
+        }
+
+        if (vectorized && isBatchCapable(plan)) {
+            return new BatchToRowAdapter(buildBatchTree(plan, txn, parallelism));
+        }
+
         // --- DML and Scan Executors ---
         if (plan instanceof InsertPlanNode insertPlan) {
+            if (insertPlan.getTableInfo().isColumnar()) {
+                return new ColumnarInsertExecutor(insertPlan, openColumnarTable(insertPlan.getTableInfo()), txn, lockManager);
+            }
             TableHeap tableHeap = new TableHeap(bufferPoolManager, insertPlan.getTableInfo(), logManager, lockManager);
             return new InsertExecutor(insertPlan, tableHeap, txn, catalog, bufferPoolManager);
         }
+        if (plan instanceof LoadDataPlanNode loadDataPlan) {
+            return new LoadDataExecutor(loadDataPlan, catalog, bufferPoolManager, logManager, lockManager, txn);
+        }
         if (plan instanceof SeqScanPlanNode seqScanPlan) {
-            TableHeap tableHeap = new TableHeap(bufferPoolManager, seqScanPlan.getTableInfo(), logManager, lockManager);
+            if (seqScanPlan.getTableInfo().isColumnar()) {
+                return new BatchToRowAdapter(buildColumnarScan(seqScanPlan, txn));
+            }
+            TableHeap tableHeap = createScanHeap(seqScanPlan);
             AbstractPredicate predicate = null;
             if (seqScanPlan.getPredicate() != null) {
-                predicate = createPredicateFromAst(seqScanPlan.getPredicate(), seqScanPlan.getOutputSchema());
+                predicate = ExpressionCompiler.compileCached(seqScanPlan.getPredicate(), seqScanPlan.getOutputSchema());
             }
             // 将谓词（可能为 null）传递给执行器
             return new SeqScanExecutor(tableHeap, txn, predicate);
         }
+        // DML 的子计划一边扫描一边修改页面，始终串行执行
         if (plan instanceof DeletePlanNode deletePlan) {
-            TupleIterator childPlan = buildExecutorTree(deletePlan.getChild(), txn);
+            TupleIterator childPlan = buildExecutorTree(deletePlan.getChild(), txn, 1, vectorized);
             TableHeap tableHeap = new TableHeap(bufferPoolManager, deletePlan.getTableInfo(), logManager, lockManager);
-            return new DeleteExecutor(deletePlan, childPlan, tableHeap, txn, catalog, bufferPoolManager);
+            return new DeleteExecutor(deletePlan, childPlan, tableHeap, txn, catalog, bufferPoolManager, heapVacuum);
         }
         if (plan instanceof UpdatePlanNode updatePlan) {
-            TupleIterator childPlan = buildExecutorTree(updatePlan.getChild(), txn);
+            TupleIterator childPlan = buildExecutorTree(updatePlan.getChild(), txn, 1, vectorized);
             TableHeap tableHeap = new TableHeap(bufferPoolManager, updatePlan.getTableInfo(), logManager, lockManager);
             return new UpdateExecutor(
                     childPlan,
@@ -111,35 +166,25 @@ public class ExecutionEngine {
 
         // --- Query Clause Executors ---
         if (plan instanceof FilterPlanNode filterPlan) {
-            TupleIterator childExecutor = buildExecutorTree(filterPlan.getChild(), txn);
-            AbstractPredicate predicate = createPredicateFromAst(filterPlan.getPredicate(), filterPlan.getChild().getOutputSchema());
+            TupleIterator childExecutor = buildExecutorTree(filterPlan.getChild(), txn, parallelism, vectorized);
+            AbstractPredicate predicate = ExpressionCompiler.compileCached(filterPlan.getPredicate(), filterPlan.getChild().getOutputSchema());
             return new FilterExecutor(childExecutor, predicate);
         }
         if (plan instanceof ProjectPlanNode projectPlan) {
-            TupleIterator childExecutor = buildExecutorTree(projectPlan.getChild(), txn);
-            List<Integer> columnIndexes = new ArrayList<>();
-            Schema childSchema = projectPlan.getChild().getOutputSchema();
-            for (String colName : projectPlan.getOutputSchema().getColumns().stream().map(c -> c.getName()).collect(Collectors.toList())) {
-                for (int i = 0; i < childSchema.getColumns().size(); i++) {
-                    if (childSchema.getColumns().get(i).getName().equalsIgnoreCase(colName)) {
-                        columnIndexes.add(i);
-                        break;
-                    }
-                }
-            }
-            return new ProjectExecutor(childExecutor, columnIndexes);
+            TupleIterator childExecutor = buildExecutorTree(projectPlan.getChild(), txn, parallelism, vectorized);
+            return new ProjectExecutor(childExecutor, getProjectionIndexes(projectPlan));
         }
         if (plan instanceof SortPlanNode sortPlan) {
-            TupleIterator childExecutor = buildExecutorTree(sortPlan.getChild(), txn);
+            TupleIterator childExecutor = buildExecutorTree(sortPlan.getChild(), txn, parallelism, vectorized);
             return new SortExecutor(childExecutor, sortPlan);
         }
         if (plan instanceof LimitPlanNode limitPlan) {
-            TupleIterator childExecutor = buildExecutorTree(limitPlan.getChild(), txn);
+            TupleIterator childExecutor = buildExecutorTree(limitPlan.getChild(), txn, parallelism, vectorized);
             return new LimitExecutor(childExecutor, limitPlan.getLimit());
         }
         if (plan instanceof JoinPlanNode joinPlan) {
-            TupleIterator leftExecutor = buildExecutorTree(joinPlan.getLeft(), txn);
-            TupleIterator rightExecutor = buildExecutorTree(joinPlan.getRight(), txn);
+            TupleIterator leftExecutor = buildExecutorTree(joinPlan.getLeft(), txn, parallelism, vectorized);
+            TupleIterator rightExecutor = buildExecutorTree(joinPlan.getRight(), txn, parallelism, vectorized);
             return new JoinExecutor(joinPlan, leftExecutor, rightExecutor);
         }
         if (plan instanceof CreateIndexPlanNode createIndexPlan) {
@@ -160,14 +205,17 @@ public class ExecutionEngine {
             return new CreateTableExecutor(createTablePlan, catalog, txn, logManager, bufferPoolManager, lockManager);
         }
         if (plan instanceof DropTablePlanNode dropPlan) {
-            return new DropTableExecutor(dropPlan, catalog, txn, logManager);
+            return new DropTableExecutor(dropPlan, catalog, txn, logManager, lockManager, heapVacuum);
+        }
+        if (plan instanceof TruncateTablePlanNode truncatePlan) {
+            return new TruncateTableExecutor(truncatePlan, catalog, bufferPoolManager, txn, logManager, lockManager, heapVacuum);
         }
         if (plan instanceof AlterTablePlanNode alterPlan) {
             return new AlterTableExecutor(alterPlan, catalog, txn, logManager);
         }
         // ======  (Phase 4) ======
         if (plan instanceof AggregatePlanNode aggPlan) {
-            TupleIterator childExecutor = buildExecutorTree(aggPlan.getChild(), txn);
+            TupleIterator childExecutor = buildExecutorTree(aggPlan.getChild(), txn, parallelism, vectorized);
             return new AggregateExecutor(childExecutor, aggPlan);
         }
         if (plan instanceof CreateUserPlanNode createUserPlan) {
@@ -178,45 +226,119 @@ public class ExecutionEngine {
         }
         throw new UnsupportedOperationException("Unsupported plan node: " + plan.getClass().getSimpleName());
     }
-    private AbstractPredicate createPredicateFromAst(ExpressionNode expression, Schema schema) {
-        if (expression instanceof BinaryExpressionNode node) {
-            String operatorName = node.operator().type().name();
-            // 检查是否是逻辑运算符
-            if ("AND".equals(operatorName) || "OR".equals(operatorName)) {
-                AbstractPredicate left = createPredicateFromAst(node.left(), schema);
-                AbstractPredicate right = createPredicateFromAst(node.right(), schema);
-                return new LogicalPredicate(left, right, operatorName);
-            }
+    /**
+     * 构建并行算子：顺序扫描和直接建立在顺序扫描之上的聚合。其他计划返回 null，按串行方式构建。
+     * 列存表的扫描已经按列批量解码，不再按 morsel 并行。
+     */
+    private TupleIterator buildParallelExecutor(PlanNode plan, Transaction txn, int parallelism) {
+        if (plan instanceof SeqScanPlanNode seqScanPlan && !seqScanPlan.getTableInfo().isColumnar()) {
+            TableHeap tableHeap = createScanHeap(seqScanPlan);
+            return new ParallelSeqScanExecutor(tableHeap, txn, compileScanPredicate(seqScanPlan), parallelism, PARALLEL_POOL);
+        }
+        if (plan instanceof AggregatePlanNode aggPlan && aggPlan.getChild() instanceof SeqScanPlanNode seqScanPlan
+                && !seqScanPlan.getTableInfo().isColumnar()) {
+            TableHeap tableHeap = createScanHeap(seqScanPlan);
+            return new ParallelAggregateExecutor(aggPlan, tableHeap, txn, compileScanPredicate(seqScanPlan), parallelism, PARALLEL_POOL);
+        }
+        return null;
+    }
 
-            // 否则，是比较运算符
-            if (!(node.left() instanceof IdentifierNode) || !(node.right() instanceof LiteralNode)) {
-                throw new UnsupportedOperationException("WHERE clause only supports 'column_name op literal' format.");
-            }
+    /**
+     * 为顺序扫描创建 TableHeap，并把计划中的投影 (需要的列) 下推给它。
+     */
+    private TableHeap createScanHeap(SeqScanPlanNode seqScanPlan) {
+        TableHeap tableHeap = new TableHeap(bufferPoolManager, seqScanPlan.getTableInfo(), logManager, lockManager);
+        tableHeap.setRequiredColumns(seqScanPlan.getRequiredColumns());
+        return tableHeap;
+    }
+
+    private ColumnarTable openColumnarTable(TableInfo tableInfo) {
+        return new ColumnarTable(bufferPoolManager, tableInfo.getFirstPageId(), tableInfo.getSchema(),
+                TableInfo.segmentName(tableInfo.getTableName()));
+    }
 
-            String columnName = ((IdentifierNode) node.left()).getName();
-            int columnIndex = getColumnIndex(schema, columnName);
-            Value literalValue = getLiteralValue((LiteralNode) node.right());
+    /**
+     * 列存表的扫描：只读取计划需要的列，并用谓词按段的 min/max 跳过整段。
+     */
+    private BatchIterator buildColumnarScan(SeqScanPlanNode seqScanPlan, Transaction txn) throws IOException {
+        ColumnarTable table = openColumnarTable(seqScanPlan.getTableInfo());
+        try {
+            lockManager.lockShared(txn, table.getHeaderPageId());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Thread interrupted while acquiring lock", e);
+        }
+        return new BatchColumnarScanExecutor(table, compileScanPredicate(seqScanPlan),
+                seqScanPlan.getRequiredColumns(), seqScanPlan.getPredicate());
+    }
 
-            return new ComparisonPredicate(columnIndex, literalValue, operatorName);
+    private AbstractPredicate compileScanPredicate(SeqScanPlanNode seqScanPlan) {
+        if (seqScanPlan.getPredicate() == null) {
+            return null;
         }
-        throw new UnsupportedOperationException("Unsupported expression type in WHERE clause: " + expression.getClass().getSimpleName());
+        return ExpressionCompiler.compileCached(seqScanPlan.getPredicate(), seqScanPlan.getOutputSchema());
     }
 
-    private int getColumnIndex(Schema schema, String columnName) {
-        for (int i = 0; i < schema.getColumns().size(); i++) {
-            if (schema.getColumns().get(i).getName().equalsIgnoreCase(columnName)) {
-                return i;
+    private boolean isBatchCapable(PlanNode plan) {
+        return plan instanceof SeqScanPlanNode
+                || plan instanceof FilterPlanNode
+                || plan instanceof ProjectPlanNode
+                || plan instanceof LimitPlanNode
+                || plan instanceof AggregatePlanNode;
+    }
+
+    /**
+     * 构建批量算子树。不支持批量执行的子计划按行式构建，再通过 RowToBatchAdapter 接入。
+     */
+    private BatchIterator buildBatchTree(PlanNode plan, Transaction txn, int parallelism) throws IOException, InterruptedException {
+        if (parallelism > 1) {
+            TupleIterator parallelExecutor = buildParallelExecutor(plan, txn, parallelism);
+            if (parallelExecutor != null) {
+                return new RowToBatchAdapter(parallelExecutor);
+            }
+        }
+        if (plan instanceof SeqScanPlanNode seqScanPlan) {
+            if (seqScanPlan.getTableInfo().isColumnar()) {
+                return buildColumnarScan(seqScanPlan, txn);
+            }
+            TableHeap tableHeap = createScanHeap(seqScanPlan);
+            AbstractPredicate predicate = null;
+            if (seqScanPlan.getPredicate() != null) {
+                predicate = ExpressionCompiler.compileCached(seqScanPlan.getPredicate(), seqScanPlan.getOutputSchema());
             }
+            return new BatchSeqScanExecutor(tableHeap, txn, predicate);
         }
-        throw new IllegalStateException("Column '" + columnName + "' not found in schema during execution planning.");
+        if (plan instanceof FilterPlanNode filterPlan) {
+            BatchIterator child = buildBatchTree(filterPlan.getChild(), txn, parallelism);
+            AbstractPredicate predicate = ExpressionCompiler.compileCached(filterPlan.getPredicate(), filterPlan.getChild().getOutputSchema());
+            return new BatchFilterExecutor(child, predicate);
+        }
+        if (plan instanceof ProjectPlanNode projectPlan) {
+            BatchIterator child = buildBatchTree(projectPlan.getChild(), txn, parallelism);
+            return new BatchProjectExecutor(child, getProjectionIndexes(projectPlan));
+        }
+        if (plan instanceof LimitPlanNode limitPlan) {
+            BatchIterator child = buildBatchTree(limitPlan.getChild(), txn, parallelism);
+            return new BatchLimitExecutor(child, limitPlan.getLimit());
+        }
+        if (plan instanceof AggregatePlanNode aggPlan) {
+            BatchIterator child = buildBatchTree(aggPlan.getChild(), txn, parallelism);
+            return new BatchAggregateExecutor(child, aggPlan);
+        }
+        return new RowToBatchAdapter(buildExecutorTree(plan, txn, parallelism, true));
     }
 
-    private Value getLiteralValue(LiteralNode literalNode) {
-        String lexeme = literalNode.literal().lexeme();
-        return switch (literalNode.literal().type()) {
-            case INTEGER_CONST -> new Value(Integer.parseInt(lexeme));
-            case STRING_CONST -> new Value(lexeme);
-            default -> throw new IllegalStateException("Unsupported literal type in expression.");
-        };
+    private List<Integer> getProjectionIndexes(ProjectPlanNode projectPlan) {
+        List<Integer> columnIndexes = new ArrayList<>();
+        Schema childSchema = projectPlan.getChild().getOutputSchema();
+        for (String colName : projectPlan.getOutputSchema().getColumns().stream().map(c -> c.getName()).collect(Collectors.toList())) {
+            for (int i = 0; i < childSchema.getColumns().size(); i++) {
+                if (childSchema.getColumns().get(i).getName().equalsIgnoreCase(colName)) {
+                    columnIndexes.add(i);
+                    break;
+                }
+            }
+        }
+        return columnIndexes;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,120 @@
+package org.csu.sdolp.engine;
+
+import org.csu.sdolp.catalog.TableInfo;
+import org.csu.sdolp.common.model.DataType;
+import org.csu.sdolp.common.model.Schema;
+import org.csu.sdolp.common.model.Value;
+import org.csu.sdolp.compiler.lexer.TokenType;
+import org.csu.sdolp.compiler.parser.ast.ExpressionNode;
+import org.csu.sdolp.compiler.parser.ast.expression.AggregateExpressionNode;
+import org.csu.sdolp.compiler.parser.ast.expression.BinaryExpressionNode;
+import org.csu.sdolp.compiler.parser.ast.expression.IdentifierNode;
+import org.csu.sdolp.compiler.parser.ast.expression.LiteralNode;
+import org.csu.sdolp.compiler.planner.LiteralConverter;
+import org.csu.sdolp.executor.expressions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 表达式绑定器。
+ * 把谓词 AST 绑定为物理表达式：列名 (包括 HAVING 中的聚合列和 JOIN 中带限定符的列) 解析为序号，
+ * 字面量按对应列的 DataType 预先转换，比较运算按列类型选择 int / double / string / date 的特化节点。
+ * 执行器只对绑定后的表达式求值，运行时不再查找列名或解析词素。
+ */
+public class ExpressionBinder {
+
+    /**
+     * 绑定单表上下文中的谓词 (WHERE、HAVING)。
+     */
+    public static AbstractPredicate bind(ExpressionNode expression, Schema schema) {
+        return bind(expression, schema, null, null);
+    }
+
+    /**
+     * 绑定谓词；leftTable / rightTable 非空时按 JOIN 上下文解析带表限定符的列。
+     */
+    public static AbstractPredicate bind(ExpressionNode expression, Schema schema, TableInfo leftTable, TableInfo rightTable) {
+        if (!(expression instanceof BinaryExpressionNode node)) {
+            String type = expression == null ? "null" : expression.getClass().getSimpleName();
+            throw new UnsupportedOperationException("Unsupported expression type in WHERE or HAVING clause: " + type);
+        }
+        TokenType operatorType = node.operator().type();
+        if (operatorType == TokenType.AND || operatorType == TokenType.OR) {
+            return new LogicalPredicate(
+                    bind(node.left(), schema, leftTable, rightTable),
+                    bind(node.right(), schema, leftTable, rightTable),
+                    operatorType.name());
+        }
+
+        ComparisonOperator operator = ComparisonOperator.fromTokenName(operatorType.name());
+        // 统一成 "列 op 常量" 的形式
+        if (isColumn(node.left()) && node.right() instanceof LiteralNode literal) {
+            return bindColumnComparison(resolveColumn(node.left(), schema, leftTable, rightTable), schema, operator, literal);
+        }
+        if (node.left() instanceof LiteralNode literal && isColumn(node.right())) {
+            return bindColumnComparison(resolveColumn(node.right(), schema, leftTable, rightTable), schema, operator.mirror(), literal);
+        }
+        return new ValueComparison(
+                bindOperand(node.left(), schema, leftTable, rightTable),
+                operator,
+                bindOperand(node.right(), schema, leftTable, rightTable));
+    }
+
+    private static AbstractPredicate bindColumnComparison(int ordinal, Schema schema, ComparisonOperator operator, LiteralNode literal) {
+        DataType columnType = schema.getColumns().get(ordinal).getType();
+        if (LiteralConverter.isCompatible(literal, columnType)) {
+            Value constant = LiteralConverter.toValue(literal, columnType);
+            return switch (columnType) {
+                case INT -> new IntComparison(ordinal, operator, (Integer) constant.getValue());
+                case FLOAT -> new DoubleComparison(ordinal, operator, (Float) constant.getValue());
+                case DOUBLE -> new DoubleComparison(ordinal, operator, (Double) constant.getValue());
+                case VARCHAR, CHAR -> new StringComparison(ordinal, operator, (String) constant.getValue());
+                case DATE -> new DateComparison(ordinal, operator, (LocalDate) constant.getValue());
+                default -> new ValueComparison(new ValueExpression.ColumnReference(ordinal), operator,
+                        new ValueExpression.Constant(constant));
+            };
+        }
+        // INT 列与小数常量比较，按 double 比较
+        if (columnType == DataType.INT && literal.literal().type() == TokenType.DECIMAL_CONST) {
+            return new DoubleComparison(ordinal, operator, new BigDecimal(literal.literal().lexeme()).doubleValue());
+        }
+        // 类型不兼容时保留通用比较语义 (通常结果为 false)
+        return new ValueComparison(new ValueExpression.ColumnReference(ordinal), operator,
+                new ValueExpression.Constant(LiteralConverter.toValue(literal)));
+    }
+
+    private static ValueExpression bindOperand(ExpressionNode node, Schema schema, TableInfo leftTable, TableInfo rightTable) {
+        if (isColumn(node)) {
+            return new ValueExpression.ColumnReference(resolveColumn(node, schema, leftTable, rightTable));
+        }
+        if (node instanceof LiteralNode literal) {
+            return new ValueExpression.Constant(LiteralConverter.toValue(literal));
+        }
+        throw new IllegalStateException("Unsupported node type in expression: " + node.getClass().getSimpleName());
+    }
+
+    private static boolean isColumn(ExpressionNode node) {
+        return node instanceof IdentifierNode || node instanceof AggregateExpressionNode;
+    }
+
+    private static int resolveColumn(ExpressionNode node, Schema schema, TableInfo leftTable, TableInfo rightTable) {
+        if (node instanceof AggregateExpressionNode aggNode) {
+            // HAVING 中聚合函数本身就是聚合后 Schema 的列名
+            return schema.getColumnIndex(aggNode.toString());
+        }
+        IdentifierNode columnNode = (IdentifierNode) node;
+        String columnName = columnNode.getName();
+        String tableQualifier = columnNode.getTableQualifier();
+
+        // JOIN 上下文中，右表的列需要加上左表的列数作为偏移量
+        if (leftTable != null && rightTable != null && tableQualifier != null) {
+            if (tableQualifier.equalsIgnoreCase(leftTable.getTableName())) {
+                return leftTable.getSchema().getColumnIndex(columnName);
+            } else if (tableQualifier.equalsIgnoreCase(rightTable.getTableName())) {
+                return leftTable.getSchema().getColumns().size() + rightTable.getSchema().getColumnIndex(columnName);
+            }
+        }
+        return schema.getColumnIndex(columnName);
+    }
+}
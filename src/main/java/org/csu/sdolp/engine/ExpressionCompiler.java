@@ -0,0 +1,183 @@
+package org.csu.sdolp.engine;
+
+import org.csu.sdolp.catalog.TableInfo;
+import org.csu.sdolp.common.model.Column;
+import org.csu.sdolp.common.model.Schema;
+import org.csu.sdolp.common.model.Tuple;
+import org.csu.sdolp.compiler.parser.ast.ExpressionNode;
+import org.csu.sdolp.compiler.parser.ast.expression.AggregateExpressionNode;
+import org.csu.sdolp.compiler.parser.ast.expression.BinaryExpressionNode;
+import org.csu.sdolp.compiler.parser.ast.expression.IdentifierNode;
+import org.csu.sdolp.compiler.parser.ast.expression.LiteralNode;
+import org.csu.sdolp.executor.expressions.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 表达式编译器。
+ * 先由 ExpressionBinder 把 WHERE / ON / HAVING 的谓词 AST 绑定为类型特化的物理表达式，
+ * 再用 MethodHandle 组合子把整棵表达式树折叠成一个 (Tuple)boolean 的方法句柄：
+ * AND / OR 编译为 guardWithTest；"列 op 常量" 的叶子直接指向各比较节点的静态 test 方法，
+ * 列序号、运算符和常量通过 insertArguments 预先绑定，求值时不经过比较节点的虚调用。
+ * 编译结果按规范化的表达式文本和输入模式缓存，每条语句重新规划得到的新计划节点也能命中。
+ */
+public class ExpressionCompiler {
+
+    private static final MethodHandle EVALUATE;
+    private static final MethodHandle COMPARE_INT;
+    private static final MethodHandle COMPARE_DOUBLE;
+    private static final MethodHandle COMPARE_STRING;
+    private static final MethodHandle COMPARE_DATE;
+    private static final MethodHandle ALWAYS_TRUE =
+            MethodHandles.dropArguments(MethodHandles.constant(boolean.class, true), 0, Tuple.class);
+    private static final MethodHandle ALWAYS_FALSE =
+            MethodHandles.dropArguments(MethodHandles.constant(boolean.class, false), 0, Tuple.class);
+
+    private static final int CACHE_CAPACITY = 256;
+    // 规范化的表达式文本 + 输入模式 -> 编译结果，按 LRU 淘汰。编译结果不可变，可以被多个查询和线程共享
+    private static final Map<String, CompiledPredicate> CACHE = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CompiledPredicate> eldest) {
+            return size() > CACHE_CAPACITY;
+        }
+    };
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            EVALUATE = lookup.findVirtual(AbstractPredicate.class, "evaluate",
+                    MethodType.methodType(boolean.class, Tuple.class));
+            COMPARE_INT = lookup.findStatic(IntComparison.class, "test",
+                    MethodType.methodType(boolean.class, Tuple.class, int.class, ComparisonOperator.class, int.class));
+            COMPARE_DOUBLE = lookup.findStatic(DoubleComparison.class, "test",
+                    MethodType.methodType(boolean.class, Tuple.class, int.class, ComparisonOperator.class, double.class));
+            COMPARE_STRING = lookup.findStatic(StringComparison.class, "test",
+                    MethodType.methodType(boolean.class, Tuple.class, int.class, ComparisonOperator.class, String.class));
+            COMPARE_DATE = lookup.findStatic(DateComparison.class, "test",
+                    MethodType.methodType(boolean.class, Tuple.class, int.class, ComparisonOperator.class, long.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * 编译单表上下文中的谓词 (WHERE、HAVING)。
+     */
+    public static CompiledPredicate compile(ExpressionNode expression, Schema schema) {
+        return compile(expression, schema, null, null);
+    }
+
+    /**
+     * 编译谓词；leftTable / rightTable 非空时按 JOIN 上下文解析带表限定符的列。
+     */
+    public static CompiledPredicate compile(ExpressionNode expression, Schema schema, TableInfo leftTable, TableInfo rightTable) {
+        if (expression == null) {
+            return new CompiledPredicate(ALWAYS_TRUE, null);
+        }
+        return compile(ExpressionBinder.bind(expression, schema, leftTable, rightTable));
+    }
+
+    /**
+     * 编译一棵已经绑定好的物理表达式。
+     */
+    public static CompiledPredicate compile(AbstractPredicate bound) {
+        return new CompiledPredicate(toHandle(bound), bound);
+    }
+
+    /**
+     * 获取谓词的编译结果：同一表达式 (忽略词素在语句中的位置) 在同一输入模式上只编译一次。
+     */
+    public static CompiledPredicate compileCached(ExpressionNode expression, Schema schema) {
+        return compileCached(expression, schema, null, null);
+    }
+
+    public static CompiledPredicate compileCached(ExpressionNode expression, Schema schema,
+                                                  TableInfo leftTable, TableInfo rightTable) {
+        StringBuilder key = new StringBuilder();
+        if (expression == null || !appendNormalized(expression, key)) {
+            return compile(expression, schema, leftTable, rightTable);
+        }
+        key.append(" @");
+        for (Column column : schema.getColumns()) {
+            key.append(' ').append(column.getName()).append(':').append(column.getType());
+        }
+        if (leftTable != null && rightTable != null) {
+            // 带限定符的列按左右表的表名和左表的列数解析
+            key.append(" @").append(leftTable.getTableName()).append('/').append(leftTable.getSchema().getColumns().size())
+                    .append(' ').append(rightTable.getTableName());
+        }
+        String cacheKey = key.toString();
+        synchronized (CACHE) {
+            CompiledPredicate cached = CACHE.get(cacheKey);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        CompiledPredicate compiled = compile(expression, schema, leftTable, rightTable);
+        synchronized (CACHE) {
+            CACHE.putIfAbsent(cacheKey, compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * 把表达式规范化为文本：只保留结构、列名、运算符和字面量的类型与词素，不含行号列号。
+     * @return 遇到无法规范化的节点时返回 false，此时不缓存
+     */
+    private static boolean appendNormalized(ExpressionNode node, StringBuilder out) {
+        if (node instanceof BinaryExpressionNode binary) {
+            out.append('(');
+            if (!appendNormalized(binary.left(), out)) {
+                return false;
+            }
+            out.append(' ').append(binary.operator().type()).append(' ');
+            if (!appendNormalized(binary.right(), out)) {
+                return false;
+            }
+            out.append(')');
+            return true;
+        }
+        if (node instanceof IdentifierNode identifier) {
+            out.append(identifier.getFullName());
+            return true;
+        }
+        if (node instanceof LiteralNode literal) {
+            out.append(literal.literal().type()).append(':').append(literal.literal().lexeme().length())
+                    .append(':').append(literal.literal().lexeme());
+            return true;
+        }
+        if (node instanceof AggregateExpressionNode aggregate) {
+            out.append(aggregate);
+            return true;
+        }
+        return false;
+    }
+
+    private static MethodHandle toHandle(AbstractPredicate predicate) {
+        if (predicate instanceof LogicalPredicate logical) {
+            MethodHandle left = toHandle(logical.getLeft());
+            MethodHandle right = toHandle(logical.getRight());
+            return logical.isConjunction()
+                    ? MethodHandles.guardWithTest(left, right, ALWAYS_FALSE)   // left ? right : false
+                    : MethodHandles.guardWithTest(left, ALWAYS_TRUE, right);   // left ? true : right
+        }
+        if (predicate instanceof IntComparison c) {
+            return MethodHandles.insertArguments(COMPARE_INT, 1, c.getOrdinal(), c.getOperator(), c.getConstant());
+        }
+        if (predicate instanceof DoubleComparison c) {
+            return MethodHandles.insertArguments(COMPARE_DOUBLE, 1, c.getOrdinal(), c.getOperator(), c.getConstant());
+        }
+        if (predicate instanceof StringComparison c) {
+            return MethodHandles.insertArguments(COMPARE_STRING, 1, c.getOrdinal(), c.getOperator(), c.getConstant());
+        }
+        if (predicate instanceof DateComparison c) {
+            return MethodHandles.insertArguments(COMPARE_DATE, 1, c.getOrdinal(), c.getOperator(), c.getEpochDay());
+        }
+        // 列与列比较等通用节点仍调用物理表达式本身
+        return EVALUATE.bindTo(predicate);
+    }
+}
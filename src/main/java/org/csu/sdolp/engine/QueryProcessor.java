@@ -14,6 +14,7 @@ import org.csu.sdolp.compiler.parser.ast.ddl.CreateTableStatementNode;
 import org.csu.sdolp.compiler.parser.ast.ddl.DropDatabaseStatementNode;
 import org.csu.sdolp.compiler.parser.ast.dml.DeleteStatementNode;
 import org.csu.sdolp.compiler.parser.ast.dml.InsertStatementNode;
+import org.csu.sdolp.compiler.parser.ast.dml.LoadDataStatementNode;
 import org.csu.sdolp.compiler.parser.ast.dml.SelectStatementNode;
 import org.csu.sdolp.compiler.parser.ast.dml.UpdateStatementNode;
 import org.csu.sdolp.compiler.parser.ast.misc.ShowColumnsStatementNode;
@@ -23,9 +24,11 @@ import org.csu.sdolp.compiler.parser.ast.misc.UseDatabaseStatementNode;
 import org.csu.sdolp.compiler.planner.Planner;
 import org.csu.sdolp.compiler.planner.plan.PlanNode;
 import org.csu.sdolp.compiler.semantic.SemanticAnalyzer;
+import org.csu.sdolp.executor.HeapVacuum;
 import org.csu.sdolp.executor.TupleIterator;
 import org.csu.sdolp.storage.buffer.BufferPoolManager;
 import org.csu.sdolp.storage.disk.DiskManager;
+import org.csu.sdolp.storage.page.Page;
 import org.csu.sdolp.transaction.LockManager;
 import org.csu.sdolp.transaction.RecoveryManager;
 import org.csu.sdolp.transaction.Transaction;
@@ -42,12 +45,14 @@ import java.util.stream.Collectors;
 
 public class QueryProcessor {
 
+    @Getter
     private DiskManager diskManager;
     @Getter
     private BufferPoolManager bufferPoolManager;
     @Getter
     private Catalog catalog;
     private Planner planner;
+    @Getter
     private ExecutionEngine executionEngine;
     @Getter
     private LogManager logManager;
@@ -56,14 +61,25 @@ public class QueryProcessor {
     @Getter
     private TransactionManager transactionManager;
     @Getter
+    private HeapVacuum heapVacuum;
+    @Getter
     private final DatabaseManager dbManager;
     private final String dbName;
 
     public QueryProcessor(String dbName) {
+        this(dbName, DiskManager.IoMode.BUFFERED);
+    }
+
+    /**
+     * @param ioMode 数据文件的访问方式：内存映射适合以读为主的数据库，直接 I/O 适合按接近物理内存配置的大缓存池 (见 DiskManager)
+     */
+    public QueryProcessor(String dbName, DiskManager.IoMode ioMode) {
         this.dbName = dbName;
         try {
             this.dbManager = new DatabaseManager();
-            this.diskManager = new DiskManager(DatabaseManager.getDbFilePath(dbName));
+            this.diskManager = new DiskManager(DatabaseManager.getDbFilePath(dbName), Page.DEFAULT_PAGE_SIZE, ioMode);
+            // 每张表、每个索引使用自己的表空间文件
+            diskManager.setFilePerSegment(true);
             diskManager.open();
             final int bufferPoolSize = 100;
             this.bufferPoolManager = new BufferPoolManager(bufferPoolSize, diskManager, "MLFQ");
@@ -81,6 +97,8 @@ public class QueryProcessor {
                     this.lockManager
             );
             recoveryManager.recover();
+            this.heapVacuum = new HeapVacuum(bufferPoolManager, catalog, logManager, lockManager);
+            executionEngine.setHeapVacuum(heapVacuum);
             System.out.println("Recovery process for database '" + dbName + "' completed.");
         } catch (IOException e) {
             throw new RuntimeException("Failed to initialize database engine for " + dbName, e);
@@ -88,6 +106,7 @@ public class QueryProcessor {
     }
 
     public void close() throws IOException {
+        heapVacuum.shutdown();
         bufferPoolManager.flushAllPages();
         logManager.flush();
         diskManager.close();
@@ -108,6 +127,10 @@ public class QueryProcessor {
                 bufferPoolManager.clear();
                 return "Buffer pool cleared.";
             }
+            String setting = session == null ? null : session.applySetCommand(sql);
+            if (setting != null) {
+                return "Query OK, " + setting + ".";
+            }
 
             Lexer lexer = new Lexer(sql);
             Parser parser = new Parser(lexer.tokenize());
@@ -132,7 +155,7 @@ public class QueryProcessor {
             semanticAnalyzer.analyze(ast,session);
 
             PlanNode plan = planner.createPlan(ast);
-            TupleIterator executor = executionEngine.execute(plan, txn);
+            TupleIterator executor = executionEngine.execute(plan, txn, session.getParallelism(), session.getVectorized());
 
             String result = formatResults(executor);
             transactionManager.commit(txn);
@@ -256,7 +279,7 @@ public class QueryProcessor {
             SemanticAnalyzer semanticAnalyzer = new SemanticAnalyzer(catalog);
             semanticAnalyzer.analyze(ast,session);
             PlanNode plan = planner.createPlan(ast);
-            TupleIterator iterator = executionEngine.execute(plan, txn);
+            TupleIterator iterator = executionEngine.execute(plan, txn, session.getParallelism(), session.getVectorized());
             transactionManager.commit(txn);
             return iterator;
         } catch (Exception e) {
@@ -301,7 +324,7 @@ public class QueryProcessor {
         SemanticAnalyzer semanticAnalyzer = new SemanticAnalyzer(catalog);
         semanticAnalyzer.analyze(ast,session);
         PlanNode plan = planner.createPlan(ast);
-        return executionEngine.execute(plan, txn);
+        return executionEngine.execute(plan, txn, session.getParallelism(), session.getVectorized());
     }
 
     public void execute(String sql){
@@ -316,6 +339,9 @@ public class QueryProcessor {
         if (ast instanceof InsertStatementNode insertNode) {
             return insertNode.tableName().getName();
         }
+        if (ast instanceof LoadDataStatementNode loadDataNode) {
+            return loadDataNode.tableName().getName();
+        }
         if (ast instanceof DeleteStatementNode deleteNode) {
             return deleteNode.tableName().getName();
         }
@@ -0,0 +1,128 @@
+package org.csu.sdolp.executor;
+
+import org.csu.sdolp.catalog.TableInfo;
+import org.csu.sdolp.common.model.OverflowPointer;
+import org.csu.sdolp.common.model.RID;
+import org.csu.sdolp.common.model.Tuple;
+import org.csu.sdolp.storage.buffer.BufferPoolManager;
+import org.csu.sdolp.storage.overflow.OverflowStore;
+import org.csu.sdolp.storage.page.Page;
+import org.csu.sdolp.storage.page.PageId;
+import org.csu.sdolp.transaction.LockManager;
+import org.csu.sdolp.transaction.Transaction;
+import org.csu.sdolp.transaction.log.LogManager;
+import org.csu.sdolp.transaction.log.LogRecord;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 堆表的批量装载。
+ * 元组依次写满新分配的页，这些页先在表的页链表之外串成一条链，不为每行查找空闲页、也不写逐行的 WAL；
+ * finish 时把所有新页写盘，写一条 BULK_LOAD 日志，再把这条链一次挂到表的最后一页之后。
+ * 挂链之前失败时新页不可见，装载对其他事务表现为全有或全无；挂链之后未提交就崩溃的装载在恢复时摘下。
+ */
+public class HeapBulkLoader {
+
+    private final BufferPoolManager bufferPoolManager;
+    private final TableInfo tableInfo;
+    private final LogManager logManager;
+    private final LockManager lockManager;
+    private final Transaction txn;
+    private final OverflowStore overflowStore;
+
+    private int firstPageNum = -1;
+    private int currentPageNum = -1;
+    private Page currentPage;
+    private int loadedTuples = 0;
+
+    public HeapBulkLoader(BufferPoolManager bufferPoolManager, TableInfo tableInfo, LogManager logManager,
+                          LockManager lockManager, Transaction txn) {
+        this.bufferPoolManager = bufferPoolManager;
+        this.tableInfo = tableInfo;
+        this.logManager = logManager;
+        this.lockManager = lockManager;
+        this.txn = txn;
+        this.overflowStore = new OverflowStore(bufferPoolManager, tableInfo.getSegmentName());
+    }
+
+    public int getLoadedTuples() {
+        return loadedTuples;
+    }
+
+    /**
+     * 追加一条元组，并把它将来在表中的 RID 写回 tuple。
+     */
+    public void append(Tuple tuple) throws IOException {
+        Tuple storedTuple = overflowStore.toast(tuple);
+        byte[] tupleBytes = storedTuple.toBytes();
+        List<OverflowPointer> overflowPointers = OverflowStore.pointersOf(storedTuple);
+        if (currentPage != null && !overflowPointers.isEmpty()) {
+            // 写溢出页时当前页可能已被换出，重新取回
+            currentPage = bufferPoolManager.getPage(new PageId(currentPageNum));
+        }
+        if (currentPage == null || !currentPage.insertTuple(tupleBytes)) {
+            startNewPage();
+            if (!currentPage.insertTuple(tupleBytes)) {
+                overflowStore.free(overflowPointers);
+                throw new IOException("Tuple of " + tupleBytes.length + " bytes does not fit into an empty page.");
+            }
+        }
+        tuple.setRid(new RID(currentPageNum, currentPage.getNumTuples() - 1));
+        loadedTuples++;
+    }
+
+    private void startNewPage() throws IOException {
+        Page page = bufferPoolManager.newPage(tableInfo.getSegmentName());
+        int pageNum = page.getPageId().getPageNum();
+        if (currentPage != null) {
+            Page previous = bufferPoolManager.getPage(new PageId(currentPageNum));
+            previous.setNextPageId(pageNum);
+            bufferPoolManager.flushPage(previous.getPageId());
+        } else {
+            firstPageNum = pageNum;
+        }
+        currentPageNum = pageNum;
+        // 取回上一页时新页可能已被换出
+        currentPage = bufferPoolManager.getPage(new PageId(pageNum));
+    }
+
+    /**
+     * 把装载的页写盘并挂到表的页链表末尾，之后其他事务即可看到这些元组。
+     */
+    public void finish() throws IOException {
+        if (currentPage == null) {
+            return;
+        }
+        bufferPoolManager.flushPage(new PageId(currentPageNum));
+        try {
+            Page tail = findTailPage();
+            LogRecord logRecord = new LogRecord(txn.getTransactionId(), txn.getPrevLSN(), LogRecord.LogType.BULK_LOAD,
+                    tableInfo.getTableName(), tail.getPageId().getPageNum(), firstPageNum);
+            txn.setPrevLSN(logManager.appendLogRecord(logRecord));
+            logManager.flush();
+            tail = bufferPoolManager.getPage(tail.getPageId());
+            tail.setNextPageId(firstPageNum);
+            bufferPoolManager.flushPage(tail.getPageId());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Thread interrupted while acquiring lock", e);
+        }
+    }
+
+    /**
+     * 沿页链表找到最后一页，途经的页都加排他锁，与 TableHeap 的插入互斥。
+     */
+    private Page findTailPage() throws IOException, InterruptedException {
+        PageId pid = tableInfo.getFirstPageId();
+        while (true) {
+            lockManager.lockExclusive(txn, pid);
+            Page page = bufferPoolManager.getPage(pid);
+            int nextPageNum = page.getNextPageId();
+            if (nextPageNum == -1) {
+                return page;
+            }
+            pid = new PageId(nextPageNum);
+        }
+    }
+}
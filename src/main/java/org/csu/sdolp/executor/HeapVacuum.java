@@ -0,0 +1,337 @@
+package org.csu.sdolp.executor;
+
+import org.csu.sdolp.catalog.Catalog;
+import org.csu.sdolp.catalog.TableInfo;
+import org.csu.sdolp.common.model.Column;
+import org.csu.sdolp.common.model.DataType;
+import org.csu.sdolp.common.model.OverflowPointer;
+import org.csu.sdolp.common.model.Schema;
+import org.csu.sdolp.common.model.Tuple;
+import org.csu.sdolp.storage.buffer.BufferPoolManager;
+import org.csu.sdolp.storage.index.BPlusTree;
+import org.csu.sdolp.storage.overflow.OverflowStore;
+import org.csu.sdolp.storage.page.Page;
+import org.csu.sdolp.storage.page.PageId;
+import org.csu.sdolp.transaction.LockManager;
+import org.csu.sdolp.transaction.Transaction;
+import org.csu.sdolp.transaction.log.LogManager;
+import org.csu.sdolp.transaction.log.LogRecord;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 堆表的后台清理 (vacuum)。
+ * 删除只在页内留下墓碑，墓碑和空洞的空间由插入、更新时的页内整理回收；整页删空的页由这里从页链表中摘下，
+ * 归还给磁盘管理器的空闲页链表。DELETE 之后请求清理对应的表，清理在后台线程上稍后执行：
+ * 删除事务提交前仍持有页上的排他锁，清理只尝试加锁而不等待，加不上锁时稍后重试。
+ * 表的首页由目录引用，只整理不释放。释放的页写入 FREE_PAGES 日志，恢复时不再把更早的 DML 日志重做到这些页上。
+ * <p>
+ * 同一个后台线程还负责回收已不被目录引用的整条堆页链表和整棵 B+ 树 (DROP TABLE 后留在主文件中的页、
+ * TRUNCATE TABLE 换下的旧链表和旧索引)：每批最多回收 RECLAIM_BATCH_PAGES 页，写一条 FREE_PAGES 日志后归还给磁盘管理器。
+ * 语句在提交前持有旧首页的排他锁，回收因此在语句提交之后才开始。
+ */
+public class HeapVacuum {
+    private static final long RETRY_DELAY_MILLIS = 50;
+    private static final int MAX_RETRIES = 100;
+    private static final int RECLAIM_BATCH_PAGES = 64;
+
+    private final BufferPoolManager bufferPoolManager;
+    private final Catalog catalog;
+    private final LogManager logManager;
+    private final LockManager lockManager;
+    private final OverflowStore overflowStore;
+    private final ScheduledThreadPoolExecutor executor;
+    // 等待清理的表 -> 已重试的次数
+    private final Map<String, Integer> pendingTables = new ConcurrentHashMap<>();
+    // 等待回收的页链表和 B+ 树，按请求的顺序逐批回收；队首的任务回收完才出队
+    private final Queue<ReclaimJob> reclaimJobs = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean reclaimScheduled = new AtomicBoolean();
+    private final AtomicInteger freedPageCount = new AtomicInteger();
+
+    public HeapVacuum(BufferPoolManager bufferPoolManager, Catalog catalog, LogManager logManager, LockManager lockManager) {
+        this.bufferPoolManager = bufferPoolManager;
+        this.catalog = catalog;
+        this.logManager = logManager;
+        this.lockManager = lockManager;
+        this.overflowStore = new OverflowStore(bufferPoolManager);
+        this.executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "heap-vacuum");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 关闭时不再执行还在等待的清理；不中断正在执行的清理，中断会关闭正在读写的文件通道
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * 请求在后台清理一张表。同一张表已在等待清理时不重复排队。
+     */
+    public void requestVacuum(String tableName) {
+        if (executor.isShutdown() || pendingTables.putIfAbsent(tableName, 0) != null) {
+            return;
+        }
+        executor.schedule(() -> runVacuum(tableName), RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void runVacuum(String tableName) {
+        boolean complete;
+        try {
+            complete = vacuumTable(tableName);
+        } catch (IOException e) {
+            System.err.println("Vacuum of table '" + tableName + "' failed: " + e.getMessage());
+            complete = true;
+        }
+        int retries = pendingTables.getOrDefault(tableName, 0);
+        if (complete || retries >= MAX_RETRIES || executor.isShutdown()) {
+            pendingTables.remove(tableName);
+            return;
+        }
+        pendingTables.put(tableName, retries + 1);
+        executor.schedule(() -> runVacuum(tableName), RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 清理一张表：摘下并释放整页为空的页，整理空洞较多的页。
+     * 沿页链表前进时用锁耦合，只同时持有前一页和当前页的锁；被摘下的页在释放之前一直持有排他锁。
+     * @return 整条链表都已清理时返回 true；遇到其他事务持有锁的页时停在那里并返回 false
+     */
+    public boolean vacuumTable(String tableName) throws IOException {
+        TableInfo tableInfo = catalog.getTable(tableName);
+        if (tableInfo == null || tableInfo.isColumnar()) {
+            return true;
+        }
+        Transaction txn = new Transaction();
+        List<Integer> freedPages = new ArrayList<>();
+        boolean complete = true;
+        try {
+            PageId prevId = tableInfo.getFirstPageId();
+            if (!lockManager.tryLockExclusive(txn, prevId)) {
+                return false;
+            }
+            int nextPageNum = compactIfFragmented(prevId).getNextPageId();
+            while (nextPageNum != -1) {
+                PageId pid = new PageId(nextPageNum);
+                if (!lockManager.tryLockExclusive(txn, pid)) {
+                    complete = false;
+                    break;
+                }
+                Page page = bufferPoolManager.getPage(pid);
+                if (page.isEmpty()) {
+                    nextPageNum = page.getNextPageId();
+                    Page prev = bufferPoolManager.getPage(prevId);
+                    prev.setNextPageId(nextPageNum);
+                    bufferPoolManager.flushPage(prevId);
+                    freedPages.add(pid.getPageNum());
+                } else {
+                    nextPageNum = compactIfFragmented(pid).getNextPageId();
+                    lockManager.unlock(txn, prevId);
+                    prevId = pid;
+                }
+            }
+            if (!freedPages.isEmpty()) {
+                LogRecord freeRecord = new LogRecord(txn.getTransactionId(), -1, LogRecord.LogType.FREE_PAGES,
+                        tableName, freedPages);
+                LogRecord commitRecord = new LogRecord(txn.getTransactionId(), -1, LogRecord.LogType.COMMIT);
+                logManager.appendLogRecords(List.of(freeRecord, commitRecord));
+                for (int pageNum : freedPages) {
+                    bufferPoolManager.deletePage(new PageId(pageNum));
+                }
+                freedPageCount.addAndGet(freedPages.size());
+            }
+        } finally {
+            for (Integer pageNum : new ArrayList<>(txn.getLockedPageIds())) {
+                lockManager.unlock(txn, new PageId(pageNum));
+            }
+        }
+        return complete;
+    }
+
+    /**
+     * 请求在后台回收一条已不被目录引用的堆页链表，链表中的行占用的溢出页一并释放。
+     * @param schema 链表所属表的结构，用于找出行中的溢出指针
+     */
+    public void reclaimHeap(String tableName, PageId firstPageId, Schema schema) {
+        requestReclaim(new ReclaimJob(tableName, schema, firstPageId.getPageNum()));
+    }
+
+    /**
+     * 请求在后台回收一棵已不被目录引用的 B+ 树的全部页。
+     */
+    public void reclaimIndex(String indexName, int rootPageId) {
+        requestReclaim(new ReclaimJob(indexName, null, rootPageId));
+    }
+
+    private void requestReclaim(ReclaimJob job) {
+        if (executor.isShutdown()) {
+            return;
+        }
+        reclaimJobs.add(job);
+        if (reclaimScheduled.compareAndSet(false, true)) {
+            executor.execute(this::runReclaim);
+        }
+    }
+
+    /**
+     * 回收队首任务的一批页，再为下一批重新排队，批与批之间让出后台线程给表的清理。
+     */
+    private void runReclaim() {
+        ReclaimJob job = reclaimJobs.peek();
+        long delay = 0;
+        if (job != null) {
+            try {
+                if (!reclaimBatch(job)) {
+                    // 页仍被其他事务锁定 (如尚未提交的 DROP / TRUNCATE)，稍后重试
+                    delay = RETRY_DELAY_MILLIS;
+                }
+            } catch (IOException e) {
+                System.err.println("Reclaiming pages of '" + job.name + "' failed: " + e.getMessage());
+                job.pendingPages.clear();
+            }
+            if (job.pendingPages.isEmpty()) {
+                reclaimJobs.poll();
+            }
+        }
+        if (reclaimJobs.isEmpty()) {
+            reclaimScheduled.set(false);
+            // 清除标记之前可能刚好有新任务入队
+            if (reclaimJobs.isEmpty() || !reclaimScheduled.compareAndSet(false, true)) {
+                return;
+            }
+        }
+        if (!executor.isShutdown()) {
+            executor.schedule(this::runReclaim, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 回收一批页：逐页尝试加排他锁，记下后继页 (堆页的下一页、索引页的子节点)，释放堆页中的行占用的溢出页；
+     * 整批写一条 FREE_PAGES 日志后再归还给磁盘管理器。
+     * @return 回收了至少一页时返回 true；下一页被其他事务锁定时返回 false
+     */
+    private boolean reclaimBatch(ReclaimJob job) throws IOException {
+        Transaction txn = new Transaction();
+        List<Integer> freedPages = new ArrayList<>();
+        try {
+            while (freedPages.size() < RECLAIM_BATCH_PAGES && !job.pendingPages.isEmpty()) {
+                PageId pageId = new PageId(job.pendingPages.peekFirst());
+                if (!lockManager.tryLockExclusive(txn, pageId)) {
+                    break;
+                }
+                job.pendingPages.pollFirst();
+                Page page = bufferPoolManager.getPage(pageId);
+                if (job.schema == null) {
+                    job.pendingPages.addAll(BPlusTree.getChildPageIds(page));
+                } else {
+                    if (page.getNextPageId() != -1) {
+                        job.pendingPages.add(page.getNextPageId());
+                    }
+                    freeOverflowValues(page, job.schema);
+                }
+                freedPages.add(pageId.getPageNum());
+            }
+            if (!freedPages.isEmpty()) {
+                LogRecord freeRecord = new LogRecord(txn.getTransactionId(), -1, LogRecord.LogType.FREE_PAGES,
+                        job.name, freedPages);
+                LogRecord commitRecord = new LogRecord(txn.getTransactionId(), -1, LogRecord.LogType.COMMIT);
+                logManager.appendLogRecords(List.of(freeRecord, commitRecord));
+                for (int pageNum : freedPages) {
+                    bufferPoolManager.deletePage(new PageId(pageNum));
+                }
+                freedPageCount.addAndGet(freedPages.size());
+            }
+        } finally {
+            for (Integer pageNum : new ArrayList<>(txn.getLockedPageIds())) {
+                lockManager.unlock(txn, new PageId(pageNum));
+            }
+        }
+        return !freedPages.isEmpty();
+    }
+
+    /**
+     * 释放堆页上的行 (包括迁入本页的行) 的溢出页。先收集全部指针再释放，释放时读取溢出页可能换出这个堆页。
+     */
+    private void freeOverflowValues(Page page, Schema schema) throws IOException {
+        boolean hasStrings = false;
+        for (Column column : schema.getColumns()) {
+            hasStrings |= column.getType() == DataType.VARCHAR || column.getType() == DataType.CHAR;
+        }
+        if (!hasStrings) {
+            return;
+        }
+        List<OverflowPointer> pointers = new ArrayList<>();
+        for (int slot = 0; slot < page.getNumTuples(); slot++) {
+            Tuple tuple = page.isRelocatedTuple(slot)
+                    ? page.getRelocatedTuple(slot, schema, null)
+                    : page.getTuple(slot, schema);
+            if (tuple != null) {
+                pointers.addAll(OverflowStore.pointersOf(tuple));
+            }
+        }
+        overflowStore.free(pointers);
+    }
+
+    /**
+     * 墓碑和空洞占到页的四分之一以上时整理页面，槽位号不变。
+     */
+    private Page compactIfFragmented(PageId pageId) throws IOException {
+        Page page = bufferPoolManager.getPage(pageId);
+        if (page.getCompactedFreeSpace() - page.getFreeSpace() >= page.getPageSize() / 4 && page.compact()) {
+            bufferPoolManager.flushPage(pageId);
+        }
+        return page;
+    }
+
+    /**
+     * 已释放的页数，供测试和监控使用。
+     */
+    public int getFreedPageCount() {
+        return freedPageCount.get();
+    }
+
+    /**
+     * 没有等待中或正在执行的清理和回收时返回 true。
+     */
+    public boolean isIdle() {
+        return pendingTables.isEmpty() && reclaimJobs.isEmpty();
+    }
+
+    // 一条待回收的页链表或一棵 B+ 树
+    private static final class ReclaimJob {
+        // 表名或索引名，写入 FREE_PAGES 日志
+        private final String name;
+        // 堆页链表所属表的结构；回收 B+ 树时为 null
+        private final Schema schema;
+        // 已知但尚未回收的页
+        private final Deque<Integer> pendingPages = new ArrayDeque<>();
+
+        private ReclaimJob(String name, Schema schema, int firstPageNum) {
+            this.name = name;
+            this.schema = schema;
+            pendingPages.add(firstPageNum);
+        }
+    }
+
+    /**
+     * 关闭数据库时调用：放弃还在等待的清理，等待正在执行的清理结束。
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
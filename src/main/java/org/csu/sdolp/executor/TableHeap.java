@@ -5,15 +5,25 @@ import org.csu.sdolp.catalog.TableInfo;
 import org.csu.sdolp.common.model.RID;
 import org.csu.sdolp.common.model.Schema;
 import org.csu.sdolp.common.model.Tuple;
+import org.csu.sdolp.executor.expressions.AbstractPredicate;
+import org.csu.sdolp.executor.vector.TupleBatch;
+import org.csu.sdolp.common.model.OverflowPointer;
 import org.csu.sdolp.storage.buffer.BufferPoolManager;
+import org.csu.sdolp.storage.buffer.SequentialReadAhead;
+import org.csu.sdolp.storage.overflow.OverflowStore;
 import org.csu.sdolp.storage.page.Page;
 import org.csu.sdolp.storage.page.PageId;
+import org.csu.sdolp.storage.page.TupleView;
 import org.csu.sdolp.transaction.LockManager;
 import org.csu.sdolp.transaction.Transaction;
 import org.csu.sdolp.transaction.log.LogManager;
 import org.csu.sdolp.transaction.log.LogRecord;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 public class TableHeap implements TupleIterator {
 
@@ -27,6 +37,15 @@ public class TableHeap implements TupleIterator {
     @Getter
     private final TableInfo tableInfo;
 
+    // 扫描时需要解码的列，为 null 时解码全部列
+    private boolean[] projection;
+    // 迭代器复用的元组视图，谓词在视图上求值
+    private final TupleView view;
+    // 大字段的溢出页存储：插入时移出，读取时只为已解码的列读回
+    private final OverflowStore overflowStore;
+    // 沿页链表顺序扫描时的预读
+    private final SequentialReadAhead readAhead;
+
     // --- 迭代器状态 ---
     private PageId currentPageId;
     private Page currentPage;
@@ -40,15 +59,37 @@ public class TableHeap implements TupleIterator {
         this.firstPageId = tableInfo.getFirstPageId();
         this.logManager = logManager;
         this.lockManager = lockManager;
+        this.overflowStore = new OverflowStore(bufferPoolManager, tableInfo.getSegmentName());
+        this.view = new TupleView(schema);
+        this.view.setOverflowStore(overflowStore);
+        this.readAhead = new SequentialReadAhead(bufferPoolManager);
+    }
+
+    /**
+     * 设置扫描 (迭代器和 getPageTuples) 需要解码的列序号，其余列只跳过字节、不创建对象。
+     * @param requiredColumns 需要的列序号，为 null 时解码全部列
+     */
+    public void setRequiredColumns(int[] requiredColumns) {
+        if (requiredColumns == null) {
+            this.projection = null;
+            return;
+        }
+        boolean[] mask = new boolean[schema.getColumns().size()];
+        for (int ordinal : requiredColumns) {
+            mask[ordinal] = true;
+        }
+        this.projection = mask;
     }
 
     public void initIterator(Transaction txn) throws IOException {
         this.iteratorTxn = txn;
         this.currentPageId = this.firstPageId;
         this.currentSlotIndex = 0;
+        readAhead.reset();
         try {
             if (this.currentPageId != null && this.currentPageId.getPageNum() != -1) {
                 lockManager.lockShared(iteratorTxn, currentPageId);
+                readAhead.onPageAccess(currentPageId);
                 this.currentPage = bufferPoolManager.getPage(this.currentPageId);
             } else {
                 this.currentPage = null;
@@ -67,12 +108,52 @@ public class TableHeap implements TupleIterator {
     @Override
     public Tuple next() throws IOException {
         if (!hasNext()) return null;
-        Tuple tuple = currentPage.getTuple(currentSlotIndex, schema);
+        Tuple tuple = currentPage.getTuple(currentSlotIndex, schema, projection);
+        if (tuple == null) {
+            tuple = readForwarded(currentPage, currentSlotIndex, iteratorTxn, projection);
+        }
         if (tuple != null) {
             tuple.setRid(new RID(currentPageId.getPageNum(), currentSlotIndex));
         }
         currentSlotIndex++;
-        return tuple;
+        return overflowStore.detoast(tuple);
+    }
+
+    /**
+     * 返回下一条满足谓词的元组。谓词先在 TupleView 上直接读取页面字节求值，
+     * 只有满足条件的行才被物化，不满足的行不产生任何对象。
+     * @param predicate 过滤谓词，为 null 时等同于 next()
+     * @return 下一条满足条件的元组，迭代结束时返回 null
+     */
+    public Tuple nextMatching(AbstractPredicate predicate) throws IOException {
+        if (predicate == null) {
+            return next();
+        }
+        while (hasNext()) {
+            int slot = currentSlotIndex++;
+            if (bindView(view, currentPage, slot, iteratorTxn) && predicate.evaluate(view)) {
+                return overflowStore.detoast(view.materialize(projection));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 批量扫描：把后续满足谓词的行直接从页面解码到批的列向量中 (INT 列写入 int[])，不为每行创建 Tuple，
+     * 直到批满或迭代结束。
+     * @param predicate 过滤谓词，为 null 时装入所有行
+     * @return 本次装入的行数，迭代结束时返回 0
+     */
+    public int nextBatch(TupleBatch batch, AbstractPredicate predicate) throws IOException {
+        int added = 0;
+        while (!batch.isFull() && hasNext()) {
+            int slot = currentSlotIndex++;
+            if (bindView(view, currentPage, slot, iteratorTxn) && (predicate == null || predicate.evaluate(view))) {
+                batch.addRow(view, projection);
+                added++;
+            }
+        }
+        return added;
     }
 
     @Override
@@ -80,7 +161,7 @@ public class TableHeap implements TupleIterator {
         if (currentPage == null) return false;
         while (true) {
             if (currentSlotIndex < currentPage.getNumTuples()) {
-                if (currentPage.getTuple(currentSlotIndex, schema) != null) {
+                if (currentPage.isTupleValid(currentSlotIndex) || currentPage.isForwardingSlot(currentSlotIndex)) {
                     return true;
                 }
                 currentSlotIndex++;
@@ -90,6 +171,7 @@ public class TableHeap implements TupleIterator {
                     try {
                         PageId nextPid = new PageId(nextPageNum);
                         lockManager.lockShared(iteratorTxn, nextPid);
+                        readAhead.onPageAccess(nextPid);
                         currentPageId = nextPid;
                         currentPage = bufferPoolManager.getPage(currentPageId);
                         currentSlotIndex = 0;
@@ -104,6 +186,88 @@ public class TableHeap implements TupleIterator {
         }
     }
 
+    /**
+     * 列出表的所有数据页，并在调用线程上为每一页加共享锁。
+     * 并行扫描先在协调线程上取得页号列表，再把页号切分成 morsel 分给工作线程，工作线程不再沿 nextPageId 链表前进。
+     */
+    public List<PageId> getPageIds(Transaction txn) throws IOException {
+        List<PageId> pageIds = new ArrayList<>();
+        PageId pid = this.firstPageId;
+        readAhead.reset();
+        try {
+            while (pid != null && pid.getPageNum() != -1) {
+                lockManager.lockShared(txn, pid);
+                readAhead.onPageAccess(pid);
+                pageIds.add(pid);
+                int nextPageNum = bufferPoolManager.getPage(pid).getNextPageId();
+                pid = (nextPageNum != -1) ? new PageId(nextPageNum) : null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Thread interrupted while acquiring lock", e);
+        }
+        return pageIds;
+    }
+
+    /**
+     * 读取一页中所有满足谓词的元组 (已设置 RID)。不修改迭代器状态，可被多个工作线程并发调用；
+     * 调用方需已通过 getPageIds 持有该页的共享锁。
+     * @param predicate 过滤谓词，在元组视图上求值；为 null 时返回全部有效元组
+     */
+    public List<Tuple> getPageTuples(PageId pageId, AbstractPredicate predicate) throws IOException {
+        Page page = bufferPoolManager.getPage(pageId);
+        int numTuples = page.getNumTuples();
+        List<Tuple> tuples = new ArrayList<>();
+        TupleView pageView = new TupleView(schema);
+        pageView.setOverflowStore(overflowStore);
+        for (int slot = 0; slot < numTuples; slot++) {
+            if (bindView(pageView, page, slot, null) && (predicate == null || predicate.evaluate(pageView))) {
+                tuples.add(overflowStore.detoast(pageView.materialize(projection)));
+            }
+        }
+        return tuples;
+    }
+
+    /**
+     * 把视图绑定到槽位上的行；槽位是转发桩时绑定到迁出的行，视图的 RID 仍是原槽位。
+     * @param txn 为迁出的行所在的页加共享锁的事务，为 null 时不加锁 (调用方已持有表中各页的锁)
+     */
+    private boolean bindView(TupleView tupleView, Page page, int slotIndex, Transaction txn) throws IOException {
+        if (tupleView.bind(page, slotIndex)) {
+            return true;
+        }
+        RID forward = page.getForwardingAddress(slotIndex);
+        if (forward == null) {
+            return false;
+        }
+        Page forwardPage = fetchForwardPage(forward, txn);
+        return tupleView.bindRelocated(forwardPage, forward.slotIndex(), new RID(page.getPageId().getPageNum(), slotIndex));
+    }
+
+    /**
+     * 读取转发桩指向的行，槽位不是转发桩时返回 null。
+     */
+    private Tuple readForwarded(Page page, int slotIndex, Transaction txn, boolean[] columns) throws IOException {
+        RID forward = page.getForwardingAddress(slotIndex);
+        if (forward == null) {
+            return null;
+        }
+        return fetchForwardPage(forward, txn).getRelocatedTuple(forward.slotIndex(), schema, columns);
+    }
+
+    private Page fetchForwardPage(RID forward, Transaction txn) throws IOException {
+        PageId pageId = new PageId(forward.pageNum());
+        if (txn != null) {
+            try {
+                lockManager.lockShared(txn, pageId);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Thread interrupted while acquiring lock", e);
+            }
+        }
+        return bufferPoolManager.getPage(pageId);
+    }
+
     public boolean insertTuple(Tuple tuple, Transaction txn) throws IOException {
         // 正常插入总是需要加锁和写日志
         return insertTuple(tuple, txn, true, true);
@@ -111,12 +275,22 @@ public class TableHeap implements TupleIterator {
 
     // **公开给 RecoveryManager 的方法**
     public boolean insertTuple(Tuple tuple, Transaction txn, boolean acquireLock, boolean writeLog) throws IOException {
+        // 大字段先写入溢出页，堆页中只保存指针；日志中仍记录完整的元组
+        Tuple storedTuple = overflowStore.toast(tuple);
+        byte[] tupleBytes = storedTuple.toBytes();
         try {
-            Page targetPage = findFreePageForInsert(tuple, txn, acquireLock);
-            if (targetPage == null) return false;
+            Page targetPage = findFreePageForInsert(tupleBytes.length, txn, acquireLock);
+            if (targetPage == null) {
+                overflowStore.free(OverflowStore.pointersOf(storedTuple));
+                return false;
+            }
+
+            // 在线升级：页面已被排他锁定，顺便把其中的旧格式元组重写为当前格式
+            targetPage.upgradeTupleFormat(schema, tupleBytes.length + 8);
 
-            int slotIndexOfNewTuple = targetPage.getNumTuples();
-            if (!targetPage.insertTuple(tuple)) {
+            int slotIndexOfNewTuple = targetPage.addTuple(tupleBytes);
+            if (slotIndexOfNewTuple < 0) {
+                overflowStore.free(OverflowStore.pointersOf(storedTuple));
                 return false;
             }
             RID rid = new RID(targetPage.getPageId().getPageNum(), slotIndexOfNewTuple);
@@ -136,9 +310,107 @@ public class TableHeap implements TupleIterator {
         }
     }
 
-    private Page findFreePageForInsert(Tuple tuple, Transaction txn, boolean acquireLock) throws IOException, InterruptedException {
-        byte[] tupleBytes = tuple.toBytes();
-        int requiredSpace = tupleBytes.length + 8;
+    /**
+     * 恢复时把元组放回日志中记录的 RID 上 (重做插入、撤销删除)，不加锁也不写日志。
+     * 槽位会被复用，不能像普通插入那样任选位置，否则 RID 与索引和后续日志都对不上。
+     * @return 槽位已被占用或页面放不下时返回 false
+     */
+    public boolean restoreTuple(Tuple tuple, RID rid) throws IOException {
+        Tuple storedTuple = overflowStore.toast(tuple);
+        Page page = bufferPoolManager.getPage(new PageId(rid.pageNum()));
+        if (!page.putTupleAt(rid.slotIndex(), storedTuple.toBytes())) {
+            overflowStore.free(OverflowStore.pointersOf(storedTuple));
+            return false;
+        }
+        tuple.setRid(rid);
+        bufferPoolManager.flushPage(page.getPageId());
+        return true;
+    }
+
+    /**
+     * 批量插入 (多行 INSERT)：沿页链表只走一遍，每个目标页只加一次锁，当前页放不下时前进到下一页或在末尾分配新页。
+     * 全部插入后一次追加所有 INSERT 日志 (只做一次 fsync)，再把改动过的页写盘。
+     * 插入的元组的 RID 写回 tuple。某个元组连空页都放不下时抛出异常，整条语句失败而不是悄悄少插一行；
+     * 抛出前已写入页面的元组照常记日志并写盘，由事务回滚撤销。
+     * @return 插入的元组数
+     * @throws IOException 元组放不进空页时
+     */
+    public int insertTuples(List<Tuple> tuples, Transaction txn) throws IOException {
+        List<LogRecord> logRecords = new ArrayList<>();
+        Set<PageId> dirtyPages = new LinkedHashSet<>();
+        int insertCount = 0;
+        try {
+            PageId pid = this.firstPageId;
+            lockManager.lockExclusive(txn, pid);
+            Page page = bufferPoolManager.getPage(pid);
+            for (Tuple tuple : tuples) {
+                Tuple storedTuple = overflowStore.toast(tuple);
+                byte[] tupleBytes = storedTuple.toBytes();
+                List<OverflowPointer> overflowPointers = OverflowStore.pointersOf(storedTuple);
+                if (!overflowPointers.isEmpty()) {
+                    // 写溢出页时当前页可能已被换出，重新取回
+                    page = bufferPoolManager.getPage(pid);
+                }
+                int requiredSpace = tupleBytes.length + 8;
+                boolean freshPage = false;
+                while (!page.hasSpaceFor(tupleBytes.length) && !freshPage) {
+                    int nextPageNum = page.getNextPageId();
+                    if (nextPageNum != -1) {
+                        pid = new PageId(nextPageNum);
+                        lockManager.lockExclusive(txn, pid);
+                        page = bufferPoolManager.getPage(pid);
+                    } else {
+                        page = appendPage(pid, txn, true);
+                        pid = page.getPageId();
+                        freshPage = true;
+                    }
+                }
+                page.upgradeTupleFormat(schema, requiredSpace);
+                int slotIndex = page.addTuple(tupleBytes);
+                if (slotIndex < 0) {
+                    overflowStore.free(overflowPointers);
+                    throw new IOException("Tuple of " + tupleBytes.length + " bytes does not fit in an empty page of table '"
+                            + tableInfo.getTableName() + "'");
+                }
+                RID rid = new RID(pid.getPageNum(), slotIndex);
+                tuple.setRid(rid);
+                dirtyPages.add(pid);
+                logRecords.add(new LogRecord(txn.getTransactionId(), -1, LogRecord.LogType.INSERT, this.tableInfo.getTableName(), rid, tuple));
+                insertCount++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Thread interrupted while acquiring lock", e);
+        } finally {
+            if (!logRecords.isEmpty()) {
+                logRecords.get(0).setPrevLSN(txn.getPrevLSN());
+                txn.setPrevLSN(logManager.appendLogRecords(logRecords));
+            }
+            for (PageId dirtyPage : dirtyPages) {
+                bufferPoolManager.flushPage(dirtyPage);
+            }
+        }
+        return insertCount;
+    }
+
+    /**
+     * 在 lastPageId 之后分配并链接一个新页。
+     * 分配新页可能换出最后一页，所以要重新取回它再修改；取回最后一页又可能换出新页，同样重新取回。
+     */
+    private Page appendPage(PageId lastPageId, Transaction txn, boolean acquireLock) throws IOException, InterruptedException {
+        Page newPage = bufferPoolManager.newPage(tableInfo.getSegmentName());
+        if (newPage == null) return null;
+        PageId newPageId = newPage.getPageId();
+        if (acquireLock) {
+            lockManager.lockExclusive(txn, newPageId);
+        }
+        Page lastPage = bufferPoolManager.getPage(lastPageId);
+        lastPage.setNextPageId(newPageId.getPageNum());
+        bufferPoolManager.flushPage(lastPageId);
+        return bufferPoolManager.getPage(newPageId);
+    }
+
+    private Page findFreePageForInsert(int tupleLength, Transaction txn, boolean acquireLock) throws IOException, InterruptedException {
         PageId pid = this.firstPageId;
         Page lastPage = null;
         while (pid != null && pid.getPageNum() != -1) {
@@ -147,24 +419,21 @@ public class TableHeap implements TupleIterator {
             }
             Page page = bufferPoolManager.getPage(pid);
             lastPage = page;
-            if (page.getFreeSpace() >= requiredSpace) {
+            if (page.hasSpaceFor(tupleLength)) {
                 return page;
             }
             int nextPageNum = page.getNextPageId();
             pid = (nextPageNum != -1) ? new PageId(nextPageNum) : null;
         }
-        Page newPage = bufferPoolManager.newPage();
+        if (lastPage != null) {
+            return appendPage(lastPage.getPageId(), txn, acquireLock);
+        }
+        Page newPage = bufferPoolManager.newPage(tableInfo.getSegmentName());
         if (newPage == null) return null;
-        newPage.init();
         if (acquireLock) {
             lockManager.lockExclusive(txn, newPage.getPageId());
         }
-        if (lastPage != null) {
-            lastPage.setNextPageId(newPage.getPageId().getPageNum());
-            bufferPoolManager.flushPage(lastPage.getPageId());
-        } else {
-            this.firstPageId = newPage.getPageId();
-        }
+        this.firstPageId = newPage.getPageId();
         return newPage;
     }
 
@@ -190,8 +459,18 @@ public class TableHeap implements TupleIterator {
                 lockManager.lockExclusive(txn, pageId);
             }
             Page page = bufferPoolManager.getPage(pageId);
-            Tuple oldTuple = page.getTuple(rid.slotIndex(), schema);
+            // 行已迁出时，删除迁出的行和原槽位上的转发桩
+            RID forward = page.getForwardingAddress(rid.slotIndex());
+            if (forward != null && acquireLock) {
+                lockManager.lockExclusive(txn, new PageId(forward.pageNum()));
+            }
+            Tuple oldTuple = forward != null
+                    ? readForwarded(page, rid.slotIndex(), null, null)
+                    : page.getTuple(rid.slotIndex(), schema);
             if (oldTuple == null) return false;
+            // 先记下溢出指针，再为日志读回完整的旧元组
+            List<OverflowPointer> overflowPointers = OverflowStore.pointersOf(oldTuple);
+            overflowStore.detoast(oldTuple);
 
             if (writeLog) {
                 LogRecord logRecord = new LogRecord(txn.getTransactionId(), txn.getPrevLSN(), LogRecord.LogType.DELETE, this.tableInfo.getTableName(), rid, oldTuple);
@@ -199,9 +478,16 @@ public class TableHeap implements TupleIterator {
                 txn.setPrevLSN(lsn);
             }
 
+            if (forward != null) {
+                removeRelocated(forward);
+                page = bufferPoolManager.getPage(pageId);
+            }
+            // 槽位变为墓碑，同页其他行的 RID 都不变
             boolean success = page.deleteTuple(rid.slotIndex());
             if (success) {
                 bufferPoolManager.flushPage(page.getPageId());
+                // 元组已被物理删除，回滚时会按日志中的完整元组重新插入，溢出页可以立即释放
+                overflowStore.free(overflowPointers);
             }
             return success;
         } catch (InterruptedException e) {
@@ -224,6 +510,7 @@ public class TableHeap implements TupleIterator {
     }
 
     // **包含所有逻辑的私有核心方法**
+    // 行的 RID 始终不变，索引不需要因为行的移动而更新
     private RID updateTuple(Tuple newTuple, RID rid, Transaction txn, boolean acquireLock, boolean writeLog) throws IOException {
         try {
             PageId pageId = new PageId(rid.pageNum());
@@ -231,11 +518,23 @@ public class TableHeap implements TupleIterator {
                 lockManager.lockExclusive(txn, pageId);
             }
             Page page = bufferPoolManager.getPage(pageId);
-            Tuple oldTuple = page.getTuple(rid.slotIndex(), schema);
+            // 行已迁出时，旧版本在转发桩指向的页上
+            RID forward = page.getForwardingAddress(rid.slotIndex());
+            if (forward != null && acquireLock) {
+                lockManager.lockExclusive(txn, new PageId(forward.pageNum()));
+            }
+            Tuple oldTuple = forward != null
+                    ? readForwarded(page, rid.slotIndex(), null, null)
+                    : page.getTuple(rid.slotIndex(), schema);
             // 如果旧元组不存在或已被标记为删除，则无法更新
             if (oldTuple == null) {
                 return null;
             }
+            // 旧版本的数据会被覆盖：先记下它的溢出指针，再为日志读回完整内容
+            List<OverflowPointer> oldPointers = OverflowStore.pointersOf(oldTuple);
+            overflowStore.detoast(oldTuple);
+            Tuple storedTuple = overflowStore.toast(newTuple);
+            byte[] tupleBytes = storedTuple.toBytes();
 
             if (writeLog) {
                 LogRecord logRecord = new LogRecord(txn.getTransactionId(), txn.getPrevLSN(), LogRecord.LogType.UPDATE, this.tableInfo.getTableName(), rid, oldTuple, newTuple);
@@ -243,40 +542,100 @@ public class TableHeap implements TupleIterator {
                 txn.setPrevLSN(lsn);
             }
 
-            boolean markSuccess = page.markTupleAsDeleted(rid.slotIndex());
-
-            if (markSuccess) {
-                // 2插入新版本的元组。
-                if (insertTuple(newTuple, txn, false, false)) {
-                    bufferPoolManager.flushPage(page.getPageId());
-                    return newTuple.getRid();
-                } else {
-                    page.undoMarkTupleAsDeleted(rid.slotIndex());
-                    // 刷新页面以确保持久化撤销操作
-                    bufferPoolManager.flushPage(page.getPageId());
-                    // 向上层报告更新失败
-                    return null;
-                }
+            if (!writeUpdatedTuple(rid, forward, tupleBytes, txn, acquireLock)) {
+                overflowStore.free(OverflowStore.pointersOf(storedTuple));
+                // 向上层报告更新失败
+                return null;
             }
-            return null; // 标记删除失败
+            // 回滚按日志中的完整旧元组重写，旧版本的溢出页可以立即释放
+            overflowStore.free(oldPointers);
+            newTuple.setRid(rid);
+            return rid;
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new IOException("Thread interrupted while acquiring lock", e);
         }
     }
 
+    /**
+     * 把更新后的行写回 rid，按代价从低到高尝试：
+     * 1. 在原页内更新 (新行不更长时原地覆盖，否则使用该页的空闲空间)，已迁出的行迁回原页以去掉一次间接访问；
+     * 2. 行已迁出时，在它所在的页内更新；
+     * 3. 都放不下时迁到另一页，原槽位成为指向它的转发桩 (转发最多一跳，旧的迁出行被删除)。
+     * @param forward 行当前迁出的位置，未迁出时为 null
+     */
+    private boolean writeUpdatedTuple(RID rid, RID forward, byte[] tupleBytes, Transaction txn, boolean acquireLock) throws IOException, InterruptedException {
+        PageId homePageId = new PageId(rid.pageNum());
+        if (bufferPoolManager.getPage(homePageId).updateTuple(rid.slotIndex(), tupleBytes)) {
+            bufferPoolManager.flushPage(homePageId);
+            if (forward != null) {
+                removeRelocated(forward);
+            }
+            return true;
+        }
+        if (forward != null) {
+            PageId forwardPageId = new PageId(forward.pageNum());
+            if (bufferPoolManager.getPage(forwardPageId).updateTuple(forward.slotIndex(), tupleBytes)) {
+                bufferPoolManager.flushPage(forwardPageId);
+                return true;
+            }
+        }
+
+        Page targetPage = findFreePageForInsert(tupleBytes.length, txn, acquireLock);
+        if (targetPage == null) {
+            return false;
+        }
+        targetPage.upgradeTupleFormat(schema, tupleBytes.length + 8);
+        int slotIndex = targetPage.insertRelocatedTuple(tupleBytes);
+        if (slotIndex < 0) {
+            return false;
+        }
+        RID newForward = new RID(targetPage.getPageId().getPageNum(), slotIndex);
+        bufferPoolManager.flushPage(targetPage.getPageId());
+        Page homePage = bufferPoolManager.getPage(homePageId);
+        if (!homePage.setForwardingAddress(rid.slotIndex(), newForward)) {
+            removeRelocated(newForward);
+            return false;
+        }
+        bufferPoolManager.flushPage(homePageId);
+        if (forward != null) {
+            removeRelocated(forward);
+        }
+        return true;
+    }
+
+    /**
+     * 删除一条迁出的行。
+     */
+    private void removeRelocated(RID relocated) throws IOException {
+        PageId pageId = new PageId(relocated.pageNum());
+        bufferPoolManager.getPage(pageId).deleteTuple(relocated.slotIndex());
+        bufferPoolManager.flushPage(pageId);
+    }
+
     public Tuple getTuple(RID rid, Transaction txn) throws IOException {
+        // 读取数据需要加共享锁
+        return getTuple(rid, txn, true);
+    }
+
+    // **给恢复管理器(RecoveryManager)调用的内部版本**：恢复时的临时事务不会提交，不能留下锁
+    public Tuple getTuple(RID rid, Transaction txn, boolean acquireLock) throws IOException {
         try {
             PageId pageId = new PageId(rid.pageNum());
-            // 读取数据需要加共享锁
-            lockManager.lockShared(txn, pageId);
+            if (acquireLock) {
+                lockManager.lockShared(txn, pageId);
+            }
             Page page = bufferPoolManager.getPage(pageId);
             Tuple tuple = page.getTuple(rid.slotIndex(), schema);
+            if (tuple == null) {
+                // 行已迁到其他页时沿转发桩读取
+                tuple = readForwarded(page, rid.slotIndex(), acquireLock ? txn : null, null);
+            }
             if (tuple != null) {
                 tuple.setRid(rid);
             }
             // 注意：事务结束前不应释放锁，这里只是获取页面
-            return tuple;
+            return overflowStore.detoast(tuple);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new IOException("Thread interrupted while acquiring lock for getTuple", e);
@@ -24,7 +24,11 @@ public class CreateDatabaseExecutor implements TupleIterator {
     @Override
     public Tuple next() throws IOException {
         if (!executed) {
-            dbManager.createDatabase(plan.getDbName());
+            if (plan.getPageSize() != null) {
+                dbManager.createDatabase(plan.getDbName(), plan.getPageSize());
+            } else {
+                dbManager.createDatabase(plan.getDbName());
+            }
             executed = true;
             return new Tuple(Collections.singletonList(new Value("Database '" + plan.getDbName() + "' created.")));
         }
@@ -1,6 +1,7 @@
 package org.csu.sdolp.executor.ddl;
 
 import org.csu.sdolp.catalog.Catalog;
+import org.csu.sdolp.catalog.IndexInfo;
 import org.csu.sdolp.catalog.TableInfo;
 import org.csu.sdolp.common.model.RID;
 import org.csu.sdolp.common.model.Schema;
@@ -38,9 +39,10 @@ public class CreateIndexExecutor implements TupleIterator {
     public boolean hasNext() throws IOException {
         if (!executed) {
             // 1. 创建一个新的 B+ 树
-            Page rootPage = bufferPoolManager.newPage();
+            String segment = IndexInfo.segmentName(plan.getIndexName());
+            Page rootPage = bufferPoolManager.newPage(segment);
             int initialRootPageId = rootPage.getPageId().getPageNum();
-            BPlusTree index = new BPlusTree(bufferPoolManager, initialRootPageId);
+            BPlusTree index = new BPlusTree(bufferPoolManager, initialRootPageId, segment);
 
             // 2. 将索引信息注册到 Catalog (使用初始的RootPageId)
             catalog.createIndex(plan.getIndexName(), plan.getTableName(), plan.getColumnName(), initialRootPageId);
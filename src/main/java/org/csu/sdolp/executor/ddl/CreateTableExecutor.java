@@ -1,6 +1,7 @@
 package org.csu.sdolp.executor.ddl;
 
 import org.csu.sdolp.catalog.Catalog;
+import org.csu.sdolp.catalog.IndexInfo;
 import org.csu.sdolp.catalog.TableInfo;
 import org.csu.sdolp.common.model.*;
 import org.csu.sdolp.compiler.planner.plan.ddl.CreateTablePlanNode;
@@ -8,6 +9,7 @@ import org.csu.sdolp.executor.dml.SeqScanExecutor;
 import org.csu.sdolp.executor.TableHeap;
 import org.csu.sdolp.executor.TupleIterator;
 import org.csu.sdolp.storage.buffer.BufferPoolManager;
+import org.csu.sdolp.storage.disk.PageCompression;
 import org.csu.sdolp.storage.index.BPlusTree;
 import org.csu.sdolp.storage.page.Page;
 import org.csu.sdolp.transaction.LockManager;
@@ -77,8 +79,11 @@ public class CreateTableExecutor implements TupleIterator {
         long lsn = logManager.appendLogRecord(logRecord);
         txn.setPrevLSN(lsn);
 
-        // 日志写入成功后，再执行物理操作
-        catalog.createTable(plan.getTableName(), plan.getOutputSchema());
+        // 日志写入成功后，再执行物理操作；压缩表先创建压缩的表空间文件，再分配第一页
+        if (plan.getCompression() != PageCompression.NONE) {
+            bufferPoolManager.createSegment(TableInfo.segmentName(plan.getTableName()), plan.getCompression());
+        }
+        catalog.createTable(plan.getTableName(), plan.getOutputSchema(), plan.getEngine());
 
         // 自动创建主键索引
         String primaryKeyColumnName = plan.getOutputSchema().getPrimaryKeyColumnName();
@@ -89,9 +94,10 @@ public class CreateTableExecutor implements TupleIterator {
             TableHeap tableHeap = new TableHeap(bufferPoolManager, tableInfo, logManager, lockManager);
 
             // 1. 创建一个新的 B+树
-            Page rootPage = bufferPoolManager.newPage();
+            String segment = IndexInfo.segmentName(indexName);
+            Page rootPage = bufferPoolManager.newPage(segment);
             int initialRootPageId = rootPage.getPageId().getPageNum();
-            BPlusTree index = new BPlusTree(bufferPoolManager, initialRootPageId);
+            BPlusTree index = new BPlusTree(bufferPoolManager, initialRootPageId, segment);
 
             // 2. 将索引信息注册到 Catalog (使用初始的RootPageId)
             catalog.createIndex(indexName, plan.getTableName(), primaryKeyColumnName, initialRootPageId);
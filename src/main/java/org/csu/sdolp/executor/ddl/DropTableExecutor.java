@@ -1,9 +1,13 @@
 package org.csu.sdolp.executor.ddl;
 
 import org.csu.sdolp.catalog.Catalog;
+import org.csu.sdolp.catalog.IndexInfo;
+import org.csu.sdolp.catalog.TableInfo;
 import org.csu.sdolp.common.model.*;
 import org.csu.sdolp.compiler.planner.plan.ddl.DropTablePlanNode;
+import org.csu.sdolp.executor.HeapVacuum;
 import org.csu.sdolp.executor.TupleIterator;
+import org.csu.sdolp.transaction.LockManager;
 import org.csu.sdolp.transaction.Transaction;
 import org.csu.sdolp.transaction.log.LogManager;
 import org.csu.sdolp.transaction.log.LogRecord;
@@ -20,12 +24,18 @@ public class DropTableExecutor implements TupleIterator {
     private static final Schema RESULT_SCHEMA = new Schema(List.of(new Column("message", DataType.VARCHAR)));
     private final Transaction txn;
     private final LogManager logManager;
+    private final LockManager lockManager;
+    // 表的页留在主文件中时由它在后台回收，为 null 时不回收
+    private final HeapVacuum heapVacuum;
 
-    public DropTableExecutor(DropTablePlanNode plan, Catalog catalog, Transaction txn, LogManager logManager) {
+    public DropTableExecutor(DropTablePlanNode plan, Catalog catalog, Transaction txn, LogManager logManager,
+                             LockManager lockManager, HeapVacuum heapVacuum) {
         this.plan = plan;
         this.catalog = catalog;
         this.txn = txn;
         this.logManager = logManager;
+        this.lockManager = lockManager;
+        this.heapVacuum = heapVacuum;
     }
 
     @Override
@@ -33,6 +43,14 @@ public class DropTableExecutor implements TupleIterator {
         if (done) {
             return null;
         }
+        TableInfo tableInfo = catalog.getTable(plan.getTableName());
+        // 等待正在使用这张表的事务结束；锁持有到提交，后台回收在提交之后才能锁住首页开始回收
+        try {
+            lockManager.lockExclusive(txn, tableInfo.getFirstPageId());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Thread interrupted while acquiring lock", e);
+        }
 
         LogRecord logRecord = new LogRecord(
                 txn.getTransactionId(),
@@ -44,10 +62,21 @@ public class DropTableExecutor implements TupleIterator {
         txn.setPrevLSN(lsn);
 
         // 先删除所有相关索引的元数据
-        catalog.dropIndexesForTable(plan.getTableName());
+        List<IndexInfo> indexesInMainFile = catalog.dropIndexesForTable(plan.getTableName());
 
         // 然后再删除表本身的元数据
-        catalog.dropTable(plan.getTableName());
+        boolean pagesReleased = catalog.dropTable(plan.getTableName());
+
+        // 表和索引有自己的表空间文件时随文件一起删除；页在主文件中时在后台把堆页链表和索引树归还给空闲链表。
+        // 回收任务按顺序执行，索引树在堆页链表 (即本事务提交) 之后回收。列存表的页只能随文件删除
+        if (heapVacuum != null) {
+            if (!pagesReleased && !tableInfo.isColumnar()) {
+                heapVacuum.reclaimHeap(plan.getTableName(), tableInfo.getFirstPageId(), tableInfo.getSchema());
+            }
+            for (IndexInfo indexInfo : indexesInMainFile) {
+                heapVacuum.reclaimIndex(indexInfo.getIndexName(), indexInfo.getRootPageId());
+            }
+        }
         done = true;
         return new Tuple(Collections.singletonList(new Value("Table '" + plan.getTableName() + "' and its indexes dropped.")));
     }
@@ -61,4 +90,4 @@ public class DropTableExecutor implements TupleIterator {
     public Schema getOutputSchema() {
         return RESULT_SCHEMA;
     }
-}
\ No newline at end of file
+}
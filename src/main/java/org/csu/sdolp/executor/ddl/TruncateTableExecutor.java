@@ -0,0 +1,116 @@
+package org.csu.sdolp.executor.ddl;
+
+import org.csu.sdolp.catalog.Catalog;
+import org.csu.sdolp.catalog.IndexInfo;
+import org.csu.sdolp.catalog.TableInfo;
+import org.csu.sdolp.common.model.*;
+import org.csu.sdolp.compiler.planner.plan.ddl.TruncateTablePlanNode;
+import org.csu.sdolp.executor.HeapVacuum;
+import org.csu.sdolp.executor.TupleIterator;
+import org.csu.sdolp.storage.buffer.BufferPoolManager;
+import org.csu.sdolp.storage.page.PageId;
+import org.csu.sdolp.transaction.LockManager;
+import org.csu.sdolp.transaction.Transaction;
+import org.csu.sdolp.transaction.log.LogManager;
+import org.csu.sdolp.transaction.log.LogRecord;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TRUNCATE TABLE：让目录引用一个新的空首页，每个索引换成一个新的空根页，耗时与表的大小无关。
+ * 旧的堆页链表 (及其溢出页) 和旧的索引树交给 HeapVacuum 在后台回收。
+ * TRUNCATE_TABLE 日志记录清空前后的首页和根页，崩溃时未提交的清空在恢复中撤销。
+ */
+public class TruncateTableExecutor implements TupleIterator {
+
+    private final TruncateTablePlanNode plan;
+    private final Catalog catalog;
+    private final BufferPoolManager bufferPoolManager;
+    private boolean done = false;
+    private static final Schema RESULT_SCHEMA = new Schema(List.of(new Column("message", DataType.VARCHAR)));
+    private final Transaction txn;
+    private final LogManager logManager;
+    private final LockManager lockManager;
+    // 为 null 时旧页不回收
+    private final HeapVacuum heapVacuum;
+
+    public TruncateTableExecutor(TruncateTablePlanNode plan, Catalog catalog, BufferPoolManager bufferPoolManager,
+                                 Transaction txn, LogManager logManager, LockManager lockManager, HeapVacuum heapVacuum) {
+        this.plan = plan;
+        this.catalog = catalog;
+        this.bufferPoolManager = bufferPoolManager;
+        this.txn = txn;
+        this.logManager = logManager;
+        this.lockManager = lockManager;
+        this.heapVacuum = heapVacuum;
+    }
+
+    @Override
+    public Tuple next() throws IOException {
+        if (done) {
+            return null;
+        }
+        String tableName = plan.getTableName();
+        TableInfo tableInfo = catalog.getTable(tableName);
+        try {
+            // 等待正在使用旧链表的事务结束；锁持有到提交，后台回收在提交之后才能锁住旧首页开始回收
+            lockManager.lockExclusive(txn, tableInfo.getFirstPageId());
+            // 目录页被原地改写，同样锁到提交为止
+            lockManager.lockExclusive(txn, catalog.getTablesTableFirstPageId());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Thread interrupted while acquiring lock", e);
+        }
+
+        // 新的首页和索引根页先写盘，再让目录引用它们
+        PageId firstPageId = bufferPoolManager.newPage(tableInfo.getSegmentName()).getPageId();
+        bufferPoolManager.flushPage(firstPageId);
+        Map<String, int[]> indexRootPageNums = new LinkedHashMap<>();
+        for (IndexInfo indexInfo : catalog.getIndexesForTable(tableName)) {
+            PageId rootPageId = bufferPoolManager.newPage(indexInfo.getSegmentName()).getPageId();
+            bufferPoolManager.flushPage(rootPageId);
+            indexRootPageNums.put(indexInfo.getIndexName(), new int[]{indexInfo.getRootPageId(), rootPageId.getPageNum()});
+        }
+
+        // 先写日志再改目录：恢复时撤销未提交的清空，已提交的清空之前的 DML 日志作用在旧链表上，跳过
+        LogRecord logRecord = new LogRecord(
+                txn.getTransactionId(),
+                txn.getPrevLSN(),
+                LogRecord.LogType.TRUNCATE_TABLE,
+                tableName,
+                tableInfo.getFirstPageId().getPageNum(),
+                firstPageId.getPageNum(),
+                indexRootPageNums
+        );
+        long lsn = logManager.appendLogRecord(logRecord);
+        txn.setPrevLSN(lsn);
+
+        TableInfo oldTableInfo = catalog.truncateTable(tableName, firstPageId);
+        for (Map.Entry<String, int[]> entry : indexRootPageNums.entrySet()) {
+            catalog.updateIndexRootPageId(entry.getKey(), entry.getValue()[1]);
+        }
+        // 回收任务按顺序执行：先排旧链表 (等本事务提交)，旧索引树排在它之后
+        if (heapVacuum != null) {
+            heapVacuum.reclaimHeap(tableName, oldTableInfo.getFirstPageId(), oldTableInfo.getSchema());
+            for (Map.Entry<String, int[]> entry : indexRootPageNums.entrySet()) {
+                heapVacuum.reclaimIndex(entry.getKey(), entry.getValue()[0]);
+            }
+        }
+        done = true;
+        return new Tuple(Collections.singletonList(new Value("Table '" + tableName + "' truncated.")));
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !done;
+    }
+
+    @Override
+    public Schema getOutputSchema() {
+        return RESULT_SCHEMA;
+    }
+}
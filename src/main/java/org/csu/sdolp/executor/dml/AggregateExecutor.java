@@ -1,13 +1,16 @@
 package org.csu.sdolp.executor.dml;
 
+import org.csu.sdolp.common.model.CompactRow;
+import org.csu.sdolp.common.model.DataType;
 import org.csu.sdolp.common.model.Schema;
 import org.csu.sdolp.common.model.Tuple;
 import org.csu.sdolp.common.model.Value;
 import org.csu.sdolp.compiler.parser.ast.expression.AggregateExpressionNode;
 import org.csu.sdolp.compiler.parser.ast.expression.IdentifierNode;
 import org.csu.sdolp.compiler.planner.plan.query.AggregatePlanNode;
-import org.csu.sdolp.engine.ExpressionEvaluator;
+import org.csu.sdolp.engine.ExpressionCompiler;
 import org.csu.sdolp.executor.TupleIterator;
+import org.csu.sdolp.executor.expressions.AbstractPredicate;
 
 import java.io.IOException;
 import java.util.*;
@@ -15,9 +18,16 @@ import java.util.*;
 /**
  * 聚合执行器
  * 这是一个阻塞执行器，它会拉取所有子节点的元组，在内存中进行哈希聚合，然后再向上层返回。
+ * 分组键为只包含分组列的 CompactRow，中间结果保存在 int 数组中，输出同样为 CompactRow。
  */
 public class AggregateExecutor implements TupleIterator {
 
+    private static final int COUNT = 0;
+    private static final int SUM = 1;
+    private static final int AVG = 2;
+    private static final int MIN = 3;
+    private static final int MAX = 4;
+
     private final TupleIterator child;
     private final AggregatePlanNode plan;
     private final Schema childSchema;
@@ -25,10 +35,22 @@ public class AggregateExecutor implements TupleIterator {
     private Iterator<Tuple> resultIterator;
     private boolean isInitialized = false;
 
-    // 用于存储 AVG 的中间结果 (sum, count)
-    private static class AvgPair {
-        int sum = 0;
-        int count = 0;
+    // 一个分组的中间聚合结果，AVG 额外记录行数
+    private static class GroupState {
+        final int[] values;
+        final int[] counts;
+
+        GroupState(int[] functions) {
+            values = new int[functions.length];
+            counts = new int[functions.length];
+            for (int i = 0; i < functions.length; i++) {
+                switch (functions[i]) {
+                    case MIN -> values[i] = Integer.MAX_VALUE;
+                    case MAX -> values[i] = Integer.MIN_VALUE;
+                    default -> values[i] = 0; // COUNT, SUM, AVG
+                }
+            }
+        }
     }
 
     public AggregateExecutor(TupleIterator child, AggregatePlanNode plan) {
@@ -40,76 +62,94 @@ public class AggregateExecutor implements TupleIterator {
     private void init() throws IOException {
         if (isInitialized) return;
 
-        // Key: 分组键 (List<Value>), Value: 中间聚合结果 (Object[])
-        Map<List<Value>, Object[]> aggregationMap = new HashMap<>();
+        // 列序号和聚合函数在拉取数据前一次性解析
+        List<IdentifierNode> groupBys = plan.getGroupBys() == null ? Collections.emptyList() : plan.getGroupBys();
+        int[] groupByIndexes = new int[groupBys.size()];
+        DataType[] keyTypes = new DataType[groupBys.size()];
+        for (int i = 0; i < groupByIndexes.length; i++) {
+            groupByIndexes[i] = childSchema.getColumnIndex(groupBys.get(i).getName());
+            keyTypes[i] = childSchema.getColumns().get(groupByIndexes[i]).getType();
+        }
+        List<AggregateExpressionNode> aggregates = plan.getAggregates();
+        int[] functions = new int[aggregates.size()];
+        int[] argumentIndexes = new int[aggregates.size()];
+        for (int i = 0; i < functions.length; i++) {
+            AggregateExpressionNode agg = aggregates.get(i);
+            functions[i] = switch (agg.functionName().toUpperCase()) {
+                case "COUNT" -> COUNT;
+                case "SUM" -> SUM;
+                case "AVG" -> AVG;
+                case "MIN" -> MIN;
+                case "MAX" -> MAX;
+                default -> throw new UnsupportedOperationException("Unsupported aggregate function: " + agg.functionName());
+            };
+            argumentIndexes[i] = agg.isStar() ? -1 : childSchema.getColumnIndex(((IdentifierNode) agg.argument()).getName());
+        }
+
+        // Key: 分组键, Value: 中间聚合结果；按分组首次出现的顺序输出
+        Map<CompactRow, GroupState> aggregationMap = new LinkedHashMap<>();
+        GroupState globalState = null;
 
         while (child.hasNext()) {
             Tuple tuple = child.next();
-            List<Value> groupByKey = createGroupByKey(tuple);
-
-            // 如果哈希表中没有这个 key，则初始化聚合值的数组
-            aggregationMap.computeIfAbsent(groupByKey, k -> {
-                Object[] initialValues = new Object[plan.getAggregates().size()];
-                for (int i = 0; i < initialValues.length; i++) {
-                    AggregateExpressionNode agg = plan.getAggregates().get(i);
-                    switch (agg.functionName().toUpperCase()) {
-                        case "AVG" -> initialValues[i] = new AvgPair();
-                        case "MIN" -> initialValues[i] = Integer.MAX_VALUE;
-                        case "MAX" -> initialValues[i] = Integer.MIN_VALUE;
-                        default -> initialValues[i] = 0; // COUNT, SUM
-                    }
+            GroupState state;
+            if (groupByIndexes.length == 0) {
+                // 对于没有GROUP BY的聚合（如SELECT SUM(*)），只有一个分组
+                if (globalState == null) {
+                    globalState = new GroupState(functions);
+                    aggregationMap.put(CompactRow.project(tuple, groupByIndexes, keyTypes), globalState);
                 }
-                return initialValues;
-            });
+                state = globalState;
+            } else {
+                state = aggregationMap.computeIfAbsent(CompactRow.project(tuple, groupByIndexes, keyTypes),
+                        k -> new GroupState(functions));
+            }
 
             // 更新聚合值
-            Object[] currentAggValues = aggregationMap.get(groupByKey);
-            for (int i = 0; i < plan.getAggregates().size(); i++) {
-                AggregateExpressionNode agg = plan.getAggregates().get(i);
-
-                // 正确获取列名并从 tuple 中取值
-                Value tupleVal = agg.isStar() ?
-                        new Value(1) :
-                        getColumnValue(tuple, ((IdentifierNode) agg.argument()).getName());
-
-                int intValue = (tupleVal != null && tupleVal.getValue() instanceof Integer) ? (Integer) tupleVal.getValue() : 0;
-
-                switch (agg.functionName().toUpperCase()) {
-                    case "COUNT" -> currentAggValues[i] = (int) currentAggValues[i] + 1;
-                    case "SUM" -> currentAggValues[i] = (int) currentAggValues[i] + intValue;
-                    case "AVG" -> {
-                        AvgPair pair = (AvgPair) currentAggValues[i];
-                        pair.sum += intValue;
-                        pair.count++;
+            for (int i = 0; i < functions.length; i++) {
+                int intValue = argumentIndexes[i] < 0 ? 1 : intValue(tuple, argumentIndexes[i]);
+                switch (functions[i]) {
+                    case COUNT -> state.values[i]++;
+                    case SUM -> state.values[i] += intValue;
+                    case AVG -> {
+                        state.values[i] += intValue;
+                        state.counts[i]++;
                     }
-                    case "MIN" -> currentAggValues[i] = Math.min((int) currentAggValues[i], intValue);
-                    case "MAX" -> currentAggValues[i] = Math.max((int) currentAggValues[i], intValue);
+                    case MIN -> state.values[i] = Math.min(state.values[i], intValue);
+                    case MAX -> state.values[i] = Math.max(state.values[i], intValue);
                 }
             }
         }
 
         // --- 构建最终结果 ---
         List<Tuple> finalResults = new ArrayList<>();
-        for (Map.Entry<List<Value>, Object[]> entry : aggregationMap.entrySet()) {
-            List<Value> resultValues = new ArrayList<>(entry.getKey()); // 先加入分组键
-            Object[] aggRawResults = entry.getValue();
-
-            for (int i=0; i < aggRawResults.length; i++) {
-                Object rawResult = aggRawResults[i];
-                if (rawResult instanceof AvgPair pair) {
-                    resultValues.add(new Value(pair.count == 0 ? 0 : pair.sum / pair.count));
-                } else {
-                    resultValues.add(new Value((Integer) rawResult));
-                }
+        for (Map.Entry<CompactRow, GroupState> entry : aggregationMap.entrySet()) {
+            CompactRow key = entry.getKey();
+            GroupState state = entry.getValue();
+            // 分组键保持其值的原始类型，聚合结果均为 INT
+            DataType[] resultTypes = new DataType[groupByIndexes.length + functions.length];
+            for (int k = 0; k < resultTypes.length; k++) {
+                resultTypes[k] = k < groupByIndexes.length ? key.getType(k) : DataType.INT;
+            }
+            CompactRow.Builder builder = new CompactRow.Builder(resultTypes);
+            for (int k = 0; k < groupByIndexes.length; k++) {
+                builder.set(k, key.getValue(k)); // 先加入分组键
             }
-            finalResults.add(new Tuple(resultValues));
+            for (int i = 0; i < functions.length; i++) {
+                int result = functions[i] == AVG
+                        ? (state.counts[i] == 0 ? 0 : state.values[i] / state.counts[i])
+                        : state.values[i];
+                builder.setInt(groupByIndexes.length + i, result);
+            }
+            finalResults.add(builder.build());
         }
         // 在聚合完成后，应用 HAVING 子句进行过滤
         if (plan.getHavingClause() != null) {
+            // 使用输出 Schema (plan.getOutputSchema()) 编译 HAVING 表达式，编译结果按表达式文本缓存
+            AbstractPredicate having = ExpressionCompiler.compileCached(plan.getHavingClause(), plan.getOutputSchema());
             List<Tuple> filteredResults = new ArrayList<>();
             for (Tuple t : finalResults) {
-                // 使用输出 Schema (plan.getOutputSchema()) 来评估 HAVING 表达式
-                if (ExpressionEvaluator.evaluate(plan.getHavingClause(), plan.getOutputSchema(), t)) {
+                if (having.evaluate(t)) {
                     filteredResults.add(t);
                 }
             }
@@ -117,10 +157,20 @@ public class AggregateExecutor implements TupleIterator {
         } else {
             this.resultIterator = finalResults.iterator();
         }
-//        this.resultIterator = finalResults.iterator();
         this.isInitialized = true;
     }
 
+    /**
+     * 读取聚合参数的整数值，非整数 (或 NULL) 按 0 处理；紧凑行直接读取原始值。
+     */
+    private static int intValue(Tuple tuple, int column) {
+        if (tuple instanceof CompactRow row) {
+            return row.getType(column) == DataType.INT && !row.isNull(column) ? row.getInt(column) : 0;
+        }
+        Value value = tuple.getValue(column);
+        return (value != null && value.getValue() instanceof Integer) ? (Integer) value.getValue() : 0;
+    }
+
     @Override
     public Tuple next() throws IOException {
         if (!hasNext()) return null;
@@ -137,22 +187,4 @@ public class AggregateExecutor implements TupleIterator {
     public Schema getOutputSchema() {
         return plan.getOutputSchema();
     }
-
-    private List<Value> createGroupByKey(Tuple tuple) {
-        List<IdentifierNode> groupBys = plan.getGroupBys();
-        if (groupBys == null || groupBys.isEmpty()) {
-            return Collections.emptyList(); // 对于没有GROUP BY的聚合（如SELECT SUM(*)），返回一个固定的空列表作为Key
-        }
-
-        List<Value> key = new ArrayList<>();
-        for (IdentifierNode groupByCol : groupBys) {
-            key.add(getColumnValue(tuple, groupByCol.getName()));
-        }
-        return key;
-    }
-
-    private Value getColumnValue(Tuple tuple, String columnName) {
-        int colIndex = childSchema.getColumnIndex(columnName);
-        return tuple.getValues().get(colIndex);
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,61 @@
+package org.csu.sdolp.executor.dml;
+
+import org.csu.sdolp.common.model.*;
+import org.csu.sdolp.compiler.planner.plan.dml.InsertPlanNode;
+import org.csu.sdolp.executor.TupleIterator;
+import org.csu.sdolp.storage.column.ColumnarTable;
+import org.csu.sdolp.transaction.LockManager;
+import org.csu.sdolp.transaction.Transaction;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 列存表的插入执行器。
+ * 一条 INSERT 的所有行作为一批追加到各列的段中，不写 WAL，也不能回滚。
+ */
+public class ColumnarInsertExecutor implements TupleIterator {
+
+    private static final Schema AFFECTED_ROWS_SCHEMA = new Schema(List.of(new Column("inserted_rows", DataType.INT)));
+
+    private final InsertPlanNode plan;
+    private final ColumnarTable table;
+    private final Transaction txn;
+    private final LockManager lockManager;
+    private boolean done = false;
+
+    public ColumnarInsertExecutor(InsertPlanNode plan, ColumnarTable table, Transaction txn, LockManager lockManager) {
+        this.plan = plan;
+        this.table = table;
+        this.txn = txn;
+        this.lockManager = lockManager;
+    }
+
+    @Override
+    public Tuple next() throws IOException {
+        if (done) {
+            return null;
+        }
+        // 追加会改写各列的最后一个段和头页，以头页的排他锁串行化
+        try {
+            lockManager.lockExclusive(txn, table.getHeaderPageId());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Thread interrupted while acquiring lock", e);
+        }
+        int insertCount = table.appendRows(plan.getRawTuples());
+        done = true;
+        return new Tuple(Collections.singletonList(new Value(insertCount)));
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !done;
+    }
+
+    @Override
+    public Schema getOutputSchema() {
+        return AFFECTED_ROWS_SCHEMA;
+    }
+}
@@ -0,0 +1,95 @@
+package org.csu.sdolp.executor.dml;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 流式 CSV 读取器 (RFC 4180)。
+ * 字段以逗号分隔，可以用双引号括起，引号内的 "" 表示一个双引号，引号内允许逗号和换行。
+ * 未加引号的空字段读作 null (SQL NULL)，加了引号的空字段 "" 读作空字符串。
+ */
+public class CsvReader implements Closeable {
+
+    private final BufferedReader reader;
+    // 已读取的物理行数，用于报错时定位
+    private long lineNumber = 0;
+
+    public CsvReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * @return 当前记录结束处的行号 (从 1 开始)
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * 读取下一条记录，跳过空行。
+     * @return 记录的各字段，文件结束时返回 null
+     * @throws IOException 引号未闭合或读取失败
+     */
+    public List<String> readRecord() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+        } while (line.isEmpty());
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean inQuotes = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length()) {
+                if (!inQuotes) {
+                    break;
+                }
+                // 引号内的换行属于字段内容，继续读取下一行
+                line = reader.readLine();
+                if (line == null) {
+                    throw new IOException("Unterminated quoted field at line " + lineNumber + ".");
+                }
+                lineNumber++;
+                field.append('\n');
+                i = 0;
+                continue;
+            }
+            char c = line.charAt(i++);
+            if (inQuotes) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i < line.length() && line.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    inQuotes = false;
+                }
+            } else if (c == ',') {
+                fields.add(quoted || !field.isEmpty() ? field.toString() : null);
+                field.setLength(0);
+                quoted = false;
+            } else if (c == '"' && field.isEmpty() && !quoted) {
+                inQuotes = true;
+                quoted = true;
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(quoted || !field.isEmpty() ? field.toString() : null);
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
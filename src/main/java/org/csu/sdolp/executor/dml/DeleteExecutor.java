@@ -4,6 +4,7 @@ import org.csu.sdolp.catalog.Catalog;
 import org.csu.sdolp.catalog.IndexInfo;
 import org.csu.sdolp.common.model.*;
 import org.csu.sdolp.compiler.planner.plan.dml.DeletePlanNode;
+import org.csu.sdolp.executor.HeapVacuum;
 import org.csu.sdolp.executor.TableHeap;
 import org.csu.sdolp.executor.TupleIterator;
 import org.csu.sdolp.storage.buffer.BufferPoolManager;
@@ -13,7 +14,6 @@ import org.csu.sdolp.transaction.Transaction;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 
 public class DeleteExecutor implements TupleIterator {
@@ -26,14 +26,17 @@ public class DeleteExecutor implements TupleIterator {
     private final DeletePlanNode plan;
     private final Catalog catalog;
     private final BufferPoolManager bufferPoolManager;
+    private final HeapVacuum heapVacuum;
 
-    public DeleteExecutor(DeletePlanNode plan, TupleIterator child, TableHeap tableHeap, Transaction txn, Catalog catalog, BufferPoolManager bufferPoolManager) {
+    public DeleteExecutor(DeletePlanNode plan, TupleIterator child, TableHeap tableHeap, Transaction txn, Catalog catalog,
+                          BufferPoolManager bufferPoolManager, HeapVacuum heapVacuum) {
         this.plan = plan;
         this.child = child;
         this.tableHeap = tableHeap;
         this.txn = txn;
         this.catalog = catalog;
         this.bufferPoolManager = bufferPoolManager;
+        this.heapVacuum = heapVacuum;
     }
 
     @Override
@@ -47,9 +50,6 @@ public class DeleteExecutor implements TupleIterator {
             tuplesToDelete.add(child.next());
         }
 
-        tuplesToDelete.sort(Comparator.comparing(Tuple::getRid,
-                Comparator.comparingInt(RID::pageNum).thenComparingInt(RID::slotIndex).reversed()));
-
         int deletedCount = 0;
         for (Tuple tuple : tuplesToDelete) {
             updateAllIndexesForDelete(tuple);
@@ -58,6 +58,10 @@ public class DeleteExecutor implements TupleIterator {
             }
         }
         done = true;
+        // 删空的页在删除事务提交、释放锁之后由后台清理归还
+        if (heapVacuum != null && deletedCount > 0) {
+            heapVacuum.requestVacuum(plan.getTableInfo().getTableName());
+        }
         return new Tuple(Collections.singletonList(new Value(deletedCount)));
     }
 
@@ -69,7 +73,7 @@ public class DeleteExecutor implements TupleIterator {
         List<IndexInfo> indexes = catalog.getIndexesForTable(tableName);
 
         for (IndexInfo indexInfo : indexes) {
-            BPlusTree index = new BPlusTree(bufferPoolManager, indexInfo.getRootPageId());
+            BPlusTree index = new BPlusTree(bufferPoolManager, indexInfo.getRootPageId(), indexInfo.getSegmentName());
             int keyColumnIndex = plan.getTableInfo().getSchema().getColumnIndex(indexInfo.getColumnName());
             Value key = tuple.getValues().get(keyColumnIndex);
             index.delete(key);
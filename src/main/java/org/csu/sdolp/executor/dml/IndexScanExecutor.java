@@ -33,7 +33,7 @@ public class IndexScanExecutor implements TupleIterator {
     private void performScan() throws IOException {
         List<Tuple> results = new LinkedList<>();
         // 1. 初始化 B+ 树
-        BPlusTree index = new BPlusTree(bufferPoolManager, plan.getIndexInfo().getRootPageId());
+        BPlusTree index = new BPlusTree(bufferPoolManager, plan.getIndexInfo().getRootPageId(), plan.getIndexInfo().getSegmentName());
 
         // 2. 使用 B+ 树的 search 方法查找 RID
         RID rid = index.search(plan.getSearchKey());
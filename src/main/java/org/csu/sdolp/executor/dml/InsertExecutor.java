@@ -12,7 +12,9 @@ import org.csu.sdolp.transaction.Transaction;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class InsertExecutor implements TupleIterator {
 
@@ -39,49 +41,49 @@ public class InsertExecutor implements TupleIterator {
             return null;
         }
 
+        List<Tuple> tuples = plan.getRawTuples();
+        // 先检查所有行的主键唯一性 (包括同一语句中的各行之间)，冲突时一行都不插入
         String primaryKeyColumnName = plan.getTableInfo().getSchema().getPrimaryKeyColumnName();
-        int insertCount = 0;
-
-        for (Tuple tuple : plan.getRawTuples()) {
-            // 检查主键唯一性
-            if (primaryKeyColumnName != null) {
-                int pkIndex = plan.getTableInfo().getSchema().getColumnIndex(primaryKeyColumnName);
+        if (primaryKeyColumnName != null) {
+            int pkIndex = plan.getTableInfo().getSchema().getColumnIndex(primaryKeyColumnName);
+            IndexInfo pkIndexInfo = catalog.getIndex(plan.getTableInfo().getTableName(), primaryKeyColumnName);
+            BPlusTree pkTree = pkIndexInfo == null ? null
+                    : new BPlusTree(bufferPoolManager, pkIndexInfo.getRootPageId(), pkIndexInfo.getSegmentName());
+            Set<Value> statementKeys = new HashSet<>();
+            for (Tuple tuple : tuples) {
                 Value pkValue = tuple.getValues().get(pkIndex);
-
-                // 1. 获取主键索引信息
-                IndexInfo pkIndexInfo = catalog.getIndex(plan.getTableInfo().getTableName(), primaryKeyColumnName);
-
-                // 2. 如果主键索引存在，则执行查找
-                if (pkIndexInfo != null) {
-                    BPlusTree pkTree = new BPlusTree(bufferPoolManager, pkIndexInfo.getRootPageId());
-                    if (pkTree.search(pkValue) != null) {
-                        throw new RuntimeException("Primary key constraint violation: Duplicate key '" + pkValue + "'");
-                    }
+                if (!statementKeys.add(pkValue) || (pkTree != null && pkTree.search(pkValue) != null)) {
+                    throw new RuntimeException("Primary key constraint violation: Duplicate key '" + pkValue + "'");
                 }
             }
-            if (tableHeap.insertTuple(tuple, txn)) {
-                updateAllIndexesForInsert(tuple);
-                insertCount++;
-            }
         }
 
+        // 多行插入作为一批写入堆表：每页只加一次锁，所有 INSERT 日志一次刷盘
+        int insertCount = tableHeap.insertTuples(tuples, txn);
+        updateAllIndexesForInsert(tuples);
+
         done = true;
         return new Tuple(Collections.singletonList(new Value(insertCount)));
     }
 
     /**
-     * 新增辅助方法：当插入一个元组后，更新该表上的所有索引。
+     * 插入一批元组后，更新该表上的所有索引；B+ 树分裂导致根页变化时同步更新目录。
      */
-    private void updateAllIndexesForInsert(Tuple tuple) throws IOException {
-        RID rid = tuple.getRid();
+    private void updateAllIndexesForInsert(List<Tuple> tuples) throws IOException {
         String tableName = plan.getTableInfo().getTableName();
         List<IndexInfo> indexes = catalog.getIndexesForTable(tableName);
 
         for (IndexInfo indexInfo : indexes) {
-            BPlusTree index = new BPlusTree(bufferPoolManager, indexInfo.getRootPageId());
+            BPlusTree index = new BPlusTree(bufferPoolManager, indexInfo.getRootPageId(), indexInfo.getSegmentName());
             int keyColumnIndex = plan.getTableInfo().getSchema().getColumnIndex(indexInfo.getColumnName());
-            Value key = tuple.getValues().get(keyColumnIndex);
-            index.insert(key, rid);
+            for (Tuple tuple : tuples) {
+                if (tuple.getRid() != null) {
+                    index.insert(tuple.getValues().get(keyColumnIndex), tuple.getRid());
+                }
+            }
+            if (index.getRootPageId() != indexInfo.getRootPageId()) {
+                catalog.updateIndexRootPageId(indexInfo.getIndexName(), index.getRootPageId());
+            }
         }
     }
 
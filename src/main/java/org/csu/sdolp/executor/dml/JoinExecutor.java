@@ -3,14 +3,17 @@
 package org.csu.sdolp.executor.dml;
 
 import org.csu.sdolp.catalog.TableInfo;
+import org.csu.sdolp.common.model.CompactRow;
+import org.csu.sdolp.common.model.DataType;
+import org.csu.sdolp.common.model.JoinedRow;
 import org.csu.sdolp.common.model.Schema;
 import org.csu.sdolp.common.model.Tuple;
-import org.csu.sdolp.common.model.Value;
 import org.csu.sdolp.compiler.planner.plan.PlanNode;
 import org.csu.sdolp.compiler.planner.plan.query.JoinPlanNode;
 import org.csu.sdolp.compiler.planner.plan.query.SeqScanPlanNode;
-import org.csu.sdolp.engine.ExpressionEvaluator; // 我们将需要它
+import org.csu.sdolp.engine.ExpressionCompiler;
 import org.csu.sdolp.executor.TupleIterator;
+import org.csu.sdolp.executor.expressions.AbstractPredicate;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -18,6 +21,7 @@ import java.util.List;
 
 /**
  * 使用嵌套循环连接算法执行 JOIN 操作。
+ * 左右两侧的元组转换为 CompactRow；连接条件在可复用的 JoinedRow 上求值，只有满足条件的组合才会拼接成新行。
  */
 public class JoinExecutor implements TupleIterator {
 
@@ -28,8 +32,14 @@ public class JoinExecutor implements TupleIterator {
     // 此处修改：新增成员变量来存储左右表的元数据信息
     private final TableInfo leftTableInfo;
     private final TableInfo rightTableInfo;
-    private Tuple leftTuple; // 当前外层循环的元组
-    private List<Tuple> rightTuples; // 内存中缓存的右表所有元组
+    // 编译后的连接条件，列序号 (含右表偏移) 已在编译期确定
+    private final AbstractPredicate joinPredicate;
+    private final DataType[] leftTypes;
+    private final DataType[] rightTypes;
+    private final DataType[] outputTypes;
+    private final JoinedRow joinedRow = new JoinedRow();
+    private CompactRow leftTuple; // 当前外层循环的元组
+    private List<CompactRow> rightTuples; // 内存中缓存的右表所有元组
     private int rightTupleIndex;
     private Tuple nextTuple;
 
@@ -38,6 +48,9 @@ public class JoinExecutor implements TupleIterator {
         this.leftChild = leftChild;
         this.rightChild = rightChild;
         this.outputSchema = plan.getOutputSchema();
+        this.leftTypes = CompactRow.typesOf(leftChild.getOutputSchema());
+        this.rightTypes = CompactRow.typesOf(rightChild.getOutputSchema());
+        this.outputTypes = CompactRow.typesOf(outputSchema);
         this.leftTuple = null;
         this.rightTuples = null;
         this.rightTupleIndex = 0;
@@ -49,6 +62,7 @@ public class JoinExecutor implements TupleIterator {
         if (this.leftTableInfo == null || this.rightTableInfo == null) {
             throw new IllegalStateException("Could not find table information for one of the join sides.");
         }
+        this.joinPredicate = ExpressionCompiler.compileCached(plan.getJoinCondition(), outputSchema, leftTableInfo, rightTableInfo);
 //        // 此处修改：从子计划中提取 TableInfo
 //        // 这一步是关键，为后续的表达式求值提供必要的上下文
 //        PlanNode leftPlan = plan.getLeft();
@@ -91,7 +105,7 @@ public class JoinExecutor implements TupleIterator {
         if (rightTuples == null) {
             rightTuples = new ArrayList<>();
             while (rightChild.hasNext()) {
-                rightTuples.add(rightChild.next());
+                rightTuples.add(CompactRow.of(rightChild.next(), rightTypes));
             }
         }
     }
@@ -122,7 +136,7 @@ public class JoinExecutor implements TupleIterator {
             // 如果当前左表元组为空，就从左边的子执行器获取下一个
             if (leftTuple == null) {
                 if (leftChild.hasNext()) {
-                    leftTuple = leftChild.next();
+                    leftTuple = CompactRow.of(leftChild.next(), leftTypes);
                     rightTupleIndex = 0; // 每换一个新的左元组，右表指针重置
                 } else {
                     return false; // 左表已经遍历完毕，连接结束
@@ -130,15 +144,13 @@ public class JoinExecutor implements TupleIterator {
             }
             // 遍历右表，寻找匹配项
             while (rightTupleIndex < rightTuples.size()) {
-                Tuple rightTuple = rightTuples.get(rightTupleIndex);
+                CompactRow rightTuple = rightTuples.get(rightTupleIndex);
                 rightTupleIndex++;
-                // 组合左右元组用于条件判断
-                List<Value> combinedValues = new ArrayList<>(leftTuple.getValues());
-                combinedValues.addAll(rightTuple.getValues());
-                Tuple combinedTuple = new Tuple(combinedValues);
-                // 检查连接条件是否满足
-                if (ExpressionEvaluator.evaluate(plan.getJoinCondition(), outputSchema, combinedTuple,leftTableInfo, rightTableInfo)) {
-                    this.nextTuple = combinedTuple; // 找到匹配项，缓存并返回 true
+                // 在左右两行的视图上检查连接条件，不复制数据
+                joinedRow.reset(leftTuple, leftTuple.getColumnCount(), rightTuple);
+                if (joinPredicate.evaluate(joinedRow)) {
+                    // 找到匹配项，拼接、缓存并返回 true
+                    this.nextTuple = CompactRow.concat(leftTuple, rightTuple, outputTypes);
                     return true;
                 }
             }
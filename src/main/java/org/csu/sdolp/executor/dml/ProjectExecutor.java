@@ -1,9 +1,10 @@
 package org.csu.sdolp.executor.dml;
 
 import org.csu.sdolp.common.model.Column;
+import org.csu.sdolp.common.model.CompactRow;
+import org.csu.sdolp.common.model.DataType;
 import org.csu.sdolp.common.model.Schema;
 import org.csu.sdolp.common.model.Tuple;
-import org.csu.sdolp.common.model.Value;
 import org.csu.sdolp.executor.TupleIterator;
 
 import java.io.IOException;
@@ -12,11 +13,13 @@ import java.util.List;
 
 /**
  * 投影执行器，根据指定的列索引，从子执行器返回的元组中提取列。
+ * 输出为 CompactRow，只解码被投影的列。
  */
 public class ProjectExecutor implements TupleIterator {
     private final TupleIterator child;
-    private final List<Integer> columnIndexes;
+    private final int[] columnIndexes;
     private final Schema outputSchema;
+    private final DataType[] outputTypes;
 
     /**
      * @param child          子执行器 (如 FilterExecutor 或 SeqScanExecutor)
@@ -24,13 +27,14 @@ public class ProjectExecutor implements TupleIterator {
      */
     public ProjectExecutor(TupleIterator child, List<Integer> columnIndexes) {
         this.child = child;
-        this.columnIndexes = columnIndexes;
+        this.columnIndexes = columnIndexes.stream().mapToInt(Integer::intValue).toArray();
         Schema inputSchema = child.getOutputSchema();
         List<Column> projectedColumns = new ArrayList<>();
         for (int index : columnIndexes) {
             projectedColumns.add(inputSchema.getColumns().get(index));
         }
         this.outputSchema = new Schema(projectedColumns);
+        this.outputTypes = CompactRow.typesOf(outputSchema);
     }
 
     @Override
@@ -43,13 +47,7 @@ public class ProjectExecutor implements TupleIterator {
         if (originalTuple == null) {
             return null;
         }
-
-        List<Value> projectedValues = new ArrayList<>();
-        for (Integer index : columnIndexes) {
-            projectedValues.add(originalTuple.getValues().get(index));
-        }
-        
-        return new Tuple(projectedValues);
+        return CompactRow.project(originalTuple, columnIndexes, outputTypes);
     }
 
     @Override
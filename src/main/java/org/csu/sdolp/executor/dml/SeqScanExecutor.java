@@ -47,14 +47,11 @@ public class SeqScanExecutor implements TupleIterator {
             return true;
         }
 
-        // 循环直到找到一个匹配的元组或迭代结束
-        while (tableHeap.hasNext()) {
-            Tuple tuple = tableHeap.next();
-            // 如果没有谓词 (SELECT *) 或者谓词求值为 true，则找到下一个元组
-            if (predicate == null || predicate.evaluate(tuple)) {
-                this.nextTuple = tuple; // 预取并存储匹配的元组
-                return true;
-            }
+        // 谓词在页面上的元组视图上求值，只有匹配的元组才会被物化
+        Tuple tuple = tableHeap.nextMatching(predicate);
+        if (tuple != null) {
+            this.nextTuple = tuple; // 预取并存储匹配的元组
+            return true;
         }
         // 没有找到更多匹配的元组
         return false;
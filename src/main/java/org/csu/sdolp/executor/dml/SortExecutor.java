@@ -1,8 +1,9 @@
 package org.csu.sdolp.executor.dml;
 
+import org.csu.sdolp.common.model.CompactRow;
+import org.csu.sdolp.common.model.DataType;
 import org.csu.sdolp.common.model.Schema;
 import org.csu.sdolp.common.model.Tuple;
-import org.csu.sdolp.common.model.Value;
 import org.csu.sdolp.compiler.planner.plan.query.SortPlanNode;
 import org.csu.sdolp.executor.TupleIterator;
 
@@ -14,12 +15,13 @@ import java.util.List;
 /**
  * 排序执行器
  * 这是一个阻塞执行器，它会先拉取所有子节点的元组，在内存中完成排序，然后再向上层返回。
+ * 缓存的元组转换为 CompactRow，比较时直接读取原始值，不创建 Value。
  */
 public class SortExecutor implements TupleIterator {
 
     private final TupleIterator child;
     private final SortPlanNode plan;
-    private List<Tuple> sortedTuples;
+    private List<CompactRow> sortedTuples;
     private int cursor = 0;
 
     public SortExecutor(TupleIterator child, SortPlanNode plan) {
@@ -36,9 +38,10 @@ public class SortExecutor implements TupleIterator {
         }
 
         // 1. 从子执行器拉取所有元组
+        DataType[] types = CompactRow.typesOf(child.getOutputSchema());
         sortedTuples = new ArrayList<>();
         while (child.hasNext()) {
-            sortedTuples.add(child.next());
+            sortedTuples.add(CompactRow.of(child.next(), types));
         }
 
         // 2. 确定排序列的索引
@@ -57,13 +60,7 @@ public class SortExecutor implements TupleIterator {
         final int finalColIndex = colIndex;
 
         // 3. 定义比较器并排序
-        Comparator<Tuple> comparator = (t1, t2) -> {
-            Value v1 = t1.getValues().get(finalColIndex);
-            Value v2 = t2.getValues().get(finalColIndex);
-            if (v1 == null || v1.getValue() == null) return -1;
-            if (v2 == null || v2.getValue() == null) return 1;
-            return ((Comparable) v1.getValue()).compareTo(v2.getValue());
-        };
+        Comparator<CompactRow> comparator = (t1, t2) -> t1.compareColumn(finalColIndex, t2);
 
         if (!plan.getOrderBy().isAscending()) {
             comparator = comparator.reversed();
@@ -5,6 +5,7 @@ import org.csu.sdolp.catalog.IndexInfo;
 import org.csu.sdolp.common.model.*;
 import org.csu.sdolp.compiler.parser.ast.expression.LiteralNode;
 import org.csu.sdolp.compiler.parser.ast.expression.SetClauseNode;
+import org.csu.sdolp.compiler.planner.LiteralConverter;
 import org.csu.sdolp.executor.TableHeap;
 import org.csu.sdolp.executor.TupleIterator;
 import org.csu.sdolp.storage.buffer.BufferPoolManager;
@@ -20,7 +21,9 @@ public class UpdateExecutor implements TupleIterator {
     private final TupleIterator child;
     private final TableHeap tableHeap;
     private final Schema schema;
-    private final List<SetClauseNode> setClauses;
+    // SET 子句在构造时绑定：列序号和已转换为列类型的新值
+    private final int[] setColumnIndexes;
+    private final Value[] setValues;
     private final Transaction txn;
     private final Catalog catalog;
     private final BufferPoolManager bufferPoolManager;
@@ -32,7 +35,14 @@ public class UpdateExecutor implements TupleIterator {
         this.child = child;
         this.tableHeap = tableHeap;
         this.schema = schema;
-        this.setClauses = setClauses;
+        this.setColumnIndexes = new int[setClauses.size()];
+        this.setValues = new Value[setClauses.size()];
+        for (int i = 0; i < setClauses.size(); i++) {
+            SetClauseNode clause = setClauses.get(i);
+            int colIndex = schema.getColumnIndex(clause.column().getName());
+            setColumnIndexes[i] = colIndex;
+            setValues[i] = LiteralConverter.toValue((LiteralNode) clause.value(), schema.getColumns().get(colIndex).getType());
+        }
         this.txn = txn;
         this.catalog = catalog;
         this.bufferPoolManager = bufferPoolManager;
@@ -51,11 +61,8 @@ public class UpdateExecutor implements TupleIterator {
         int updatedCount = 0;
         for (Tuple oldTuple : tuplesToUpdate) {
             List<Value> newValues = new ArrayList<>(oldTuple.getValues());
-            for (SetClauseNode clause : setClauses) {
-                String colName = clause.column().getName();
-                int colIndex = getColumnIndex(schema, colName);
-                Value newValue = getLiteralValue((LiteralNode) clause.value());
-                newValues.set(colIndex, newValue);
+            for (int i = 0; i < setColumnIndexes.length; i++) {
+                newValues.set(setColumnIndexes[i], setValues[i]);
             }
             Tuple newTuple = new Tuple(newValues);
 
@@ -67,7 +74,7 @@ public class UpdateExecutor implements TupleIterator {
                 if (!oldPkValue.equals(newPkValue)) {
                     IndexInfo pkIndexInfo = catalog.getIndex(tableHeap.getTableInfo().getTableName(), pkColumnName);
                     if (pkIndexInfo != null) {
-                        BPlusTree pkTree = new BPlusTree(bufferPoolManager, pkIndexInfo.getRootPageId());
+                        BPlusTree pkTree = new BPlusTree(bufferPoolManager, pkIndexInfo.getRootPageId(), pkIndexInfo.getSegmentName());
                         if (pkTree.search(newPkValue) != null) {
                             throw new RuntimeException("Primary key constraint violation: Cannot update to existing key '" + newPkValue + "'");
                         }
@@ -75,9 +82,10 @@ public class UpdateExecutor implements TupleIterator {
                 }
             }
 
-            RID newRid = tableHeap.updateTuple(newTuple, oldTuple.getRid(), txn);
-            if (newRid != null) {
-                updateAllIndexesForUpdate(oldTuple, newTuple, newRid);
+            // 更新不改变行的 RID，只有键值变化的索引需要修改
+            RID rid = tableHeap.updateTuple(newTuple, oldTuple.getRid(), txn);
+            if (rid != null) {
+                updateAllIndexesForUpdate(oldTuple, newTuple, rid);
                 updatedCount++;
             }
         }
@@ -88,12 +96,12 @@ public class UpdateExecutor implements TupleIterator {
     /**
      * 新增辅助方法：更新所有索引。
      */
-    private void updateAllIndexesForUpdate(Tuple oldTuple, Tuple newTuple, RID newRid) throws IOException {
+    private void updateAllIndexesForUpdate(Tuple oldTuple, Tuple newTuple, RID rid) throws IOException {
         String tableName = tableHeap.getTableInfo().getTableName();
         List<IndexInfo> indexes = catalog.getIndexesForTable(tableName);
 
         for (IndexInfo indexInfo : indexes) {
-            BPlusTree index = new BPlusTree(bufferPoolManager, indexInfo.getRootPageId());
+            BPlusTree index = new BPlusTree(bufferPoolManager, indexInfo.getRootPageId(), indexInfo.getSegmentName());
             int keyColumnIndex = schema.getColumnIndex(indexInfo.getColumnName());
 
             Value oldKey = oldTuple.getValues().get(keyColumnIndex);
@@ -102,7 +110,10 @@ public class UpdateExecutor implements TupleIterator {
             // 如果索引键值发生变化，则更新索引
             if (!oldKey.equals(newKey)) {
                 index.delete(oldKey);
-                index.insert(newKey, newRid);
+                index.insert(newKey, rid);
+                if (index.getRootPageId() != indexInfo.getRootPageId()) {
+                    catalog.updateIndexRootPageId(indexInfo.getIndexName(), index.getRootPageId());
+                }
             }
         }
     }
@@ -112,25 +123,6 @@ public class UpdateExecutor implements TupleIterator {
         return !done;
     }
 
-    // --- 辅助方法 (可以从 QueryProcessor 移到这里或一个公共类) ---
-    private int getColumnIndex(Schema schema, String columnName) {
-        for (int i = 0; i < schema.getColumns().size(); i++) {
-            if (schema.getColumns().get(i).getName().equalsIgnoreCase(columnName)) {
-                return i;
-            }
-        }
-        throw new IllegalStateException("Column '" + columnName + "' not found in schema.");
-    }
-
-    private Value getLiteralValue(LiteralNode literalNode) {
-        String lexeme = literalNode.literal().lexeme();
-        return switch (literalNode.literal().type()) {
-            case INTEGER_CONST -> new Value(Integer.parseInt(lexeme));
-            case STRING_CONST -> new Value(lexeme);
-            default -> throw new IllegalStateException("Unsupported literal type.");
-        };
-    }
-
     @Override
     public Schema getOutputSchema() {
         return AFFECTED_ROWS_SCHEMA;
@@ -1,6 +1,8 @@
 package org.csu.sdolp.executor.expressions;
 
 import org.csu.sdolp.common.model.Tuple;
+import org.csu.sdolp.executor.vector.TupleBatch;
+import org.csu.sdolp.storage.page.TupleView;
 
 import java.io.IOException;
 
@@ -9,4 +11,29 @@ import java.io.IOException;
  */
 public abstract class AbstractPredicate {
     public abstract boolean evaluate(Tuple tuple)throws IOException;
-}
\ No newline at end of file
+
+    /**
+     * 在页面上的元组视图上求值，不物化整行。
+     * 默认实现先物化再调用 evaluate，类型特化的比较谓词覆盖为直接读取页面字节。
+     */
+    public boolean evaluate(TupleView view) throws IOException {
+        return evaluate(view.materialize(null));
+    }
+
+    /**
+     * 批量求值：就地收缩 batch 的选择向量，只保留满足谓词的行。
+     * 默认实现逐行物化后调用 evaluate，子类可以覆盖为直接在列向量上的紧凑循环。
+     */
+    public void filterBatch(TupleBatch batch) throws IOException {
+        int[] selection = batch.getSelection();
+        int count = batch.getSelectedCount();
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int row = selection[i];
+            if (evaluate(batch.materialize(row))) {
+                selection[kept++] = row;
+            }
+        }
+        batch.setSelectedCount(kept);
+    }
+}
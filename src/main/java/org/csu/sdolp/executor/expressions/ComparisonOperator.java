@@ -0,0 +1,62 @@
+package org.csu.sdolp.executor.expressions;
+
+/**
+ * 比较运算符。在绑定阶段由词法单元名称解析一次，求值时不再按字符串分派。
+ */
+public enum ComparisonOperator {
+    EQUAL,
+    NOT_EQUAL,
+    GREATER,
+    GREATER_EQUAL,
+    LESS,
+    LESS_EQUAL;
+
+    /**
+     * @param tokenName 词法单元类型名，例如 "EQUAL"、"GREATER"
+     */
+    public static ComparisonOperator fromTokenName(String tokenName) {
+        try {
+            return valueOf(tokenName);
+        } catch (IllegalArgumentException e) {
+            throw new UnsupportedOperationException("Unsupported operator: " + tokenName);
+        }
+    }
+
+    /**
+     * 交换左右操作数后的等价运算符，例如 "5 < a" 等价于 "a > 5"。
+     */
+    public ComparisonOperator mirror() {
+        return switch (this) {
+            case GREATER -> LESS;
+            case GREATER_EQUAL -> LESS_EQUAL;
+            case LESS -> GREATER;
+            case LESS_EQUAL -> GREATER_EQUAL;
+            default -> this;
+        };
+    }
+
+    /**
+     * @param cmp compareTo 风格的比较结果
+     */
+    public boolean test(int cmp) {
+        return switch (this) {
+            case EQUAL -> cmp == 0;
+            case NOT_EQUAL -> cmp != 0;
+            case GREATER -> cmp > 0;
+            case GREATER_EQUAL -> cmp >= 0;
+            case LESS -> cmp < 0;
+            case LESS_EQUAL -> cmp <= 0;
+        };
+    }
+
+    public boolean test(double v1, double v2) {
+        return switch (this) {
+            case EQUAL -> v1 == v2;
+            case NOT_EQUAL -> v1 != v2;
+            case GREATER -> v1 > v2;
+            case GREATER_EQUAL -> v1 >= v2;
+            case LESS -> v1 < v2;
+            case LESS_EQUAL -> v1 <= v2;
+        };
+    }
+}
@@ -0,0 +1,59 @@
+package org.csu.sdolp.executor.expressions;
+
+import org.csu.sdolp.common.model.Tuple;
+import org.csu.sdolp.executor.vector.TupleBatch;
+import org.csu.sdolp.storage.page.TupleView;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+
+/**
+ * 编译后的谓词。
+ * 行式求值直接调用由 ExpressionCompiler 组装好的 MethodHandle (Tuple)boolean，
+ * 列序号、运算符和常量都已在绑定期确定，不再逐行遍历表达式树。
+ * 批量求值委托给绑定后的物理表达式，以便使用各个特化节点的列向量内核。
+ */
+public class CompiledPredicate extends AbstractPredicate {
+
+    private final MethodHandle handle;
+    private final AbstractPredicate bound;
+
+    /**
+     * @param handle 类型为 (Tuple)boolean 的方法句柄
+     * @param bound  编译所依据的物理表达式，没有条件时为 null
+     */
+    public CompiledPredicate(MethodHandle handle, AbstractPredicate bound) {
+        this.handle = handle;
+        this.bound = bound;
+    }
+
+    @Override
+    public boolean evaluate(Tuple tuple) throws IOException {
+        try {
+            return (boolean) handle.invokeExact(tuple);
+        } catch (IOException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException("Failed to evaluate compiled predicate.", t);
+        }
+    }
+
+    /**
+     * 视图求值委托给绑定后的物理表达式，由各个特化节点直接读取页面字节。
+     */
+    @Override
+    public boolean evaluate(TupleView view) throws IOException {
+        if (bound == null) {
+            return true;
+        }
+        return bound.evaluate(view);
+    }
+
+    @Override
+    public void filterBatch(TupleBatch batch) throws IOException {
+        if (bound == null) {
+            return;
+        }
+        bound.filterBatch(batch);
+    }
+}
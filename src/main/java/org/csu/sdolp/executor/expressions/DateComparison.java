@@ -0,0 +1,71 @@
+package org.csu.sdolp.executor.expressions;
+
+import lombok.Getter;
+import org.csu.sdolp.common.model.Tuple;
+import org.csu.sdolp.common.model.Value;
+import org.csu.sdolp.executor.vector.ColumnVector;
+import org.csu.sdolp.executor.vector.TupleBatch;
+import org.csu.sdolp.storage.page.TupleView;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * DATE 列与日期常量的比较，按 epoch day (long) 比较。
+ */
+@Getter
+public final class DateComparison extends AbstractPredicate {
+    private final int ordinal;
+    private final ComparisonOperator operator;
+    private final long epochDay;
+
+    public DateComparison(int ordinal, ComparisonOperator operator, LocalDate constant) {
+        this.ordinal = ordinal;
+        this.operator = operator;
+        this.epochDay = constant.toEpochDay();
+    }
+
+    @Override
+    public boolean evaluate(Tuple tuple) {
+        return test(tuple, ordinal, operator, epochDay);
+    }
+
+    /**
+     * 行式求值的静态形式，供 ExpressionCompiler 绑定参数。
+     */
+    public static boolean test(Tuple tuple, int ordinal, ComparisonOperator operator, long epochDay) {
+        Value value = tuple.getValue(ordinal);
+        if (value != null && value.getValue() instanceof LocalDate v) {
+            return operator.test(Long.compare(v.toEpochDay(), epochDay));
+        }
+        return false;
+    }
+
+    @Override
+    public boolean evaluate(TupleView view) {
+        return !view.isNull(ordinal) && operator.test(Long.compare(view.getEpochDay(ordinal), epochDay));
+    }
+
+    @Override
+    public void filterBatch(TupleBatch batch) throws IOException {
+        ColumnVector column = batch.getColumn(ordinal);
+        if (!column.isLongVector()) {
+            super.filterBatch(batch);
+            return;
+        }
+        long[] data = column.getLongs();
+        int[] selection = batch.getSelection();
+        int count = batch.getSelectedCount();
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int row = selection[i];
+            boolean match = column.isNull(row)
+                    ? evaluate(batch.materialize(row))
+                    : operator.test(Long.compare(data[row], epochDay));
+            if (match) {
+                selection[kept++] = row;
+            }
+        }
+        batch.setSelectedCount(kept);
+    }
+}
@@ -0,0 +1,71 @@
+package org.csu.sdolp.executor.expressions;
+
+import lombok.Getter;
+import org.csu.sdolp.common.model.Tuple;
+import org.csu.sdolp.common.model.Value;
+import org.csu.sdolp.executor.vector.ColumnVector;
+import org.csu.sdolp.executor.vector.TupleBatch;
+import org.csu.sdolp.storage.page.TupleView;
+
+import java.io.IOException;
+
+/**
+ * FLOAT/DOUBLE 列 (或 INT 列与小数常量) 的比较，常量在绑定时已转换为 double。
+ */
+@Getter
+public final class DoubleComparison extends AbstractPredicate {
+    private final int ordinal;
+    private final ComparisonOperator operator;
+    private final double constant;
+
+    public DoubleComparison(int ordinal, ComparisonOperator operator, double constant) {
+        this.ordinal = ordinal;
+        this.operator = operator;
+        this.constant = constant;
+    }
+
+    @Override
+    public boolean evaluate(Tuple tuple) {
+        return test(tuple, ordinal, operator, constant);
+    }
+
+    /**
+     * 行式求值的静态形式，供 ExpressionCompiler 绑定参数。
+     */
+    public static boolean test(Tuple tuple, int ordinal, ComparisonOperator operator, double constant) {
+        Value value = tuple.getValue(ordinal);
+        if (value != null && value.getValue() instanceof Number v) {
+            return operator.test(v.doubleValue(), constant);
+        }
+        return false;
+    }
+
+    @Override
+    public boolean evaluate(TupleView view) {
+        return !view.isNull(ordinal) && operator.test(view.getDouble(ordinal), constant);
+    }
+
+    @Override
+    public void filterBatch(TupleBatch batch) throws IOException {
+        ColumnVector column = batch.getColumn(ordinal);
+        if (!column.isDoubleVector() && !column.isIntVector()) {
+            super.filterBatch(batch);
+            return;
+        }
+        double[] doubles = column.getDoubles();
+        int[] ints = column.getInts();
+        int[] selection = batch.getSelection();
+        int count = batch.getSelectedCount();
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int row = selection[i];
+            boolean match = column.isNull(row)
+                    ? evaluate(batch.materialize(row))
+                    : operator.test(doubles != null ? doubles[row] : ints[row], constant);
+            if (match) {
+                selection[kept++] = row;
+            }
+        }
+        batch.setSelectedCount(kept);
+    }
+}
@@ -0,0 +1,71 @@
+package org.csu.sdolp.executor.expressions;
+
+import lombok.Getter;
+import org.csu.sdolp.common.model.Tuple;
+import org.csu.sdolp.common.model.Value;
+import org.csu.sdolp.executor.vector.ColumnVector;
+import org.csu.sdolp.executor.vector.TupleBatch;
+import org.csu.sdolp.storage.page.TupleView;
+
+import java.io.IOException;
+
+/**
+ * INT 列与整数常量的比较，不经过 double 转换。
+ * 批量模式下直接在列向量的 int[] 上循环。
+ */
+@Getter
+public final class IntComparison extends AbstractPredicate {
+    private final int ordinal;
+    private final ComparisonOperator operator;
+    private final int constant;
+
+    public IntComparison(int ordinal, ComparisonOperator operator, int constant) {
+        this.ordinal = ordinal;
+        this.operator = operator;
+        this.constant = constant;
+    }
+
+    @Override
+    public boolean evaluate(Tuple tuple) {
+        return test(tuple, ordinal, operator, constant);
+    }
+
+    /**
+     * 行式求值的静态形式，ExpressionCompiler 把列序号、运算符和常量预先绑定到它的方法句柄上。
+     */
+    public static boolean test(Tuple tuple, int ordinal, ComparisonOperator operator, int constant) {
+        Value value = tuple.getValue(ordinal);
+        if (value != null && value.getValue() instanceof Integer v) {
+            return operator.test(Integer.compare(v, constant));
+        }
+        return ValueComparison.compare(value, operator, new Value(constant));
+    }
+
+    @Override
+    public boolean evaluate(TupleView view) {
+        return !view.isNull(ordinal) && operator.test(Integer.compare(view.getInt(ordinal), constant));
+    }
+
+    @Override
+    public void filterBatch(TupleBatch batch) throws IOException {
+        ColumnVector column = batch.getColumn(ordinal);
+        if (!column.isIntVector()) {
+            super.filterBatch(batch);
+            return;
+        }
+        int[] data = column.getInts();
+        int[] selection = batch.getSelection();
+        int count = batch.getSelectedCount();
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int row = selection[i];
+            boolean match = column.isNull(row)
+                    ? evaluate(batch.materialize(row))
+                    : operator.test(Integer.compare(data[row], constant));
+            if (match) {
+                selection[kept++] = row;
+            }
+        }
+        batch.setSelectedCount(kept);
+    }
+}
@@ -1,28 +1,55 @@
 package org.csu.sdolp.executor.expressions;
 
+import lombok.Getter;
 import org.csu.sdolp.common.model.Tuple;
+import org.csu.sdolp.executor.vector.TupleBatch;
+import org.csu.sdolp.storage.page.TupleView;
+
 import java.io.IOException;
 
 /**
  * 逻辑谓词，用于处理 AND 和 OR 运算。
  */
+@Getter
 public class LogicalPredicate extends AbstractPredicate {
     private final AbstractPredicate left;
     private final AbstractPredicate right;
-    private final String operator;
+    private final boolean conjunction;
 
     public LogicalPredicate(AbstractPredicate left, AbstractPredicate right, String operator) {
         this.left = left;
         this.right = right;
-        this.operator = operator;
+        this.conjunction = switch (operator) {
+            case "AND" -> true;
+            case "OR" -> false;
+            default -> throw new UnsupportedOperationException("Unsupported logical operator: " + operator);
+        };
     }
 
     @Override
     public boolean evaluate(Tuple tuple) throws IOException {
-        return switch (operator) {
-            case "AND" -> left.evaluate(tuple) && right.evaluate(tuple);
-            case "OR" -> left.evaluate(tuple) || right.evaluate(tuple);
-            default -> throw new UnsupportedOperationException("Unsupported logical operator: " + operator);
-        };
+        return conjunction
+                ? left.evaluate(tuple) && right.evaluate(tuple)
+                : left.evaluate(tuple) || right.evaluate(tuple);
+    }
+
+    @Override
+    public boolean evaluate(TupleView view) throws IOException {
+        return conjunction
+                ? left.evaluate(view) && right.evaluate(view)
+                : left.evaluate(view) || right.evaluate(view);
+    }
+
+    /**
+     * AND 可以依次收缩选择向量；OR 仍退回逐行求值。
+     */
+    @Override
+    public void filterBatch(TupleBatch batch) throws IOException {
+        if (conjunction) {
+            left.filterBatch(batch);
+            right.filterBatch(batch);
+            return;
+        }
+        super.filterBatch(batch);
     }
 }
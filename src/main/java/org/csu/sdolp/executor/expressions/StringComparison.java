@@ -0,0 +1,61 @@
+package org.csu.sdolp.executor.expressions;
+
+import lombok.Getter;
+import org.csu.sdolp.common.model.Tuple;
+import org.csu.sdolp.common.model.Value;
+import org.csu.sdolp.storage.page.TupleView;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * VARCHAR/CHAR 列与字符串常量的比较。
+ */
+public final class StringComparison extends AbstractPredicate {
+    @Getter
+    private final int ordinal;
+    @Getter
+    private final ComparisonOperator operator;
+    @Getter
+    private final String constant;
+    // 常量全为 ASCII 时，UTF-8 字节序与 String.compareTo 的顺序一致，可以直接比较页面中的字节
+    private final byte[] asciiBytes;
+
+    public StringComparison(int ordinal, ComparisonOperator operator, String constant) {
+        this.ordinal = ordinal;
+        this.operator = operator;
+        this.constant = constant;
+        this.asciiBytes = constant.chars().allMatch(c -> c < 0x80)
+                ? constant.getBytes(StandardCharsets.US_ASCII)
+                : null;
+    }
+
+    @Override
+    public boolean evaluate(Tuple tuple) {
+        return test(tuple, ordinal, operator, constant);
+    }
+
+    /**
+     * 行式求值的静态形式，供 ExpressionCompiler 绑定参数。
+     */
+    public static boolean test(Tuple tuple, int ordinal, ComparisonOperator operator, String constant) {
+        return test(tuple.getValue(ordinal), operator, constant);
+    }
+
+    @Override
+    public boolean evaluate(TupleView view) {
+        if (view.isNull(ordinal)) {
+            return false;
+        }
+        if (asciiBytes != null) {
+            return operator.test(view.compareString(ordinal, asciiBytes));
+        }
+        return test(view.getValue(ordinal), operator, constant);
+    }
+
+    private static boolean test(Value value, ComparisonOperator operator, String constant) {
+        if (value != null && value.getValue() instanceof String v) {
+            return operator.test(v.compareTo(constant));
+        }
+        return false;
+    }
+}
@@ -0,0 +1,49 @@
+package org.csu.sdolp.executor.expressions;
+
+import org.csu.sdolp.common.model.Tuple;
+import org.csu.sdolp.common.model.Value;
+import org.csu.sdolp.storage.page.TupleView;
+
+/**
+ * 通用比较谓词，用于没有类型特化版本的情况 (列与列比较、DECIMAL/BOOLEAN 列等)。
+ * 数值之间按 double 比较，其余要求两边类型一致，任何一边为 NULL 时结果为 false。
+ */
+public final class ValueComparison extends AbstractPredicate {
+    private final ValueExpression left;
+    private final ComparisonOperator operator;
+    private final ValueExpression right;
+
+    public ValueComparison(ValueExpression left, ComparisonOperator operator, ValueExpression right) {
+        this.left = left;
+        this.operator = operator;
+        this.right = right;
+    }
+
+    @Override
+    public boolean evaluate(Tuple tuple) {
+        return compare(left.evaluate(tuple), operator, right.evaluate(tuple));
+    }
+
+    @Override
+    public boolean evaluate(TupleView view) {
+        return compare(left.evaluate(view), operator, right.evaluate(view));
+    }
+
+    /**
+     * 两个 Value 的通用比较语义，类型特化的比较谓词在遇到非预期类型时也回退到这里。
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static boolean compare(Value val1, ComparisonOperator operator, Value val2) {
+        if (val1 == null || val1.getValue() == null || val2 == null || val2.getValue() == null) {
+            // SQL 中，任何与 NULL 的比较结果都是 UNKNOWN，在这里我们将其视为 false
+            return false;
+        }
+        if (val1.getValue() instanceof Number n1 && val2.getValue() instanceof Number n2) {
+            return operator.test(n1.doubleValue(), n2.doubleValue());
+        }
+        if (val1.getType() != val2.getType()) {
+            return false;
+        }
+        return operator.test(((Comparable) val1.getValue()).compareTo(val2.getValue()));
+    }
+}
@@ -0,0 +1,48 @@
+package org.csu.sdolp.executor.expressions;
+
+import org.csu.sdolp.common.model.Tuple;
+import org.csu.sdolp.common.model.Value;
+import org.csu.sdolp.storage.page.TupleView;
+
+/**
+ * 物理表达式中产生值的节点：列引用 (已解析为序号) 或常量 (已转换为目标类型)。
+ */
+public interface ValueExpression {
+
+    Value evaluate(Tuple tuple);
+
+    /**
+     * 在页面上的元组视图上求值，列引用只解码这一列。
+     */
+    Value evaluate(TupleView view);
+
+    /**
+     * 列引用，按序号直接读取元组中的值。
+     */
+    record ColumnReference(int ordinal) implements ValueExpression {
+        @Override
+        public Value evaluate(Tuple tuple) {
+            return tuple.getValue(ordinal);
+        }
+
+        @Override
+        public Value evaluate(TupleView view) {
+            return view.getValue(ordinal);
+        }
+    }
+
+    /**
+     * 常量，绑定时已完成解析。
+     */
+    record Constant(Value value) implements ValueExpression {
+        @Override
+        public Value evaluate(Tuple tuple) {
+            return value;
+        }
+
+        @Override
+        public Value evaluate(TupleView view) {
+            return value;
+        }
+    }
+}
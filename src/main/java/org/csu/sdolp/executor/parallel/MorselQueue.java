@@ -0,0 +1,47 @@
+package org.csu.sdolp.executor.parallel;
+
+import org.csu.sdolp.storage.page.PageId;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Morsel 队列。把一张表的页号列表切成固定页数的小块 (morsel)，
+ * 工作线程各自从队列中领取下一个 morsel，处理得快的线程自然多领，负载因此保持均衡。
+ */
+public class MorselQueue {
+
+    public static final int DEFAULT_MORSEL_PAGES = 8;
+
+    private final List<PageId> pageIds;
+    private final int morselPages;
+    private final AtomicInteger cursor = new AtomicInteger(0);
+
+    public MorselQueue(List<PageId> pageIds) {
+        this(pageIds, DEFAULT_MORSEL_PAGES);
+    }
+
+    public MorselQueue(List<PageId> pageIds, int morselPages) {
+        if (morselPages <= 0) {
+            throw new IllegalArgumentException("Morsel size must be positive: " + morselPages);
+        }
+        this.pageIds = pageIds;
+        this.morselPages = morselPages;
+    }
+
+    /**
+     * 领取下一个 morsel，可被多个线程并发调用。
+     * @return 一段连续的页号，队列取空时返回 null
+     */
+    public List<PageId> nextMorsel() {
+        int start = cursor.getAndAdd(morselPages);
+        if (start >= pageIds.size()) {
+            return null;
+        }
+        return pageIds.subList(start, Math.min(start + morselPages, pageIds.size()));
+    }
+
+    public int getMorselCount() {
+        return (pageIds.size() + morselPages - 1) / morselPages;
+    }
+}
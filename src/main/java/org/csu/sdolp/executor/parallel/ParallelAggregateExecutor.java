@@ -0,0 +1,110 @@
+package org.csu.sdolp.executor.parallel;
+
+import org.csu.sdolp.common.model.Schema;
+import org.csu.sdolp.common.model.Tuple;
+import org.csu.sdolp.compiler.planner.plan.query.AggregatePlanNode;
+import org.csu.sdolp.engine.ExpressionCompiler;
+import org.csu.sdolp.executor.TableHeap;
+import org.csu.sdolp.executor.TupleIterator;
+import org.csu.sdolp.executor.expressions.AbstractPredicate;
+import org.csu.sdolp.executor.vector.HashAggregationTable;
+import org.csu.sdolp.executor.vector.TupleBatch;
+import org.csu.sdolp.storage.page.PageId;
+import org.csu.sdolp.transaction.Transaction;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * 并行聚合执行器，处理直接建立在顺序扫描之上的聚合 (WHERE 已下推到扫描)。
+ * parallelism 个工作任务从同一个 MorselQueue 领取 morsel，各自完成扫描过滤和局部聚合，
+ * 协调线程最后合并各自的 HashAggregationTable 并应用 HAVING。
+ */
+public class ParallelAggregateExecutor implements TupleIterator {
+
+    private final AggregatePlanNode plan;
+    private final TableHeap tableHeap;
+    private final Transaction txn;
+    private final AbstractPredicate predicate;
+    private final int parallelism;
+    private final ForkJoinPool pool;
+
+    private Iterator<Tuple> resultIterator;
+
+    public ParallelAggregateExecutor(AggregatePlanNode plan, TableHeap tableHeap, Transaction txn,
+                                     AbstractPredicate predicate, int parallelism, ForkJoinPool pool) {
+        this.plan = plan;
+        this.tableHeap = tableHeap;
+        this.txn = txn;
+        this.predicate = predicate;
+        this.parallelism = parallelism;
+        this.pool = pool;
+    }
+
+    private void init() throws IOException {
+        if (resultIterator != null) return;
+
+        MorselQueue morsels = new MorselQueue(tableHeap.getPageIds(txn));
+        int workers = Math.max(1, Math.min(parallelism, morsels.getMorselCount()));
+        List<ForkJoinTask<HashAggregationTable>> tasks = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            tasks.add(pool.submit(() -> aggregateMorsels(morsels)));
+        }
+
+        HashAggregationTable merged = new HashAggregationTable(plan, tableHeap.getOutputSchema());
+        for (ForkJoinTask<HashAggregationTable> task : tasks) {
+            merged.merge(ParallelSeqScanExecutor.joinMorsel(task));
+        }
+
+        AbstractPredicate having = plan.getHavingClause() == null
+                ? null
+                : ExpressionCompiler.compileCached(plan.getHavingClause(), plan.getOutputSchema());
+        this.resultIterator = merged.results(having).iterator();
+    }
+
+    private HashAggregationTable aggregateMorsels(MorselQueue morsels) {
+        Schema schema = tableHeap.getOutputSchema();
+        HashAggregationTable local = new HashAggregationTable(plan, schema);
+        try {
+            List<PageId> morsel;
+            while ((morsel = morsels.nextMorsel()) != null) {
+                TupleBatch batch = new TupleBatch(schema, TupleBatch.DEFAULT_BATCH_SIZE);
+                for (PageId pageId : morsel) {
+                    for (Tuple tuple : tableHeap.getPageTuples(pageId, predicate)) {
+                        if (batch.isFull()) {
+                            local.accumulate(batch);
+                            batch = new TupleBatch(schema, TupleBatch.DEFAULT_BATCH_SIZE);
+                        }
+                        batch.addTuple(tuple);
+                    }
+                }
+                local.accumulate(batch);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return local;
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        init();
+        return resultIterator.hasNext();
+    }
+
+    @Override
+    public Tuple next() throws IOException {
+        if (!hasNext()) return null;
+        return resultIterator.next();
+    }
+
+    @Override
+    public Schema getOutputSchema() {
+        return plan.getOutputSchema();
+    }
+}
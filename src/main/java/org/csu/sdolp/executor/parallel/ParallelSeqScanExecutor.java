@@ -0,0 +1,111 @@
+package org.csu.sdolp.executor.parallel;
+
+import org.csu.sdolp.common.model.Schema;
+import org.csu.sdolp.common.model.Tuple;
+import org.csu.sdolp.executor.TableHeap;
+import org.csu.sdolp.executor.TupleIterator;
+import org.csu.sdolp.executor.expressions.AbstractPredicate;
+import org.csu.sdolp.storage.page.PageId;
+import org.csu.sdolp.transaction.Transaction;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * 并行顺序扫描执行器，同时充当交换 (exchange) 算子。
+ * 每个 morsel 的扫描和过滤作为一个任务提交到 ForkJoinPool，最多 parallelism 个任务同时在途；
+ * 消费者按 morsel 顺序取回结果，每取走一个就补交下一个，因此内存中最多缓存 parallelism 个 morsel 的结果，
+ * 上层提前停止拉取 (如 LIMIT) 时也不会有工作线程阻塞。
+ */
+public class ParallelSeqScanExecutor implements TupleIterator {
+
+    private final TableHeap tableHeap;
+    private final Transaction txn;
+    private final AbstractPredicate predicate;
+    private final int parallelism;
+    private final ForkJoinPool pool;
+
+    private MorselQueue morsels;
+    private final Deque<ForkJoinTask<List<Tuple>>> inFlight = new ArrayDeque<>();
+    private Iterator<Tuple> current;
+
+    public ParallelSeqScanExecutor(TableHeap tableHeap, Transaction txn, AbstractPredicate predicate,
+                                   int parallelism, ForkJoinPool pool) {
+        this.tableHeap = tableHeap;
+        this.txn = txn;
+        this.predicate = predicate;
+        this.parallelism = parallelism;
+        this.pool = pool;
+    }
+
+    private void init() throws IOException {
+        if (morsels != null) return;
+        morsels = new MorselQueue(tableHeap.getPageIds(txn));
+        for (int i = 0; i < parallelism; i++) {
+            if (!submitNextMorsel()) {
+                break;
+            }
+        }
+    }
+
+    private boolean submitNextMorsel() {
+        List<PageId> morsel = morsels.nextMorsel();
+        if (morsel == null) {
+            return false;
+        }
+        inFlight.addLast(pool.submit(() -> scanMorsel(morsel)));
+        return true;
+    }
+
+    private List<Tuple> scanMorsel(List<PageId> morsel) {
+        List<Tuple> result = new ArrayList<>();
+        try {
+            for (PageId pageId : morsel) {
+                result.addAll(tableHeap.getPageTuples(pageId, predicate));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        init();
+        while (current == null || !current.hasNext()) {
+            ForkJoinTask<List<Tuple>> task = inFlight.pollFirst();
+            if (task == null) {
+                return false;
+            }
+            current = joinMorsel(task).iterator();
+            submitNextMorsel();
+        }
+        return true;
+    }
+
+    @Override
+    public Tuple next() throws IOException {
+        if (!hasNext()) return null;
+        return current.next();
+    }
+
+    @Override
+    public Schema getOutputSchema() {
+        return tableHeap.getOutputSchema();
+    }
+
+    static <T> T joinMorsel(ForkJoinTask<T> task) throws IOException {
+        try {
+            return task.join();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
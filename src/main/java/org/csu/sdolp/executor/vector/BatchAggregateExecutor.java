@@ -0,0 +1,63 @@
+package org.csu.sdolp.executor.vector;
+
+import org.csu.sdolp.common.model.Schema;
+import org.csu.sdolp.common.model.Tuple;
+import org.csu.sdolp.compiler.planner.plan.query.AggregatePlanNode;
+import org.csu.sdolp.engine.ExpressionCompiler;
+import org.csu.sdolp.executor.expressions.AbstractPredicate;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * 批量聚合执行器，AggregateExecutor 的向量化版本。
+ * 逐批把子节点的输出累加到 HashAggregationTable，内层循环直接读取 int[]。
+ */
+public class BatchAggregateExecutor implements BatchIterator {
+
+    private final BatchIterator child;
+    private final AggregatePlanNode plan;
+
+    private Iterator<Tuple> resultIterator;
+    private boolean isInitialized = false;
+
+    public BatchAggregateExecutor(BatchIterator child, AggregatePlanNode plan) {
+        this.child = child;
+        this.plan = plan;
+    }
+
+    private void init() throws IOException {
+        if (isInitialized) return;
+
+        HashAggregationTable table = new HashAggregationTable(plan, child.getOutputSchema());
+        TupleBatch batch;
+        while ((batch = child.nextBatch()) != null) {
+            table.accumulate(batch);
+        }
+
+        // --- 构建最终结果 ---
+        AbstractPredicate having = plan.getHavingClause() == null
+                ? null
+                : ExpressionCompiler.compileCached(plan.getHavingClause(), plan.getOutputSchema());
+        this.resultIterator = table.results(having).iterator();
+        this.isInitialized = true;
+    }
+
+    @Override
+    public TupleBatch nextBatch() throws IOException {
+        init();
+        if (!resultIterator.hasNext()) {
+            return null;
+        }
+        TupleBatch batch = new TupleBatch(plan.getOutputSchema(), TupleBatch.DEFAULT_BATCH_SIZE);
+        while (!batch.isFull() && resultIterator.hasNext()) {
+            batch.addTuple(resultIterator.next());
+        }
+        return batch;
+    }
+
+    @Override
+    public Schema getOutputSchema() {
+        return plan.getOutputSchema();
+    }
+}
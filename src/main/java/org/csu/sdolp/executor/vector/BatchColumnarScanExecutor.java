@@ -0,0 +1,208 @@
+package org.csu.sdolp.executor.vector;
+
+import org.csu.sdolp.common.model.DataType;
+import org.csu.sdolp.common.model.Schema;
+import org.csu.sdolp.common.model.Value;
+import org.csu.sdolp.compiler.lexer.TokenType;
+import org.csu.sdolp.compiler.parser.ast.ExpressionNode;
+import org.csu.sdolp.compiler.parser.ast.expression.BinaryExpressionNode;
+import org.csu.sdolp.compiler.parser.ast.expression.IdentifierNode;
+import org.csu.sdolp.compiler.parser.ast.expression.LiteralNode;
+import org.csu.sdolp.compiler.planner.LiteralConverter;
+import org.csu.sdolp.executor.expressions.AbstractPredicate;
+import org.csu.sdolp.executor.expressions.ComparisonOperator;
+import org.csu.sdolp.storage.column.ColumnReader;
+import org.csu.sdolp.storage.column.ColumnarTable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 列存表的批量扫描执行器。
+ * 只打开上层用到的列 (投影下推的列和谓词中的列)，按段解码后直接填入列向量，未用到的列不读取任何页面。
+ * 一个批不跨越任何一列的段边界；WHERE 中形如 "INT 列 op 整数常量" 的合取条件与段头的 min/max 比较，
+ * 不可能有匹配行的整段直接跳过，其他列的对应行也不解码。
+ */
+public class BatchColumnarScanExecutor implements BatchIterator {
+
+    /**
+     * 谓词对一个 INT 列的取值范围的约束 (闭区间)。
+     */
+    private record IntRange(int ordinal, long low, long high) {
+    }
+
+    private final Schema schema;
+    private final AbstractPredicate predicate;
+    private final int batchSize;
+    private final int[] ordinals;
+    private final ColumnReader[] readers;
+    private final List<IntRange> ranges;
+    private int rowsLeft;
+    private long skippedRows;
+
+    /**
+     * @param requiredColumns     需要读取的列序号，为 null 时读取全部列
+     * @param predicateExpression 谓词的 AST，用于按段的 min/max 跳过整段，可以为 null
+     */
+    public BatchColumnarScanExecutor(ColumnarTable table, AbstractPredicate predicate, int[] requiredColumns,
+                                     ExpressionNode predicateExpression) throws IOException {
+        this(table, predicate, requiredColumns, predicateExpression, TupleBatch.DEFAULT_BATCH_SIZE);
+    }
+
+    public BatchColumnarScanExecutor(ColumnarTable table, AbstractPredicate predicate, int[] requiredColumns,
+                                     ExpressionNode predicateExpression, int batchSize) throws IOException {
+        this.schema = table.getSchema();
+        this.predicate = predicate;
+        this.batchSize = batchSize;
+        int columnCount = schema.getColumns().size();
+        if (requiredColumns == null) {
+            requiredColumns = new int[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                requiredColumns[i] = i;
+            }
+        }
+        this.ordinals = requiredColumns;
+        this.readers = new ColumnReader[columnCount];
+        for (int ordinal : ordinals) {
+            readers[ordinal] = table.openColumn(ordinal);
+        }
+        this.ranges = new ArrayList<>();
+        collectRanges(predicateExpression, ranges);
+        ranges.removeIf(range -> readers[range.ordinal()] == null);
+        this.rowsLeft = table.getRowCount();
+    }
+
+    @Override
+    public TupleBatch nextBatch() throws IOException {
+        while (rowsLeft > 0) {
+            int n = Math.min(batchSize, rowsLeft);
+            for (int ordinal : ordinals) {
+                n = Math.min(n, readers[ordinal].remaining());
+            }
+            if (n == 0) {
+                throw new IOException("Columnar table has fewer values than its row count.");
+            }
+            int skip = rowsToSkip();
+            if (skip > 0) {
+                skip = Math.min(skip, rowsLeft);
+                for (int ordinal : ordinals) {
+                    skipRows(readers[ordinal], skip);
+                }
+                rowsLeft -= skip;
+                skippedRows += skip;
+                continue;
+            }
+
+            TupleBatch batch = new TupleBatch(schema, n);
+            for (int ordinal : ordinals) {
+                ColumnReader reader = readers[ordinal];
+                ColumnVector vector = batch.getColumn(ordinal);
+                if (vector.isIntVector()) {
+                    System.arraycopy(reader.intValues(), reader.getPosition(), vector.getInts(), 0, n);
+                } else {
+                    Value[] values = reader.objectValues();
+                    for (int row = 0; row < n; row++) {
+                        vector.setValue(row, values[reader.getPosition() + row]);
+                    }
+                }
+                reader.skip(n);
+            }
+            batch.setRowCount(n);
+            rowsLeft -= n;
+            if (predicate != null) {
+                predicate.filterBatch(batch);
+            }
+            return batch;
+        }
+        return null;
+    }
+
+    /**
+     * 若某个范围约束所在列的当前段与约束不相交，返回该段剩余的行数 (可以整段跳过)，否则返回 0。
+     */
+    private int rowsToSkip() throws IOException {
+        for (IntRange range : ranges) {
+            ColumnReader reader = readers[range.ordinal()];
+            int remaining = reader.remaining();
+            if (remaining > 0 && reader.hasIntRange()
+                    && (reader.getSegmentMax() < range.low() || reader.getSegmentMin() > range.high())) {
+                return remaining;
+            }
+        }
+        return 0;
+    }
+
+    private static void skipRows(ColumnReader reader, int rows) throws IOException {
+        while (rows > 0) {
+            int step = Math.min(rows, reader.remaining());
+            if (step == 0) {
+                return;
+            }
+            reader.skip(step);
+            rows -= step;
+        }
+    }
+
+    /**
+     * 从 AND 连接的比较中收集 "INT 列 op 整数常量" 的范围约束；OR 的子树不参与跳段。
+     */
+    private void collectRanges(ExpressionNode expression, List<IntRange> out) {
+        if (!(expression instanceof BinaryExpressionNode node)) {
+            return;
+        }
+        TokenType operatorType = node.operator().type();
+        if (operatorType == TokenType.AND) {
+            collectRanges(node.left(), out);
+            collectRanges(node.right(), out);
+            return;
+        }
+        ComparisonOperator operator;
+        try {
+            operator = ComparisonOperator.fromTokenName(operatorType.name());
+        } catch (UnsupportedOperationException e) {
+            return;
+        }
+        if (node.left() instanceof IdentifierNode column && node.right() instanceof LiteralNode literal) {
+            addRange(column, operator, literal, out);
+        } else if (node.left() instanceof LiteralNode literal && node.right() instanceof IdentifierNode column) {
+            addRange(column, operator.mirror(), literal, out);
+        }
+    }
+
+    private void addRange(IdentifierNode column, ComparisonOperator operator, LiteralNode literal, List<IntRange> out) {
+        int ordinal = -1;
+        for (int i = 0; i < schema.getColumns().size(); i++) {
+            if (schema.getColumns().get(i).getName().equalsIgnoreCase(column.getName())) {
+                ordinal = i;
+                break;
+            }
+        }
+        if (ordinal < 0 || schema.getColumns().get(ordinal).getType() != DataType.INT
+                || !LiteralConverter.isCompatible(literal, DataType.INT)) {
+            return;
+        }
+        long constant = (Integer) LiteralConverter.toValue(literal, DataType.INT).getValue();
+        switch (operator) {
+            case EQUAL -> out.add(new IntRange(ordinal, constant, constant));
+            case GREATER -> out.add(new IntRange(ordinal, constant + 1, Long.MAX_VALUE));
+            case GREATER_EQUAL -> out.add(new IntRange(ordinal, constant, Long.MAX_VALUE));
+            case LESS -> out.add(new IntRange(ordinal, Long.MIN_VALUE, constant - 1));
+            case LESS_EQUAL -> out.add(new IntRange(ordinal, Long.MIN_VALUE, constant));
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * 因段的 min/max 不满足谓词而整段跳过、没有解码的行数。
+     */
+    public long getSkippedRows() {
+        return skippedRows;
+    }
+
+    @Override
+    public Schema getOutputSchema() {
+        return schema;
+    }
+}
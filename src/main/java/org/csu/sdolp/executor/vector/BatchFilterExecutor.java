@@ -0,0 +1,34 @@
+package org.csu.sdolp.executor.vector;
+
+import org.csu.sdolp.common.model.Schema;
+import org.csu.sdolp.executor.expressions.AbstractPredicate;
+
+import java.io.IOException;
+
+/**
+ * 批量过滤执行器，FilterExecutor 的向量化版本，只收缩选择向量。
+ */
+public class BatchFilterExecutor implements BatchIterator {
+
+    private final BatchIterator child;
+    private final AbstractPredicate predicate;
+
+    public BatchFilterExecutor(BatchIterator child, AbstractPredicate predicate) {
+        this.child = child;
+        this.predicate = predicate;
+    }
+
+    @Override
+    public TupleBatch nextBatch() throws IOException {
+        TupleBatch batch = child.nextBatch();
+        if (batch != null) {
+            predicate.filterBatch(batch);
+        }
+        return batch;
+    }
+
+    @Override
+    public Schema getOutputSchema() {
+        return child.getOutputSchema();
+    }
+}
@@ -0,0 +1,20 @@
+package org.csu.sdolp.executor.vector;
+
+import org.csu.sdolp.common.model.Schema;
+
+import java.io.IOException;
+
+/**
+ * 批量迭代器接口，是批量 (向量化) 执行模式下所有算子的基类。
+ * 与 TupleIterator 的逐行模型相对，每次调用返回一批列式数据。
+ */
+public interface BatchIterator {
+
+    /**
+     * 获取下一批元组
+     * @return 下一批数据 (经过过滤后可能一行都没有被选中)；迭代结束时返回 null
+     */
+    TupleBatch nextBatch() throws IOException;
+
+    Schema getOutputSchema();
+}
@@ -0,0 +1,43 @@
+package org.csu.sdolp.executor.vector;
+
+import org.csu.sdolp.common.model.Schema;
+
+import java.io.IOException;
+
+/**
+ * 批量 Limit 执行器，LimitExecutor 的向量化版本。
+ * 达到上限后截断选择向量，并且不再向子节点拉取数据。
+ */
+public class BatchLimitExecutor implements BatchIterator {
+
+    private final BatchIterator child;
+    private final int limit;
+    private int count = 0;
+
+    public BatchLimitExecutor(BatchIterator child, int limit) {
+        this.child = child;
+        this.limit = limit;
+    }
+
+    @Override
+    public TupleBatch nextBatch() throws IOException {
+        if (count >= limit) {
+            return null;
+        }
+        TupleBatch batch = child.nextBatch();
+        if (batch == null) {
+            return null;
+        }
+        int remaining = limit - count;
+        if (batch.getSelectedCount() > remaining) {
+            batch.setSelectedCount(remaining);
+        }
+        count += batch.getSelectedCount();
+        return batch;
+    }
+
+    @Override
+    public Schema getOutputSchema() {
+        return child.getOutputSchema();
+    }
+}
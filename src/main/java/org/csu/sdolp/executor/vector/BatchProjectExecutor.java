@@ -0,0 +1,41 @@
+package org.csu.sdolp.executor.vector;
+
+import org.csu.sdolp.common.model.Column;
+import org.csu.sdolp.common.model.Schema;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量投影执行器，ProjectExecutor 的向量化版本。
+ * 投影只是重新排列列向量的引用，不逐行复制数据。
+ */
+public class BatchProjectExecutor implements BatchIterator {
+
+    private final BatchIterator child;
+    private final int[] columnIndexes;
+    private final Schema outputSchema;
+
+    public BatchProjectExecutor(BatchIterator child, List<Integer> columnIndexes) {
+        this.child = child;
+        this.columnIndexes = columnIndexes.stream().mapToInt(Integer::intValue).toArray();
+        Schema inputSchema = child.getOutputSchema();
+        List<Column> projectedColumns = new ArrayList<>();
+        for (int index : this.columnIndexes) {
+            projectedColumns.add(inputSchema.getColumns().get(index));
+        }
+        this.outputSchema = new Schema(projectedColumns);
+    }
+
+    @Override
+    public TupleBatch nextBatch() throws IOException {
+        TupleBatch batch = child.nextBatch();
+        return batch == null ? null : batch.project(outputSchema, columnIndexes);
+    }
+
+    @Override
+    public Schema getOutputSchema() {
+        return outputSchema;
+    }
+}
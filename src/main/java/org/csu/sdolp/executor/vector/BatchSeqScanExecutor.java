@@ -0,0 +1,41 @@
+package org.csu.sdolp.executor.vector;
+
+import org.csu.sdolp.common.model.Schema;
+import org.csu.sdolp.executor.TableHeap;
+import org.csu.sdolp.executor.expressions.AbstractPredicate;
+import org.csu.sdolp.transaction.Transaction;
+
+import java.io.IOException;
+
+/**
+ * 批量顺序扫描执行器，SeqScanExecutor 的向量化版本。
+ * 下推的谓词在页面上的元组视图上求值，满足条件的行直接从页面字节解码到列向量，不再先物化为 Tuple。
+ */
+public class BatchSeqScanExecutor implements BatchIterator {
+
+    private final TableHeap tableHeap;
+    private final AbstractPredicate predicate;
+    private final int batchSize;
+
+    public BatchSeqScanExecutor(TableHeap tableHeap, Transaction txn, AbstractPredicate predicate) throws IOException {
+        this(tableHeap, txn, predicate, TupleBatch.DEFAULT_BATCH_SIZE);
+    }
+
+    public BatchSeqScanExecutor(TableHeap tableHeap, Transaction txn, AbstractPredicate predicate, int batchSize) throws IOException {
+        this.tableHeap = tableHeap;
+        this.predicate = predicate;
+        this.batchSize = batchSize;
+        this.tableHeap.initIterator(txn);
+    }
+
+    @Override
+    public TupleBatch nextBatch() throws IOException {
+        TupleBatch batch = new TupleBatch(tableHeap.getOutputSchema(), batchSize);
+        return tableHeap.nextBatch(batch, predicate) == 0 ? null : batch;
+    }
+
+    @Override
+    public Schema getOutputSchema() {
+        return tableHeap.getOutputSchema();
+    }
+}
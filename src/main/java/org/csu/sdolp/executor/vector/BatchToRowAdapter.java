@@ -0,0 +1,47 @@
+package org.csu.sdolp.executor.vector;
+
+import org.csu.sdolp.common.model.Schema;
+import org.csu.sdolp.common.model.Tuple;
+import org.csu.sdolp.executor.TupleIterator;
+
+import java.io.IOException;
+
+/**
+ * 批转行适配器：把 BatchIterator 包装回 TupleIterator，
+ * 使批量算子树可以被上层的行式算子、结果格式化和 MySQL 协议层直接消费。
+ */
+public class BatchToRowAdapter implements TupleIterator {
+
+    private final BatchIterator child;
+    private TupleBatch currentBatch;
+    private int position;
+
+    public BatchToRowAdapter(BatchIterator child) {
+        this.child = child;
+    }
+
+    @Override
+    public Tuple next() throws IOException {
+        if (!hasNext()) {
+            return null;
+        }
+        return currentBatch.materialize(currentBatch.getSelection()[position++]);
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        while (currentBatch == null || position >= currentBatch.getSelectedCount()) {
+            currentBatch = child.nextBatch();
+            position = 0;
+            if (currentBatch == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Schema getOutputSchema() {
+        return child.getOutputSchema();
+    }
+}
@@ -0,0 +1,168 @@
+package org.csu.sdolp.executor.vector;
+
+import org.csu.sdolp.common.model.DataType;
+import org.csu.sdolp.common.model.Value;
+
+import java.time.LocalDate;
+
+/**
+ * 列向量，批量执行模式下一列数据的存储单元。
+ * 定长类型使用原生数组存储，避免逐行装箱：INT 使用 int[]，DATE 以 epoch day 存入 long[]，FLOAT / DOUBLE 使用 double[]；
+ * 其他类型 (包括任意精度、不定长的 DECIMAL) 仍以 Value 对象存储。
+ */
+public class ColumnVector {
+
+    private final DataType type;
+    private final int[] ints;
+    private final long[] longs;
+    private final double[] doubles;
+    private final boolean[] nulls;
+    private Value[] values;
+
+    public ColumnVector(DataType type, int capacity) {
+        this.type = type;
+        this.ints = type == DataType.INT ? new int[capacity] : null;
+        this.longs = type == DataType.DATE ? new long[capacity] : null;
+        this.doubles = type == DataType.FLOAT || type == DataType.DOUBLE ? new double[capacity] : null;
+        if (ints != null || longs != null || doubles != null) {
+            this.nulls = new boolean[capacity];
+        } else {
+            this.nulls = null;
+            this.values = new Value[capacity];
+        }
+    }
+
+    public DataType getType() {
+        return type;
+    }
+
+    /**
+     * @return 该列是否以原生数组存储 (int[]、long[] 或 double[])
+     */
+    public boolean isPrimitive() {
+        return nulls != null;
+    }
+
+    /**
+     * @return 该列是否以原生 int[] 存储
+     */
+    public boolean isIntVector() {
+        return ints != null;
+    }
+
+    /**
+     * @return 该列是否以原生 long[] 存储 (DATE 列的 epoch day)
+     */
+    public boolean isLongVector() {
+        return longs != null;
+    }
+
+    /**
+     * @return 该列是否以原生 double[] 存储 (FLOAT / DOUBLE 列)
+     */
+    public boolean isDoubleVector() {
+        return doubles != null;
+    }
+
+    /**
+     * 直接暴露底层数组，供算子做紧凑循环。只有 isIntVector() 为 true 时有效。
+     */
+    public int[] getInts() {
+        return ints;
+    }
+
+    /**
+     * 只有 isLongVector() 为 true 时有效。
+     */
+    public long[] getLongs() {
+        return longs;
+    }
+
+    /**
+     * 只有 isDoubleVector() 为 true 时有效。
+     */
+    public double[] getDoubles() {
+        return doubles;
+    }
+
+    /**
+     * 判断某行在原生数组中是否不可用 (NULL 或者类型不符而落入了对象存储)。
+     */
+    public boolean isNull(int row) {
+        return nulls != null && nulls[row];
+    }
+
+    /**
+     * 直接写入一个 int，只有 isIntVector() 为 true 时有效。批量扫描从页面解码 INT 列时使用，不创建 Value。
+     */
+    public void setInt(int row, int value) {
+        ints[row] = value;
+        nulls[row] = false;
+    }
+
+    /**
+     * 直接写入一个 epoch day，只有 isLongVector() 为 true 时有效。
+     */
+    public void setLong(int row, long value) {
+        longs[row] = value;
+        nulls[row] = false;
+    }
+
+    /**
+     * 直接写入一个 double，只有 isDoubleVector() 为 true 时有效。
+     */
+    public void setDouble(int row, double value) {
+        doubles[row] = value;
+        nulls[row] = false;
+    }
+
+    public void setValue(int row, Value value) {
+        if (nulls != null) {
+            if (value != null && setPrimitive(row, value.getValue())) {
+                nulls[row] = false;
+                return;
+            }
+            // NULL 或者与声明类型不一致的值退回对象存储
+            nulls[row] = true;
+            if (value == null) {
+                return;
+            }
+            if (values == null) {
+                values = new Value[nulls.length];
+            }
+        }
+        values[row] = value;
+    }
+
+    private boolean setPrimitive(int row, Object value) {
+        if (ints != null && value instanceof Integer v) {
+            ints[row] = v;
+            return true;
+        }
+        if (longs != null && value instanceof LocalDate v) {
+            longs[row] = v.toEpochDay();
+            return true;
+        }
+        if (doubles != null && (type == DataType.DOUBLE ? value instanceof Double : value instanceof Float)) {
+            doubles[row] = ((Number) value).doubleValue();
+            return true;
+        }
+        return false;
+    }
+
+    public Value getValue(int row) {
+        if (nulls != null) {
+            if (!nulls[row]) {
+                if (ints != null) {
+                    return new Value(ints[row]);
+                }
+                if (longs != null) {
+                    return new Value(LocalDate.ofEpochDay(longs[row]));
+                }
+                return type == DataType.DOUBLE ? new Value(doubles[row]) : new Value((float) doubles[row]);
+            }
+            return values == null ? null : values[row];
+        }
+        return values[row];
+    }
+}
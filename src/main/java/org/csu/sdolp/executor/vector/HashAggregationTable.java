@@ -0,0 +1,259 @@
+package org.csu.sdolp.executor.vector;
+
+import org.csu.sdolp.common.model.Schema;
+import org.csu.sdolp.common.model.Tuple;
+import org.csu.sdolp.common.model.Value;
+import org.csu.sdolp.compiler.parser.ast.expression.AggregateExpressionNode;
+import org.csu.sdolp.compiler.parser.ast.expression.IdentifierNode;
+import org.csu.sdolp.compiler.planner.plan.query.AggregatePlanNode;
+import org.csu.sdolp.executor.expressions.AbstractPredicate;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * 哈希聚合表，保存每个分组的中间聚合结果。
+ * 批量聚合执行器用一张表完成聚合；并行聚合时每个工作线程持有一张局部表，最后通过 merge 合并。
+ * 聚合语义 (整数运算、AVG 取整) 与 AggregateExecutor 保持一致。
+ */
+public class HashAggregationTable {
+
+    private static final int COUNT = 0;
+    private static final int SUM = 1;
+    private static final int AVG = 2;
+    private static final int MIN = 3;
+    private static final int MAX = 4;
+
+    private final int[] groupByIndexes;
+    private final int[] functions;
+    private final int[] argumentIndexes;
+    // 按分组首次出现的顺序输出，与行式 AggregateExecutor 一致
+    private final Map<List<Value>, GroupState> groups = new LinkedHashMap<>();
+
+    private GroupState globalState;
+    private GroupState[] rowStates = new GroupState[0];
+    private int[] argumentValues = new int[0];
+    // 只有一个分组列且为 INT 向量时按 int 键直接定位分组 (开放寻址)，不为每行构造 List<Value> 键
+    private int[] intKeys = new int[16];
+    private GroupState[] intStates = new GroupState[16];
+    private int intGroupCount;
+
+    // 一个分组的中间聚合结果，AVG 额外记录行数
+    private static class GroupState {
+        final int[] values;
+        final int[] counts;
+
+        GroupState(int[] functions) {
+            values = new int[functions.length];
+            counts = new int[functions.length];
+            for (int i = 0; i < functions.length; i++) {
+                switch (functions[i]) {
+                    case MIN -> values[i] = Integer.MAX_VALUE;
+                    case MAX -> values[i] = Integer.MIN_VALUE;
+                    default -> values[i] = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param plan        聚合计划
+     * @param childSchema 输入元组的模式
+     */
+    public HashAggregationTable(AggregatePlanNode plan, Schema childSchema) {
+        List<IdentifierNode> groupBys = plan.getGroupBys();
+        int groupByCount = groupBys == null ? 0 : groupBys.size();
+        this.groupByIndexes = new int[groupByCount];
+        for (int i = 0; i < groupByCount; i++) {
+            groupByIndexes[i] = childSchema.getColumnIndex(groupBys.get(i).getName());
+        }
+
+        List<AggregateExpressionNode> aggregates = plan.getAggregates();
+        this.functions = new int[aggregates.size()];
+        this.argumentIndexes = new int[aggregates.size()];
+        for (int i = 0; i < aggregates.size(); i++) {
+            AggregateExpressionNode agg = aggregates.get(i);
+            functions[i] = switch (agg.functionName().toUpperCase()) {
+                case "COUNT" -> COUNT;
+                case "SUM" -> SUM;
+                case "AVG" -> AVG;
+                case "MIN" -> MIN;
+                case "MAX" -> MAX;
+                default -> throw new UnsupportedOperationException("Unsupported aggregate function: " + agg.functionName());
+            };
+            argumentIndexes[i] = agg.isStar() ? -1 : childSchema.getColumnIndex(((IdentifierNode) agg.argument()).getName());
+        }
+    }
+
+    /**
+     * 把一批中被选中的行累加到对应的分组。
+     */
+    public void accumulate(TupleBatch batch) {
+        int[] selection = batch.getSelection();
+        int count = batch.getSelectedCount();
+        if (count == 0) {
+            return;
+        }
+        if (rowStates.length < count) {
+            rowStates = new GroupState[Math.max(count, TupleBatch.DEFAULT_BATCH_SIZE)];
+            argumentValues = new int[rowStates.length];
+        }
+
+        // 1. 为每一行定位分组状态
+        if (groupByIndexes.length == 0) {
+            if (globalState == null) {
+                globalState = new GroupState(functions);
+                groups.put(Collections.emptyList(), globalState);
+            }
+            Arrays.fill(rowStates, 0, count, globalState);
+        } else if (groupByIndexes.length == 1 && batch.getColumn(groupByIndexes[0]).isIntVector()) {
+            ColumnVector column = batch.getColumn(groupByIndexes[0]);
+            int[] keys = column.getInts();
+            for (int i = 0; i < count; i++) {
+                int row = selection[i];
+                rowStates[i] = column.isNull(row) ? lookupGroup(batch, row) : intGroup(keys[row]);
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                rowStates[i] = lookupGroup(batch, selection[i]);
+            }
+        }
+
+        // 2. 按聚合函数逐列累加
+        for (int a = 0; a < functions.length; a++) {
+            accumulateColumn(batch, a, selection, count);
+        }
+    }
+
+    private GroupState lookupGroup(TupleBatch batch, int row) {
+        List<Value> key = new ArrayList<>(groupByIndexes.length);
+        for (int index : groupByIndexes) {
+            key.add(batch.getColumn(index).getValue(row));
+        }
+        return groups.computeIfAbsent(key, k -> new GroupState(functions));
+    }
+
+    private GroupState intGroup(int key) {
+        int mask = intKeys.length - 1;
+        int slot = (key * 0x9E3779B9) >>> 16 & mask;
+        while (intStates[slot] != null) {
+            if (intKeys[slot] == key) {
+                return intStates[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        // 未命中时仍经过 groups，保持分组的首次出现顺序，也能找到 merge 合并进来的分组
+        GroupState state = groups.computeIfAbsent(List.of(new Value(key)), k -> new GroupState(functions));
+        intKeys[slot] = key;
+        intStates[slot] = state;
+        if (++intGroupCount * 2 > intKeys.length) {
+            int[] oldKeys = intKeys;
+            GroupState[] oldStates = intStates;
+            intKeys = new int[oldKeys.length * 2];
+            intStates = new GroupState[oldKeys.length * 2];
+            intGroupCount = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldStates[i] != null) {
+                    intGroup(oldKeys[i]);
+                }
+            }
+        }
+        return state;
+    }
+
+    private void accumulateColumn(TupleBatch batch, int a, int[] selection, int count) {
+        int function = functions[a];
+        if (function == COUNT) {
+            for (int i = 0; i < count; i++) {
+                rowStates[i].values[a]++;
+            }
+            return;
+        }
+        int argumentIndex = argumentIndexes[a];
+        ColumnVector column = argumentIndex < 0 ? null : batch.getColumn(argumentIndex);
+        int[] data = column != null && column.isIntVector() ? column.getInts() : null;
+        int[] values = argumentValues;
+        for (int i = 0; i < count; i++) {
+            int row = selection[i];
+            if (column == null) {
+                values[i] = 1;
+            } else if (data != null && !column.isNull(row)) {
+                values[i] = data[row];
+            } else {
+                Value v = column.getValue(row);
+                values[i] = (v != null && v.getValue() instanceof Integer) ? (Integer) v.getValue() : 0;
+            }
+        }
+
+        // 函数的分支提到循环之外，内层循环只做累加
+        switch (function) {
+            case SUM -> {
+                for (int i = 0; i < count; i++) {
+                    rowStates[i].values[a] += values[i];
+                }
+            }
+            case AVG -> {
+                for (int i = 0; i < count; i++) {
+                    rowStates[i].values[a] += values[i];
+                    rowStates[i].counts[a]++;
+                }
+            }
+            case MIN -> {
+                for (int i = 0; i < count; i++) {
+                    rowStates[i].values[a] = Math.min(rowStates[i].values[a], values[i]);
+                }
+            }
+            case MAX -> {
+                for (int i = 0; i < count; i++) {
+                    rowStates[i].values[a] = Math.max(rowStates[i].values[a], values[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * 合并另一张 (同一聚合计划的) 局部聚合表。
+     */
+    public void merge(HashAggregationTable other) {
+        for (Map.Entry<List<Value>, GroupState> entry : other.groups.entrySet()) {
+            GroupState source = entry.getValue();
+            GroupState target = groups.computeIfAbsent(entry.getKey(), k -> new GroupState(functions));
+            for (int a = 0; a < functions.length; a++) {
+                switch (functions[a]) {
+                    case MIN -> target.values[a] = Math.min(target.values[a], source.values[a]);
+                    case MAX -> target.values[a] = Math.max(target.values[a], source.values[a]);
+                    default -> {
+                        target.values[a] += source.values[a];
+                        target.counts[a] += source.counts[a];
+                    }
+                }
+            }
+        }
+        if (groupByIndexes.length == 0) {
+            globalState = groups.get(Collections.<Value>emptyList());
+        }
+    }
+
+    /**
+     * 生成最终的聚合结果：分组键在前，聚合值在后，HAVING 不为空时只保留满足条件的分组。
+     */
+    public List<Tuple> results(AbstractPredicate having) throws IOException {
+        List<Tuple> finalResults = new ArrayList<>();
+        for (Map.Entry<List<Value>, GroupState> entry : groups.entrySet()) {
+            List<Value> resultValues = new ArrayList<>(entry.getKey());
+            GroupState state = entry.getValue();
+            for (int a = 0; a < functions.length; a++) {
+                if (functions[a] == AVG) {
+                    resultValues.add(new Value(state.counts[a] == 0 ? 0 : state.values[a] / state.counts[a]));
+                } else {
+                    resultValues.add(new Value(state.values[a]));
+                }
+            }
+            Tuple result = new Tuple(resultValues);
+            if (having == null || having.evaluate(result)) {
+                finalResults.add(result);
+            }
+        }
+        return finalResults;
+    }
+}
@@ -0,0 +1,42 @@
+package org.csu.sdolp.executor.vector;
+
+import org.csu.sdolp.common.model.Schema;
+import org.csu.sdolp.executor.TupleIterator;
+
+import java.io.IOException;
+
+/**
+ * 行转批适配器：把一个逐行执行的 TupleIterator 包装成 BatchIterator，
+ * 使尚未向量化的算子 (如 Join、Sort) 可以作为批量算子的输入。
+ */
+public class RowToBatchAdapter implements BatchIterator {
+
+    private final TupleIterator child;
+    private final int batchSize;
+
+    public RowToBatchAdapter(TupleIterator child) {
+        this(child, TupleBatch.DEFAULT_BATCH_SIZE);
+    }
+
+    public RowToBatchAdapter(TupleIterator child, int batchSize) {
+        this.child = child;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public TupleBatch nextBatch() throws IOException {
+        if (!child.hasNext()) {
+            return null;
+        }
+        TupleBatch batch = new TupleBatch(child.getOutputSchema(), batchSize);
+        while (!batch.isFull() && child.hasNext()) {
+            batch.addTuple(child.next());
+        }
+        return batch;
+    }
+
+    @Override
+    public Schema getOutputSchema() {
+        return child.getOutputSchema();
+    }
+}
@@ -0,0 +1,181 @@
+package org.csu.sdolp.executor.vector;
+
+import org.csu.sdolp.common.model.RID;
+import org.csu.sdolp.common.model.Schema;
+import org.csu.sdolp.common.model.Tuple;
+import org.csu.sdolp.common.model.Value;
+import org.csu.sdolp.storage.page.TupleView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 列式元组批，批量执行模式下算子之间传递的数据单元。
+ * 物理行按列存放在 ColumnVector 中，选择向量 (selection) 记录当前仍然有效的物理行下标，
+ * 过滤和 LIMIT 只需要收缩选择向量，而不需要搬动数据。
+ */
+public class TupleBatch {
+
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    private final Schema schema;
+    private final ColumnVector[] columns;
+    private final RID[] rids;
+    private final int capacity;
+    private int size;
+    private final int[] selection;
+    private int selectedCount;
+    // 投影下推时未解码列的占位值，每列共用一个
+    private Value[] unloaded;
+
+    public TupleBatch(Schema schema, int capacity) {
+        this.schema = schema;
+        this.capacity = capacity;
+        this.columns = new ColumnVector[schema.getColumns().size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = new ColumnVector(schema.getColumns().get(i).getType(), capacity);
+        }
+        this.rids = new RID[capacity];
+        this.selection = new int[capacity];
+    }
+
+    private TupleBatch(Schema schema, ColumnVector[] columns, RID[] rids, int capacity, int size,
+                       int[] selection, int selectedCount) {
+        this.schema = schema;
+        this.columns = columns;
+        this.rids = rids;
+        this.capacity = capacity;
+        this.size = size;
+        this.selection = selection;
+        this.selectedCount = selectedCount;
+    }
+
+    /**
+     * 将一组行式元组打包成一个批。
+     */
+    public static TupleBatch fromTuples(Schema schema, List<Tuple> tuples) {
+        TupleBatch batch = new TupleBatch(schema, Math.max(1, tuples.size()));
+        for (Tuple tuple : tuples) {
+            batch.addTuple(tuple);
+        }
+        return batch;
+    }
+
+    public void addTuple(Tuple tuple) {
+        if (isFull()) {
+            throw new IllegalStateException("TupleBatch is full (capacity=" + capacity + ").");
+        }
+        List<Value> values = tuple.getValues();
+        for (int i = 0; i < columns.length; i++) {
+            columns[i].setValue(size, values.get(i));
+        }
+        rids[size] = tuple.getRid();
+        selection[selectedCount++] = size;
+        size++;
+    }
+
+    /**
+     * 把绑定在页面槽位上的元组视图直接解码到列向量中，不经过行式 Tuple：定长列写入原生数组，其他列解码为 Value。
+     * @param projection 每列是否需要解码，为 null 时解码全部列；不需要的列填入未加载的占位值
+     */
+    public void addRow(TupleView view, boolean[] projection) {
+        if (isFull()) {
+            throw new IllegalStateException("TupleBatch is full (capacity=" + capacity + ").");
+        }
+        for (int i = 0; i < columns.length; i++) {
+            ColumnVector column = columns[i];
+            if (projection != null && !projection[i]) {
+                column.setValue(size, unloadedValue(i));
+            } else if (column.isPrimitive() && !view.isNull(i)) {
+                switch (column.getType()) {
+                    case INT -> column.setInt(size, view.getInt(i));
+                    case DATE -> column.setLong(size, view.getEpochDay(i));
+                    default -> column.setDouble(size, view.getDouble(i));
+                }
+            } else {
+                column.setValue(size, view.getValue(i));
+            }
+        }
+        rids[size] = view.getRid();
+        selection[selectedCount++] = size;
+        size++;
+    }
+
+    private Value unloadedValue(int column) {
+        if (unloaded == null) {
+            unloaded = new Value[columns.length];
+        }
+        if (unloaded[column] == null) {
+            unloaded[column] = Value.unloaded(columns[column].getType());
+        }
+        return unloaded[column];
+    }
+
+    /**
+     * 列式数据源直接写入列向量 (getColumn) 后调用，声明前 count 行有效并全部选中。
+     */
+    public void setRowCount(int count) {
+        if (count < 0 || count > capacity) {
+            throw new IllegalArgumentException("Invalid row count: " + count);
+        }
+        this.size = count;
+        for (int i = 0; i < count; i++) {
+            selection[i] = i;
+        }
+        this.selectedCount = count;
+    }
+
+    public boolean isFull() {
+        return size >= capacity;
+    }
+
+    public Schema getSchema() {
+        return schema;
+    }
+
+    public ColumnVector getColumn(int index) {
+        return columns[index];
+    }
+
+    public int[] getSelection() {
+        return selection;
+    }
+
+    public int getSelectedCount() {
+        return selectedCount;
+    }
+
+    /**
+     * 收缩选择向量。调用方需保证 selection 的前 count 项已是有效的行下标。
+     */
+    public void setSelectedCount(int count) {
+        if (count < 0 || count > selectedCount) {
+            throw new IllegalArgumentException("Invalid selected count: " + count);
+        }
+        this.selectedCount = count;
+    }
+
+    /**
+     * 按物理行下标物化为一个行式元组 (带 RID)。
+     */
+    public Tuple materialize(int row) {
+        List<Value> values = new ArrayList<>(columns.length);
+        for (ColumnVector column : columns) {
+            values.add(column.getValue(row));
+        }
+        Tuple tuple = new Tuple(values);
+        tuple.setRid(rids[row]);
+        return tuple;
+    }
+
+    /**
+     * 投影：按列下标重新组合列向量，数据本身不复制。
+     */
+    public TupleBatch project(Schema outputSchema, int[] columnIndexes) {
+        ColumnVector[] projected = new ColumnVector[columnIndexes.length];
+        for (int i = 0; i < columnIndexes.length; i++) {
+            projected[i] = columns[columnIndexes[i]];
+        }
+        return new TupleBatch(outputSchema, projected, rids, capacity, size, selection, selectedCount);
+    }
+}
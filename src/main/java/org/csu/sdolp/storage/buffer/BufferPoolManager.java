@@ -1,34 +1,76 @@
 package org.csu.sdolp.storage.buffer;
 
 import lombok.Getter;
+import lombok.Setter;
 import org.csu.sdolp.storage.buffer.replacement.*;
 import org.csu.sdolp.storage.disk.DiskManager;
+import org.csu.sdolp.storage.disk.PageCompression;
 import org.csu.sdolp.storage.page.Page;
 import org.csu.sdolp.storage.page.PageId;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * 缓存池管理器，负责管理内存中的页缓存。
+ * 每个缓存帧的大小等于数据库的页大小 (由 DiskManager 从文件头读取)。
+ * 取页、换页和刷盘互斥执行，并行扫描的多个工作线程可以同时通过它读取页面。
+ * DiskManager 处于内存映射模式时不再缓存页面副本：getPage 直接返回映射内存上的页面视图，
+ * 不加锁也不淘汰，操作系统的页缓存就是唯一的缓存 (压缩的表空间文件除外，它们的页面仍经缓存池缓存)。
+ * DiskManager 处于直接 I/O 模式时，缓存帧由 FrameAllocator 按块大小对齐地分配在堆外内存中。
+ * 顺序扫描可以通过 readAhead 让后台的 I/O 线程提前读入后续页面 (见 SequentialReadAhead)。
+ * 缓存池没有引用计数，前台代码拿到的 Page 对象随时可能正在被修改，所以预读线程只把读好的页暂存起来，
+ * 从不改动 pageTable 和替换策略；暂存的页在前台取页时装入，淘汰总是发生在取页的线程上。
  */
 public class BufferPoolManager {
+    public static final int DEFAULT_READ_AHEAD_PAGES = 8;
+
+    /**
+     * 所有缓存池共用的预读线程，预读只是提示，线程为守护线程，不阻止进程退出。
+     */
+    private static final ExecutorService READ_AHEAD_POOL = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "read-ahead");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private final DiskManager diskManager;
     private final int poolSize;
     @Getter
     private final Map<PageId, Page> pageTable;
     private final BufferPoolReplacer replacer;
+    private final FrameAllocator frameAllocator;
 
     @Getter
     private int hitCount = 0;
     @Getter
     private int missCount = 0;
+    /**
+     * 顺序扫描一次预读的页数，0 表示关闭预读。
+     */
+    @Getter
+    @Setter
+    private int readAheadPages = DEFAULT_READ_AHEAD_PAGES;
+    // 已提交、尚未装入缓存池的预读页 -> 装入 (或放弃) 后完成的信号
+    private final Map<PageId, CompletableFuture<Void>> pendingReadAheads = new ConcurrentHashMap<>();
+    // 预读线程已读好、还没有被前台取用的页 (不在缓存池中，也不占用缓存帧)
+    private final Map<PageId, Page> stagedReadAheads = new ConcurrentHashMap<>();
+    // 由预读读入的页数
+    @Getter
+    private int readAheadCount = 0;
 
     public BufferPoolManager(int poolSize, DiskManager diskManager, String strategy) {
         this.poolSize = poolSize;
         this.diskManager = diskManager;
         this.pageTable = new ConcurrentHashMap<>();
+        this.frameAllocator = new FrameAllocator(diskManager.getPageSize(), diskManager.getBlockSize());
 
         if ("LRU".equalsIgnoreCase(strategy)) {
             this.replacer = new LRUReplacer();
@@ -47,35 +89,138 @@ public class BufferPoolManager {
         if (pageId == null) {
             throw new IllegalArgumentException("PageId cannot be null.");
         }
+        if (diskManager.isMemoryMapped(pageId)) {
+            hitCount++;
+            return diskManager.readPage(pageId);
+        }
+        CompletableFuture<Void> pending = pendingReadAheads.get(pageId);
+        if (pending != null) {
+            // 该页正在被预读，等它装入缓存池，不再重复读盘 (等待时不持有缓存池的锁)
+            pending.join();
+        }
+        return getBufferedPage(pageId);
+    }
 
+    private synchronized Page getBufferedPage(PageId pageId) throws IOException {
         if (pageTable.containsKey(pageId)) {
             hitCount++;
             replacer.pin(pageId);
             return pageTable.get(pageId);
         }
-        missCount++;
-
-        if (pageTable.size() >= poolSize) {
-            PageId victimId = replacer.unpin();
-            if (victimId != null) {
-                Page victimPage = pageTable.get(victimId);
-                // 【健壮性修复】在淘汰前检查 victimPage 是否为 null
-                if (victimPage != null) {
-                    diskManager.writePage(victimPage);
-                    pageTable.remove(victimId);
-                }
-            } else {
+        Page staged = stagedReadAheads.remove(pageId);
+        if (staged != null) {
+            // 预读已读好这一页，不再读盘；需要淘汰时在当前线程上进行
+            hitCount++;
+            if (!evictIfFull()) {
                 throw new IllegalStateException("Buffer pool is full and cannot evict any page.");
             }
+            pageTable.put(pageId, staged);
+            replacer.pin(pageId);
+            return staged;
+        }
+        missCount++;
+        // 取页与预读之间的竞争：页面改由这里读入，尚未装入的预读结果作废
+        cancelReadAhead(pageId);
+
+        if (!evictIfFull()) {
+            throw new IllegalStateException("Buffer pool is full and cannot evict any page.");
         }
 
-        Page newPage = diskManager.readPage(pageId);
+        Page newPage = diskManager.readPage(pageId, frameAllocator.allocate());
         pageTable.put(pageId, newPage);
         replacer.pin(pageId);
         return newPage;
     }
 
-    public void flushPage(PageId pageId) throws IOException {
+    /**
+     * 缓存池已满时淘汰一页 (写回磁盘)。没有可淘汰的页时返回 false。
+     */
+    private boolean evictIfFull() throws IOException {
+        if (pageTable.size() < poolSize) {
+            return true;
+        }
+        PageId victimId = replacer.unpin();
+        if (victimId == null) {
+            return false;
+        }
+        Page victimPage = pageTable.get(victimId);
+        // 【健壮性修复】在淘汰前检查 victimPage 是否为 null
+        if (victimPage != null) {
+            diskManager.writePage(victimPage);
+            pageTable.remove(victimId);
+        }
+        return true;
+    }
+
+    /**
+     * 在后台读入从 firstPageId 开始的 count 个页并暂存，立即返回；之后对这些页的 getPage 不再读盘。
+     * 已在缓存池中或已在预读的页以及文件中尚未分配的页被跳过；内存映射的页面由操作系统预读，这里不做任何事。
+     * 预读只是提示：读盘失败或暂存的页已达上限时直接放弃，之后的 getPage 照常读取。
+     */
+    public void readAhead(PageId firstPageId, int count) throws IOException {
+        if (count <= 0 || diskManager.isMemoryMapped(firstPageId)) {
+            return;
+        }
+        // 不读取文件中尚未分配的页
+        count = Math.min(count, diskManager.getAllocatedPageCount(firstPageId) - firstPageId.getFilePageNum());
+        List<PageId> batch = new ArrayList<>(Math.max(count, 0));
+        synchronized (this) {
+            // 暂存的页不占缓存帧，但同样占内存，总数不超过缓存池的四分之一
+            count = Math.min(count, maxStagedPages() - stagedReadAheads.size() - pendingReadAheads.size());
+            for (int i = 0; i < count; i++) {
+                PageId pageId = new PageId(firstPageId.getPageNum() + i);
+                if (!pageTable.containsKey(pageId) && pendingReadAheads.putIfAbsent(pageId, new CompletableFuture<>()) == null) {
+                    batch.add(pageId);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            // 一批页面由一个任务按页号顺序读取，前台追上时只需等待前面几页
+            READ_AHEAD_POOL.execute(() -> readAheadPages(batch));
+        }
+    }
+
+    private void readAheadPages(List<PageId> batch) {
+        for (PageId pageId : batch) {
+            CompletableFuture<Void> pending = pendingReadAheads.get(pageId);
+            if (pending == null) {
+                continue;
+            }
+            try {
+                // 读盘时不持有锁；装入前确认期间没有人读入或新建过这一页 (否则磁盘上的内容可能已过时)
+                Page page = diskManager.readPage(pageId, frameAllocator.allocate());
+                synchronized (this) {
+                    if (pendingReadAheads.get(pageId) == pending && !pageTable.containsKey(pageId)
+                            && stagedReadAheads.size() < maxStagedPages()) {
+                        stagedReadAheads.put(pageId, page);
+                        readAheadCount++;
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                // 预读失败不影响前台，前台取页时会重新读取并报告错误
+            } finally {
+                pendingReadAheads.remove(pageId, pending);
+                pending.complete(null);
+            }
+        }
+    }
+
+    /**
+     * 作废一页尚未取用的预读结果 (正在读的和已暂存的)，调用者持有锁。
+     */
+    private void cancelReadAhead(PageId pageId) {
+        CompletableFuture<Void> pending = pendingReadAheads.remove(pageId);
+        if (pending != null) {
+            pending.complete(null);
+        }
+        stagedReadAheads.remove(pageId);
+    }
+
+    private int maxStagedPages() {
+        return Math.max(poolSize / 4, 1);
+    }
+
+    public synchronized void flushPage(PageId pageId) throws IOException {
         Page page = pageTable.get(pageId);
         if (page != null) {
             diskManager.writePage(page);
@@ -83,20 +228,29 @@ public class BufferPoolManager {
     }
 
     public Page newPage() throws IOException {
-        PageId newPageId = diskManager.allocatePage();
-        Page newPage = new Page(newPageId);
-
-        if (pageTable.size() >= poolSize) {
-            PageId victimId = replacer.unpin();
-            if (victimId != null) {
-                Page victimPage = pageTable.get(victimId);
-                if (victimPage != null) {
-                    diskManager.writePage(victimPage);
-                    pageTable.remove(victimId);
-                }
-            } else {
-                throw new IllegalStateException("Buffer pool is full and cannot allocate a new page.");
-            }
+        return newPage(null);
+    }
+
+    /**
+     * 为指定的段 (表或索引，见 TableInfo / IndexInfo 的 getSegmentName) 分配一个新页，
+     * 页在段的表空间文件中分配，或在主文件中按区连续分配；segment 为 null 时从主文件的空闲链表或文件末尾分配单页。
+     */
+    public synchronized Page newPage(String segment) throws IOException {
+        PageId newPageId = diskManager.allocatePage(segment);
+        if (diskManager.isMemoryMapped(newPageId)) {
+            // 映射内存中可能残留被释放页面的旧内容，与普通模式一样返回一个全新的空页
+            Page mappedPage = diskManager.readPage(newPageId);
+            mappedPage.getData().put(0, new byte[diskManager.getPageSize()]);
+            mappedPage.init();
+            return mappedPage;
+        }
+        Page newPage = new Page(newPageId, frameAllocator.allocate());
+        newPage.init();
+        // 预读可能已读入这一页分配前的旧内容，由新页取代
+        cancelReadAhead(newPageId);
+
+        if (!evictIfFull()) {
+            throw new IllegalStateException("Buffer pool is full and cannot allocate a new page.");
         }
 
         pageTable.put(newPageId, newPage);
@@ -108,8 +262,9 @@ public class BufferPoolManager {
      * 【已修正】删除一个页。
      * 现在会同时从 pageTable 和 replacer 中移除。
      */
-    public boolean deletePage(PageId pageId) throws IOException {
+    public synchronized boolean deletePage(PageId pageId) throws IOException {
         // 1. 从缓存页表中移除
+        cancelReadAhead(pageId);
         pageTable.remove(pageId);
 
         // 2. 【关键修复】通知 Replacer 移除这个页，防止它成为“幽灵”
@@ -121,10 +276,65 @@ public class BufferPoolManager {
         return true;
     }
 
-    public void flushAllPages() throws IOException {
+    /**
+     * 丢弃缓存池中属于段的表空间文件的页面 (不写回)，再删除整个文件。
+     * 段没有自己的文件时 (页在主文件中) 不做任何事并返回 false。
+     */
+    public synchronized boolean dropSegment(String segment) throws IOException {
+        int fileId = diskManager.getSegmentFileId(segment);
+        if (fileId < 0) {
+            return false;
+        }
+        for (PageId pageId : pendingReadAheads.keySet()) {
+            if (pageId.getFileId() == fileId) {
+                cancelReadAhead(pageId);
+            }
+        }
+        stagedReadAheads.keySet().removeIf(pageId -> pageId.getFileId() == fileId);
+        for (PageId pageId : pageTable.keySet()) {
+            if (pageId.getFileId() == fileId) {
+                pageTable.remove(pageId);
+                replacer.remove(pageId);
+            }
+        }
+        return diskManager.dropSegment(segment);
+    }
+
+    /**
+     * 为段创建使用指定压缩方式的表空间文件，段的页在写回时压缩；见 DiskManager.createSegment。
+     */
+    public boolean createSegment(String segment, PageCompression compression) throws IOException {
+        return diskManager.createSegment(segment, compression);
+    }
+
+    /**
+     * 拥有自己表空间文件的所有段。
+     */
+    public Set<String> getSegmentNames() {
+        return diskManager.getSegmentNames();
+    }
+
+    public synchronized void flushAllPages() throws IOException {
         for (PageId pageId : pageTable.keySet()) {
             flushPage(pageId);
         }
+        if (diskManager.isMemoryMapped()) {
+            diskManager.force();
+        }
+    }
+
+    /**
+     * 缓存帧的大小，即所管理数据库的页大小。
+     */
+    public int getPageSize() {
+        return diskManager.getPageSize();
+    }
+
+    /**
+     * 数据库文件中已分配的页数。
+     */
+    public int getAllocatedPageCount() {
+        return diskManager.getAllocatedPageCount();
     }
 
     public double getHitRate() {
@@ -138,10 +348,12 @@ public class BufferPoolManager {
     public void resetStats() {
         hitCount = 0;
         missCount = 0;
+        readAheadCount = 0;
     }
 
     public void clear() {
         pageTable.clear();
+        stagedReadAheads.clear();
         // replacer.clear(); // 理想情况下 replacer 也应该有 clear 方法
         System.out.println("[BufferPool] All pages have been cleared from the buffer pool.");
     }
@@ -0,0 +1,49 @@
+package org.csu.sdolp.storage.buffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 缓存帧分配器，为缓存池中的页面分配数据缓冲区。
+ * 普通模式下每帧是一块堆内存；直接 I/O 模式下 O_DIRECT 要求缓冲区地址按块大小对齐，
+ * 因此一次分配一大块 (slab) 堆外内存，再切成按块大小对齐的页帧，读写时不必经 JDK 的临时对齐缓冲区中转复制。
+ * 被淘汰的页面对象可能仍被执行器引用，页帧因此不回收复用；一个 slab 中的页帧都不再被引用后，整块由 GC 释放。
+ */
+public class FrameAllocator {
+    private static final int FRAMES_PER_SLAB = 64;
+
+    private final int frameSize;
+    // 对齐字节数，0 表示使用堆内存
+    private final int alignment;
+    private ByteBuffer slab;
+    private int nextFrame = FRAMES_PER_SLAB;
+
+    /**
+     * @param frameSize 每帧的大小，即页大小
+     * @param alignment 帧地址的对齐字节数 (2 的幂)，为 0 时分配堆内存
+     */
+    public FrameAllocator(int frameSize, int alignment) {
+        if (alignment != 0 && (Integer.bitCount(alignment) != 1 || frameSize % alignment != 0)) {
+            throw new IllegalArgumentException("Frame size " + frameSize + " is not a multiple of alignment " + alignment);
+        }
+        this.frameSize = frameSize;
+        this.alignment = alignment;
+    }
+
+    /**
+     * 分配一个内容全 0 的缓存帧。
+     */
+    public synchronized ByteBuffer allocate() {
+        if (alignment == 0) {
+            return ByteBuffer.allocate(frameSize);
+        }
+        if (nextFrame == FRAMES_PER_SLAB) {
+            slab = ByteBuffer.allocateDirect(frameSize * FRAMES_PER_SLAB + alignment).alignedSlice(alignment);
+            nextFrame = 0;
+        }
+        return slab.slice(frameSize * nextFrame++, frameSize);
+    }
+
+    public boolean isDirect() {
+        return alignment != 0;
+    }
+}
@@ -0,0 +1,53 @@
+package org.csu.sdolp.storage.buffer;
+
+import org.csu.sdolp.storage.page.PageId;
+
+import java.io.IOException;
+
+/**
+ * 一次顺序扫描的预读状态。
+ * 堆页按区连续分配，表的页链表通常就是文件中连续的页号。扫描沿链表每前进一页调用一次 onPageAccess，
+ * 连续 TRIGGER 次访问的都是上一页的下一个页号时认为是顺序访问，请求缓存池在后台读入之后的
+ * readAheadPages 个页；预读窗口剩余不到一半时再补齐，链表跳到不相邻的页时重新开始检测。
+ */
+public class SequentialReadAhead {
+    private static final int TRIGGER = 2;
+
+    private final BufferPoolManager bufferPoolManager;
+    private int lastPageNum = -1;
+    private int sequentialRun;
+    // 已请求预读的最大页号
+    private int readAheadUpTo = -1;
+
+    public SequentialReadAhead(BufferPoolManager bufferPoolManager) {
+        this.bufferPoolManager = bufferPoolManager;
+    }
+
+    public void reset() {
+        lastPageNum = -1;
+        sequentialRun = 0;
+        readAheadUpTo = -1;
+    }
+
+    public void onPageAccess(PageId pageId) throws IOException {
+        int pageNum = pageId.getPageNum();
+        if (lastPageNum != -1 && pageNum == lastPageNum + 1) {
+            sequentialRun++;
+        } else {
+            sequentialRun = 0;
+            readAheadUpTo = pageNum;
+        }
+        lastPageNum = pageNum;
+
+        int window = bufferPoolManager.getReadAheadPages();
+        if (window <= 0 || sequentialRun < TRIGGER || readAheadUpTo - pageNum > window / 2) {
+            return;
+        }
+        int first = Math.max(readAheadUpTo, pageNum) + 1;
+        int last = pageNum + window;
+        if (first <= last) {
+            bufferPoolManager.readAhead(new PageId(first), last - first + 1);
+            readAheadUpTo = last;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.csu.sdolp.storage.column;
+
+import org.csu.sdolp.common.model.DataType;
+import org.csu.sdolp.common.model.Value;
+import org.csu.sdolp.storage.buffer.BufferPoolManager;
+import org.csu.sdolp.storage.page.PageId;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * 沿一列的段链表顺序读取的游标。
+ * 进入一个段时只读取段头 (值的个数和 min/max)，真正用到段中的值时才解码，
+ * 因此被 min/max 排除而整段跳过的段不需要解码。解码结果复制到数组中，不持有页面的引用。
+ */
+public class ColumnReader {
+
+    private final BufferPoolManager bufferPoolManager;
+    private final DataType type;
+
+    private int nextPageNum;
+    private int segmentPageNum = -1;
+    private int count;
+    private int position;
+    private boolean hasIntRange;
+    private int min;
+    private int max;
+    private boolean decoded;
+    private int[] ints;
+    private Value[] values;
+
+    ColumnReader(BufferPoolManager bufferPoolManager, DataType type, int firstPageNum) {
+        this.bufferPoolManager = bufferPoolManager;
+        this.type = type;
+        this.nextPageNum = firstPageNum;
+    }
+
+    public DataType getType() {
+        return type;
+    }
+
+    /**
+     * 当前段中尚未读取的值的个数；当前段已读完时先前进到下一段，没有更多的段时返回 0。
+     */
+    public int remaining() throws IOException {
+        while (position >= count) {
+            if (nextPageNum == -1) {
+                return 0;
+            }
+            ByteBuffer page = bufferPoolManager.getPage(new PageId(nextPageNum)).getData();
+            segmentPageNum = nextPageNum;
+            count = ColumnSegment.getCount(page);
+            nextPageNum = ColumnSegment.getNextPage(page);
+            hasIntRange = ColumnSegment.hasIntRange(page);
+            min = ColumnSegment.getMin(page);
+            max = ColumnSegment.getMax(page);
+            position = 0;
+            decoded = false;
+        }
+        return count - position;
+    }
+
+    /**
+     * 当前段是否记录了 INT 值的范围 (需先调用 remaining() 进入该段)。
+     */
+    public boolean hasIntRange() {
+        return hasIntRange;
+    }
+
+    public int getSegmentMin() {
+        return min;
+    }
+
+    public int getSegmentMax() {
+        return max;
+    }
+
+    /**
+     * 跳过当前段中的 n 个值 (n 不超过 remaining())，不解码。
+     */
+    public void skip(int n) {
+        position += n;
+    }
+
+    /**
+     * 当前段解码后的 INT 值 (只对 INT 列有效)，下一个未读取的值位于 getPosition()。
+     */
+    public int[] intValues() throws IOException {
+        decode();
+        return ints;
+    }
+
+    /**
+     * 当前段解码后的值，下一个未读取的值位于 getPosition()。
+     */
+    public Value[] objectValues() throws IOException {
+        decode();
+        return values;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    private void decode() throws IOException {
+        if (decoded) {
+            return;
+        }
+        ByteBuffer page = bufferPoolManager.getPage(new PageId(segmentPageNum)).getData();
+        if (type == DataType.INT) {
+            ints = ColumnSegment.decodeInts(page);
+        } else {
+            values = ColumnSegment.decodeValues(page, type);
+        }
+        decoded = true;
+    }
+}
@@ -0,0 +1,459 @@
+package org.csu.sdolp.storage.column;
+
+import org.csu.sdolp.common.model.DataType;
+import org.csu.sdolp.common.model.Tuple;
+import org.csu.sdolp.common.model.Value;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * 列存的编码段。一个段占据一个页面，保存一列中连续的若干个值。
+ * <p>
+ * 页面布局：
+ * <pre>
+ * [0]  int  段中值的个数
+ * [4]  int  同一列下一个段所在的页号 (-1 表示没有)
+ * [8]  byte 编码方式   [9] byte 位宽
+ * [12] int  段内最小值 [16] int 段内最大值 (只对 INT 列有效，扫描时据此跳过整段)
+ * [20] int  编码参数：DELTA 为最小差值，DICTIONARY 为字典的大小
+ * [24] 编码后的数据
+ * </pre>
+ * INT 列使用 FOR (frame-of-reference，减去段内最小值后按位打包) 或 DELTA (非递减序列的相邻差值按位打包)；
+ * 字符串列使用排好序的段内字典加按位打包的编码，字典的首尾两项就是段内的最小值和最大值；
+ * 其他类型以及字典不划算时按原样 (PLAIN) 存放。写入时在可用的编码中选择占用空间最小的一种。
+ */
+public final class ColumnSegment {
+
+    public static final byte PLAIN = 0;
+    public static final byte FOR = 1;
+    public static final byte DELTA = 2;
+    public static final byte DICTIONARY = 3;
+
+    /** 一个段最多保存的值的个数，限制解码时数组的大小 (位宽为 0 时一页可以放下任意多个值) */
+    public static final int MAX_VALUES = 8192;
+
+    private static final int COUNT_OFFSET = 0;
+    private static final int NEXT_PAGE_OFFSET = 4;
+    private static final int ENCODING_OFFSET = 8;
+    private static final int BIT_WIDTH_OFFSET = 9;
+    private static final int MIN_OFFSET = 12;
+    private static final int MAX_OFFSET = 16;
+    private static final int PARAM_OFFSET = 20;
+    static final int HEADER_SIZE = 24;
+
+    private ColumnSegment() {
+    }
+
+    // --- 段头 ---
+
+    public static int getCount(ByteBuffer page) {
+        return page.getInt(COUNT_OFFSET);
+    }
+
+    public static int getNextPage(ByteBuffer page) {
+        return page.getInt(NEXT_PAGE_OFFSET);
+    }
+
+    public static void setNextPage(ByteBuffer page, int nextPageNum) {
+        page.putInt(NEXT_PAGE_OFFSET, nextPageNum);
+    }
+
+    public static byte getEncoding(ByteBuffer page) {
+        return page.get(ENCODING_OFFSET);
+    }
+
+    /**
+     * 段头中是否记录了 INT 值的最小值和最大值。
+     */
+    public static boolean hasIntRange(ByteBuffer page) {
+        byte encoding = getEncoding(page);
+        return encoding == FOR || encoding == DELTA;
+    }
+
+    public static int getMin(ByteBuffer page) {
+        return page.getInt(MIN_OFFSET);
+    }
+
+    public static int getMax(ByteBuffer page) {
+        return page.getInt(MAX_OFFSET);
+    }
+
+    // --- 编码 ---
+
+    /**
+     * 计算 values[from, to) 以最省空间的编码写成一个段需要的字节数 (含段头)。
+     */
+    public static int encodedSize(DataType type, List<Value> values, int from, int to) {
+        return encoderFor(type, values, from, to).size;
+    }
+
+    /**
+     * 从 from 开始，返回能写进一个 pageSize 大小的段的最大下标 to (不含)，最多 MAX_VALUES 个值。
+     * @throws IOException 单个值就放不进一页时
+     */
+    public static int fit(DataType type, List<Value> values, int from, int pageSize) throws IOException {
+        int to = Math.min(values.size(), from + MAX_VALUES);
+        if (encodedSize(type, values, from, to) <= pageSize) {
+            return to;
+        }
+        // 编码后的大小随值的个数单调不减，二分查找能放下的最多个数
+        int low = from;
+        int high = to;
+        while (high - low > 1) {
+            int mid = (low + high) >>> 1;
+            if (encodedSize(type, values, from, mid) <= pageSize) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        if (low == from) {
+            throw new IOException("Value is too large for a columnar segment of " + pageSize + " bytes: " + values.get(from));
+        }
+        return low;
+    }
+
+    /**
+     * 把 values[from, to) 写成一个段 (覆盖整个段头，下一段的页号置为 -1)。调用方需保证写得下。
+     */
+    public static void write(ByteBuffer page, DataType type, List<Value> values, int from, int to) {
+        Encoder encoder = encoderFor(type, values, from, to);
+        if (encoder.size > page.capacity()) {
+            throw new IllegalArgumentException("Segment of " + encoder.size + " bytes does not fit in a page of " + page.capacity() + " bytes.");
+        }
+        page.putInt(COUNT_OFFSET, to - from);
+        page.putInt(NEXT_PAGE_OFFSET, -1);
+        page.put(ENCODING_OFFSET, encoder.encoding);
+        page.put(BIT_WIDTH_OFFSET, (byte) encoder.bitWidth);
+        page.putInt(MIN_OFFSET, encoder.min);
+        page.putInt(MAX_OFFSET, encoder.max);
+        page.putInt(PARAM_OFFSET, encoder.param);
+        encoder.writeData(page);
+    }
+
+    private static Encoder encoderFor(DataType type, List<Value> values, int from, int to) {
+        if (type == DataType.INT) {
+            int[] ints = new int[to - from];
+            for (int i = from; i < to; i++) {
+                ints[i - from] = (Integer) values.get(i).getValue();
+            }
+            Encoder best = new ForEncoder(ints);
+            Encoder delta = DeltaEncoder.tryCreate(ints);
+            return delta != null && delta.size < best.size ? delta : best;
+        }
+        if (type == DataType.VARCHAR || type == DataType.CHAR) {
+            Encoder dictionary = new DictionaryEncoder(values, from, to);
+            Encoder plain = new PlainEncoder(type, values, from, to);
+            return dictionary.size < plain.size ? dictionary : plain;
+        }
+        return new PlainEncoder(type, values, from, to);
+    }
+
+    private static int bitsFor(long range) {
+        return range == 0 ? 0 : Long.SIZE - Long.numberOfLeadingZeros(range);
+    }
+
+    private static int packedBytes(int count, int bitWidth) {
+        return (int) (((long) count * bitWidth + 7) / 8);
+    }
+
+    private abstract static class Encoder {
+        byte encoding;
+        int bitWidth;
+        int min;
+        int max;
+        int param;
+        int size;
+
+        abstract void writeData(ByteBuffer page);
+    }
+
+    private static final class ForEncoder extends Encoder {
+        private final int[] ints;
+
+        ForEncoder(int[] ints) {
+            this.ints = ints;
+            encoding = FOR;
+            min = Integer.MAX_VALUE;
+            max = Integer.MIN_VALUE;
+            for (int v : ints) {
+                min = Math.min(min, v);
+                max = Math.max(max, v);
+            }
+            if (ints.length == 0) {
+                min = max = 0;
+            }
+            bitWidth = bitsFor((long) max - min);
+            size = HEADER_SIZE + packedBytes(ints.length, bitWidth);
+        }
+
+        @Override
+        void writeData(ByteBuffer page) {
+            BitWriter writer = new BitWriter(page, HEADER_SIZE, bitWidth);
+            for (int v : ints) {
+                writer.write((long) v - min);
+            }
+            writer.finish();
+        }
+    }
+
+    private static final class DeltaEncoder extends Encoder {
+        private final int[] ints;
+
+        private DeltaEncoder(int[] ints, long minDelta, long maxDelta) {
+            this.ints = ints;
+            encoding = DELTA;
+            min = ints[0];
+            max = ints[ints.length - 1];
+            param = (int) minDelta;
+            bitWidth = bitsFor(maxDelta - minDelta);
+            size = HEADER_SIZE + packedBytes(ints.length - 1, bitWidth);
+        }
+
+        /**
+         * 只有非递减的序列 (例如自增的 id、按时间追加的日期) 才使用差值编码，第一个值即最小值。
+         */
+        static DeltaEncoder tryCreate(int[] ints) {
+            if (ints.length < 2) {
+                return null;
+            }
+            long minDelta = Long.MAX_VALUE;
+            long maxDelta = Long.MIN_VALUE;
+            for (int i = 1; i < ints.length; i++) {
+                long delta = (long) ints[i] - ints[i - 1];
+                if (delta < 0) {
+                    return null;
+                }
+                minDelta = Math.min(minDelta, delta);
+                maxDelta = Math.max(maxDelta, delta);
+            }
+            if (minDelta > Integer.MAX_VALUE) {
+                return null;
+            }
+            return new DeltaEncoder(ints, minDelta, maxDelta);
+        }
+
+        @Override
+        void writeData(ByteBuffer page) {
+            BitWriter writer = new BitWriter(page, HEADER_SIZE, bitWidth);
+            for (int i = 1; i < ints.length; i++) {
+                writer.write((long) ints[i] - ints[i - 1] - param);
+            }
+            writer.finish();
+        }
+    }
+
+    private static final class DictionaryEncoder extends Encoder {
+        private final String[] dictionary;
+        private final byte[][] encodedEntries;
+        private final int[] codes;
+
+        DictionaryEncoder(List<Value> values, int from, int to) {
+            encoding = DICTIONARY;
+            TreeSet<String> distinct = new TreeSet<>();
+            for (int i = from; i < to; i++) {
+                distinct.add((String) values.get(i).getValue());
+            }
+            dictionary = distinct.toArray(new String[0]);
+            encodedEntries = new byte[dictionary.length][];
+            Map<String, Integer> codeOf = new HashMap<>();
+            int dataSize = 0;
+            for (int i = 0; i < dictionary.length; i++) {
+                encodedEntries[i] = dictionary[i].getBytes(StandardCharsets.UTF_8);
+                dataSize += 4 + encodedEntries[i].length;
+                codeOf.put(dictionary[i], i);
+            }
+            codes = new int[to - from];
+            for (int i = from; i < to; i++) {
+                codes[i - from] = codeOf.get((String) values.get(i).getValue());
+            }
+            param = dictionary.length;
+            bitWidth = bitsFor(Math.max(0, dictionary.length - 1));
+            size = HEADER_SIZE + dataSize + packedBytes(codes.length, bitWidth);
+        }
+
+        @Override
+        void writeData(ByteBuffer page) {
+            int position = HEADER_SIZE;
+            for (byte[] entry : encodedEntries) {
+                page.putInt(position, entry.length);
+                page.put(position + 4, entry);
+                position += 4 + entry.length;
+            }
+            BitWriter writer = new BitWriter(page, position, bitWidth);
+            for (int code : codes) {
+                writer.write(code);
+            }
+            writer.finish();
+        }
+    }
+
+    private static final class PlainEncoder extends Encoder {
+        private final byte[] data;
+
+        PlainEncoder(DataType type, List<Value> values, int from, int to) {
+            encoding = PLAIN;
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            try {
+                for (int i = from; i < to; i++) {
+                    values.get(i).serialize(out, Tuple.FORMAT_TEXT);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            data = bytes.toByteArray();
+            size = HEADER_SIZE + data.length;
+        }
+
+        @Override
+        void writeData(ByteBuffer page) {
+            page.put(HEADER_SIZE, data);
+        }
+    }
+
+    // --- 解码 ---
+
+    /**
+     * 解码一个 INT 列的段 (FOR 或 DELTA)。
+     */
+    public static int[] decodeInts(ByteBuffer page) {
+        int count = getCount(page);
+        int bitWidth = page.get(BIT_WIDTH_OFFSET);
+        int min = getMin(page);
+        int[] ints = new int[count];
+        BitReader reader = new BitReader(page, HEADER_SIZE, bitWidth);
+        switch (getEncoding(page)) {
+            case FOR -> {
+                for (int i = 0; i < count; i++) {
+                    ints[i] = (int) (min + reader.read());
+                }
+            }
+            case DELTA -> {
+                long minDelta = page.getInt(PARAM_OFFSET);
+                if (count > 0) {
+                    ints[0] = min;
+                }
+                for (int i = 1; i < count; i++) {
+                    ints[i] = (int) (ints[i - 1] + minDelta + reader.read());
+                }
+            }
+            default -> throw new IllegalStateException("Not an INT segment, encoding=" + getEncoding(page));
+        }
+        return ints;
+    }
+
+    /**
+     * 解码一个段中的所有值。字典编码的段中相同的字符串共享同一个 Value 对象。
+     */
+    public static Value[] decodeValues(ByteBuffer page, DataType type) {
+        int count = getCount(page);
+        Value[] values = new Value[count];
+        switch (getEncoding(page)) {
+            case FOR, DELTA -> {
+                int[] ints = decodeInts(page);
+                for (int i = 0; i < count; i++) {
+                    values[i] = new Value(ints[i]);
+                }
+            }
+            case DICTIONARY -> {
+                Value[] dictionary = new Value[page.getInt(PARAM_OFFSET)];
+                int position = HEADER_SIZE;
+                for (int i = 0; i < dictionary.length; i++) {
+                    int length = page.getInt(position);
+                    byte[] bytes = new byte[length];
+                    page.get(position + 4, bytes);
+                    dictionary[i] = new Value(new String(bytes, StandardCharsets.UTF_8));
+                    position += 4 + length;
+                }
+                BitReader reader = new BitReader(page, position, page.get(BIT_WIDTH_OFFSET));
+                for (int i = 0; i < count; i++) {
+                    values[i] = dictionary[(int) reader.read()];
+                }
+            }
+            default -> {
+                ByteBuffer buffer = page.duplicate();
+                buffer.position(HEADER_SIZE);
+                for (int i = 0; i < count; i++) {
+                    values[i] = Value.deserialize(buffer, type, Tuple.FORMAT_TEXT);
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * 按位打包的写入器，每个值占 bitWidth 位 (0 到 32)，低位在前。
+     */
+    private static final class BitWriter {
+        private final ByteBuffer page;
+        private final int bitWidth;
+        private int position;
+        private long buffer;
+        private int bits;
+
+        BitWriter(ByteBuffer page, int position, int bitWidth) {
+            this.page = page;
+            this.position = position;
+            this.bitWidth = bitWidth;
+        }
+
+        void write(long value) {
+            if (bitWidth == 0) {
+                return;
+            }
+            buffer |= value << bits;
+            bits += bitWidth;
+            while (bits >= 8) {
+                page.put(position++, (byte) buffer);
+                buffer >>>= 8;
+                bits -= 8;
+            }
+        }
+
+        void finish() {
+            if (bits > 0) {
+                page.put(position, (byte) buffer);
+            }
+        }
+    }
+
+    private static final class BitReader {
+        private final ByteBuffer page;
+        private final int bitWidth;
+        private final long mask;
+        private int position;
+        private long buffer;
+        private int bits;
+
+        BitReader(ByteBuffer page, int position, int bitWidth) {
+            this.page = page;
+            this.position = position;
+            this.bitWidth = bitWidth;
+            this.mask = (1L << bitWidth) - 1;
+        }
+
+        long read() {
+            if (bitWidth == 0) {
+                return 0;
+            }
+            while (bits < bitWidth) {
+                buffer |= (page.get(position++) & 0xFFL) << bits;
+                bits += 8;
+            }
+            long value = buffer & mask;
+            buffer >>>= bitWidth;
+            bits -= bitWidth;
+            return value;
+        }
+    }
+}
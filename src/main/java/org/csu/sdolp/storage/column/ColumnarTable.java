@@ -0,0 +1,177 @@
+package org.csu.sdolp.storage.column;
+
+import org.csu.sdolp.common.model.Column;
+import org.csu.sdolp.common.model.DataType;
+import org.csu.sdolp.common.model.Schema;
+import org.csu.sdolp.common.model.Tuple;
+import org.csu.sdolp.common.model.Value;
+import org.csu.sdolp.storage.buffer.BufferPoolManager;
+import org.csu.sdolp.storage.page.Page;
+import org.csu.sdolp.storage.page.PageId;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 列存表 (ENGINE = COLUMNAR)，TableHeap 在列存引擎下的对应物。
+ * <p>
+ * 表的第一页是列存的头页，记录总行数和每一列的段链表 (ColumnSegment) 的首尾页号：
+ * <pre>
+ * [0] int 魔数 (负数，行存堆页此处是非负的元组个数)  [4] int 总行数  [8] int 列数
+ * [12 + 12 * i] 第 i 列：int 第一个段的页号, int 最后一个段的页号 (-1 表示还没有段), int 最后一个段第一个值的行号
+ * </pre>
+ * 插入按批追加：每列解码最后一个段，与新值一起重新编码，写满一页再分配新的段。
+ * 段先于头页刷盘，头页中的总行数最后更新，扫描只读取总行数以内的值，因此中途失败的追加不可见。
+ * 列存表的插入不写 WAL，也不能回滚。
+ */
+public class ColumnarTable {
+
+    public static final int HEADER_MAGIC = 0xC01A7AB1;
+    private static final int ROW_COUNT_OFFSET = 4;
+    private static final int COLUMN_COUNT_OFFSET = 8;
+    private static final int CHAINS_OFFSET = 12;
+    private static final int CHAIN_ENTRY_SIZE = 12;
+
+    private final BufferPoolManager bufferPoolManager;
+    private final PageId headerPageId;
+    private final Schema schema;
+    private final String segment;
+
+    /**
+     * @param headerPageId 列存头页 (表的第一页)
+     * @param segment      表的存储段，新的段页在其中分配
+     */
+    public ColumnarTable(BufferPoolManager bufferPoolManager, PageId headerPageId, Schema schema, String segment) {
+        this.bufferPoolManager = bufferPoolManager;
+        this.headerPageId = headerPageId;
+        this.schema = schema;
+        this.segment = segment;
+    }
+
+    /**
+     * 把新分配的表首页初始化为列存头页。
+     */
+    public static void format(Page page, int columnCount) {
+        ByteBuffer data = page.getData();
+        if (chainOffset(columnCount) > data.capacity()) {
+            throw new IllegalArgumentException("Too many columns for a columnar table: " + columnCount);
+        }
+        data.putInt(0, HEADER_MAGIC);
+        data.putInt(ROW_COUNT_OFFSET, 0);
+        data.putInt(COLUMN_COUNT_OFFSET, columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            data.putInt(chainOffset(i), -1);
+            data.putInt(chainOffset(i) + 4, -1);
+            data.putInt(chainOffset(i) + 8, 0);
+        }
+    }
+
+    /**
+     * 判断一页是否为列存头页 (Catalog 加载表时据此识别列存表)。
+     */
+    public static boolean isHeaderPage(Page page) {
+        return page.getData().getInt(0) == HEADER_MAGIC;
+    }
+
+    public PageId getHeaderPageId() {
+        return headerPageId;
+    }
+
+    public Schema getSchema() {
+        return schema;
+    }
+
+    public int getRowCount() throws IOException {
+        return bufferPoolManager.getPage(headerPageId).getData().getInt(ROW_COUNT_OFFSET);
+    }
+
+    /**
+     * 打开一列的读取器，从该列的第一个段开始。
+     */
+    public ColumnReader openColumn(int ordinal) throws IOException {
+        ByteBuffer header = bufferPoolManager.getPage(headerPageId).getData();
+        return new ColumnReader(bufferPoolManager, schema.getColumns().get(ordinal).getType(),
+                header.getInt(chainOffset(ordinal)));
+    }
+
+    /**
+     * 按批追加行。调用方需持有头页的排他锁。
+     * @return 追加的行数
+     */
+    public int appendRows(List<Tuple> rows) throws IOException {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<Column> columns = schema.getColumns();
+        int[] firstPages = new int[columns.size()];
+        int[] lastPages = new int[columns.size()];
+        int[] tailStarts = new int[columns.size()];
+        ByteBuffer header = bufferPoolManager.getPage(headerPageId).getData();
+        int rowCount = header.getInt(ROW_COUNT_OFFSET);
+        for (int i = 0; i < columns.size(); i++) {
+            firstPages[i] = header.getInt(chainOffset(i));
+            lastPages[i] = header.getInt(chainOffset(i) + 4);
+            tailStarts[i] = header.getInt(chainOffset(i) + 8);
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            DataType type = columns.get(i).getType();
+            List<Value> values = new ArrayList<>();
+            if (lastPages[i] == -1) {
+                lastPages[i] = allocateSegmentPage();
+                firstPages[i] = lastPages[i];
+                tailStarts[i] = 0;
+            } else {
+                // 最后一个段可能包含上次追加失败时留下的、超出总行数的值，只保留总行数以内的部分
+                ByteBuffer tail = bufferPoolManager.getPage(new PageId(lastPages[i])).getData();
+                Value[] tailValues = ColumnSegment.decodeValues(tail, type);
+                values.addAll(List.of(tailValues).subList(0, Math.min(tailValues.length, rowCount - tailStarts[i])));
+            }
+            for (Tuple row : rows) {
+                Value value = row.getValues().get(i);
+                if (value == null || value.getValue() == null) {
+                    throw new IllegalArgumentException("NULL values are not supported in columnar tables (column '" + columns.get(i).getName() + "').");
+                }
+                values.add(value);
+            }
+
+            // 从最后一个段开始重写，写不下时接着分配新的段
+            int from = 0;
+            while (true) {
+                int to = ColumnSegment.fit(type, values, from, bufferPoolManager.getPageSize());
+                PageId pageId = new PageId(lastPages[i]);
+                ColumnSegment.write(bufferPoolManager.getPage(pageId).getData(), type, values, from, to);
+                bufferPoolManager.flushPage(pageId);
+                if (to == values.size()) {
+                    break;
+                }
+                int nextPageNum = allocateSegmentPage();
+                // 分配新页可能淘汰刚写好的段页，重新取得后再链接
+                ColumnSegment.setNextPage(bufferPoolManager.getPage(pageId).getData(), nextPageNum);
+                bufferPoolManager.flushPage(pageId);
+                lastPages[i] = nextPageNum;
+                tailStarts[i] += to - from;
+                from = to;
+            }
+        }
+        // 所有段写完后才更新头页，新行在这之后才对扫描可见
+        header = bufferPoolManager.getPage(headerPageId).getData();
+        for (int i = 0; i < columns.size(); i++) {
+            header.putInt(chainOffset(i), firstPages[i]);
+            header.putInt(chainOffset(i) + 4, lastPages[i]);
+            header.putInt(chainOffset(i) + 8, tailStarts[i]);
+        }
+        header.putInt(ROW_COUNT_OFFSET, rowCount + rows.size());
+        bufferPoolManager.flushPage(headerPageId);
+        return rows.size();
+    }
+
+    private int allocateSegmentPage() throws IOException {
+        return bufferPoolManager.newPage(segment).getPageId().getPageNum();
+    }
+
+    private static int chainOffset(int ordinal) {
+        return CHAINS_OFFSET + ordinal * CHAIN_ENTRY_SIZE;
+    }
+}
@@ -0,0 +1,367 @@
+package org.csu.sdolp.storage.disk;
+
+import org.csu.sdolp.storage.page.PageId;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 页面压缩的表空间文件。页面在写回 (缓存池淘汰或刷盘) 时压缩，存放在数据文件中以 SLOT_UNIT 为单位的变长槽里，
+ * 读页时解压到缓存帧；压缩后没有变小的页面按原样存放。
+ * <p>
+ * 页号到槽的映射保存在同名的 .map 文件中，每页一个固定长度的条目：槽的位置、压缩后的长度和槽的容量。
+ * 页面重写时从不覆盖原来的槽：总是写入一个新分配的槽，数据落盘后再写映射条目，
+ * 最后才把旧槽交给之后的写入重用，崩溃时映射条目总是指向一份完整的页面。
+ * 空闲的槽按大小分组重用，打开文件时由映射条目之间的空隙重建。
+ * <p>
+ * 变长槽无法映射为固定大小的页面，也不满足 O_DIRECT 的对齐要求，因此压缩文件总是使用普通的定位读写。
+ */
+final class CompressedPageFile implements PageFile {
+    private static final int HEADER_SIZE = 4096;
+    private static final int MAGIC = 0x50434D50;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int PAGE_SIZE_OFFSET = 4;
+    private static final int COMPRESSION_OFFSET = 8;
+    // 槽的分配单位
+    private static final int SLOT_UNIT = 512;
+    // 映射条目：槽位置 (8 字节)、长度 (4 字节)、槽容量 (4 字节)
+    private static final int MAP_ENTRY_SIZE = 16;
+    // 长度为 FREE 表示页已释放；为 0 表示页已分配但从未写入 (全 0)；等于页大小表示按原样存放
+    private static final int FREE = -1;
+
+    private final int fileId;
+    private final Path path;
+    private final Path mapPath;
+    private final PageCompression compression;
+    private int pageSize;
+    private FileChannel channel;
+    private FileChannel mapChannel;
+
+    // 每页的映射条目，下标为页号
+    private long[] slotOffsets = new long[64];
+    private int[] lengths = new int[64];
+    private int[] capacities = new int[64];
+    private int pageCount;
+    private final Deque<Integer> freePages = new ArrayDeque<>();
+    // 空闲的槽，按容量 (单位数) 分组
+    private List<Deque<Long>> freeSlots;
+    // 数据文件中已使用区域的末尾
+    private long dataEnd = HEADER_SIZE;
+    // 压缩结果的缓冲区，只在持有锁时使用
+    private byte[] scratch;
+
+    private long bytesRead;
+    private long bytesWritten;
+
+    /**
+     * @param compression 文件使用的压缩方式，打开已有文件时须与文件头中记录的一致
+     */
+    CompressedPageFile(int fileId, Path path, int pageSize, PageCompression compression) {
+        this.fileId = fileId;
+        this.path = path;
+        this.mapPath = path.resolveSibling(path.getFileName() + ".map");
+        this.pageSize = pageSize;
+        this.compression = compression;
+    }
+
+    @Override
+    public synchronized void open() throws IOException {
+        boolean isNewFile = !Files.exists(path) || Files.size(path) == 0;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        mapChannel = FileChannel.open(mapPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (isNewFile) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC_OFFSET, MAGIC);
+            header.putInt(PAGE_SIZE_OFFSET, pageSize);
+            header.putInt(COMPRESSION_OFFSET, compression.ordinal());
+            writeFully(channel, header, 0);
+            mapChannel.truncate(0);
+            channel.force(true);
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, header, 0);
+            if (header.getInt(MAGIC_OFFSET) != MAGIC || header.getInt(COMPRESSION_OFFSET) != compression.ordinal()) {
+                throw new IOException("Not a " + compression + " compressed tablespace file: " + path);
+            }
+            pageSize = header.getInt(PAGE_SIZE_OFFSET);
+        }
+        scratch = new byte[pageSize - SLOT_UNIT];
+        freeSlots = new ArrayList<>();
+        for (int units = 0; units <= pageSize / SLOT_UNIT; units++) {
+            freeSlots.add(new ArrayDeque<>());
+        }
+        loadMap();
+    }
+
+    /**
+     * 读入映射文件，重建空闲页和空闲槽。
+     */
+    private void loadMap() throws IOException {
+        int entries = (int) (mapChannel.size() / MAP_ENTRY_SIZE);
+        ByteBuffer map = ByteBuffer.allocate(entries * MAP_ENTRY_SIZE);
+        readFully(mapChannel, map, 0);
+        List<long[]> usedSlots = new ArrayList<>();
+        for (int pageNum = 0; pageNum < entries; pageNum++) {
+            ensureEntryCapacity(pageNum);
+            slotOffsets[pageNum] = map.getLong(pageNum * MAP_ENTRY_SIZE);
+            lengths[pageNum] = map.getInt(pageNum * MAP_ENTRY_SIZE + 8);
+            capacities[pageNum] = map.getInt(pageNum * MAP_ENTRY_SIZE + 12);
+            if (lengths[pageNum] == FREE) {
+                freePages.push(pageNum);
+            } else if (capacities[pageNum] > 0) {
+                usedSlots.add(new long[]{slotOffsets[pageNum], capacities[pageNum]});
+            }
+        }
+        pageCount = entries;
+        usedSlots.sort((a, b) -> Long.compare(a[0], b[0]));
+        long position = HEADER_SIZE;
+        for (long[] slot : usedSlots) {
+            releaseRange(position, slot[0]);
+            position = slot[0] + slot[1];
+        }
+        dataEnd = position;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.truncate(dataEnd);
+            channel.force(true);
+            mapChannel.force(true);
+            channel.close();
+            mapChannel.close();
+            channel = null;
+            mapChannel = null;
+        }
+    }
+
+    @Override
+    public synchronized void delete() throws IOException {
+        if (channel != null) {
+            channel.close();
+            mapChannel.close();
+            channel = null;
+            mapChannel = null;
+        }
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(mapPath);
+    }
+
+    @Override
+    public synchronized ByteBuffer readPage(int pageNum, ByteBuffer frame) throws IOException {
+        if (pageNum >= pageCount || lengths[pageNum] <= 0) {
+            // 从未写入或已释放的页读作全 0
+            return frame;
+        }
+        int length = lengths[pageNum];
+        if (length == pageSize) {
+            readFully(channel, frame.duplicate().clear(), slotOffsets[pageNum]);
+        } else {
+            byte[] compressed = new byte[length];
+            readFully(channel, ByteBuffer.wrap(compressed), slotOffsets[pageNum]);
+            compression.decompress(compressed, length, frame);
+        }
+        bytesRead += length;
+        return frame;
+    }
+
+    @Override
+    public synchronized void writePage(int pageNum, ByteBuffer pageData) throws IOException {
+        if (pageNum >= pageCount) {
+            throw new IOException("Page " + pageNum + " of " + path + " is not allocated");
+        }
+        int length = compression.compress(pageData, scratch);
+        ByteBuffer data = length < 0
+                ? pageData.duplicate().clear()
+                : ByteBuffer.wrap(scratch, 0, length);
+        if (length < 0) {
+            length = pageSize;
+        }
+        int capacity = roundToUnit(length);
+        long oldOffset = slotOffsets[pageNum];
+        int oldCapacity = capacities[pageNum];
+        // 旧槽在映射条目改指新槽之前一直保留，不会被这里分配到
+        long offset = allocateSlot(capacity);
+        writeFully(channel, data, offset);
+        channel.force(false);
+        bytesWritten += length;
+        writeEntry(pageNum, offset, length, capacity);
+        mapChannel.force(false);
+        releaseSlot(oldOffset, oldCapacity);
+    }
+
+    @Override
+    public synchronized int allocatePage() throws IOException {
+        Integer reused = freePages.poll();
+        int pageNum;
+        if (reused != null) {
+            pageNum = reused;
+        } else {
+            if (pageCount >= PageId.MAX_FILE_PAGES) {
+                throw new IOException("Data file " + path + " is full (" + PageId.MAX_FILE_PAGES + " pages)");
+            }
+            pageNum = pageCount++;
+            ensureEntryCapacity(pageNum);
+        }
+        writeEntry(pageNum, 0, 0, 0);
+        return pageNum;
+    }
+
+    /**
+     * 一个压缩文件只保存一个段，按段分配与普通分配相同。
+     */
+    @Override
+    public int allocatePage(String segment) throws IOException {
+        return allocatePage();
+    }
+
+    @Override
+    public synchronized void deallocatePage(int pageNum) throws IOException {
+        releaseSlot(slotOffsets[pageNum], capacities[pageNum]);
+        writeEntry(pageNum, 0, FREE, 0);
+        mapChannel.force(false);
+        freePages.push(pageNum);
+    }
+
+    @Override
+    public synchronized void force() throws IOException {
+        channel.force(false);
+        mapChannel.force(false);
+    }
+
+    private void writeEntry(int pageNum, long offset, int length, int capacity) throws IOException {
+        slotOffsets[pageNum] = offset;
+        lengths[pageNum] = length;
+        capacities[pageNum] = capacity;
+        ByteBuffer entry = ByteBuffer.allocate(MAP_ENTRY_SIZE);
+        entry.putLong(0, offset).putInt(8, length).putInt(12, capacity);
+        writeFully(mapChannel, entry, (long) pageNum * MAP_ENTRY_SIZE);
+    }
+
+    private void ensureEntryCapacity(int pageNum) {
+        if (pageNum >= slotOffsets.length) {
+            int grown = Math.max(pageNum + 1, slotOffsets.length * 2);
+            slotOffsets = Arrays.copyOf(slotOffsets, grown);
+            lengths = Arrays.copyOf(lengths, grown);
+            capacities = Arrays.copyOf(capacities, grown);
+        }
+    }
+
+    /**
+     * 分配容量为 capacity 字节的槽：优先使用容量相同或稍大的空闲槽 (多余的部分拆成新的空闲槽)，否则追加到数据末尾。
+     */
+    private long allocateSlot(int capacity) {
+        int units = capacity / SLOT_UNIT;
+        for (int size = units; size < freeSlots.size(); size++) {
+            Long offset = freeSlots.get(size).poll();
+            if (offset != null) {
+                releaseSlot(offset + capacity, (size - units) * SLOT_UNIT);
+                return offset;
+            }
+        }
+        long offset = dataEnd;
+        dataEnd += capacity;
+        return offset;
+    }
+
+    private void releaseSlot(long offset, int capacity) {
+        if (capacity > 0) {
+            freeSlots.get(capacity / SLOT_UNIT).push(offset);
+        }
+    }
+
+    /**
+     * 把 [start, end) 拆成若干不超过一页的空闲槽。
+     */
+    private void releaseRange(long start, long end) {
+        while (start < end) {
+            int capacity = (int) Math.min(end - start, (long) (freeSlots.size() - 1) * SLOT_UNIT);
+            releaseSlot(start, capacity);
+            start += capacity;
+        }
+    }
+
+    private static int roundToUnit(int length) {
+        return (length + SLOT_UNIT - 1) / SLOT_UNIT * SLOT_UNIT;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    @Override
+    public ByteBuffer allocateIoBuffer(int size) {
+        return ByteBuffer.allocate(size);
+    }
+
+    @Override
+    public boolean isMemoryMapped() {
+        return false;
+    }
+
+    @Override
+    public int getFileId() {
+        return fileId;
+    }
+
+    @Override
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    @Override
+    public int getBlockSize() {
+        return 0;
+    }
+
+    @Override
+    public synchronized int getAllocatedPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * 数据文件与映射文件的总长度。
+     */
+    @Override
+    public long getFileLength() throws IOException {
+        return channel.size() + mapChannel.size();
+    }
+
+    @Override
+    public synchronized long getBytesRead() {
+        return bytesRead;
+    }
+
+    @Override
+    public synchronized long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    PageCompression getCompression() {
+        return compression;
+    }
+}
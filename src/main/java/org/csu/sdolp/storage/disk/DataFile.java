@@ -0,0 +1,502 @@
+package org.csu.sdolp.storage.disk;
+
+import org.csu.sdolp.storage.page.Page;
+import org.csu.sdolp.storage.page.PageId;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.nio.file.ExtendedOpenOption;
+
+/**
+ * 一个数据文件 (主文件或表空间文件) 的读写，页号都是文件内的页号。
+ * 文件以 4KB 的文件头开始，记录空闲链表头和页大小；之后依次是各个页。
+ * 页读写使用 FileChannel 的定位读写 (pread / pwrite)，不依赖共享的文件指针，多个线程可以并行读写同一个文件；
+ * 空闲链表头和下一个新页号用原子变量维护，分配和释放页面不需要全局锁。
+ * <p>
+ * 表和索引的页按段分配：每个段每次从文件末尾预留 EXTENT_PAGES 页的连续区，同一张表的堆页在物理上连续，
+ * 顺序扫描变成大块的顺序读。文件按 PREALLOCATION_CHUNK 预先填充扩展，而不是每写一页增长一次；
+ * 关闭时各段未用完的区挂回空闲链表，文件截断到实际分配的页数。异常退出时预分配而未使用的尾部页面不再回收，最多浪费一个预分配块。
+ * <p>
+ * 内存映射模式下，数据区按固定大小的映射区映射为 MappedByteBuffer，读页返回直接建立在映射内存上的视图，
+ * 读页既不进行系统调用也不复制数据，操作系统的页缓存就是唯一的缓存；页面的修改直接写入映射内存，
+ * 由 force() 或 close() 落盘。映射随页面分配按映射区增长，关闭时把文件截断到实际分配的页数。
+ * <p>
+ * 直接 I/O 模式以 O_DIRECT (ExtendedOpenOption.DIRECT) 打开文件，页面读写绕过操作系统页缓存。
+ * O_DIRECT 要求文件位置、读写长度和缓冲区地址都是块大小的整数倍：文件头固定为 4KB，页大小都是不小于 4KB 的 2 的幂，
+ * 所以只要块大小不超过 4KB (常见的 512B / 4KB)，每一页的起始位置 4KB + n * pageSize 都按块对齐
+ * (但不一定按页大小对齐，O_DIRECT 也不要求)；块大小超过 4KB 的文件系统无法使用直接 I/O，open 时报错。
+ * 文件头和空闲页中不足一个块的字段按整块读出、修改、写回。
+ * 堆内存的页面写入时先复制到对齐的缓冲区，不把堆内存缓冲区交给 JDK 经临时对齐缓冲区中转
+ * (JDK 21 回收这类临时缓冲区时会抛出 NullPointerException)。
+ */
+final class DataFile implements PageFile {
+    // 预留 4KB 作为文件头，专门用于存储元数据
+    private static final int DB_FILE_HEADER_SIZE = 4096;
+    private static final long FREE_LIST_HEADER_POINTER_OFFSET = 0;
+    // 页大小；旧版本的文件此处为 0，按默认页大小处理
+    private static final long PAGE_SIZE_OFFSET = 4;
+    // 空闲页中保存下一个空闲页号的位置
+    private static final int FREE_PAGE_NEXT_OFFSET = 0;
+    // 文件每次预先扩展的大小
+    private static final long PREALLOCATION_CHUNK = 4L * 1024 * 1024;
+    // 内存映射模式下每个映射区的大小，是所有合法页大小的整数倍，页面不会跨映射区
+    private static final long MAPPED_REGION_SIZE = 16L * 1024 * 1024;
+
+    private final int fileId;
+    private final Path path;
+    private final DiskManager.IoMode ioMode;
+    private final boolean memoryMapped;
+    private FileChannel channel;
+    private int pageSize;
+    // 直接 I/O 模式下的块大小 (对齐单位)，其他模式为 0
+    private int blockSize;
+
+    // 空闲链表头：高 32 位为版本号，低 32 位为页号 (-1 表示空链表)。
+    // 每次修改都递增版本号，避免 CAS 时的 ABA 问题 (同一页被弹出又压回)
+    private final AtomicLong freeListHead = new AtomicLong(pack(0, -1));
+    private final AtomicInteger nextFreePageId = new AtomicInteger(0);
+    // 页面读写的字节数 (不含文件头、空闲链表和预分配)
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    // 各段 (表或索引) 当前正在使用的区
+    private final Map<String, Extent> extents = new ConcurrentHashMap<>();
+    // 已经预先填充的文件长度
+    private volatile long preallocatedLength;
+
+    /**
+     * 一个段当前的区中尚未分配的页：[next, end)。
+     */
+    private static final class Extent {
+        int next;
+        int end;
+    }
+    // 已建立的映射区，只在持有锁时整体替换，读页时无锁读取
+    private volatile MappedByteBuffer[] mappedRegions = new MappedByteBuffer[0];
+
+    /**
+     * @param fileId   文件编号，主文件为 0
+     * @param pageSize 创建新文件时使用的页大小；打开已有文件时以文件头中记录的为准
+     */
+    DataFile(int fileId, Path path, int pageSize, DiskManager.IoMode ioMode) {
+        this.fileId = fileId;
+        this.path = path;
+        this.pageSize = pageSize;
+        this.ioMode = ioMode;
+        this.memoryMapped = ioMode == DiskManager.IoMode.MEMORY_MAPPED;
+    }
+
+    @Override
+    public void open() throws IOException {
+        Path parentDir = path.toAbsolutePath().getParent();
+        if (parentDir != null && !Files.exists(parentDir)) {
+            Files.createDirectories(parentDir);
+        }
+
+        boolean isNewFile = !Files.exists(path) || Files.size(path) == 0;
+        List<OpenOption> options = new ArrayList<>(List.of(
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        if (ioMode == DiskManager.IoMode.DIRECT) {
+            options.add(ExtendedOpenOption.DIRECT);
+        }
+        this.channel = FileChannel.open(path, options.toArray(new OpenOption[0]));
+        if (ioMode == DiskManager.IoMode.DIRECT) {
+            blockSize = (int) Files.getFileStore(path).getBlockSize();
+            if (DB_FILE_HEADER_SIZE % blockSize != 0) {
+                channel.close();
+                channel = null;
+                throw new IOException("Direct I/O needs a block size dividing " + DB_FILE_HEADER_SIZE
+                        + " bytes, but the file system uses " + blockSize);
+            }
+        }
+
+        if (isNewFile) {
+            // 如果是新文件，写入一个完整的文件头：空闲链表指针和页大小，其余为 0
+            ByteBuffer header = allocateIoBuffer(DB_FILE_HEADER_SIZE);
+            header.putInt((int) FREE_LIST_HEADER_POINTER_OFFSET, -1);
+            header.putInt((int) PAGE_SIZE_OFFSET, pageSize);
+            writeFully(header, 0);
+            freeListHead.set(pack(0, -1));
+            // 数据页从0开始分配，因为不再与文件头冲突
+            nextFreePageId.set(0);
+        } else {
+            // 如果是现有文件，从文件头读取指针和页大小
+            freeListHead.set(pack(0, readInt(FREE_LIST_HEADER_POINTER_OFFSET)));
+            int storedPageSize = readInt(PAGE_SIZE_OFFSET);
+            this.pageSize = storedPageSize == 0 ? Page.DEFAULT_PAGE_SIZE : storedPageSize;
+            if (!Page.isValidPageSize(pageSize)) {
+                throw new IOException("Corrupted database file header: invalid page size " + pageSize);
+            }
+            // 计算下一个可用页ID时，要减去文件头的大小
+            nextFreePageId.set((int) ((channel.size() - DB_FILE_HEADER_SIZE) / pageSize));
+        }
+        preallocatedLength = channel.size();
+        if (memoryMapped && nextFreePageId.get() > 0) {
+            ensureMapped(nextFreePageId.get() - 1);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            releaseExtents();
+            if (memoryMapped) {
+                force();
+                mappedRegions = new MappedByteBuffer[0];
+            }
+            // 预分配和内存映射都会让文件超出已分配的页，截断掉尚未分配的部分
+            channel.truncate((long) nextFreePageId.get() * pageSize + DB_FILE_HEADER_SIZE);
+            // 关闭前，将空闲链表的头指针持久化到文件头
+            writeInt(FREE_LIST_HEADER_POINTER_OFFSET, pageNumOf(freeListHead.get()));
+            channel.force(true);
+            channel.close();
+            channel = null;
+        }
+    }
+
+    @Override
+    public void delete() throws IOException {
+        if (channel != null) {
+            mappedRegions = new MappedByteBuffer[0];
+            channel.close();
+            channel = null;
+        }
+        Files.deleteIfExists(path);
+    }
+
+    @Override
+    public void writePage(int pageNum, ByteBuffer pageData) throws IOException {
+        if (memoryMapped) {
+            // 映射模式下读出的页面就是映射内存本身，修改已经在文件中；其他来源的页面复制进映射
+            if (!pageData.isDirect()) {
+                mappedRegionOf(pageNum).put(offsetInRegion(pageNum), pageData, 0, pageSize);
+            }
+            return;
+        }
+        // 写入页时，要加上文件头的偏移量
+        long offset = (long) pageNum * pageSize + DB_FILE_HEADER_SIZE;
+        // 使用独立的 position / limit，不影响页面缓冲区自身的状态
+        ByteBuffer data = pageData.duplicate().clear();
+        if (blockSize != 0 && !data.isDirect()) {
+            // 直接 I/O 模式下先复制到对齐的缓冲区
+            data = allocateIoBuffer(pageSize).put(0, data, 0, pageSize);
+        }
+        writeFully(data, offset);
+        bytesWritten.addAndGet(pageSize);
+        channel.force(false);
+    }
+
+    /**
+     * 把页面读入调用方提供的缓存帧 (容量为页大小、内容全 0)；内存映射模式下忽略缓存帧，直接返回映射内存上的视图。
+     */
+    @Override
+    public ByteBuffer readPage(int pageNum, ByteBuffer frame) throws IOException {
+        if (memoryMapped) {
+            return mappedRegionOf(pageNum).slice(offsetInRegion(pageNum), pageSize);
+        }
+        // 读取页时，也要加上文件头的偏移量
+        long offset = (long) pageNum * pageSize + DB_FILE_HEADER_SIZE;
+        // 超出文件末尾的部分保持全 0
+        readFully(frame.duplicate().clear(), offset);
+        bytesRead.addAndGet(pageSize);
+        return frame;
+    }
+
+    @Override
+    public int allocatePage() throws IOException {
+        while (true) {
+            long head = freeListHead.get();
+            int headPageNum = pageNumOf(head);
+            if (headPageNum == -1) {
+                return reservePages(1);
+            }
+            int nextFreeId = readFreePageNext(headPageNum);
+            if (freeListHead.compareAndSet(head, pack(versionOf(head) + 1, nextFreeId))) {
+                return headPageNum;
+            }
+        }
+    }
+
+    /**
+     * 为指定的段分配一页：在段当前的区内依次分配，区用完时从文件末尾预留新的连续区。
+     * 段的页不从空闲链表分配 (空闲页零散分布，会打断段内的连续性)。
+     */
+    @Override
+    public int allocatePage(String segment) throws IOException {
+        Extent extent = extents.computeIfAbsent(segment, s -> new Extent());
+        synchronized (extent) {
+            if (extent.next == extent.end) {
+                extent.next = reservePages(DiskManager.EXTENT_PAGES);
+                extent.end = extent.next + DiskManager.EXTENT_PAGES;
+            }
+            return extent.next++;
+        }
+    }
+
+    @Override
+    public void deallocatePage(int pageNum) throws IOException {
+        pushFreePage(pageNum);
+        if (!memoryMapped) {
+            channel.force(false);
+        }
+    }
+
+    private void pushFreePage(int pageNum) throws IOException {
+        while (true) {
+            long head = freeListHead.get();
+            // 先把当前链表头写进被释放的页，再尝试把它设为新的链表头
+            writeFreePageNext(pageNum, pageNumOf(head));
+            if (freeListHead.compareAndSet(head, pack(versionOf(head) + 1, pageNum))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 把各段预留但尚未使用的页挂回空闲链表 (按页号从小到大依次弹出)，避免关闭后丢失。
+     */
+    private void releaseExtents() throws IOException {
+        for (Extent extent : extents.values()) {
+            synchronized (extent) {
+                for (int pageNum = extent.end - 1; pageNum >= extent.next; pageNum--) {
+                    pushFreePage(pageNum);
+                }
+                extent.next = extent.end;
+            }
+        }
+        extents.clear();
+    }
+
+    /**
+     * 从文件末尾预留 count 个连续的新页，必要时扩展文件 (或映射)。
+     * 一个文件最多 PageId.MAX_FILE_PAGES 页，超出时页号无法编码进 PageId。
+     * @return 第一页的页号
+     */
+    private int reservePages(int count) throws IOException {
+        int start = nextFreePageId.getAndAdd(count);
+        if (start > PageId.MAX_FILE_PAGES - count) {
+            throw new IOException("Data file " + path + " is full (" + PageId.MAX_FILE_PAGES + " pages)");
+        }
+        if (memoryMapped) {
+            ensureMapped(start + count - 1);
+        } else if ((long) (start + count) * pageSize + DB_FILE_HEADER_SIZE > preallocatedLength) {
+            preallocate((long) (start + count) * pageSize + DB_FILE_HEADER_SIZE);
+        }
+        return start;
+    }
+
+    /**
+     * 用 0 填充的方式把文件扩展到至少 required 字节，按 PREALLOCATION_CHUNK 取整。
+     * 只填充当前文件末尾之后的部分，不会覆盖已写入的页面；预留的页在填充完成后才交给调用方。
+     */
+    private synchronized void preallocate(long required) throws IOException {
+        long length = Math.max(preallocatedLength, channel.size());
+        if (required > length) {
+            long chunks = (required - DB_FILE_HEADER_SIZE + PREALLOCATION_CHUNK - 1) / PREALLOCATION_CHUNK;
+            long target = DB_FILE_HEADER_SIZE + chunks * PREALLOCATION_CHUNK;
+            ByteBuffer zeros = allocateIoBuffer(1024 * 1024);
+            for (long position = length; position < target; position += zeros.capacity()) {
+                writeFully(zeros.clear().limit((int) Math.min(zeros.capacity(), target - position)), position);
+            }
+            length = target;
+        }
+        preallocatedLength = length;
+    }
+
+    private int readFreePageNext(int pageNum) throws IOException {
+        if (memoryMapped) {
+            return mappedRegionOf(pageNum).getInt(offsetInRegion(pageNum) + FREE_PAGE_NEXT_OFFSET);
+        }
+        return readInt((long) pageNum * pageSize + DB_FILE_HEADER_SIZE + FREE_PAGE_NEXT_OFFSET);
+    }
+
+    private void writeFreePageNext(int pageNum, int nextPageNum) throws IOException {
+        if (memoryMapped) {
+            mappedRegionOf(pageNum).putInt(offsetInRegion(pageNum) + FREE_PAGE_NEXT_OFFSET, nextPageNum);
+            return;
+        }
+        long offset = (long) pageNum * pageSize + DB_FILE_HEADER_SIZE;
+        if (offset >= channel.size()) {
+            // 从未写入过的页，先补齐整页，保证文件长度与已分配的页号一致
+            writeFully(allocateIoBuffer(pageSize), offset);
+        }
+        writeInt(offset + FREE_PAGE_NEXT_OFFSET, nextPageNum);
+    }
+
+    /**
+     * 把已修改的页面持久化到磁盘：映射模式下强制写回所有映射区，否则同步文件通道。
+     */
+    @Override
+    public void force() throws IOException {
+        if (!memoryMapped) {
+            channel.force(false);
+            return;
+        }
+        for (MappedByteBuffer region : mappedRegions) {
+            region.force();
+        }
+    }
+
+    private MappedByteBuffer mappedRegionOf(int pageNum) throws IOException {
+        int index = (int) ((long) pageNum * pageSize / MAPPED_REGION_SIZE);
+        MappedByteBuffer[] current = mappedRegions;
+        if (index >= current.length) {
+            ensureMapped(pageNum);
+            current = mappedRegions;
+        }
+        return current[index];
+    }
+
+    private int offsetInRegion(int pageNum) {
+        return (int) ((long) pageNum * pageSize % MAPPED_REGION_SIZE);
+    }
+
+    /**
+     * 扩展映射直到覆盖给定页；以读写方式映射超出文件末尾的区域时，文件会随之增长。
+     */
+    private synchronized void ensureMapped(int pageNum) throws IOException {
+        int needed = (int) ((long) pageNum * pageSize / MAPPED_REGION_SIZE) + 1;
+        MappedByteBuffer[] current = mappedRegions;
+        if (needed <= current.length) {
+            return;
+        }
+        MappedByteBuffer[] grown = Arrays.copyOf(current, needed);
+        for (int i = current.length; i < needed; i++) {
+            grown[i] = channel.map(FileChannel.MapMode.READ_WRITE,
+                    DB_FILE_HEADER_SIZE + i * MAPPED_REGION_SIZE, MAPPED_REGION_SIZE);
+        }
+        mappedRegions = grown;
+    }
+
+    /**
+     * 读取文件中的一个整数；直接 I/O 模式下读出它所在的整个块。
+     */
+    private int readInt(long position) throws IOException {
+        if (blockSize == 0) {
+            ByteBuffer value = ByteBuffer.allocate(4);
+            readFully(value, position);
+            return value.getInt(0);
+        }
+        long blockStart = position - position % blockSize;
+        ByteBuffer block = allocateIoBuffer(blockSize);
+        readFully(block, blockStart);
+        return block.getInt((int) (position - blockStart));
+    }
+
+    /**
+     * 写入文件中的一个整数；直接 I/O 模式下按整块读出、修改、写回。
+     * 同一个块中的字段 (文件头、空闲页的链接) 不会被并发修改，因此读改写不需要额外加锁。
+     */
+    private void writeInt(long position, int value) throws IOException {
+        if (blockSize == 0) {
+            writeFully(ByteBuffer.allocate(4).putInt(0, value), position);
+            return;
+        }
+        long blockStart = position - position % blockSize;
+        ByteBuffer block = allocateIoBuffer(blockSize);
+        readFully(block, blockStart);
+        block.putInt((int) (position - blockStart), value);
+        writeFully(block.clear(), blockStart);
+    }
+
+    /**
+     * 分配一个可以直接用于文件读写的缓冲区，直接 I/O 模式下按块大小对齐。
+     */
+    @Override
+    public ByteBuffer allocateIoBuffer(int size) {
+        if (blockSize == 0) {
+            return ByteBuffer.allocate(size);
+        }
+        return ByteBuffer.allocateDirect(size + blockSize).alignedSlice(blockSize).slice(0, size);
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                // 文件末尾之后的部分视为全 0
+                break;
+            }
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    private static long pack(int version, int pageNum) {
+        return ((long) version << 32) | (pageNum & 0xFFFFFFFFL);
+    }
+
+    private static int versionOf(long head) {
+        return (int) (head >>> 32);
+    }
+
+    private static int pageNumOf(long head) {
+        return (int) head;
+    }
+
+    @Override
+    public int getFileId() {
+        return fileId;
+    }
+
+    @Override
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    @Override
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * 已分配 (包括各段预留) 的页数，即下一个新页的页号。
+     */
+    @Override
+    public int getAllocatedPageCount() {
+        return nextFreePageId.get();
+    }
+
+    @Override
+    public long getFileLength() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public boolean isMemoryMapped() {
+        return memoryMapped;
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+}
@@ -5,115 +5,491 @@ import org.csu.sdolp.storage.page.PageId;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.RandomAccessFile;
-
-import static org.csu.sdolp.storage.page.Page.PAGE_SIZE;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 磁盘管理器，封装底层的文件读写操作。
+ * 数据库由一个主文件 (文件 0，保存系统表、溢出页和未指定段的页) 和若干表空间文件组成，
+ * 页面由 PageId 中的文件编号路由到对应的文件 (见 DataFile)，每个文件有自己的文件头、空闲链表和通道。
+ * 建表时可以为表的表空间文件指定页面压缩 (见 CompressedPageFile)，页面在写回时压缩、读入时解压。
+ * 页大小在创建数据库文件时确定并记录在文件头中，之后打开文件时以文件头为准。
+ * <p>
+ * 启用按段分文件 (setFilePerSegment) 后，每张表和每个索引的页保存在自己的表空间文件中：
+ * 不同表的读写和 fsync 落在不同的文件上互不影响，DROP TABLE 直接删除文件即可回收全部空间，
+ * 单张表也可以按文件单独备份。文件编号与段名的对应关系保存在主文件旁的 .tablespaces 文件中，
+ * 文件编号只增不减，被删除的编号不会复用给其他段。未启用时 (或文件编号用完时) 各段的页在主文件中按区分配。
+ * 无论是否启用，打开时都会加载已有的表空间文件。
+ * <p>
+ * 内存映射模式下，readPage 返回直接建立在映射内存上的页面视图，操作系统的页缓存就是唯一的缓存，
+ * 适合批量写入、白天只读查询的报表库。直接 I/O 模式下页面读写绕过操作系统页缓存，
+ * 缓存池可以按接近物理内存的大小配置而不与内核缓存争抢内存；缓存池中页面的缓冲区由 FrameAllocator 对齐分配。
  */
 public class DiskManager {
-    private final String dbFilePath;
-    private RandomAccessFile dbFile;
+    // 按段分配时每次预留的连续页数
+    public static final int EXTENT_PAGES = 64;
+    private static final String TABLESPACES_SUFFIX = ".tablespaces";
+    private static final String NEXT_FILE_ID_KEY = "next.file.id";
+    private static final String COMPRESSION_KEY_SUFFIX = ".compression";
+
+    /**
+     * 数据文件的访问方式。
+     */
+    public enum IoMode {
+        /** 经操作系统页缓存的定位读写 */
+        BUFFERED,
+        /** 内存映射，页面直接建立在映射内存上 */
+        MEMORY_MAPPED,
+        /** O_DIRECT，绕过操作系统页缓存 */
+        DIRECT
+    }
 
-    // 预留 4KB 作为文件头，专门用于存储元数据
-    private static final int DB_FILE_HEADER_SIZE = 4096;
-    private static final long FREE_LIST_HEADER_POINTER_OFFSET = 0;
+    private final String dbFilePath;
+    private final IoMode ioMode;
+    private final boolean memoryMapped;
+    private int pageSize;
+    private DataFile mainFile;
 
-    private int freeListHeadPageId = -1;
-    private int nextFreePageId = 0;
+    // 按文件编号索引的已打开文件，下标 0 为主文件；只在持有锁时整体替换，读写页面时无锁读取
+    private volatile PageFile[] files = new PageFile[0];
+    // 段名 -> 表空间文件编号
+    private final Map<String, Integer> segmentFileIds = new ConcurrentHashMap<>();
+    // 段名 -> 表空间文件的压缩方式
+    private final Map<String, PageCompression> segmentCompressions = new ConcurrentHashMap<>();
+    private volatile int nextFileId = 1;
+    private volatile boolean filePerSegment = false;
 
     public DiskManager(String dbFilePath) {
-        this.dbFilePath = dbFilePath;
+        this(dbFilePath, Page.DEFAULT_PAGE_SIZE);
     }
 
-    public void open() throws IOException {
-        File file = new File(dbFilePath);
+    /**
+     * @param pageSize 创建新文件时使用的页大小；打开已有文件时忽略，以文件头中记录的为准
+     */
+    public DiskManager(String dbFilePath, int pageSize) {
+        this(dbFilePath, pageSize, IoMode.BUFFERED);
+    }
 
-        File parentDir = file.getParentFile();
-        if (parentDir != null && !parentDir.exists()) {
-            parentDir.mkdirs();
+    /**
+     * @param ioMode 数据文件的访问方式
+     */
+    public DiskManager(String dbFilePath, int pageSize, IoMode ioMode) {
+        if (!Page.isValidPageSize(pageSize)) {
+            throw new IllegalArgumentException("Unsupported page size: " + pageSize);
         }
+        this.dbFilePath = dbFilePath;
+        this.pageSize = pageSize;
+        this.ioMode = ioMode;
+        this.memoryMapped = ioMode == IoMode.MEMORY_MAPPED;
+    }
+
+    /**
+     * 新建的段是否各自使用一个表空间文件 (默认否)，只影响之后新建的段。
+     */
+    public void setFilePerSegment(boolean filePerSegment) {
+        this.filePerSegment = filePerSegment;
+    }
 
+    public synchronized void open() throws IOException {
+        File file = new File(dbFilePath);
         boolean isNewFile = !file.exists() || file.length() == 0;
+        mainFile = new DataFile(0, file.toPath(), pageSize, ioMode);
+        mainFile.open();
+        this.pageSize = mainFile.getPageSize();
+        files = new PageFile[]{mainFile};
 
-        if (!file.exists()) {
-            file.createNewFile();
+        Path tablespaces = tablespacesPath();
+        if (isNewFile) {
+            // 新建的主文件不引用任何表空间文件，清理同名旧数据库残留的文件
+            deleteTablespaceFiles(tablespaces);
+            return;
+        }
+        if (!Files.exists(tablespaces)) {
+            return;
         }
-        this.dbFile = new RandomAccessFile(file, "rw");
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(tablespaces)) {
+            properties.load(in);
+        }
+        nextFileId = Integer.parseInt(properties.getProperty(NEXT_FILE_ID_KEY, "1"));
+        for (String key : properties.stringPropertyNames()) {
+            if (key.equals(NEXT_FILE_ID_KEY)) {
+                continue;
+            }
+            if (key.endsWith(COMPRESSION_KEY_SUFFIX)) {
+                continue;
+            }
+            int fileId = Integer.parseInt(key);
+            String segment = properties.getProperty(key);
+            PageCompression compression = PageCompression.valueOf(
+                    properties.getProperty(key + COMPRESSION_KEY_SUFFIX, PageCompression.NONE.name()));
+            PageFile segmentFile = newSegmentFile(fileId, segment, compression);
+            segmentFile.open();
+            if (segmentFile.getPageSize() != pageSize) {
+                segmentFile.close();
+                throw new IOException("Tablespace file " + segmentFile.getPath() + " uses page size "
+                        + segmentFile.getPageSize() + ", but the database uses " + pageSize);
+            }
+            register(segmentFile);
+            segmentFileIds.put(segment, fileId);
+            segmentCompressions.put(segment, compression);
+        }
+    }
 
-        if (isNewFile) {
-            // 如果是新文件，写入一个完整的、内容为0的文件头
-            byte[] header = new byte[DB_FILE_HEADER_SIZE];
-            dbFile.write(header);
-            // 在文件头内写入空闲链表指针
-            dbFile.seek(FREE_LIST_HEADER_POINTER_OFFSET);
-            dbFile.writeInt(freeListHeadPageId);
-            // 数据页从0开始分配，因为不再与文件头冲突
-            this.nextFreePageId = 0;
-        } else {
-            // 如果是现有文件，从文件头读取指针
-            dbFile.seek(FREE_LIST_HEADER_POINTER_OFFSET);
-            this.freeListHeadPageId = dbFile.readInt();
-            // 计算下一个可用页ID时，要减去文件头的大小
-            this.nextFreePageId = (int) ((dbFile.length() - DB_FILE_HEADER_SIZE) / PAGE_SIZE);
-        }
-    }
-
-    public void close() throws IOException {
-        if (dbFile != null) {
-            // 关闭前，将空闲链表的头指针持久化到文件头
-            dbFile.seek(FREE_LIST_HEADER_POINTER_OFFSET);
-            dbFile.writeInt(freeListHeadPageId);
-            dbFile.getFD().sync();
-            dbFile.close();
-            dbFile = null;
+    public synchronized void close() throws IOException {
+        if (mainFile == null) {
+            return;
+        }
+        for (PageFile file : files) {
+            if (file != null && file != mainFile) {
+                file.close();
+            }
         }
+        mainFile.close();
+        mainFile = null;
+        files = new PageFile[0];
+        segmentFileIds.clear();
+        segmentCompressions.clear();
     }
 
+    /**
+     * 写入页面；已删除的表空间文件中的页面直接丢弃。
+     */
     public void writePage(Page page) throws IOException {
-        // 写入页时，要加上文件头的偏移量
-        long offset = (long) page.getPageId().getPageNum() * PAGE_SIZE + DB_FILE_HEADER_SIZE;
-        dbFile.seek(offset);
-        dbFile.write(page.getData().array());
-        dbFile.getFD().sync();
+        PageId pageId = page.getPageId();
+        PageFile file = fileOf(pageId);
+        if (file != null) {
+            file.writePage(pageId.getFilePageNum(), page.getData());
+        }
     }
 
     public Page readPage(PageId pageId) throws IOException {
-        // 读取页时，也要加上文件头的偏移量
-        long offset = (long) pageId.getPageNum() * PAGE_SIZE + DB_FILE_HEADER_SIZE;
-        byte[] pageData = new byte[PAGE_SIZE];
+        PageFile file = fileOf(pageId);
+        if (file == null) {
+            return new Page(pageId, mainFile.allocateIoBuffer(pageSize));
+        }
+        // 内存映射的文件不需要缓存帧
+        ByteBuffer frame = file.isMemoryMapped() ? null : file.allocateIoBuffer(pageSize);
+        return new Page(pageId, file.readPage(pageId.getFilePageNum(), frame));
+    }
+
+    /**
+     * 把页面读入调用方提供的缓存帧 (容量为页大小、内容全 0)；内存映射模式下忽略缓存帧，直接返回映射内存上的视图。
+     * 已删除的表空间文件中的页面与文件末尾之后的页面一样读作全 0。
+     */
+    public Page readPage(PageId pageId, ByteBuffer frame) throws IOException {
+        PageFile file = fileOf(pageId);
+        if (file == null) {
+            return new Page(pageId, frame);
+        }
+        return new Page(pageId, file.readPage(pageId.getFilePageNum(), frame));
+    }
+
+    /**
+     * 在主文件中分配一页，优先重用空闲链表中的页。
+     */
+    public PageId allocatePage() throws IOException {
+        return new PageId(mainFile.allocatePage());
+    }
+
+    /**
+     * 为指定的段 (表或索引) 分配一页：段有自己的表空间文件时从该文件分配 (优先重用文件中被释放的页)，
+     * 否则在主文件中按区连续分配；segment 为 null 时等同于 allocatePage()。
+     */
+    public PageId allocatePage(String segment) throws IOException {
+        if (segment == null) {
+            return allocatePage();
+        }
+        PageFile segmentFile = segmentFileOf(segment);
+        if (segmentFile == null) {
+            return new PageId(mainFile.allocatePage(segment));
+        }
+        return new PageId(segmentFile.getFileId(), segmentFile.allocatePage());
+    }
+
+    public void deallocatePage(PageId pageId) throws IOException {
+        PageFile file = fileOf(pageId);
+        if (file != null) {
+            file.deallocatePage(pageId.getFilePageNum());
+        }
+    }
+
+    /**
+     * 删除段的表空间文件，文件中的页全部回收；段没有自己的文件时不做任何事并返回 false。
+     * 调用方需保证不再有对这些页的引用 (缓存池先丢弃它们，见 BufferPoolManager.dropSegment)。
+     */
+    public synchronized boolean dropSegment(String segment) throws IOException {
+        Integer fileId = segmentFileIds.remove(segment);
+        if (fileId == null) {
+            return false;
+        }
+        segmentCompressions.remove(segment);
+        PageFile segmentFile = files[fileId];
+        PageFile[] remaining = files.clone();
+        remaining[fileId] = null;
+        files = remaining;
+        saveTablespaces();
+        segmentFile.delete();
+        return true;
+    }
+
+    /**
+     * 段所在的表空间文件编号，段没有自己的文件时返回 -1。
+     */
+    public int getSegmentFileId(String segment) {
+        Integer fileId = segmentFileIds.get(segment);
+        return fileId == null ? -1 : fileId;
+    }
+
+    /**
+     * 拥有自己表空间文件的所有段。
+     */
+    public Set<String> getSegmentNames() {
+        return Set.copyOf(segmentFileIds.keySet());
+    }
+
+    /**
+     * 段的表空间文件，段没有自己的文件时返回 null。
+     */
+    public File getSegmentFile(String segment) {
+        Integer fileId = segmentFileIds.get(segment);
+        return fileId == null ? null : files[fileId].getPath().toFile();
+    }
+
+    /**
+     * 把已修改的页面持久化到磁盘：映射模式下强制写回所有映射区，否则同步文件通道。
+     */
+    public void force() throws IOException {
+        for (PageFile file : files) {
+            if (file != null) {
+                file.force();
+            }
+        }
+    }
 
-        if (offset >= dbFile.length()) {
-            return new Page(pageId, pageData);
+    /**
+     * 页所在的文件；页属于已删除的表空间文件时返回 null (例如恢复时重放已删除表的日志)。
+     */
+    private PageFile fileOf(PageId pageId) throws IOException {
+        int fileId = pageId.getFileId();
+        PageFile[] current = files;
+        PageFile file = fileId < current.length ? current[fileId] : null;
+        if (file == null && (fileId == 0 || fileId >= nextFileId)) {
+            throw new IOException("Page " + pageId.getPageNum() + " belongs to tablespace file " + fileId
+                    + ", which does not exist");
         }
-        dbFile.seek(offset);
-        dbFile.readFully(pageData);
-        return new Page(pageId, pageData);
+        return file;
     }
 
-    public synchronized PageId allocatePage() throws IOException {
-        if (freeListHeadPageId != -1) {
-            int reusedPageNum = freeListHeadPageId;
-            PageId reusedPageId = new PageId(reusedPageNum);
-            Page reusedPage = readPage(reusedPageId);
-            int nextFreeId = reusedPage.getData().getInt(0);
-            freeListHeadPageId = nextFreeId;
-            return reusedPageId;
-        } else {
-            return new PageId(nextFreePageId++);
+    private PageFile segmentFileOf(String segment) throws IOException {
+        Integer fileId = segmentFileIds.get(segment);
+        if (fileId != null) {
+            return files[fileId];
         }
+        return filePerSegment ? createSegmentFile(segment, PageCompression.NONE) : null;
+    }
+
+    /**
+     * 为段预先创建使用指定压缩方式的表空间文件，应在段分配第一页之前调用。
+     * 段已经有文件、未启用按段分文件或文件编号用完时不做任何事并返回 false (段的页不压缩)。
+     */
+    public synchronized boolean createSegment(String segment, PageCompression compression) throws IOException {
+        if (!filePerSegment || segmentFileIds.containsKey(segment)) {
+            return false;
+        }
+        return createSegmentFile(segment, compression) != null;
+    }
+
+    /**
+     * 为段创建表空间文件并记录到 .tablespaces 文件中；文件编号用完时返回 null，段改在主文件中分配。
+     */
+    private synchronized PageFile createSegmentFile(String segment, PageCompression compression) throws IOException {
+        Integer existing = segmentFileIds.get(segment);
+        if (existing != null) {
+            return files[existing];
+        }
+        if (nextFileId > PageId.MAX_FILE_ID) {
+            return null;
+        }
+        int fileId = nextFileId++;
+        PageFile segmentFile = newSegmentFile(fileId, segment, compression);
+        Files.deleteIfExists(segmentFile.getPath());
+        segmentFile.open();
+        register(segmentFile);
+        segmentFileIds.put(segment, fileId);
+        segmentCompressions.put(segment, compression);
+        // 先记录文件编号，再让调用方在页面中引用它
+        saveTablespaces();
+        return segmentFile;
+    }
+
+    private PageFile newSegmentFile(int fileId, String segment, PageCompression compression) {
+        Path path = segmentFilePath(fileId, segment);
+        if (compression == PageCompression.NONE) {
+            return new DataFile(fileId, path, pageSize, ioMode);
+        }
+        return new CompressedPageFile(fileId, path, pageSize, compression);
+    }
+
+    private void register(PageFile file) {
+        PageFile[] current = files;
+        PageFile[] grown = current.length > file.getFileId() ? current.clone() : Arrays.copyOf(current, file.getFileId() + 1);
+        grown[file.getFileId()] = file;
+        files = grown;
+    }
+
+    /**
+     * 写入文件编号与段名的对应关系：先写临时文件再原子地替换，中途崩溃不会留下半个文件。
+     */
+    private void saveTablespaces() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(NEXT_FILE_ID_KEY, String.valueOf(nextFileId));
+        segmentFileIds.forEach((segment, fileId) -> {
+            properties.setProperty(String.valueOf(fileId), segment);
+            PageCompression compression = segmentCompressions.getOrDefault(segment, PageCompression.NONE);
+            if (compression != PageCompression.NONE) {
+                properties.setProperty(fileId + COMPRESSION_KEY_SUFFIX, compression.name());
+            }
+        });
+        Path tablespaces = tablespacesPath();
+        Path temp = tablespaces.resolveSibling(tablespaces.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            properties.store(out, "tablespace file id -> segment");
+        }
+        Files.move(temp, tablespaces, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void deleteTablespaceFiles(Path tablespaces) throws IOException {
+        if (!Files.exists(tablespaces)) {
+            return;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(tablespaces)) {
+            properties.load(in);
+        }
+        for (String key : properties.stringPropertyNames()) {
+            if (!key.equals(NEXT_FILE_ID_KEY) && !key.endsWith(COMPRESSION_KEY_SUFFIX)) {
+                Path path = segmentFilePath(Integer.parseInt(key), properties.getProperty(key));
+                Files.deleteIfExists(path);
+                Files.deleteIfExists(path.resolveSibling(path.getFileName() + ".map"));
+            }
+        }
+        Files.delete(tablespaces);
+    }
+
+    private Path tablespacesPath() {
+        return Path.of(dbFilePath + TABLESPACES_SUFFIX);
+    }
+
+    /**
+     * 表空间文件与主文件在同一目录下，以主文件名、文件编号和段名命名，例如 minidb.3.table_orders.tbs。
+     */
+    private Path segmentFilePath(int fileId, String segment) {
+        Path mainPath = Path.of(dbFilePath);
+        String mainName = mainPath.getFileName().toString();
+        int dot = mainName.lastIndexOf('.');
+        String baseName = dot > 0 ? mainName.substring(0, dot) : mainName;
+        String fileName = baseName + "." + fileId + "." + segment.replaceAll("[^A-Za-z0-9_]", "_") + ".tbs";
+        return mainPath.resolveSibling(fileName);
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public boolean isMemoryMapped() {
+        return memoryMapped;
+    }
+
+    /**
+     * 页面所在的文件是否为内存映射：内存映射模式下，压缩的表空间文件仍按普通方式读写，页面需要经缓存池缓存和写回。
+     */
+    public boolean isMemoryMapped(PageId pageId) throws IOException {
+        if (!memoryMapped) {
+            return false;
+        }
+        PageFile file = fileOf(pageId);
+        return file != null && file.isMemoryMapped();
+    }
+
+    /**
+     * 段的表空间文件的压缩方式，段没有自己的文件时为 NONE。
+     */
+    public PageCompression getSegmentCompression(String segment) {
+        return segmentCompressions.getOrDefault(segment, PageCompression.NONE);
+    }
+
+    /**
+     * 所有数据文件读页时读取的字节数 (压缩文件按压缩后的大小计)。
+     */
+    public long getBytesRead() {
+        long bytes = 0;
+        for (PageFile file : files) {
+            if (file != null) {
+                bytes += file.getBytesRead();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 所有数据文件写页时写入的字节数 (压缩文件按压缩后的大小计)。
+     */
+    public long getBytesWritten() {
+        long bytes = 0;
+        for (PageFile file : files) {
+            if (file != null) {
+                bytes += file.getBytesWritten();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 页面所在文件中已分配 (包括各段预留) 的页数；文件已被删除时为 0。
+     */
+    public int getAllocatedPageCount(PageId pageId) throws IOException {
+        PageFile file = fileOf(pageId);
+        return file == null ? 0 : file.getAllocatedPageCount();
+    }
+
+    /**
+     * 所有数据文件中已分配 (包括各段预留) 的页数之和。
+     */
+    public int getAllocatedPageCount() {
+        int count = 0;
+        for (PageFile file : files) {
+            if (file != null) {
+                count += file.getAllocatedPageCount();
+            }
+        }
+        return count;
+    }
+
+    public IoMode getIoMode() {
+        return ioMode;
     }
 
-    public synchronized void deallocatePage(PageId pageId) throws IOException {
-        int deallocatedPageNum = pageId.getPageNum();
-        Page page = readPage(pageId);
-        page.getData().putInt(0, freeListHeadPageId);
-        writePage(page);
-        freeListHeadPageId = deallocatedPageNum;
+    /**
+     * 直接 I/O 模式下缓冲区需要对齐的字节数 (文件系统块大小)，其他模式为 0。
+     */
+    public int getBlockSize() {
+        return mainFile == null ? 0 : mainFile.getBlockSize();
     }
 
+    /**
+     * 主文件的长度。
+     */
     public long getFileLength() throws IOException {
-        return dbFile.length();
+        return mainFile.getFileLength();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,70 @@
+package org.csu.sdolp.storage.disk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 表空间文件的页面压缩方式 (CREATE TABLE ... WITH (compression = ...))。
+ * 使用 JDK 自带的 Deflate (java.util.zip)，每个线程复用自己的 Deflater / Inflater，避免每页重新分配 zlib 的状态。
+ */
+public enum PageCompression {
+    /** 不压缩，页面按固定大小的槽存放 */
+    NONE(0),
+    /** Deflate 最快级别，压缩率略低、CPU 开销小 */
+    DEFLATE_FAST(Deflater.BEST_SPEED),
+    /** Deflate 默认级别 */
+    DEFLATE(Deflater.DEFAULT_COMPRESSION);
+
+    private static final ThreadLocal<Inflater> INFLATERS = ThreadLocal.withInitial(Inflater::new);
+
+    private final int level;
+    private final ThreadLocal<Deflater> deflaters = ThreadLocal.withInitial(this::newDeflater);
+
+    PageCompression(int level) {
+        this.level = level;
+    }
+
+    private Deflater newDeflater() {
+        return new Deflater(level);
+    }
+
+    /**
+     * 压缩一个页面 (整个缓冲区) 到 out，返回压缩后的长度；压缩后放不进 out 时返回 -1。
+     */
+    public int compress(ByteBuffer page, byte[] out) {
+        Deflater deflater = deflaters.get();
+        deflater.reset();
+        deflater.setInput(page.duplicate().clear());
+        deflater.finish();
+        int length = deflater.deflate(out, 0, out.length);
+        return deflater.finished() ? length : -1;
+    }
+
+    /**
+     * 把 compress 的结果解压到页面缓冲区 (整个缓冲区)。
+     */
+    public void decompress(byte[] in, int length, ByteBuffer frame) throws IOException {
+        Inflater inflater = INFLATERS.get();
+        inflater.reset();
+        inflater.setInput(in, 0, length);
+        try {
+            int inflated = inflater.inflate(frame.duplicate().clear());
+            if (inflated != frame.capacity() || !inflater.finished()) {
+                throw new IOException("Corrupted compressed page: inflated " + inflated + " of " + frame.capacity() + " bytes");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted compressed page", e);
+        }
+    }
+
+    /**
+     * 按名称 (不区分大小写) 查找压缩方式。
+     * @throws IllegalArgumentException 名称不合法时
+     */
+    public static PageCompression fromName(String name) {
+        return valueOf(name.toUpperCase());
+    }
+}
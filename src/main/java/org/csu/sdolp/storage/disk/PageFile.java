@@ -0,0 +1,80 @@
+package org.csu.sdolp.storage.disk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * 一个数据文件 (主文件或表空间文件) 的页读写，页号都是文件内的页号。
+ * DataFile 按固定大小的页槽存放页面；CompressedPageFile 把页面压缩后存放在变长的槽中。
+ */
+interface PageFile {
+
+    void open() throws IOException;
+
+    void close() throws IOException;
+
+    /**
+     * 关闭并删除文件，文件中的页面全部丢弃。
+     */
+    void delete() throws IOException;
+
+    /**
+     * 把页面读入调用方提供的缓存帧 (容量为页大小、内容全 0)，返回保存页面内容的缓冲区。
+     */
+    ByteBuffer readPage(int pageNum, ByteBuffer frame) throws IOException;
+
+    void writePage(int pageNum, ByteBuffer pageData) throws IOException;
+
+    /**
+     * 分配一页，优先重用被释放的页。
+     */
+    int allocatePage() throws IOException;
+
+    /**
+     * 为指定的段分配一页。
+     */
+    int allocatePage(String segment) throws IOException;
+
+    void deallocatePage(int pageNum) throws IOException;
+
+    /**
+     * 把已写入的页面持久化到磁盘。
+     */
+    void force() throws IOException;
+
+    /**
+     * 分配一个可以直接用于文件读写的缓冲区。
+     */
+    ByteBuffer allocateIoBuffer(int size);
+
+    /**
+     * readPage 是否返回映射内存上的视图 (对它的修改直接写入文件)。
+     */
+    boolean isMemoryMapped();
+
+    int getFileId();
+
+    Path getPath();
+
+    int getPageSize();
+
+    int getBlockSize();
+
+    /**
+     * 已分配的页数，即下一个新页的页号。
+     */
+    int getAllocatedPageCount();
+
+    long getFileLength() throws IOException;
+
+    /**
+     * 读页时从文件中读取的字节数。
+     */
+    long getBytesRead();
+
+    /**
+     * 写页时写入文件的字节数。
+     */
+    long getBytesWritten();
+}
@@ -17,11 +17,21 @@ public class BPlusTree {
     private int rootPageId;
     private final BufferPoolManager bufferPoolManager;
     private final Comparator<Value> keyComparator;
+    // 新节点页所在的存储段，为 null 时按单页分配
+    private final String segment;
 
     public BPlusTree(BufferPoolManager bufferPoolManager, int rootPageId) {
+        this(bufferPoolManager, rootPageId, null);
+    }
+
+    /**
+     * @param segment 索引的存储段 (见 IndexInfo.getSegmentName)，分裂产生的新节点在该段的区内连续分配
+     */
+    public BPlusTree(BufferPoolManager bufferPoolManager, int rootPageId, String segment) {
         this.bufferPoolManager = bufferPoolManager;
         this.rootPageId = rootPageId;
         this.keyComparator = Comparator.comparingInt(v -> (Integer) v.getValue());
+        this.segment = segment;
     }
 
     public int getRootPageId() {
@@ -87,7 +97,7 @@ public class BPlusTree {
             tempKeys.add(index, key);
             tempRids.add(index, rid);
 
-            Page newPage = bufferPoolManager.newPage();
+            Page newPage = bufferPoolManager.newPage(segment);
             BPlusTreeLeafPage newLeafNode = new BPlusTreeLeafPage(newPage);
             newLeafNode.init(newPage.getPageId().getPageNum(), leafNode.getParentPageId());
 
@@ -101,6 +111,86 @@ public class BPlusTree {
         }
     }
 
+    /**
+     * 自底向上构建空树：按键的升序把条目依次写满叶子页并串成叶子链表，再逐层向上构建内部节点，
+     * 每层的条目平均分到该层的各节点中，不会产生低于半满的节点。
+     * 与 insert 一样，重复的键只保留第一个。构建后根页会变化，调用方需要更新目录中的根页号。
+     * @param entries 按键升序排列的条目
+     */
+    public void bulkLoad(List<KeyValuePair> entries) throws IOException {
+        if (!isEmpty()) {
+            throw new IllegalStateException("Bulk load requires an empty B+ tree.");
+        }
+        List<KeyValuePair> unique = new ArrayList<>(entries.size());
+        for (KeyValuePair entry : entries) {
+            if (unique.isEmpty() || keyComparator.compare(unique.get(unique.size() - 1).key(), entry.key()) != 0) {
+                unique.add(entry);
+            }
+        }
+        if (unique.isEmpty()) {
+            return;
+        }
+
+        // 1. 叶子层：第一个叶子沿用当前 (空的) 根页
+        List<Integer> level = new ArrayList<>();
+        List<Value> lowKeys = new ArrayList<>();
+        Page rootPage = bufferPoolManager.getPage(new PageId(rootPageId));
+        int leafCapacity = new BPlusTreeLeafPage(rootPage).getMaxSize();
+        int leafCount = (unique.size() + leafCapacity - 1) / leafCapacity;
+        int from = 0;
+        for (int i = 0; i < leafCount; i++) {
+            int to = from + (unique.size() - from + leafCount - i - 1) / (leafCount - i);
+            int pageId = i == 0 ? rootPageId : bufferPoolManager.newPage(segment).getPageId().getPageNum();
+            if (!level.isEmpty()) {
+                BPlusTreeLeafPage previous = (BPlusTreeLeafPage) getNode(level.get(level.size() - 1));
+                previous.setNextLeafPageId(pageId);
+                bufferPoolManager.flushPage(previous.page.getPageId());
+            }
+            BPlusTreeLeafPage leaf = new BPlusTreeLeafPage(bufferPoolManager.getPage(new PageId(pageId)));
+            leaf.init(pageId, -1);
+            for (int j = from; j < to; j++) {
+                leaf.insertAtEnd(unique.get(j).key(), unique.get(j).rid());
+            }
+            bufferPoolManager.flushPage(leaf.page.getPageId());
+            level.add(pageId);
+            lowKeys.add(unique.get(from).key());
+            from = to;
+        }
+
+        // 2. 内部层：每个节点的键是除第一个子节点外各子节点子树中的最小键
+        while (level.size() > 1) {
+            List<Integer> parents = new ArrayList<>();
+            List<Value> parentLowKeys = new ArrayList<>();
+            Page firstParentPage = bufferPoolManager.newPage(segment);
+            int fanout = new BPlusTreeInternalPage(firstParentPage).getMaxSize() + 1;
+            int nodeCount = (level.size() + fanout - 1) / fanout;
+            from = 0;
+            for (int i = 0; i < nodeCount; i++) {
+                int to = from + (level.size() - from + nodeCount - i - 1) / (nodeCount - i);
+                Page page = i == 0 ? firstParentPage : bufferPoolManager.newPage(segment);
+                int pageId = page.getPageId().getPageNum();
+                BPlusTreeInternalPage node = new BPlusTreeInternalPage(page);
+                node.init(pageId, -1);
+                node.setChildPageId(0, level.get(from));
+                for (int j = from + 1; j < to; j++) {
+                    node.insertAtEnd(lowKeys.get(j), level.get(j));
+                }
+                bufferPoolManager.flushPage(page.getPageId());
+                for (int j = from; j < to; j++) {
+                    BPlusTreeNodePage child = getNode(level.get(j));
+                    child.setParentPageId(pageId);
+                    bufferPoolManager.flushPage(child.page.getPageId());
+                }
+                parents.add(pageId);
+                parentLowKeys.add(lowKeys.get(from));
+                from = to;
+            }
+            level = parents;
+            lowKeys = parentLowKeys;
+        }
+        this.rootPageId = level.get(0);
+    }
+
     private void startNewTree(Value key, RID rid) throws IOException {
         BPlusTreeLeafPage rootNode = (BPlusTreeLeafPage) getNode(rootPageId);
         rootNode.init(rootPageId, -1);
@@ -128,7 +218,7 @@ public class BPlusTree {
 
     private void insertIntoParent(BPlusTreeNodePage leftChild, Value key, BPlusTreeNodePage rightChild) throws IOException {
         if (leftChild.getParentPageId() == -1) {
-            Page newRootPage = bufferPoolManager.newPage();
+            Page newRootPage = bufferPoolManager.newPage(segment);
             BPlusTreeInternalPage newRoot = new BPlusTreeInternalPage(newRootPage);
             newRoot.init(newRootPage.getPageId().getPageNum(), -1);
             newRoot.populate(leftChild.page.getPageId().getPageNum(), key, rightChild.page.getPageId().getPageNum());
@@ -149,7 +239,7 @@ public class BPlusTree {
             parentNode.insert(key, rightChild.page.getPageId().getPageNum());
             bufferPoolManager.flushPage(parentNode.page.getPageId());
         } else {
-            Page newInternalPage = bufferPoolManager.newPage();
+            Page newInternalPage = bufferPoolManager.newPage(segment);
             BPlusTreeInternalPage newInternalNode = new BPlusTreeInternalPage(newInternalPage);
             newInternalNode.init(newInternalPage.getPageId().getPageNum(), parentNode.getParentPageId());
 
@@ -363,6 +453,22 @@ public class BPlusTree {
         }
     }
 
+    /**
+     * 索引页的子节点页号，叶子页 (包括尚未插入任何键的空根页) 返回空列表。
+     * 供后台回收整棵树时逐层展开 (见 HeapVacuum.reclaimIndex)。
+     */
+    public static List<Integer> getChildPageIds(Page page) {
+        if (new BPlusTreeLeafPage(page).getNodeType() == BPlusTreeNodePage.NodeType.LEAF) {
+            return List.of();
+        }
+        BPlusTreeInternalPage internal = new BPlusTreeInternalPage(page);
+        List<Integer> children = new ArrayList<>();
+        for (int i = 0; i <= internal.getKeyCount(); i++) {
+            children.add(internal.getChildPageId(i));
+        }
+        return children;
+    }
+
     public void printTree() throws IOException {
         if (isEmpty() || rootPageId == -1) {
             System.out.println("Tree is empty.");
@@ -17,7 +17,7 @@ public class BPlusTreeInternalPage extends BPlusTreeNodePage {
 
     public BPlusTreeInternalPage(Page page) {
         super(page);
-        this.maxSize = (Page.PAGE_SIZE - PAYLOAD_OFFSET - POINTER_SIZE) / ENTRY_SIZE;
+        this.maxSize = (page.getPageSize() - PAYLOAD_OFFSET - POINTER_SIZE) / ENTRY_SIZE;
         this.keyComparator = Comparator.comparingInt(v -> (Integer) v.getValue());
     }
 
@@ -94,7 +94,7 @@ public class BPlusTreeInternalPage extends BPlusTreeNodePage {
         int destPos = srcPos + ENTRY_SIZE;
         int numMovedEntries = keyCount - index + 1;
         if (numMovedEntries > 0) {
-            System.arraycopy(data.array(), srcPos, data.array(), destPos, numMovedEntries * ENTRY_SIZE);
+            data.put(destPos, data, srcPos, numMovedEntries * ENTRY_SIZE);
         }
         setKey(index, key);
         setChildPageId(index, rightChildPageId);
@@ -124,7 +124,7 @@ public class BPlusTreeInternalPage extends BPlusTreeNodePage {
         int length = (keyCount - keyIndex) * ENTRY_SIZE;
 
         if (length > 0) {
-            System.arraycopy(data.array(), srcPos, data.array(), destPos, length);
+            data.put(destPos, data, srcPos, length);
         }
 
         setKeyCount(keyCount - 1);
@@ -145,7 +145,7 @@ public class BPlusTreeInternalPage extends BPlusTreeNodePage {
         // 需要移动的字节数：所有 key 和除了第一个之外的所有 pointer
         int length = keyCount * ENTRY_SIZE;
 
-        System.arraycopy(data.array(), srcPos, data.array(), destPos, length);
+        data.put(destPos, data, srcPos, length);
         setKeyCount(keyCount - 1);
         return firstPointer;
     }
@@ -170,7 +170,7 @@ public class BPlusTreeInternalPage extends BPlusTreeNodePage {
         int srcPos = PAYLOAD_OFFSET;
         int destPos = PAYLOAD_OFFSET + ENTRY_SIZE;
         int length = POINTER_SIZE + keyCount * ENTRY_SIZE;
-        System.arraycopy(data.array(), srcPos, data.array(), destPos, length);
+        data.put(destPos, data, srcPos, length);
 
         // 在开头插入新的 key 和 pointer
         setKey(1, key);
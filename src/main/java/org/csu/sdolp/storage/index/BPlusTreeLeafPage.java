@@ -26,7 +26,7 @@ public class BPlusTreeLeafPage extends BPlusTreeNodePage {
 
     public BPlusTreeLeafPage(Page page) {
         super(page);
-        this.maxSize = (Page.PAGE_SIZE - PAYLOAD_OFFSET) / ENTRY_SIZE;
+        this.maxSize = (page.getPageSize() - PAYLOAD_OFFSET) / ENTRY_SIZE;
         this.keyComparator = Comparator.comparingInt(v -> (Integer) v.getValue());
     }
 
@@ -129,7 +129,7 @@ public class BPlusTreeLeafPage extends BPlusTreeNodePage {
         int destPos = getEntryOffset(index + 1);
         int length = (keyCount - index) * ENTRY_SIZE;
         if (length > 0) {
-            System.arraycopy(data.array(), srcPos, data.array(), destPos, length);
+            data.put(destPos, data, srcPos, length);
         }
 
         // 在 index 位置插入新条目
@@ -153,7 +153,7 @@ public class BPlusTreeLeafPage extends BPlusTreeNodePage {
     public void insertAtFront(Value key, RID rid) {
         int keyCount = getKeyCount();
         // 所有元素向后移动一位
-        System.arraycopy(data.array(), getEntryOffset(0), data.array(), getEntryOffset(1), keyCount * ENTRY_SIZE);
+        data.put(getEntryOffset(1), data, getEntryOffset(0), keyCount * ENTRY_SIZE);
         setEntry(0, key, rid);
         setKeyCount(keyCount + 1);
     }
@@ -166,7 +166,7 @@ public class BPlusTreeLeafPage extends BPlusTreeNodePage {
         Value key = getKey(0);
         RID rid = getRid(0);
         // 其余元素向前移动一位
-        System.arraycopy(data.array(), getEntryOffset(1), data.array(), getEntryOffset(0), (keyCount - 1) * ENTRY_SIZE);
+        data.put(getEntryOffset(0), data, getEntryOffset(1), (keyCount - 1) * ENTRY_SIZE);
         setKeyCount(keyCount - 1);
         return new KeyValuePair(key, rid);
     }
@@ -194,7 +194,7 @@ public class BPlusTreeLeafPage extends BPlusTreeNodePage {
         int destPos = getEntryOffset(index);
         int length = (keyCount - index - 1) * ENTRY_SIZE;
         if (length > 0) {
-            System.arraycopy(data.array(), srcPos, data.array(), destPos, length);
+            data.put(destPos, data, srcPos, length);
         }
 
         setKeyCount(keyCount - 1);
@@ -0,0 +1,217 @@
+package org.csu.sdolp.storage.overflow;
+
+import org.csu.sdolp.common.model.DataType;
+import org.csu.sdolp.common.model.OverflowPointer;
+import org.csu.sdolp.common.model.Tuple;
+import org.csu.sdolp.common.model.Value;
+import org.csu.sdolp.storage.buffer.BufferPoolManager;
+import org.csu.sdolp.storage.page.Page;
+import org.csu.sdolp.storage.page.PageId;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 溢出页存储 (TOAST)。
+ * 超过阈值的字符串值被切分写入一条溢出页链，堆页中的记录只保存 9 字节的 OverflowPointer，
+ * 堆页因此保持紧凑，扫描时读取的页面更少；整行超过单页容量时，还会从最大的字符串值开始依次移出，直到放得下。
+ * 溢出值只有在列被投影或被谓词读取时才会读取。
+ * 溢出页布局：| 0 (4) | 本页数据长度 (4) | 下一溢出页号 (4) | 数据 |，链接复用 Page 的 nextPageId 字段，
+ * 元组数固定为 0，即使被当作堆页读取也不包含任何元组。
+ */
+public class OverflowStore {
+
+    private static final int CHUNK_LENGTH_OFFSET = 4;
+    private static final int DATA_OFFSET = 12;
+
+    private final BufferPoolManager bufferPoolManager;
+    // 溢出页所在的存储段 (所属表的段)，为 null 时在主文件中按单页分配
+    private final String segment;
+    // 字符串值的 UTF-8 字节数超过该值 (页大小的 1/16) 时移到溢出页
+    private final int inlineThreshold;
+    private final int maxTupleSize;
+    private final int chunkCapacity;
+
+    public OverflowStore(BufferPoolManager bufferPoolManager) {
+        this(bufferPoolManager, null);
+    }
+
+    /**
+     * @param segment 溢出页所属表的存储段 (见 TableInfo.getSegmentName)，删除表的表空间文件时溢出页随之回收
+     */
+    public OverflowStore(BufferPoolManager bufferPoolManager, String segment) {
+        this.bufferPoolManager = bufferPoolManager;
+        this.segment = segment;
+        int pageSize = bufferPoolManager.getPageSize();
+        this.inlineThreshold = pageSize / 16;
+        this.maxTupleSize = Page.maxTupleSize(pageSize);
+        this.chunkCapacity = pageSize - DATA_OFFSET;
+    }
+
+    public int getInlineThreshold() {
+        return inlineThreshold;
+    }
+
+    /**
+     * 把记录中的大字符串值写入溢出页，返回用于写入堆页的记录 (大值替换为溢出指针)。
+     * 没有需要移出的值时直接返回原记录，原记录本身不会被修改。
+     */
+    public Tuple toast(Tuple tuple) throws IOException {
+        List<Value> values = tuple.getValues();
+        byte[][] encoded = new byte[values.size()][];
+        for (int i = 0; i < encoded.length; i++) {
+            Value value = values.get(i);
+            if ((value.getType() == DataType.VARCHAR || value.getType() == DataType.CHAR)
+                    && value.getValue() instanceof String s) {
+                encoded[i] = s.getBytes(StandardCharsets.UTF_8);
+            }
+        }
+
+        List<Value> stored = null;
+        // 1. 超过阈值的值
+        for (int i = 0; i < encoded.length; i++) {
+            if (encoded[i] != null && encoded[i].length > inlineThreshold) {
+                stored = moveOut(values, stored, i, encoded);
+            }
+        }
+        // 2. 整行仍放不进一个空页时，从最大的值开始继续移出
+        while (new Tuple(stored != null ? stored : values).toBytes().length > maxTupleSize) {
+            int largest = -1;
+            for (int i = 0; i < encoded.length; i++) {
+                if (encoded[i] != null && encoded[i].length > OverflowPointer.SIZE
+                        && (largest < 0 || encoded[i].length > encoded[largest].length)) {
+                    largest = i;
+                }
+            }
+            if (largest < 0) {
+                break; // 没有可移出的值，交给堆页按空间不足处理
+            }
+            stored = moveOut(values, stored, largest, encoded);
+        }
+
+        if (stored == null) {
+            return tuple;
+        }
+        Tuple result = new Tuple(stored);
+        result.setRid(tuple.getRid());
+        return result;
+    }
+
+    private List<Value> moveOut(List<Value> values, List<Value> stored, int column, byte[][] encoded) throws IOException {
+        if (stored == null) {
+            stored = new ArrayList<>(values);
+        }
+        stored.set(column, new Value(values.get(column).getType(), write(encoded[column])));
+        encoded[column] = null;
+        return stored;
+    }
+
+    /**
+     * 把记录中的溢出指针 (已解码的列) 原地替换为实际的字符串值，未解码的列保持不读取。
+     * @return 传入的记录
+     */
+    public Tuple detoast(Tuple tuple) throws IOException {
+        if (tuple == null) {
+            return null;
+        }
+        List<Value> values = tuple.getValues();
+        for (int i = 0; i < values.size(); i++) {
+            if (values.get(i).isExternal()) {
+                values.set(i, detoast(values.get(i)));
+            }
+        }
+        return tuple;
+    }
+
+    public Value detoast(Value value) throws IOException {
+        if (!value.isExternal()) {
+            return value;
+        }
+        return new Value(new String(read((OverflowPointer) value.getValue()), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 把字节写入一条新的溢出页链。
+     */
+    public OverflowPointer write(byte[] bytes) throws IOException {
+        int firstPageNum = -1;
+        Page previous = null;
+        int offset = 0;
+        do {
+            Page page = bufferPoolManager.newPage(segment);
+            page.init();
+            int chunk = Math.min(chunkCapacity, bytes.length - offset);
+            page.getData().putInt(CHUNK_LENGTH_OFFSET, chunk);
+            page.getData().put(DATA_OFFSET, bytes, offset, chunk);
+            if (previous == null) {
+                firstPageNum = page.getPageId().getPageNum();
+            } else {
+                previous.setNextPageId(page.getPageId().getPageNum());
+                bufferPoolManager.flushPage(previous.getPageId());
+            }
+            previous = page;
+            offset += chunk;
+        } while (offset < bytes.length);
+        bufferPoolManager.flushPage(previous.getPageId());
+        return new OverflowPointer(firstPageNum, bytes.length);
+    }
+
+    /**
+     * 沿溢出页链读取一个值的全部字节。
+     */
+    public byte[] read(OverflowPointer pointer) throws IOException {
+        byte[] bytes = new byte[pointer.length()];
+        int pageNum = pointer.firstPageNum();
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (pageNum == -1) {
+                throw new IOException("Overflow chain starting at page " + pointer.firstPageNum() + " ended early.");
+            }
+            Page page = bufferPoolManager.getPage(new PageId(pageNum));
+            int chunk = page.getData().getInt(CHUNK_LENGTH_OFFSET);
+            if (chunk <= 0 || chunk > bytes.length - offset) {
+                throw new IOException("Corrupted overflow page " + pageNum + ": chunk length " + chunk);
+            }
+            page.getData().get(DATA_OFFSET, bytes, offset, chunk);
+            offset += chunk;
+            pageNum = page.getNextPageId();
+        }
+        return bytes;
+    }
+
+    /**
+     * 释放溢出页链占用的所有页面。
+     */
+    public void free(OverflowPointer pointer) throws IOException {
+        int pageNum = pointer.firstPageNum();
+        int remaining = pointer.length();
+        while (pageNum != -1 && remaining > 0) {
+            PageId pageId = new PageId(pageNum);
+            Page page = bufferPoolManager.getPage(pageId);
+            remaining -= page.getData().getInt(CHUNK_LENGTH_OFFSET);
+            pageNum = page.getNextPageId();
+            bufferPoolManager.deletePage(pageId);
+        }
+    }
+
+    public void free(List<OverflowPointer> pointers) throws IOException {
+        for (OverflowPointer pointer : pointers) {
+            free(pointer);
+        }
+    }
+
+    /**
+     * 收集记录中 (已解码的列) 的所有溢出指针。
+     */
+    public static List<OverflowPointer> pointersOf(Tuple tuple) {
+        List<OverflowPointer> pointers = new ArrayList<>();
+        for (Value value : tuple.getValues()) {
+            if (value.isExternal()) {
+                pointers.add((OverflowPointer) value.getValue());
+            }
+        }
+        return pointers;
+    }
+}
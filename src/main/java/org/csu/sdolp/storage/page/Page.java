@@ -1,6 +1,7 @@
 package org.csu.sdolp.storage.page;
 
 import lombok.Getter;
+import org.csu.sdolp.common.model.RID;
 import org.csu.sdolp.common.model.Schema;
 import org.csu.sdolp.common.model.Tuple;
 
@@ -10,26 +11,41 @@ import java.util.List;
 
 /**
  * Page类，采用 Slotted Page 布局来管理和存储 Tuple。
+ * 页大小由所属数据库决定 (见 DiskManager)，页面本身的大小即其 ByteBuffer 的容量。
+ * 槽位号一经分配就不再改变：删除只把槽位置为空槽位 (墓碑)，空间由页内整理 (compact) 回收，整理只移动数据。
  */
 @Getter
 public class Page {
-    public static final int PAGE_SIZE = 4096;
+    /** 默认页大小，也是旧版本数据库文件使用的页大小。 */
+    public static final int DEFAULT_PAGE_SIZE = 4096;
+    public static final int MIN_PAGE_SIZE = 4 * 1024;
+    public static final int MAX_PAGE_SIZE = 32 * 1024;
     private static final int HEADER_NUM_TUPLES_OFFSET = 0;
     private static final int HEADER_FREE_SPACE_POINTER_OFFSET = 4;
     private static final int HEADER_NEXT_PAGE_ID_OFFSET = 8;
     private static final int HEADER_SIZE = 12;
     private static final int SLOT_SIZE = 8;
+    // 槽位偏移字中的标志位：置位表示元组以格式版本头开始；旧版本写入的元组没有版本头，按文本格式读取
+    private static final int SLOT_HEADER_FLAG = 1 << 30;
+    // 转发桩：行已迁到其他页，槽位数据是目标页号和槽位号，原 RID 保持不变
+    private static final int SLOT_FORWARD_FLAG = 1 << 29;
+    // 从其他页迁入的行：只能经原槽位的转发桩访问，扫描时跳过
+    private static final int SLOT_RELOCATED_FLAG = 1 << 28;
+    private static final int SLOT_FLAGS = SLOT_HEADER_FLAG | SLOT_FORWARD_FLAG | SLOT_RELOCATED_FLAG;
+    private static final int FORWARD_SIZE = 8;
 
     private final PageId pageId;
     private final ByteBuffer data;
 
     public Page(PageId pageId) {
+        this(pageId, DEFAULT_PAGE_SIZE);
+    }
+
+    public Page(PageId pageId, int pageSize) {
         this.pageId = pageId;
-        this.data = ByteBuffer.allocate(PAGE_SIZE);
+        this.data = ByteBuffer.allocate(pageSize);
         // 初始化页头
-        setNumTuples(0);
-        setFreeSpacePointer(PAGE_SIZE);
-        setNextPageId(-1);
+        init();
     }
 
     public Page(PageId pageId, byte[] rawData) {
@@ -37,12 +53,39 @@ public class Page {
         this.data = ByteBuffer.wrap(rawData);
     }
 
+    /**
+     * 直接以给定缓冲区 (例如内存映射文件中的一段) 作为页面数据，不复制也不初始化。
+     * 缓冲区的容量即页大小，对页面的修改直接作用在该缓冲区上。
+     */
+    public Page(PageId pageId, ByteBuffer data) {
+        this.pageId = pageId;
+        this.data = data;
+    }
+
     public void init() {
         setNumTuples(0);
-        setFreeSpacePointer(PAGE_SIZE);
+        setFreeSpacePointer(getPageSize());
         setNextPageId(-1);
     }
 
+    /**
+     * 判断是否为支持的页大小：4KB 到 32KB 之间的 2 的幂。
+     */
+    public static boolean isValidPageSize(int pageSize) {
+        return pageSize >= MIN_PAGE_SIZE && pageSize <= MAX_PAGE_SIZE && Integer.bitCount(pageSize) == 1;
+    }
+
+    public int getPageSize() {
+        return data.capacity();
+    }
+
+    /**
+     * 一个空页面能容纳的最大元组字节数 (含格式版本头)。
+     */
+    public static int maxTupleSize(int pageSize) {
+        return pageSize - HEADER_SIZE - SLOT_SIZE;
+    }
+
 
     // --- 页头操作 ---
     public int getNumTuples() {
@@ -62,12 +105,42 @@ public class Page {
     }
 
     // --- 槽操作 ---
-    private int getTupleOffset(int slotIndex) {
+    private int getSlotWord(int slotIndex) {
         return data.getInt(HEADER_SIZE + slotIndex * SLOT_SIZE);
     }
 
-    private void setTupleOffset(int slotIndex, int offset) {
-        data.putInt(HEADER_SIZE + slotIndex * SLOT_SIZE, offset);
+    private void setSlotWord(int slotIndex, int word) {
+        data.putInt(HEADER_SIZE + slotIndex * SLOT_SIZE, word);
+    }
+
+    private int getTupleOffset(int slotIndex) {
+        return getSlotWord(slotIndex) & ~SLOT_FLAGS;
+    }
+
+    private boolean hasFormatHeader(int slotIndex) {
+        return (getSlotWord(slotIndex) & SLOT_HEADER_FLAG) != 0;
+    }
+
+    /**
+     * 元组的编码格式，没有版本头的旧元组按文本格式处理。包内可见，供 TupleView 使用。
+     */
+    byte getTupleFormat(int slotIndex) {
+        return hasFormatHeader(slotIndex) ? data.get(getTupleOffset(slotIndex)) : Tuple.FORMAT_TEXT;
+    }
+
+    /**
+     * 元组第一列的起始偏移 (跳过格式版本头)。包内可见，供 TupleView 直接定位元组。
+     */
+    int getTupleDataOffset(int slotIndex) {
+        int offset = getTupleOffset(slotIndex);
+        return hasFormatHeader(slotIndex) ? offset + Tuple.FORMAT_HEADER_SIZE : offset;
+    }
+
+    /**
+     * 元组数据的结束偏移 (不含)。包内可见，供 TupleView 使用。
+     */
+    int getTupleEnd(int slotIndex) {
+        return getTupleOffset(slotIndex) + Math.abs(getTupleLength(slotIndex));
     }
 
     private int getTupleLength(int slotIndex) {
@@ -93,28 +166,149 @@ public class Page {
      * @return 如果成功返回 true，如果空间不足返回 false。
      */
     public boolean insertTuple(Tuple tuple) {
-        byte[] tupleBytes = tuple.toBytes();
-        int tupleLength = tupleBytes.length;
+        return insertTuple(tuple.toBytes());
+    }
 
-        // 检查是否有足够空间 (元组数据 + 1个新槽位)
-        if (getFreeSpace() < tupleLength + SLOT_SIZE) {
-            return false;
+    /**
+     * 向页面中插入一条已序列化 (含格式版本头) 的记录。
+     * @return 如果成功返回 true，如果空间不足返回 false。
+     */
+    public boolean insertTuple(byte[] tupleBytes) {
+        return addTuple(tupleBytes) >= 0;
+    }
+
+    /**
+     * 向页面中插入一条已序列化的记录，优先复用已删除记录留下的空槽位。
+     * 空闲空间不够但整理后足够时，先做页内整理。
+     * @return 新记录的槽位号，空间不足时返回 -1
+     */
+    public int addTuple(byte[] tupleBytes) {
+        int tupleLength = tupleBytes.length;
+        int slotIndex = findFreeSlot();
+        // 检查是否有足够空间 (元组数据 + 没有空槽位时的 1 个新槽位)
+        int requiredSpace = tupleLength + (slotIndex < 0 ? SLOT_SIZE : 0);
+        if (getFreeSpace() < requiredSpace && (getCompactedFreeSpace() < requiredSpace || !compact())) {
+            return -1;
         }
 
         // 1. 计算新元组的存储位置，并写入数据
         int newFreeSpacePointer = getFreeSpacePointer() - tupleLength;
         setFreeSpacePointer(newFreeSpacePointer);
-        data.position(newFreeSpacePointer);
-        data.put(tupleBytes);
+        data.put(newFreeSpacePointer, tupleBytes);
 
-        // 2. 在槽数组中为新元组分配一个槽
+        // 2. 复用空槽位，或在槽数组末尾分配一个新槽并更新页头中的元组数量
+        if (slotIndex < 0) {
+            slotIndex = getNumTuples();
+            setNumTuples(slotIndex + 1);
+        }
+        setSlotWord(slotIndex, newFreeSpacePointer | SLOT_HEADER_FLAG);
+        setTupleLength(slotIndex, tupleLength);
+        return slotIndex;
+    }
+
+    /**
+     * 把一条已序列化的记录放到指定槽位上 (恢复时按日志中的 RID 重做插入)。
+     * 槽位必须是空槽位或位于槽数组末尾之后，中间缺少的槽位补为空槽位。
+     * @return 槽位已被占用或空间不足时返回 false，页面不做任何修改
+     */
+    public boolean putTupleAt(int slotIndex, byte[] tupleBytes) {
         int numTuples = getNumTuples();
-        setTupleOffset(numTuples, newFreeSpacePointer);
-        setTupleLength(numTuples, tupleLength);
+        if (slotIndex < numTuples && getTupleLength(slotIndex) != 0) {
+            return false;
+        }
+        int newSlots = Math.max(0, slotIndex + 1 - numTuples);
+        int requiredSpace = tupleBytes.length + newSlots * SLOT_SIZE;
+        if (getFreeSpace() < requiredSpace && (getCompactedFreeSpace() < requiredSpace || !compact())) {
+            return false;
+        }
+        int newFreeSpacePointer = getFreeSpacePointer() - tupleBytes.length;
+        setFreeSpacePointer(newFreeSpacePointer);
+        data.put(newFreeSpacePointer, tupleBytes);
+        for (int i = numTuples; i < slotIndex; i++) {
+            setSlotWord(i, 0);
+            setTupleLength(i, 0);
+        }
+        if (newSlots > 0) {
+            setNumTuples(slotIndex + 1);
+        }
+        setSlotWord(slotIndex, newFreeSpacePointer | SLOT_HEADER_FLAG);
+        setTupleLength(slotIndex, tupleBytes.length);
+        return true;
+    }
+
+    /**
+     * 能否插入一条 tupleLength 字节的记录 (可能需要先做页内整理)。
+     */
+    public boolean hasSpaceFor(int tupleLength) {
+        if (getFreeSpace() >= tupleLength + SLOT_SIZE) {
+            return true;
+        }
+        int requiredSpace = tupleLength + (findFreeSlot() < 0 ? SLOT_SIZE : 0);
+        return getFreeSpace() >= requiredSpace || getCompactedFreeSpace() >= requiredSpace;
+    }
 
-        // 3. 更新页头中的元组数量
-        setNumTuples(numTuples + 1);
+    private int findFreeSlot() {
+        int numTuples = getNumTuples();
+        for (int i = 0; i < numTuples; i++) {
+            if (getTupleLength(i) == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
 
+    /**
+     * 页内整理后的空闲空间：去掉已删除记录和原地更新留下的空洞。
+     */
+    public int getCompactedFreeSpace() {
+        int numTuples = getNumTuples();
+        int usedSpace = 0;
+        for (int i = 0; i < numTuples; i++) {
+            usedSpace += Math.abs(getTupleLength(i));
+        }
+        return getPageSize() - HEADER_SIZE - numTuples * SLOT_SIZE - usedSpace;
+    }
+
+    /**
+     * 页面中是否没有任何记录 (所有槽位都是空槽位)。已标记删除、等待提交的记录和转发桩都算作记录。
+     */
+    public boolean isEmpty() {
+        int numTuples = getNumTuples();
+        for (int i = 0; i < numTuples; i++) {
+            if (getTupleLength(i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 页内整理：把所有记录 (包括已标记删除的记录和转发桩) 按槽位顺序紧凑地排到页尾，回收空洞。
+     * 只移动数据并更新槽位中的偏移，槽位号不变，RID 和索引都不受影响。
+     * @return 发现损坏的槽位时不做任何修改并返回 false
+     */
+    public boolean compact() {
+        int numTuples = getNumTuples();
+        for (int i = 0; i < numTuples; i++) {
+            int length = Math.abs(getTupleLength(i));
+            int offset = getTupleOffset(i);
+            if (length != 0 && (offset < HEADER_SIZE || offset + length > getPageSize())) {
+                return false; // 损坏的槽位，不冒险重写
+            }
+        }
+        byte[] original = new byte[getPageSize()];
+        data.get(0, original);
+        int pointer = getPageSize();
+        for (int i = 0; i < numTuples; i++) {
+            int length = Math.abs(getTupleLength(i));
+            if (length == 0) {
+                continue;
+            }
+            pointer -= length;
+            data.put(pointer, original, getTupleOffset(i), length);
+            setSlotWord(i, pointer | (getSlotWord(i) & SLOT_FLAGS));
+        }
+        setFreeSpacePointer(pointer);
         return true;
     }
 
@@ -125,32 +319,92 @@ public class Page {
      * @return 读取到的 Tuple 对象，如果槽位无效则返回 null。
      */
     public Tuple getTuple(int slotIndex, Schema schema) {
-        if (slotIndex >= getNumTuples()) {
+        return getTuple(slotIndex, schema, null);
+    }
+
+    /**
+     * 根据槽位索引读取一条记录，只解码投影中需要的列。
+     * 直接在页面数据的视图上解码，不再把元组字节复制出来。
+     * @param projection 每列是否需要解码，为 null 时解码全部列
+     */
+    public Tuple getTuple(int slotIndex, Schema schema, boolean[] projection) {
+        if (!isTupleValid(slotIndex)) {
             return null;
         }
+        return readTuple(slotIndex, schema, projection);
+    }
+
+    /**
+     * 读取从其他页迁入本页的行，槽位上不是迁入的行时返回 null。
+     */
+    public Tuple getRelocatedTuple(int slotIndex, Schema schema, boolean[] projection) {
+        if (!isRelocatedTuple(slotIndex)) {
+            return null;
+        }
+        return readTuple(slotIndex, schema, projection);
+    }
+
+    private Tuple readTuple(int slotIndex, Schema schema, boolean[] projection) {
+        int offset = getTupleDataOffset(slotIndex);
+        int length = getTupleLength(slotIndex) - (offset - getTupleOffset(slotIndex));
+        // 只读视图，拥有独立的 position，不修改页面 ByteBuffer 的状态
+        ByteBuffer view = data.duplicate().limit(offset + length).position(offset);
+        return Tuple.fromBuffer(view, schema, projection, getTupleFormat(slotIndex));
+    }
+
+    /**
+     * 判断槽位上是否有一条有效 (未删除、未损坏) 的记录，不解码记录内容。
+     * 转发桩和迁入的行都不算：前者没有行数据，后者只能经原槽位访问。
+     */
+    public boolean isTupleValid(int slotIndex) {
+        return isSlotInUse(slotIndex) && (getSlotWord(slotIndex) & (SLOT_FORWARD_FLAG | SLOT_RELOCATED_FLAG)) == 0;
+    }
+
+    /**
+     * 槽位是否为 (未删除的) 转发桩。
+     */
+    public boolean isForwardingSlot(int slotIndex) {
+        return isSlotInUse(slotIndex) && (getSlotWord(slotIndex) & SLOT_FORWARD_FLAG) != 0;
+    }
+
+    /**
+     * 槽位上是否为 (未删除的) 从其他页迁入的行。
+     */
+    public boolean isRelocatedTuple(int slotIndex) {
+        return isSlotInUse(slotIndex) && (getSlotWord(slotIndex) & SLOT_RELOCATED_FLAG) != 0;
+    }
+
+    /**
+     * 转发桩指向的行地址，槽位不是转发桩时返回 null。
+     */
+    public RID getForwardingAddress(int slotIndex) {
+        if (!isForwardingSlot(slotIndex)) {
+            return null;
+        }
+        int offset = getTupleOffset(slotIndex);
+        return new RID(data.getInt(offset), data.getInt(offset + 4));
+    }
+
+    private boolean isSlotInUse(int slotIndex) {
+        if (slotIndex >= getNumTuples()) {
+            return false;
+        }
         int offset = getTupleOffset(slotIndex);
         int length = getTupleLength(slotIndex);
 
         if (length == 0) { // 空元组或无效长度
-            return null;
+            return false;
         }
         if (length < 0) { // 已被标记为删除的元组
-            return null;
+            return false;
         }
         // 检查offset和length是否会导致访问越界
-        if (offset < HEADER_SIZE || offset + length > PAGE_SIZE) {
+        if (offset < HEADER_SIZE || offset + length > getPageSize()) {
             System.err.println("WARNING: Corrupted tuple slot found in Page " + pageId.getPageNum() +
                     " at slot " + slotIndex + ". Invalid offset=" + offset + ", length=" + length + ". Skipping.");
-            return null; // 将其视为无效元组，跳过
+            return false; // 将其视为无效元组，跳过
         }
-
-        // 使用 System.arraycopy 直接从页面的底层数组复制字节。
-        // 这种方法不依赖也不修改 ByteBuffer 的内部状态（如 position），
-        // 因此更加健壮，能避免共享状态带来的潜在问题。
-        byte[] tupleBytes = new byte[length];
-        System.arraycopy(data.array(), offset, tupleBytes, 0, length);
-
-        return Tuple.fromBytes(tupleBytes, schema);
+        return true;
     }
 
     /**
@@ -170,6 +424,81 @@ public class Page {
         return tuples;
     }
 
+    /**
+     * 插入一条从其他页迁入的行。
+     * @return 新行的槽位号，空间不足时返回 -1
+     */
+    public int insertRelocatedTuple(byte[] tupleBytes) {
+        int slotIndex = addTuple(tupleBytes);
+        if (slotIndex < 0) {
+            return -1;
+        }
+        setSlotWord(slotIndex, getSlotWord(slotIndex) | SLOT_RELOCATED_FLAG);
+        return slotIndex;
+    }
+
+    /**
+     * 在本页内更新槽位上的行 (普通的行、迁入的行或转发桩)，槽位号不变：
+     * 新数据不长于旧数据时原地覆盖；否则写入本页的空闲空间并让槽位指向新位置，旧数据留作空洞。
+     * 转发桩被更新后重新成为普通的行。
+     * @return 本页放不下新数据时返回 false，页面不做任何修改
+     */
+    public boolean updateTuple(int slotIndex, byte[] tupleBytes) {
+        int offset = allocateInSlot(slotIndex, tupleBytes.length);
+        if (offset < 0) {
+            return false;
+        }
+        int relocated = getSlotWord(slotIndex) & SLOT_RELOCATED_FLAG;
+        data.put(offset, tupleBytes);
+        setSlotWord(slotIndex, offset | SLOT_HEADER_FLAG | relocated);
+        setTupleLength(slotIndex, tupleBytes.length);
+        return true;
+    }
+
+    /**
+     * 把槽位改为指向 target 的转发桩。桩数据优先写在原数据的位置上。
+     * @return 本页放不下转发桩时返回 false
+     */
+    public boolean setForwardingAddress(int slotIndex, RID target) {
+        int offset = allocateInSlot(slotIndex, FORWARD_SIZE);
+        if (offset < 0) {
+            return false;
+        }
+        data.putInt(offset, target.pageNum());
+        data.putInt(offset + 4, target.slotIndex());
+        setSlotWord(slotIndex, offset | SLOT_HEADER_FLAG | SLOT_FORWARD_FLAG);
+        setTupleLength(slotIndex, FORWARD_SIZE);
+        return true;
+    }
+
+    /**
+     * 为槽位上的新数据找位置：旧数据够长时复用，否则从空闲空间分配。
+     * @return 数据的偏移，槽位无效或空间不足时返回 -1
+     */
+    private int allocateInSlot(int slotIndex, int length) {
+        if (!isSlotInUse(slotIndex)) {
+            return -1;
+        }
+        int oldLength = getTupleLength(slotIndex);
+        if (length <= oldLength) {
+            return getTupleOffset(slotIndex);
+        }
+        if (getFreeSpace() < length) {
+            // 旧数据将被替换，整理时不再保留它，所以整理后的空闲空间还要加上旧数据的长度
+            if (getCompactedFreeSpace() + oldLength < length) {
+                return -1;
+            }
+            setTupleLength(slotIndex, 0);
+            if (!compact()) {
+                setTupleLength(slotIndex, oldLength);
+                return -1;
+            }
+        }
+        int offset = getFreeSpacePointer() - length;
+        setFreeSpacePointer(offset);
+        return offset;
+    }
+
     //标记删除的方法
     public boolean markTupleAsDeleted(int slotIndex) {
         if (slotIndex >= getNumTuples()) {
@@ -205,40 +534,84 @@ public class Page {
         return false;
     }
 
+    /**
+     * 删除一条记录：槽位变为空槽位 (墓碑)，其他记录的槽位号都不变。
+     * 记录的数据留作空洞，由页内整理回收；空槽位可以被之后插入的记录复用。
+     */
     public boolean deleteTuple(int slotIndex) {
-        if (slotIndex >= getNumTuples()) {
+        if (slotIndex >= getNumTuples() || getTupleLength(slotIndex) == 0) {
             return false;
         }
-        int tupleOffset = getTupleOffset(slotIndex);
-        int tupleLength = getTupleLength(slotIndex);
+        // 记录恰好位于空闲空间的边界上时，直接归还它的空间
+        if (getTupleOffset(slotIndex) == getFreeSpacePointer()) {
+            setFreeSpacePointer(getFreeSpacePointer() + Math.abs(getTupleLength(slotIndex)));
+        }
+        setSlotWord(slotIndex, 0);
+        setTupleLength(slotIndex, 0);
+        return true;
+    }
 
-        // 1. 移动所有后续元组的数据
-        int freeSpacePointer = getFreeSpacePointer();
-        int dataToMoveSize = tupleOffset - freeSpacePointer;
-        if (dataToMoveSize > 0) {
-            // 使用 System.arraycopy 来移动数据块
-            System.arraycopy(data.array(), freeSpacePointer,
-                    data.array(), freeSpacePointer + tupleLength,
-                    dataToMoveSize);
+    /**
+     * 判断页面中是否还有旧版本写入的、没有格式版本头的元组。
+     */
+    public boolean hasLegacyTuples() {
+        int numTuples = getNumTuples();
+        for (int i = 0; i < numTuples; i++) {
+            if (!hasFormatHeader(i) && getTupleLength(i) != 0) {
+                return true;
+            }
         }
-        // 2. 更新空闲空间指针
-        setFreeSpacePointer(freeSpacePointer + tupleLength);
+        return false;
+    }
 
-        // 3. 移动所有后续槽位
+    /**
+     * 在线升级：把页面中的旧元组 (包括已标记删除、等待提交的元组) 重新编码为当前格式。
+     * 槽位号和删除标记保持不变，因此 RID 和索引都不受影响。
+     * 重新编码后的数据放不下 (还需预留 reservedSpace 字节) 时不做任何修改。
+     * @return 页面中已没有旧元组时返回 true
+     */
+    public boolean upgradeTupleFormat(Schema schema, int reservedSpace) {
+        if (!hasLegacyTuples()) {
+            return true;
+        }
         int numTuples = getNumTuples();
-        int slotToMoveSize = (numTuples - 1 - slotIndex) * SLOT_SIZE;
-        if (slotToMoveSize > 0) {
-            System.arraycopy(data.array(), HEADER_SIZE + (slotIndex + 1) * SLOT_SIZE,
-                    data.array(), HEADER_SIZE + slotIndex * SLOT_SIZE,
-                    slotToMoveSize);
+        byte[][] encoded = new byte[numTuples][];
+        int totalLength = 0;
+        for (int i = 0; i < numTuples; i++) {
+            int offset = getTupleOffset(i);
+            int length = Math.abs(getTupleLength(i));
+            if (length == 0) {
+                continue;
+            }
+            if (offset < HEADER_SIZE || offset + length > getPageSize()) {
+                return false; // 损坏的槽位，不冒险重写
+            }
+            if (hasFormatHeader(i)) {
+                encoded[i] = new byte[length];
+                data.get(offset, encoded[i]);
+            } else {
+                ByteBuffer view = data.duplicate().limit(offset + length).position(offset);
+                encoded[i] = Tuple.fromBuffer(view, schema, null, Tuple.FORMAT_TEXT).toBytes();
+            }
+            totalLength += encoded[i].length;
         }
-        // 4. 更新槽位偏移量
-        for (int i = slotIndex; i < numTuples - 1; i++) {
-            setTupleOffset(i, getTupleOffset(i) + tupleLength);
+        if (HEADER_SIZE + numTuples * SLOT_SIZE + totalLength + reservedSpace > getPageSize()) {
+            return false;
         }
-        // 5. 更新元组数量
-        setNumTuples(numTuples - 1);
 
+        // 按槽位顺序从页尾向前重新排布元组数据
+        int pointer = getPageSize();
+        for (int i = 0; i < numTuples; i++) {
+            if (encoded[i] == null) {
+                continue;
+            }
+            pointer -= encoded[i].length;
+            data.put(pointer, encoded[i]);
+            setSlotWord(i, pointer | SLOT_HEADER_FLAG | (getSlotWord(i) & (SLOT_FORWARD_FLAG | SLOT_RELOCATED_FLAG)));
+            int oldLength = getTupleLength(i);
+            setTupleLength(i, oldLength < 0 ? -encoded[i].length : encoded[i].length);
+        }
+        setFreeSpacePointer(pointer);
         return true;
     }
 
@@ -1,21 +1,49 @@
 package org.csu.sdolp.storage.page;
 
 /**
- * 页的唯一标识符。
+ * 页的唯一标识符，由表空间文件编号和页在该文件中的页号组成。
+ * 两者编码在一个 int 中 (高位为文件编号，低 FILE_PAGE_BITS 位为文件内页号)，即 getPageNum() 返回的页号；
+ * RID、页面之间的链接和 B+ 树的子节点指针都保存这个页号，跨文件引用不需要额外的字段。
+ * 文件 0 是主数据文件，旧版本数据库中的页号都落在文件 0 中。
  */
 public class PageId {
+    public static final int FILE_PAGE_BITS = 21;
+    // 每个文件最多的页数 (4KB 页时为 8GB)
+    public static final int MAX_FILE_PAGES = 1 << FILE_PAGE_BITS;
+    // 最大的文件编号，保证编码后的页号不为负 (-1 表示无效页)
+    public static final int MAX_FILE_ID = (1 << (Integer.SIZE - 1 - FILE_PAGE_BITS)) - 1;
+
     private final int pageNum;
-    // 未来可扩展为支持多个文件
-    // private final int fileId;
 
     public PageId(int pageNum) {
         this.pageNum = pageNum;
     }
 
+    public PageId(int fileId, int filePageNum) {
+        if (fileId < 0 || fileId > MAX_FILE_ID || filePageNum < 0 || filePageNum >= MAX_FILE_PAGES) {
+            throw new IllegalArgumentException("Invalid page address: file " + fileId + ", page " + filePageNum);
+        }
+        this.pageNum = (fileId << FILE_PAGE_BITS) | filePageNum;
+    }
+
     public int getPageNum() {
         return pageNum;
     }
 
+    /**
+     * 页所在的文件编号，主文件为 0。
+     */
+    public int getFileId() {
+        return pageNum < 0 ? 0 : pageNum >>> FILE_PAGE_BITS;
+    }
+
+    /**
+     * 页在所在文件中的页号。
+     */
+    public int getFilePageNum() {
+        return pageNum < 0 ? pageNum : pageNum & (MAX_FILE_PAGES - 1);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -28,4 +56,4 @@ public class PageId {
     public int hashCode() {
         return Integer.hashCode(pageNum);
     }
-}
\ No newline at end of file
+}
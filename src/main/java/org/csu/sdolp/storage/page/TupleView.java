@@ -0,0 +1,247 @@
+package org.csu.sdolp.storage.page;
+
+import org.csu.sdolp.common.model.*;
+import org.csu.sdolp.storage.overflow.OverflowStore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 元组视图 (flyweight)。
+ * 绑定到页面中的一个槽位后，直接从页面的 ByteBuffer 读取字段，不复制字节、不创建 Value。
+ * 行格式的记录通过行头直接定位任意一列；旧格式的记录按顺序计算列偏移并缓存在偏移表中。
+ * 同一个视图可以反复绑定到不同的槽位。
+ * 扫描时谓词先在视图上求值，只有满足条件的行才通过 materialize 物化为 Tuple。
+ * 谓词读取到溢出的字符串列时，通过 OverflowStore 读取溢出页中的实际内容。
+ */
+public final class TupleView {
+
+    private final Schema schema;
+    private final DataType[] types;
+    // 旧格式：offsets[i] 为第 i 列在页面中的绝对偏移，只有前 resolvedColumns 项有效
+    private final int[] offsets;
+    private int resolvedColumns;
+    // 行格式：当前记录的布局 (按记录中保存的列数)，旧格式时为 null
+    private RowLayout layout;
+    private int base;
+    private int end;
+
+    private Page page;
+    private ByteBuffer data;
+    private int slotIndex;
+    // 绑定到迁入的行时为该行对外的 (原槽位的) RID，否则为 null
+    private RID rid;
+    private byte format;
+    // 读取溢出值使用，未设置时遇到溢出值会抛出异常
+    private OverflowStore overflowStore;
+
+    public TupleView(Schema schema) {
+        this.schema = schema;
+        List<Column> columns = schema.getColumns();
+        this.types = new DataType[columns.size()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = columns.get(i).getType();
+        }
+        this.offsets = new int[types.length + 1];
+    }
+
+    /**
+     * 绑定到页面中的一个槽位。
+     * @return 槽位上有有效记录时返回 true
+     */
+    public boolean bind(Page page, int slotIndex) {
+        if (!page.isTupleValid(slotIndex)) {
+            return false;
+        }
+        bindSlot(page, slotIndex, null);
+        return true;
+    }
+
+    /**
+     * 绑定到从其他页迁入的行，rid 为该行对外的 (原槽位的) RID。
+     * @return 槽位上是迁入的行时返回 true
+     */
+    public boolean bindRelocated(Page page, int slotIndex, RID rid) {
+        if (!page.isRelocatedTuple(slotIndex)) {
+            return false;
+        }
+        bindSlot(page, slotIndex, rid);
+        return true;
+    }
+
+    private void bindSlot(Page page, int slotIndex, RID rid) {
+        this.page = page;
+        this.rid = rid;
+        this.data = page.getData();
+        this.slotIndex = slotIndex;
+        this.format = page.getTupleFormat(slotIndex);
+        this.base = page.getTupleDataOffset(slotIndex);
+        this.end = page.getTupleEnd(slotIndex);
+        if (format == Tuple.FORMAT_ROW) {
+            this.layout = schema.getRowLayout().forColumnCount(RowLayout.storedColumnCount(data, base));
+        } else {
+            this.layout = null;
+            this.offsets[0] = base;
+            this.resolvedColumns = 0;
+        }
+    }
+
+    public Schema getSchema() {
+        return schema;
+    }
+
+    public void setOverflowStore(OverflowStore overflowStore) {
+        this.overflowStore = overflowStore;
+    }
+
+    public RID getRid() {
+        if (rid != null) {
+            return rid;
+        }
+        return new RID(page.getPageId().getPageNum(), slotIndex);
+    }
+
+    /**
+     * 计算第 column 列的起始偏移。
+     * 行格式直接由行头得到；旧格式需要读取它之前各个变长列的长度前缀。
+     */
+    private int offsetOf(int column) {
+        if (layout != null) {
+            return layout.valueOffset(data, base, column);
+        }
+        while (resolvedColumns < column) {
+            int offset = offsets[resolvedColumns];
+            // 旧记录可能缺少 ALTER TABLE 之后新增的列
+            offsets[resolvedColumns + 1] = offset >= end ? end
+                    : offset + Value.encodedLength(data, offset, types[resolvedColumns], format);
+            resolvedColumns++;
+        }
+        return offsets[column];
+    }
+
+    /**
+     * 判断列是否为 NULL (包括记录中缺少的列)。
+     */
+    public boolean isNull(int column) {
+        if (layout != null) {
+            return layout.isNull(data, base, column);
+        }
+        return offsetOf(column) >= end;
+    }
+
+    public int getInt(int column) {
+        return data.getInt(offsetOf(column));
+    }
+
+    /**
+     * 以 double 读取数值列 (INT / FLOAT / DOUBLE)。
+     */
+    public double getDouble(int column) {
+        int offset = offsetOf(column);
+        return switch (types[column]) {
+            case INT -> data.getInt(offset);
+            case FLOAT -> data.getFloat(offset);
+            case DOUBLE -> data.getDouble(offset);
+            default -> throw new IllegalStateException("Column " + column + " is not numeric: " + types[column]);
+        };
+    }
+
+    public boolean getBoolean(int column) {
+        return data.get(offsetOf(column)) == 1;
+    }
+
+    /**
+     * 把字符串列的 UTF-8 字节与给定字节按无符号字节序比较，不解码字符串。
+     * @return compareTo 风格的比较结果
+     */
+    public int compareString(int column, byte[] utf8) {
+        int offset = offsetOf(column);
+        int length;
+        if (layout != null) {
+            length = layout.varLength(data, base, column);
+        } else {
+            length = data.getInt(offset);
+            offset += 4;
+        }
+        if (OverflowPointer.isPointer(data, offset, length)) {
+            byte[] bytes = readOverflow(OverflowPointer.read(data, offset));
+            return Arrays.compareUnsigned(bytes, utf8);
+        }
+        if (data.hasArray()) {
+            int start = data.arrayOffset() + offset;
+            return Arrays.compareUnsigned(data.array(), start, start + length, utf8, 0, utf8.length);
+        }
+        // 内存映射的页面没有底层数组，逐字节无符号比较
+        int common = Math.min(length, utf8.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Integer.compare(data.get(offset + i) & 0xFF, utf8[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, utf8.length);
+    }
+
+    public LocalDate getDate(int column) {
+        return LocalDate.ofEpochDay(getEpochDay(column));
+    }
+
+    /**
+     * 读取 DATE 列的 epoch day；二进制格式和行格式下直接读取定长整数，旧的文本格式才需要解析字符串。
+     */
+    public long getEpochDay(int column) {
+        if (format != Tuple.FORMAT_TEXT) {
+            return data.getInt(offsetOf(column));
+        }
+        return ((LocalDate) getValue(column).getValue()).toEpochDay();
+    }
+
+    /**
+     * 只解码一列，NULL 列返回值为 null 的 Value，溢出的列返回读取后的字符串。
+     */
+    public Value getValue(int column) {
+        if (isNull(column)) {
+            return new Value(types[column], null);
+        }
+        Value value;
+        if (layout != null) {
+            value = layout.readValue(data, base, column);
+        } else {
+            int offset = offsetOf(column);
+            ByteBuffer view = data.duplicate().position(offset);
+            value = Value.deserialize(view, types[column], format);
+        }
+        if (value.isExternal()) {
+            return new Value(new String(readOverflow((OverflowPointer) value.getValue()), StandardCharsets.UTF_8));
+        }
+        return value;
+    }
+
+    private byte[] readOverflow(OverflowPointer pointer) {
+        if (overflowStore == null) {
+            throw new IllegalStateException("TupleView has no OverflowStore to read " + pointer);
+        }
+        try {
+            return overflowStore.read(pointer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 把当前槽位物化为 Tuple (已设置 RID)。溢出的列保留为溢出指针，由调用方通过 OverflowStore.detoast 读取。
+     * @param projection 每列是否需要解码，为 null 时解码全部列
+     */
+    public Tuple materialize(boolean[] projection) {
+        Tuple tuple = rid != null
+                ? page.getRelocatedTuple(slotIndex, schema, projection)
+                : page.getTuple(slotIndex, schema, projection);
+        tuple.setRid(getRid());
+        return tuple;
+    }
+}
@@ -91,6 +91,29 @@ public class LockManager {
         lock(txn, pageId, LockMode.EXCLUSIVE);
     }
 
+    /**
+     * 尝试获取排他锁，不等待。供后台任务 (如 HeapVacuum) 使用，加不上锁时由调用方稍后重试。
+     * @return 立即获得锁时返回 true
+     */
+    public boolean tryLockExclusive(Transaction txn, PageId pageId) {
+        int pageNum = pageId.getPageNum();
+        LockRequestQueue queue = lockTable.computeIfAbsent(pageNum, k -> new LockRequestQueue());
+        LockRequest request = new LockRequest(txn.getTransactionId(), LockMode.EXCLUSIVE);
+
+        queue.latch.lock();
+        try {
+            if (!isLockCompatible(request, queue)) {
+                return false;
+            }
+            request.granted = true;
+            queue.requestList.add(request);
+            txn.getLockedPageIds().add(pageNum);
+            return true;
+        } finally {
+            queue.latch.unlock();
+        }
+    }
+
     public void unlock(Transaction txn, PageId pageId) {
         int pageNum = pageId.getPageNum();
         LockRequestQueue queue = lockTable.get(pageNum);
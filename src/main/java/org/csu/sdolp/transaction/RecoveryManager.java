@@ -1,6 +1,7 @@
 package org.csu.sdolp.transaction;
 
 import org.csu.sdolp.catalog.Catalog;
+import org.csu.sdolp.catalog.IndexInfo;
 import org.csu.sdolp.catalog.TableInfo;
 import org.csu.sdolp.common.model.Schema;
 import org.csu.sdolp.common.model.Tuple;
@@ -12,6 +13,7 @@ import org.csu.sdolp.transaction.log.LogManager;
 import org.csu.sdolp.transaction.log.LogRecord;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,6 +23,13 @@ public class RecoveryManager {
     private final BufferPoolManager bufferPoolManager;
     private final Catalog catalog;
     private final LockManager lockManager; // Undo/Redo 操作也需要锁管理器
+    // 页号 -> 该页最后一次被释放 (FREE_PAGES) 的 LSN。页被释放后可能已分配给其他表，更早的 DML 日志不能再作用到它上面
+    private final Map<Integer, Long> pageFreedAt = new HashMap<>();
+    // 表名 -> 该表最后一次已提交的清空 (TRUNCATE_TABLE) 的 LSN。更早的 DML 日志针对的是已换下的旧页链表，重做和撤销都跳过；
+    // 未提交的清空会被撤销，旧链表仍是表的页链表，它之前的日志照常处理
+    private final Map<String, Long> tableTruncatedAt = new HashMap<>();
+    // 表名 -> 该表最后一次被创建 (CREATE_TABLE) 的 LSN。同名表被删除后重建时，更早的日志属于已删除的旧表
+    private final Map<String, Long> tableCreatedAt = new HashMap<>();
 
     public RecoveryManager(LogManager logManager, BufferPoolManager bufferPoolManager, Catalog catalog, LockManager lockManager) {
         this.logManager = logManager;
@@ -41,6 +50,8 @@ public class RecoveryManager {
         // --- Phase 1: Analysis ---
         System.out.println("[RecoveryManager] --- Analysis Phase ---");
         Map<Integer, TransactionMetadata> activeTxnTable = new HashMap<>();
+        // 事务 -> 它写下的 TRUNCATE_TABLE 日志，事务提交时才计入 tableTruncatedAt
+        Map<Integer, List<LogRecord>> pendingTruncates = new HashMap<>();
         for (LogRecord log : allLogs) {
             int txnId = log.getTransactionId();
             if (!activeTxnTable.containsKey(txnId)) {
@@ -51,6 +62,23 @@ public class RecoveryManager {
 
             if (log.getLogType() == LogRecord.LogType.COMMIT || log.getLogType() == LogRecord.LogType.ABORT) {
                 activeTxnTable.remove(txnId);
+                List<LogRecord> truncates = pendingTruncates.remove(txnId);
+                if (truncates != null && log.getLogType() == LogRecord.LogType.COMMIT) {
+                    for (LogRecord truncate : truncates) {
+                        tableTruncatedAt.merge(truncate.getTableName(), truncate.getLsn(), Math::max);
+                    }
+                }
+            }
+            if (log.getLogType() == LogRecord.LogType.FREE_PAGES) {
+                for (int pageNum : log.getFreedPageNums()) {
+                    pageFreedAt.put(pageNum, log.getLsn());
+                }
+            }
+            if (log.getLogType() == LogRecord.LogType.TRUNCATE_TABLE) {
+                pendingTruncates.computeIfAbsent(txnId, id -> new ArrayList<>()).add(log);
+            }
+            if (log.getLogType() == LogRecord.LogType.CREATE_TABLE) {
+                tableCreatedAt.put(log.getTableName(), log.getLsn());
             }
         }
         System.out.println("[Analysis] Active transactions to be rolled back: " + activeTxnTable.keySet());
@@ -100,7 +128,10 @@ public class RecoveryManager {
     private void applyLog(LogRecord log, boolean isUndo) throws IOException {
         // DML 操作需要一个临时的事务对象
         Transaction fakeTxn = new Transaction(log.getTransactionId());
-
+        // 旧表的日志 (包括它的 DROP TABLE) 不能作用到重建后的同名表上
+        if (isBeforeRecreate(log)) {
+            return;
+        }
 
         switch (log.getLogType()) {
             // 类型 1: 事务控制日志，在 Redo/Undo 阶段无需物理操作，直接跳过
@@ -127,12 +158,52 @@ public class RecoveryManager {
                 if (!isUndo) {
                     catalog.addColumn(log.getTableName(), log.getNewColumn());
                 } return;
+            case FREE_PAGES:
+                // 页在写这条日志之前已从页链表中摘下，日志只用于跳过这些页上更早的 DML 日志
+                return;
+            case TRUNCATE_TABLE:
+                // 目录在写这条日志之后立即原地改写并写盘，重做无需操作；撤销时让表和索引重新引用清空前的首页和根页
+                TableInfo truncatedTable = catalog.getTable(log.getTableName());
+                if (isUndo && truncatedTable != null) {
+                    if (truncatedTable.getFirstPageId().getPageNum() == log.getNewFirstPageNum()) {
+                        catalog.truncateTable(log.getTableName(), new PageId(log.getOldFirstPageNum()));
+                    }
+                    for (Map.Entry<String, int[]> entry : log.getIndexRootPageNums().entrySet()) {
+                        IndexInfo indexInfo = catalog.getIndex(entry.getKey());
+                        if (indexInfo != null && indexInfo.getRootPageId() == entry.getValue()[1]) {
+                            catalog.updateIndexRootPageId(entry.getKey(), entry.getValue()[0]);
+                        }
+                    }
+                }
+                return;
+            case BULK_LOAD:
+                // 装载的页在挂入页链表之前已全部写盘，重做无需操作；撤销时把它们从链表末尾摘下
+                TableInfo loadedTable = catalog.getTable(log.getTableName());
+                if (isUndo && loadedTable != null && !loadedTable.isColumnar() && !isBeforeTruncate(log)) {
+                    Page tail = bufferPoolManager.getPage(new PageId(log.getTailPageNum()));
+                    if (tail.getNextPageId() == log.getFirstLoadedPageNum()) {
+                        tail.setNextPageId(-1);
+                        bufferPoolManager.flushPage(tail.getPageId());
+                    }
+                }
+                return;
             case INSERT, DELETE, UPDATE:
                 TableInfo tableInfo = catalog.getTable(log.getTableName());
                 if (tableInfo == null) {
                     System.err.println("WARN: Table '" + log.getTableName() + "' not found, skipping LSN=" + log.getLsn());
                     return;
                 }
+                if (tableInfo.isColumnar()) {
+                    // 列存表的插入不写 WAL；同名的行存表被删除后重建为列存表时，旧日志不能作用到列存页面上
+                    return;
+                }
+                // 页在这条日志之后被清理释放，其上的内容已经失效 (页可能已重新分配)
+                if (!isUndo && pageFreedAt.getOrDefault(log.getRid().pageNum(), -1L) > log.getLsn()) {
+                    return;
+                }
+                if (isBeforeTruncate(log)) {
+                    return;
+                }
                 Schema schema = tableInfo.getSchema();
                 TableHeap tableHeap = new TableHeap(bufferPoolManager, tableInfo, logManager, lockManager);
 
@@ -143,10 +214,11 @@ public class RecoveryManager {
                     if (isUndo) {
                         tableHeap.deleteTuple(log.getRid(), fakeTxn, false);
                     } else {
-                        PageId pageId = new PageId(log.getRid().pageNum());
-                        Page page = bufferPoolManager.getPage(pageId);
-                        if (log.getRid().slotIndex() >= page.getNumTuples()) {
-                            tableHeap.insertTuple(tupleToInsert, fakeTxn, false, false);
+                        // 槽位会被复用：只有该位置仍是空槽位时才把行放回原 RID；
+                        // 已经是这一行说明重做过，是其他行说明槽位已被后续操作复用，都不再修改
+                        Tuple currentTuple = tableHeap.getTuple(log.getRid(), fakeTxn, false);
+                        if (currentTuple == null && !tableHeap.restoreTuple(tupleToInsert, log.getRid())) {
+                            System.err.println("WARN: Slot " + log.getRid() + " is occupied or full, skipping redo of LSN=" + log.getLsn());
                         }
                     }
 
@@ -154,13 +226,18 @@ public class RecoveryManager {
                     if (isUndo) {
                         Tuple tupleToRestore = Tuple.fromBytes(log.getTupleBytes(), schema);
                         tupleToRestore.setRid(log.getRid());
-                        Tuple existingTuple = tableHeap.getTuple(log.getRid(), fakeTxn);
-                        if (existingTuple == null) {
+                        Tuple existingTuple = tableHeap.getTuple(log.getRid(), fakeTxn, false);
+                        if (existingTuple == null && !tableHeap.restoreTuple(tupleToRestore, log.getRid())) {
+                            // 原槽位无法放回时退回到普通插入，至少不丢失这一行
                             tableHeap.insertTuple(tupleToRestore, fakeTxn, false, false);
                         }
                     } else { // REDO
-                        // Deleting something that is already deleted is fine. This is already idempotent.
-                        tableHeap.deleteTuple(log.getRid(), fakeTxn, false);
+                        // 删除后槽位会被复用：只有该位置上仍是被删除的行时才重做
+                        Tuple deletedTuple = Tuple.fromBytes(log.getTupleBytes(), schema);
+                        Tuple currentTuple = tableHeap.getTuple(log.getRid(), fakeTxn, false);
+                        if (currentTuple != null && currentTuple.getValues().equals(deletedTuple.getValues())) {
+                            tableHeap.deleteTuple(log.getRid(), fakeTxn, false);
+                        }
                     }
 
                 } else if (log.getLogType() == LogRecord.LogType.UPDATE) {
@@ -172,24 +249,10 @@ public class RecoveryManager {
                         // Undo an update by applying the old tuple version.
                         tableHeap.updateTuple(oldTuple, log.getRid(), fakeTxn, false);
                     } else { // REDO
-                        PageId pageId = new PageId(log.getRid().pageNum());
-                        Page page = bufferPoolManager.getPage(pageId);
-
-                        page.markTupleAsDeleted(log.getRid().slotIndex());
-                        bufferPoolManager.flushPage(pageId);
-
-                        boolean newTupleExists = false;
-                        tableHeap.initIterator(fakeTxn);
-                        while(tableHeap.hasNext()) {
-                            Tuple currentTuple = tableHeap.next();
-                            if (currentTuple != null && currentTuple.getValues().equals(newTuple.getValues())) {
-                                newTupleExists = true;
-                                break;
-                            }
-                        }
-
-                        if (!newTupleExists) {
-                            tableHeap.insertTuple(newTuple, fakeTxn, false, false);
+                        // 更新不改变 RID：只有该位置上仍是更新前的版本时才重做，已重做过的更新和被后续操作覆盖的行都不再修改
+                        Tuple currentTuple = tableHeap.getTuple(log.getRid(), fakeTxn, false);
+                        if (currentTuple != null && currentTuple.getValues().equals(oldTuple.getValues())) {
+                            tableHeap.updateTuple(newTuple, log.getRid(), fakeTxn, false);
                         }
                     }
                 }
@@ -197,6 +260,20 @@ public class RecoveryManager {
         }
     }
 
+    /**
+     * 日志是否早于其所属表最后一次已提交的 TRUNCATE，即作用在已换下的旧页链表上。
+     */
+    private boolean isBeforeTruncate(LogRecord log) {
+        return tableTruncatedAt.getOrDefault(log.getTableName(), -1L) > log.getLsn();
+    }
+
+    /**
+     * 日志是否早于同名表最后一次 CREATE TABLE，即属于已被删除的旧表。
+     */
+    private boolean isBeforeRecreate(LogRecord log) {
+        return log.getTableName() != null && tableCreatedAt.getOrDefault(log.getTableName(), -1L) > log.getLsn();
+    }
+
     private void applyUndo(LogRecord log) throws IOException {
         System.out.println("[Undo] Applying undo for LSN=" + log.getLsn() + ", Type=" + log.getLogType());
         applyLog(log, true); // applyLog 传入 isUndo=true 即可执行逆操作
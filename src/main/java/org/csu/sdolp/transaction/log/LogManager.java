@@ -1,5 +1,6 @@
 package org.csu.sdolp.transaction.log;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
@@ -45,6 +46,40 @@ public class LogManager {
         return currentLSN;
     }
 
+    /**
+     * 批量追加同一事务的一组日志记录：依次分配 LSN，后一条的 prevLSN 指向前一条
+     * (第一条的 prevLSN 由调用方设置)，一次写入文件，只做一次 fsync。
+     * @return 最后一条日志的 LSN，列表为空时返回 -1
+     */
+    public synchronized long appendLogRecords(List<LogRecord> logRecords) throws IOException {
+        if (logRecords.isEmpty()) {
+            return -1;
+        }
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        long startLSN = nextLSN.get();
+        long lsn = startLSN;
+        for (int i = 0; i < logRecords.size(); i++) {
+            LogRecord logRecord = logRecords.get(i);
+            if (i > 0) {
+                logRecord.setPrevLSN(logRecords.get(i - 1).getLsn());
+            }
+            logRecord.setLsn(lsn);
+            byte[] recordBytes = logRecord.toBytes();
+            batch.write(recordBytes);
+            lsn += recordBytes.length;
+        }
+
+        logFile.seek(startLSN);
+        logFile.write(batch.toByteArray());
+        flush();
+        nextLSN.set(lsn);
+
+        LogRecord last = logRecords.get(logRecords.size() - 1);
+        System.out.println("[LogManager] Appended " + logRecords.size() + " Logs: LSN=" + startLSN + ".." + last.getLsn()
+                + ", TxnID=" + last.getTransactionId());
+        return last.getLsn();
+    }
+
     /**
      * 强制将日志缓冲区的所有内容写入磁盘。
      */
@@ -11,20 +11,31 @@ import org.csu.sdolp.common.model.Tuple;
 
 import java.io.*;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Getter
 public class LogRecord {
     public enum LogType {
         INVALID, INSERT, DELETE, UPDATE, COMMIT, ABORT, BEGIN,
         CREATE_TABLE, DROP_TABLE, ALTER_TABLE,
-        CLR
+        CLR,
+        BULK_LOAD,
+        FREE_PAGES,
+        TRUNCATE_TABLE
     }
 
+    // 类型字中的标志位：置位表示记录中的元组字节带有格式版本头 (旧版本写入的日志没有)
+    private static final int TUPLE_HEADER_FLAG = 1 << 16;
+
     // --- Header ---
     private int recordSize = 0;
     @Setter
     private long lsn = -1;
     private int transactionId;
+    @Setter
     private long prevLSN = -1;
     private LogType logType;
 
@@ -43,6 +54,21 @@ public class LogRecord {
     // --- Payload for CLR ---
     private long undoNextLSN;
 
+    // --- Payload for BULK_LOAD ---
+    // 批量装载前表的最后一页，以及挂到它后面的第一个新页
+    private int tailPageNum = -1;
+    private int firstLoadedPageNum = -1;
+
+    // --- Payload for FREE_PAGES ---
+    // 已从表的页链表中摘下、归还给空闲页链表的页
+    private List<Integer> freedPageNums;
+
+    // --- Payload for TRUNCATE_TABLE ---
+    // 清空前后表的首页，以及每个索引清空前后的根页 (索引名 -> {旧根页, 新根页})，撤销时恢复旧值
+    private int oldFirstPageNum = -1;
+    private int newFirstPageNum = -1;
+    private Map<String, int[]> indexRootPageNums;
+
     // DDL 日志字段
     private String tableName;
     private Schema schema;
@@ -114,6 +140,37 @@ public class LogRecord {
         this.undoNextLSN = undoNextLSN;
     }
 
+    // 构造函数 for BULK_LOAD
+    public LogRecord(int transactionId, long prevLSN, LogType logType, String tableName, int tailPageNum, int firstLoadedPageNum) {
+        this.transactionId = transactionId;
+        this.prevLSN = prevLSN;
+        this.logType = logType;
+        this.tableName = tableName;
+        this.tailPageNum = tailPageNum;
+        this.firstLoadedPageNum = firstLoadedPageNum;
+    }
+
+    // 构造函数 for FREE_PAGES
+    public LogRecord(int transactionId, long prevLSN, LogType logType, String tableName, List<Integer> freedPageNums) {
+        this.transactionId = transactionId;
+        this.prevLSN = prevLSN;
+        this.logType = logType;
+        this.tableName = tableName;
+        this.freedPageNums = freedPageNums;
+    }
+
+    // 构造函数 for TRUNCATE_TABLE
+    public LogRecord(int transactionId, long prevLSN, LogType logType, String tableName,
+                     int oldFirstPageNum, int newFirstPageNum, Map<String, int[]> indexRootPageNums) {
+        this.transactionId = transactionId;
+        this.prevLSN = prevLSN;
+        this.logType = logType;
+        this.tableName = tableName;
+        this.oldFirstPageNum = oldFirstPageNum;
+        this.newFirstPageNum = newFirstPageNum;
+        this.indexRootPageNums = indexRootPageNums;
+    }
+
     // 私有构造函数，用于反序列化
     private LogRecord() {}
 
@@ -124,7 +181,7 @@ public class LogRecord {
             dos.writeLong(lsn);
             dos.writeInt(transactionId);
             dos.writeLong(prevLSN);
-            dos.writeInt(logType.ordinal());
+            dos.writeInt(logType.ordinal() | TUPLE_HEADER_FLAG);
 
             switch (logType) {
                 case INSERT, DELETE -> {
@@ -150,11 +207,34 @@ public class LogRecord {
                     schema.write(dos);
                 }
                 case DROP_TABLE -> dos.writeUTF(tableName);
+                case TRUNCATE_TABLE -> {
+                    dos.writeUTF(tableName);
+                    dos.writeInt(oldFirstPageNum);
+                    dos.writeInt(newFirstPageNum);
+                    dos.writeInt(indexRootPageNums.size());
+                    for (Map.Entry<String, int[]> entry : indexRootPageNums.entrySet()) {
+                        dos.writeUTF(entry.getKey());
+                        dos.writeInt(entry.getValue()[0]);
+                        dos.writeInt(entry.getValue()[1]);
+                    }
+                }
                 case ALTER_TABLE -> {
                     dos.writeUTF(tableName);
                     newColumn.write(dos);
                 }
                 case CLR -> dos.writeLong(undoNextLSN);
+                case BULK_LOAD -> {
+                    dos.writeUTF(tableName);
+                    dos.writeInt(tailPageNum);
+                    dos.writeInt(firstLoadedPageNum);
+                }
+                case FREE_PAGES -> {
+                    dos.writeUTF(tableName);
+                    dos.writeInt(freedPageNums.size());
+                    for (int pageNum : freedPageNums) {
+                        dos.writeInt(pageNum);
+                    }
+                }
             }
             dos.close();
 
@@ -185,7 +265,9 @@ public class LogRecord {
             record.lsn = dis.readLong();
             record.transactionId = dis.readInt();
             record.prevLSN = dis.readLong();
-            record.logType = LogType.values()[dis.readInt()];
+            int typeWord = dis.readInt();
+            record.logType = LogType.values()[typeWord & ~TUPLE_HEADER_FLAG];
+            boolean hasTupleHeader = (typeWord & TUPLE_HEADER_FLAG) != 0;
 
             switch (record.logType) {
                 case INSERT, DELETE -> {
@@ -195,6 +277,9 @@ public class LogRecord {
                     record.tupleBytes = new byte[tupleLen];
                     dis.readFully(record.tupleBytes);
                     // 反序列化时不再需要创建 Tuple 对象
+                    if (!hasTupleHeader) {
+                        record.tupleBytes = withTextFormatHeader(record.tupleBytes);
+                    }
                 }
                 case UPDATE -> {
                     record.tableName = dis.readUTF();
@@ -207,17 +292,44 @@ public class LogRecord {
                     record.newTupleBytes = new byte[newTupleLen];
                     dis.readFully(record.newTupleBytes);
                     // 反序列化时不再需要创建 Tuple 对象
+                    if (!hasTupleHeader) {
+                        record.oldTupleBytes = withTextFormatHeader(record.oldTupleBytes);
+                        record.newTupleBytes = withTextFormatHeader(record.newTupleBytes);
+                    }
                 }
                 case CREATE_TABLE -> {
                     record.tableName = dis.readUTF();
                     record.schema = Schema.read(dis);
                 }
                 case DROP_TABLE -> record.tableName = dis.readUTF();
+                case TRUNCATE_TABLE -> {
+                    record.tableName = dis.readUTF();
+                    record.oldFirstPageNum = dis.readInt();
+                    record.newFirstPageNum = dis.readInt();
+                    int count = dis.readInt();
+                    record.indexRootPageNums = new LinkedHashMap<>();
+                    for (int i = 0; i < count; i++) {
+                        record.indexRootPageNums.put(dis.readUTF(), new int[]{dis.readInt(), dis.readInt()});
+                    }
+                }
                 case ALTER_TABLE -> {
                     record.tableName = dis.readUTF();
                     record.newColumn = Column.read(dis);
                 }
                 case CLR -> record.undoNextLSN = dis.readLong();
+                case BULK_LOAD -> {
+                    record.tableName = dis.readUTF();
+                    record.tailPageNum = dis.readInt();
+                    record.firstLoadedPageNum = dis.readInt();
+                }
+                case FREE_PAGES -> {
+                    record.tableName = dis.readUTF();
+                    int count = dis.readInt();
+                    record.freedPageNums = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        record.freedPageNums.add(dis.readInt());
+                    }
+                }
             }
             dis.close();
         } catch (IOException e) {
@@ -225,4 +337,14 @@ public class LogRecord {
         }
         return record;
     }
-}
\ No newline at end of file
+
+    /**
+     * 旧版本日志中的元组字节没有格式版本头，补上文本格式的版本头后即可按当前格式读取。
+     */
+    private static byte[] withTextFormatHeader(byte[] tupleBytes) {
+        byte[] result = new byte[tupleBytes.length + Tuple.FORMAT_HEADER_SIZE];
+        result[0] = Tuple.FORMAT_TEXT;
+        System.arraycopy(tupleBytes, 0, result, Tuple.FORMAT_HEADER_SIZE, tupleBytes.length);
+        return result;
+    }
+}
@@ -0,0 +1,100 @@
+package org.csu.sdolp.Protocol;
+
+import org.csu.sdolp.cli.server.PacketWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MySQL 报文写入器 (PacketWriter) 的单元测试.
+ * 验证报文头的编码，以及缓冲区只在超过阈值或显式 flush 时才写到底层流。
+ */
+public class PacketWriterTest {
+
+    /**
+     * 统计写出次数的输出流，用来观察 PacketWriter 的刷新时机。
+     */
+    private static class CountingOutputStream extends ByteArrayOutputStream {
+        int writes = 0;
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            writes++;
+            super.write(b, off, len);
+        }
+    }
+
+    @Test
+    void testPacketFraming() throws IOException {
+        CountingOutputStream sink = new CountingOutputStream();
+        PacketWriter writer = new PacketWriter(sink);
+
+        int next = writer.writePacket(new byte[]{1, 2, 3}, 5);
+        assertEquals(6, next);
+
+        writer.beginPacket(next);
+        writer.writeLengthEncodedString("ab");
+        writer.writeNull();
+        writer.writeLengthEncodedInt(300);
+        assertEquals(7, writer.endPacket());
+
+        assertEquals(0, sink.size(), "未达到阈值前不应写到底层流");
+        writer.flush();
+
+        byte[] expected = {
+                3, 0, 0, 5, 1, 2, 3,
+                7, 0, 0, 6, 2, 'a', 'b', (byte) 0xfb, (byte) 0xfc, 44, 1
+        };
+        assertArrayEquals(expected, sink.toByteArray());
+        assertEquals(1, sink.writes);
+    }
+
+    @Test
+    void testFlushesOnThreshold() throws IOException {
+        CountingOutputStream sink = new CountingOutputStream();
+        PacketWriter writer = new PacketWriter(sink, 1024);
+
+        int seq = 0;
+        for (int i = 0; i < 1000; i++) {
+            writer.beginPacket(seq);
+            writer.writeLengthEncodedString("row-" + i);
+            seq = writer.endPacket();
+        }
+        assertTrue(sink.size() > 0, "超过阈值后应提前写出，第一行不必等到结果集结束");
+        assertTrue(sink.writes < 100, "报文应按阈值成批写出，而不是每个报文写一次: " + sink.writes);
+
+        writer.flush();
+        int totalBytes = sink.size();
+        int expectedBytes = 0;
+        for (int i = 0; i < 1000; i++) {
+            expectedBytes += 4 + 1 + ("row-" + i).length();
+        }
+        assertEquals(expectedBytes, totalBytes);
+    }
+
+    @Test
+    void testAbortPacketDiscardsPartialPacket() throws IOException {
+        CountingOutputStream sink = new CountingOutputStream();
+        PacketWriter writer = new PacketWriter(sink);
+
+        int next = writer.writePacket(new byte[]{1}, 1);
+        writer.beginPacket(next);
+        writer.writeLengthEncodedString("half");
+        writer.abortPacket();
+        assertEquals(2, writer.getNextSequenceId(), "被丢弃的报文不应消耗序号");
+
+        // 丢弃之后可以重新开始报文，不会因为上一个报文未结束而失败
+        assertEquals(3, writer.writePacket(new byte[]{(byte) 0xff}, writer.getNextSequenceId()));
+        writer.abortPacket();
+        writer.flush();
+
+        byte[] expected = {
+                1, 0, 0, 1, 1,
+                1, 0, 0, 2, (byte) 0xff
+        };
+        assertArrayEquals(expected, sink.toByteArray());
+    }
+}
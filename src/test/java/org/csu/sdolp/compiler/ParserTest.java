@@ -6,8 +6,10 @@ import org.csu.sdolp.compiler.lexer.Token;
 import org.csu.sdolp.compiler.parser.Parser;
 import org.csu.sdolp.compiler.parser.ast.*;
 import org.csu.sdolp.compiler.parser.ast.ddl.CreateTableStatementNode;
+import org.csu.sdolp.compiler.parser.ast.ddl.TruncateTableStatementNode;
 import org.csu.sdolp.compiler.parser.ast.dml.DeleteStatementNode;
 import org.csu.sdolp.compiler.parser.ast.dml.InsertStatementNode;
+import org.csu.sdolp.compiler.parser.ast.dml.LoadDataStatementNode;
 import org.csu.sdolp.compiler.parser.ast.dml.SelectStatementNode;
 import org.csu.sdolp.compiler.parser.ast.expression.BinaryExpressionNode;
 import org.csu.sdolp.compiler.parser.ast.expression.IdentifierNode;
@@ -55,6 +57,27 @@ public class ParserTest {
         System.out.println("Result: Test PASSED.\n");
     }
 
+    @Test
+    public void testParseCreateTableWithOptions() {
+        System.out.println("--- Running test: testParseCreateTableWithOptions ---");
+        String sql = "CREATE TABLE history (id INT, note VARCHAR) WITH (Compression = deflate);";
+        CreateTableStatementNode createTableNode = (CreateTableStatementNode) parseSql(sql);
+        assertEquals(2, createTableNode.columns().size());
+        assertEquals("deflate", createTableNode.options().get("compression"));
+        assertTrue(((CreateTableStatementNode) parseSql("CREATE TABLE t (id INT);")).options().isEmpty());
+        System.out.println("Result: Test PASSED.\n");
+    }
+
+    @Test
+    public void testParseCreateTableWithEngine() {
+        System.out.println("--- Running test: testParseCreateTableWithEngine ---");
+        String sql = "CREATE TABLE sales (id INT, amount INT) ENGINE = columnar WITH (compression = deflate);";
+        CreateTableStatementNode createTableNode = (CreateTableStatementNode) parseSql(sql);
+        assertEquals("columnar", createTableNode.options().get("engine"));
+        assertEquals("deflate", createTableNode.options().get("compression"));
+        System.out.println("Result: Test PASSED.\n");
+    }
+
     @Test
     public void testParseSimpleSelect() {
         System.out.println("--- Running test: testParseSimpleSelect ---");
@@ -82,13 +105,46 @@ public class ParserTest {
         assertEquals(2, insertNode.columns().size());
         assertEquals("id", insertNode.columns().get(0).getName());
         assertEquals("name", insertNode.columns().get(1).getName());
-        assertEquals(2, insertNode.values().size());
-        assertTrue(insertNode.values().get(0) instanceof LiteralNode);
-        assertTrue(insertNode.values().get(1) instanceof LiteralNode);
+        assertEquals(2, insertNode.rows().get(0).size());
+        assertTrue(insertNode.rows().get(0).get(0) instanceof LiteralNode);
+        assertTrue(insertNode.rows().get(0).get(1) instanceof LiteralNode);
+        System.out.println("Result: Test PASSED.\n");
+    }
+
+    @Test
+    public void testParseMultiRowInsert() {
+        System.out.println("--- Running test: testParseMultiRowInsert ---");
+        String sql = "INSERT INTO users (id, name) VALUES (1, 'a'), (2, 'b'), (3, 'c');";
+        InsertStatementNode insertNode = (InsertStatementNode) parseSql(sql);
+        assertEquals(3, insertNode.rows().size());
+        assertEquals("3", ((LiteralNode) insertNode.rows().get(2).get(0)).literal().lexeme());
+        assertEquals("c", ((LiteralNode) insertNode.rows().get(2).get(1)).literal().lexeme());
         System.out.println("Result: Test PASSED.\n");
     }
     // ======================================
 
+    @Test
+    public void testParseLoadData() {
+        System.out.println("--- Running test: testParseLoadData ---");
+        String sql = "LOAD DATA INFILE 'data/users.csv' INTO TABLE users;";
+        StatementNode node = parseSql(sql);
+        assertTrue(node instanceof LoadDataStatementNode);
+
+        LoadDataStatementNode loadNode = (LoadDataStatementNode) node;
+        assertEquals("data/users.csv", loadNode.fileName());
+        assertEquals("users", loadNode.tableName().getName());
+        System.out.println("Result: Test PASSED.\n");
+    }
+
+    @Test
+    public void testParseTruncateTable() {
+        System.out.println("--- Running test: testParseTruncateTable ---");
+        StatementNode node = parseSql("TRUNCATE TABLE users;");
+        assertTrue(node instanceof TruncateTableStatementNode);
+        assertEquals("users", ((TruncateTableStatementNode) node).tableName().getName());
+        System.out.println("Result: Test PASSED.\n");
+    }
+
     // ====== 新增：DELETE 语句测试 ======
     @Test
     public void testParseDeleteWithWhere() {
@@ -0,0 +1,129 @@
+package org.csu.sdolp.expression;
+
+import org.csu.sdolp.catalog.TableInfo;
+import org.csu.sdolp.common.model.*;
+import org.csu.sdolp.compiler.lexer.Lexer;
+import org.csu.sdolp.compiler.parser.Parser;
+import org.csu.sdolp.compiler.parser.ast.ExpressionNode;
+import org.csu.sdolp.compiler.parser.ast.dml.SelectStatementNode;
+import org.csu.sdolp.engine.ExpressionCompiler;
+import org.csu.sdolp.executor.expressions.AbstractPredicate;
+import org.csu.sdolp.executor.vector.TupleBatch;
+import org.csu.sdolp.storage.page.PageId;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 表达式编译器 (ExpressionCompiler) 的单元测试.
+ * 直接编译解析得到的谓词 AST，并在内存中的元组上求值。
+ */
+public class ExpressionCompilerTest {
+
+    private final Schema schema = new Schema(List.of(
+            new Column("id", DataType.INT),
+            new Column("name", DataType.VARCHAR),
+            new Column("score", DataType.INT)));
+
+    private ExpressionNode where(String condition) {
+        SelectStatementNode select = (SelectStatementNode) new Parser(
+                new Lexer("SELECT * FROM t WHERE " + condition + ";").tokenize()).parse();
+        return select.whereClause();
+    }
+
+    private Tuple row(int id, String name, int score) {
+        return new Tuple(List.of(new Value(id), new Value(name), new Value(score)));
+    }
+
+    @Test
+    void testComparisonsAndLogic() throws IOException {
+        Tuple alice = row(1, "Alice", 90);
+        assertTrue(ExpressionCompiler.compile(where("id = 1"), schema).evaluate(alice));
+        assertTrue(ExpressionCompiler.compile(where("score >= 90 AND name = 'Alice'"), schema).evaluate(alice));
+        assertFalse(ExpressionCompiler.compile(where("score > 90 AND name = 'Alice'"), schema).evaluate(alice));
+        assertTrue(ExpressionCompiler.compile(where("id = 7 OR name = 'Alice'"), schema).evaluate(alice));
+        assertFalse(ExpressionCompiler.compile(where("name != 'Alice'"), schema).evaluate(alice));
+        // 常量在左侧时运算符需要镜像
+        assertTrue(ExpressionCompiler.compile(where("50 < score"), schema).evaluate(alice));
+        assertFalse(ExpressionCompiler.compile(where("95 <= score"), schema).evaluate(alice));
+        // 列与列比较
+        assertTrue(ExpressionCompiler.compile(where("score > id"), schema).evaluate(alice));
+    }
+
+    @Test
+    void testJoinQualifiedColumns() throws IOException {
+        Schema left = new Schema(List.of(new Column("id", DataType.INT), new Column("name", DataType.VARCHAR)));
+        Schema right = new Schema(List.of(new Column("user_id", DataType.INT), new Column("id", DataType.INT)));
+        TableInfo users = new TableInfo("users", left, new PageId(-1));
+        TableInfo orders = new TableInfo("orders", right, new PageId(-1));
+        Schema combined = new Schema(List.of(left.getColumns().get(0), left.getColumns().get(1),
+                right.getColumns().get(0), right.getColumns().get(1)));
+
+        AbstractPredicate predicate = ExpressionCompiler.compile(where("users.id = orders.user_id"), combined, users, orders);
+        assertTrue(predicate.evaluate(new Tuple(List.of(new Value(3), new Value("Bob"), new Value(3), new Value(100)))));
+        assertFalse(predicate.evaluate(new Tuple(List.of(new Value(3), new Value("Bob"), new Value(4), new Value(3)))));
+    }
+
+    @Test
+    void testTypedLiteralsAreBoundToColumnTypes() throws IOException {
+        Schema typed = new Schema(List.of(
+                new Column("born", DataType.DATE),
+                new Column("price", DataType.DECIMAL),
+                new Column("ratio", DataType.DOUBLE),
+                new Column("code", DataType.CHAR)));
+        Tuple tuple = new Tuple(List.of(
+                new Value(LocalDate.of(2024, 3, 1)),
+                new Value(new BigDecimal("19.99")),
+                new Value(0.75),
+                new Value(DataType.CHAR, "b")));
+
+        assertTrue(ExpressionCompiler.compile(where("born > '2024-02-29'"), typed).evaluate(tuple));
+        assertFalse(ExpressionCompiler.compile(where("born < '2024-01-01'"), typed).evaluate(tuple));
+        assertTrue(ExpressionCompiler.compile(where("price = 19.99"), typed).evaluate(tuple));
+        assertTrue(ExpressionCompiler.compile(where("price < 20"), typed).evaluate(tuple));
+        assertTrue(ExpressionCompiler.compile(where("ratio >= 0.5 AND ratio < 1"), typed).evaluate(tuple));
+        assertTrue(ExpressionCompiler.compile(where("code = 'b'"), typed).evaluate(tuple));
+    }
+
+    @Test
+    void testBatchKernelMatchesRowEvaluation() throws IOException {
+        AbstractPredicate predicate = ExpressionCompiler.compile(where("score >= 40 AND id < 80"), schema);
+        TupleBatch batch = new TupleBatch(schema, 100);
+        int expected = 0;
+        for (int i = 0; i < 100; i++) {
+            Tuple tuple = row(i, "n" + i, i % 50);
+            batch.addTuple(tuple);
+            if (predicate.evaluate(tuple)) {
+                expected++;
+            }
+        }
+        predicate.filterBatch(batch);
+        assertEquals(expected, batch.getSelectedCount());
+        for (int i = 0; i < batch.getSelectedCount(); i++) {
+            assertTrue(predicate.evaluate(batch.materialize(batch.getSelection()[i])));
+        }
+    }
+
+    @Test
+    void testCompiledPredicateCachedByExpressionText() throws IOException {
+        // 两次独立解析得到的 AST 对象不同、词素位置不同，但文本和模式相同时共享同一个编译结果
+        AbstractPredicate first = ExpressionCompiler.compileCached(where("score >= 60 AND name = 'Alice'"), schema);
+        AbstractPredicate second = ExpressionCompiler.compileCached(where("score   >=   60 AND name = 'Alice'"), schema);
+        assertSame(first, second);
+        assertTrue(second.evaluate(row(1, "Alice", 90)));
+
+        assertNotSame(first, ExpressionCompiler.compileCached(where("score >= 61 AND name = 'Alice'"), schema));
+        Schema reordered = new Schema(List.of(
+                new Column("name", DataType.VARCHAR),
+                new Column("score", DataType.INT),
+                new Column("id", DataType.INT)));
+        AbstractPredicate other = ExpressionCompiler.compileCached(where("score >= 60 AND name = 'Alice'"), reordered);
+        assertNotSame(first, other);
+        assertTrue(other.evaluate(new Tuple(List.of(new Value("Alice"), new Value(90), new Value(1)))));
+    }
+}
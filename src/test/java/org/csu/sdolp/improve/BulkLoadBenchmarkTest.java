@@ -0,0 +1,185 @@
+package org.csu.sdolp.improve;
+
+import org.csu.sdolp.catalog.IndexInfo;
+import org.csu.sdolp.common.model.RID;
+import org.csu.sdolp.common.model.Value;
+import org.csu.sdolp.engine.QueryProcessor;
+import org.csu.sdolp.storage.index.BPlusTree;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 批量装载 (LOAD DATA INFILE) 的测试与基准.
+ * <p>
+ * 比较逐条 INSERT 与 LOAD DATA 的装载吞吐量，验证装载后主键索引 (自底向上构建) 的每个键都能查到，
+ * 以及 CSV 的引号与 NULL、出错时整批不可见、非空表和列存表上的装载和重新打开后的持久化。
+ */
+public class BulkLoadBenchmarkTest {
+
+    private static final int DATA_VOLUME = 100000;
+    private static final int INSERT_VOLUME = 2000;
+
+    private final String TEST_DB_NAME = "bulk_load_benchmark_db";
+    private QueryProcessor queryProcessor;
+
+    @BeforeEach
+    void setUp() {
+        deleteDirectory(new File("data/" + TEST_DB_NAME));
+        queryProcessor = new QueryProcessor(TEST_DB_NAME);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (queryProcessor != null) {
+            queryProcessor.close();
+        }
+        deleteDirectory(new File("data/" + TEST_DB_NAME));
+    }
+
+    @Test
+    void testLoadThroughputAndIndex() throws IOException {
+        queryProcessor.execute("CREATE TABLE users_insert (id INT PRIMARY KEY, name VARCHAR, score INT);");
+        queryProcessor.execute("CREATE TABLE users (id INT PRIMARY KEY, name VARCHAR, score INT);");
+
+        long start = System.nanoTime();
+        for (int i = 0; i < INSERT_VOLUME; i++) {
+            queryProcessor.executeAndGetResult(String.format(
+                    "INSERT INTO users_insert (id, name, score) VALUES (%d, 'user_%d', %d);", i, i, i % 100));
+        }
+        double insertRowsPerSecond = INSERT_VOLUME / ((System.nanoTime() - start) / 1e9);
+
+        Path csv = csvPath("users.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < DATA_VOLUME; i++) {
+                writer.write(i + ",user_" + i + "," + (i % 100) + "\n");
+            }
+        }
+        start = System.nanoTime();
+        String result = queryProcessor.executeAndGetResult("LOAD DATA INFILE '" + csv + "' INTO TABLE users;");
+        double loadRowsPerSecond = DATA_VOLUME / ((System.nanoTime() - start) / 1e9);
+
+        System.out.println("--- [基准测试] 批量装载 ---");
+        System.out.printf("  %-14s %-10s %-14s%n", "方式", "行数", "吞吐量 (行/秒)");
+        System.out.printf("  %-14s %-10d %-14.0f%n", "逐条 INSERT", INSERT_VOLUME, insertRowsPerSecond);
+        System.out.printf("  %-14s %-10d %-14.0f%n", "LOAD DATA", DATA_VOLUME, loadRowsPerSecond);
+
+        assertEquals("Query OK, " + DATA_VOLUME + " rows affected.", result);
+        assertTrue(loadRowsPerSecond > insertRowsPerSecond * 10, "批量装载应远快于逐条插入");
+        assertTrue(queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM users;").contains(String.valueOf(DATA_VOLUME)));
+        assertTrue(queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM users WHERE score = 7;")
+                .contains(String.valueOf(DATA_VOLUME / 100)));
+
+        // 自底向上构建的主键索引：每个键都指向对应的行
+        IndexInfo pkIndex = queryProcessor.getCatalog().getIndex("users", "id");
+        BPlusTree tree = new BPlusTree(queryProcessor.getBufferPoolManager(), pkIndex.getRootPageId(), pkIndex.getSegmentName());
+        for (int i = 0; i < DATA_VOLUME; i += 997) {
+            RID rid = tree.search(new Value(i));
+            assertNotNull(rid, "key " + i);
+        }
+        assertNull(tree.search(new Value(DATA_VOLUME)));
+        String row = queryProcessor.executeAndGetResult("SELECT name FROM users WHERE id = 77777;");
+        assertTrue(row.contains("user_77777"), row);
+
+        // 索引继续支持普通插入和主键检查
+        assertTrue(queryProcessor.executeAndGetResult(
+                "INSERT INTO users (id, name, score) VALUES (5, 'dup', 1);").contains("Duplicate key"));
+        queryProcessor.execute("INSERT INTO users (id, name, score) VALUES (" + DATA_VOLUME + ", 'last', 1);");
+        assertNotNull(new BPlusTree(queryProcessor.getBufferPoolManager(), pkIndex.getRootPageId(), pkIndex.getSegmentName())
+                .search(new Value(DATA_VOLUME)));
+    }
+
+    @Test
+    void testCsvFormatAndFailedLoadIsInvisible() throws IOException {
+        queryProcessor.execute("CREATE TABLE items (id INT PRIMARY KEY, title VARCHAR, price DECIMAL, on_sale BOOLEAN);");
+        Path csv = csvPath("items.csv");
+        Files.writeString(csv, String.join("\n",
+                "1,\"pen, blue\",1.50,true",
+                "2,\"say \"\"hi\"\"\",,0",
+                "",
+                "3,\"two",
+                "lines\",3,1",
+                "4,,4.25,false") + "\n");
+        assertEquals("Query OK, 4 rows affected.",
+                queryProcessor.executeAndGetResult("LOAD DATA INFILE '" + csv + "' INTO TABLE items;"));
+
+        String result = queryProcessor.executeAndGetResult("SELECT id, title, price FROM items;");
+        assertTrue(result.contains("pen, blue") && result.contains("say \"hi\"") && result.contains("4.25"), result);
+        assertTrue(queryProcessor.executeAndGetResult("SELECT id FROM items WHERE on_sale = true;").contains("3"));
+        assertTrue(queryProcessor.executeAndGetResult("SELECT title FROM items WHERE id = 4;").contains("NULL"));
+
+        // 字段数不符、类型错误和主键冲突都使整批装载失败，已写入的页不会挂到表上
+        Files.writeString(csv, "10,a,1,true\n11,b,1\n");
+        assertTrue(queryProcessor.executeAndGetResult("LOAD DATA INFILE '" + csv + "' INTO TABLE items;")
+                .contains("Line 2: expected 4 fields but found 3"));
+        Files.writeString(csv, "10,a,1,true\n11,b,abc,true\n");
+        assertTrue(queryProcessor.executeAndGetResult("LOAD DATA INFILE '" + csv + "' INTO TABLE items;")
+                .contains("Invalid DECIMAL value 'abc'"));
+        Files.writeString(csv, "10,a,1,true\n2,b,1,true\n");
+        assertTrue(queryProcessor.executeAndGetResult("LOAD DATA INFILE '" + csv + "' INTO TABLE items;")
+                .contains("Duplicate key '2'"));
+        assertTrue(queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM items;").contains("4"));
+        assertTrue(queryProcessor.executeAndGetResult("SELECT id FROM items WHERE id = 10;").contains("0 rows returned"));
+
+        assertTrue(queryProcessor.executeAndGetResult("LOAD DATA INFILE 'no_such_file.csv' INTO TABLE items;")
+                .contains("not found"));
+    }
+
+    @Test
+    void testLoadIntoNonEmptyAndColumnarTables() throws IOException {
+        int volume = 5000;
+        queryProcessor.execute("CREATE TABLE orders (id INT, amount INT);");
+        queryProcessor.execute("CREATE INDEX idx_orders_id ON orders (id);");
+        queryProcessor.execute("INSERT INTO orders (id, amount) VALUES (" + volume + ", 100);");
+        queryProcessor.execute("CREATE TABLE orders_col (id INT, amount INT) ENGINE = COLUMNAR;");
+        Path csv = csvPath("orders.csv");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < volume; i++) {
+            content.append(i).append(',').append(i % 50).append('\n');
+        }
+        Files.writeString(csv, content);
+
+        queryProcessor.execute("LOAD DATA INFILE '" + csv + "' INTO TABLE orders;");
+        queryProcessor.execute("LOAD DATA INFILE '" + csv + "' INTO TABLE orders;");
+        queryProcessor.execute("LOAD DATA INFILE '" + csv + "' INTO TABLE orders_col;");
+        IndexInfo index = queryProcessor.getCatalog().getIndex("orders", "id");
+        BPlusTree tree = new BPlusTree(queryProcessor.getBufferPoolManager(), index.getRootPageId(), index.getSegmentName());
+        assertNotNull(tree.search(new Value(volume)), "装载前插入的键仍在索引中");
+        assertNotNull(tree.search(new Value(volume - 1)), "非空索引按键的顺序逐个插入");
+
+        queryProcessor.close();
+        queryProcessor = new QueryProcessor(TEST_DB_NAME);
+        assertTrue(queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM orders;").contains(String.valueOf(2 * volume + 1)));
+        assertTrue(queryProcessor.executeAndGetResult("SELECT SUM(amount) FROM orders_col;")
+                .contains(String.valueOf(volume / 50 * (49 * 50 / 2))));
+        List<String> lines = List.of(queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM orders_col;").split("\n"));
+        assertTrue(lines.stream().anyMatch(l -> l.contains(String.valueOf(volume))));
+    }
+
+    private Path csvPath(String fileName) {
+        return Path.of("data", TEST_DB_NAME, fileName);
+    }
+
+    private void deleteDirectory(File directory) {
+        if (!directory.exists()) {
+            return;
+        }
+        File[] allContents = directory.listFiles();
+        if (allContents != null) {
+            for (File file : allContents) {
+                deleteDirectory(file);
+            }
+        }
+        directory.delete();
+    }
+}
@@ -0,0 +1,167 @@
+package org.csu.sdolp.improve;
+
+import org.csu.sdolp.catalog.TableEngine;
+import org.csu.sdolp.catalog.TableInfo;
+import org.csu.sdolp.common.model.Tuple;
+import org.csu.sdolp.common.model.Value;
+import org.csu.sdolp.compiler.lexer.Lexer;
+import org.csu.sdolp.compiler.parser.Parser;
+import org.csu.sdolp.compiler.parser.ast.dml.SelectStatementNode;
+import org.csu.sdolp.engine.QueryProcessor;
+import org.csu.sdolp.executor.vector.BatchColumnarScanExecutor;
+import org.csu.sdolp.executor.vector.TupleBatch;
+import org.csu.sdolp.storage.column.ColumnSegment;
+import org.csu.sdolp.storage.column.ColumnarTable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 列存表 (ENGINE = COLUMNAR) 的测试与基准.
+ * <p>
+ * 同一份销售数据分别存入行存表和列存表，比较分组聚合的结果、冷查询读取的字节数和查询耗时，
+ * 并验证按段 min/max 跳段、重新打开后的持久化，以及列存表上不支持的语句被拒绝。
+ */
+public class ColumnarTableBenchmarkTest {
+
+    private static final int DATA_VOLUME = 3000;
+    private static final String[] REGIONS = {"north", "south", "east", "west"};
+
+    private final String TEST_DB_NAME = "columnar_table_benchmark_db";
+    private QueryProcessor queryProcessor;
+
+    @BeforeEach
+    void setUp() {
+        deleteDirectory(new File("data/" + TEST_DB_NAME));
+        queryProcessor = new QueryProcessor(TEST_DB_NAME);
+        queryProcessor.execute("CREATE TABLE sales_row (id INT, region VARCHAR, amount INT, note VARCHAR);");
+        queryProcessor.execute("CREATE TABLE sales (id INT, region VARCHAR, amount INT, note VARCHAR) ENGINE = COLUMNAR;");
+        for (int i = 1; i <= DATA_VOLUME; i++) {
+            String values = String.format("VALUES (%d, '%s', %d, 'order %d');", i, REGIONS[i % REGIONS.length], i % 97, i % 10);
+            queryProcessor.execute("INSERT INTO sales_row (id, region, amount, note) " + values);
+            queryProcessor.execute("INSERT INTO sales (id, region, amount, note) " + values);
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (queryProcessor != null) {
+            queryProcessor.close();
+        }
+        deleteDirectory(new File("data/" + TEST_DB_NAME));
+    }
+
+    @Test
+    void testAggregateMatchesRowStore() throws IOException {
+        assertEquals(TableEngine.COLUMNAR, queryProcessor.getCatalog().getTable("sales").getEngine());
+        assertEquals(TableEngine.ROW, queryProcessor.getCatalog().getTable("sales_row").getEngine());
+
+        String query = "SELECT region, SUM(amount), COUNT(*) FROM %s GROUP BY region;";
+        System.out.println("--- [基准测试] 列存表: 分组聚合 ---");
+        System.out.printf("  %-10s %-14s %-12s%n", "存储引擎", "冷读取 (KB)", "查询 (ms)");
+        String[] results = new String[2];
+        long[] coldBytes = new long[2];
+        String[] tables = {"sales_row", "sales"};
+        for (int t = 0; t < tables.length; t++) {
+            String sql = String.format(query, tables[t]);
+            // 清空缓冲池后执行一次，统计从文件读取的字节数
+            queryProcessor.getBufferPoolManager().flushAllPages();
+            queryProcessor.getBufferPoolManager().clear();
+            long bytesBefore = queryProcessor.getDiskManager().getBytesRead();
+            results[t] = queryProcessor.executeAndGetResult(sql);
+            coldBytes[t] = queryProcessor.getDiskManager().getBytesRead() - bytesBefore;
+
+            long start = System.nanoTime();
+            int rounds = 20;
+            for (int i = 0; i < rounds; i++) {
+                assertEquals(results[t], queryProcessor.executeAndGetResult(sql));
+            }
+            double millis = (System.nanoTime() - start) / 1e6 / rounds;
+            System.out.printf("  %-10s %-14d %-12.2f%n", tables[t], coldBytes[t] / 1024, millis);
+        }
+        assertEquals(sortedLines(results[0]), sortedLines(results[1]));
+        assertTrue(results[1].contains("north"), results[1]);
+        assertTrue(coldBytes[1] < coldBytes[0], "列存表只读取 region 和 amount 两列的段");
+
+        assertTrue(queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM sales WHERE region = 'east';")
+                .contains(String.valueOf(DATA_VOLUME / REGIONS.length)));
+        String row = queryProcessor.executeAndGetResult("SELECT id, region, amount, note FROM sales WHERE id = 1234;");
+        assertTrue(row.contains("east") && row.contains("70") && row.contains("order 4"), row);
+    }
+
+    @Test
+    void testZoneMapSkipsSegments() throws IOException {
+        // 递增的 id 按 DELTA 编码，一个段最多 MAX_VALUES 个值；直接按批追加足够多的行以得到多个段
+        int volume = 3 * ColumnSegment.MAX_VALUES;
+        queryProcessor.execute("CREATE TABLE events (id INT, kind INT) ENGINE = COLUMNAR;");
+        TableInfo tableInfo = queryProcessor.getCatalog().getTable("events");
+        ColumnarTable table = new ColumnarTable(queryProcessor.getBufferPoolManager(), tableInfo.getFirstPageId(),
+                tableInfo.getSchema(), TableInfo.segmentName("events"));
+        List<Tuple> rows = new ArrayList<>();
+        for (int i = 0; i < volume; i++) {
+            rows.add(new Tuple(List.of(new Value(i), new Value(i % 5))));
+        }
+        assertEquals(volume, table.appendRows(rows));
+
+        String sql = "SELECT id FROM events WHERE id >= " + (volume - 100) + ";";
+        SelectStatementNode select = (SelectStatementNode) new Parser(new Lexer(sql).tokenize()).parse();
+        BatchColumnarScanExecutor scan = new BatchColumnarScanExecutor(table, null, new int[]{0}, select.whereClause());
+        int returned = 0;
+        TupleBatch batch;
+        while ((batch = scan.nextBatch()) != null) {
+            returned += batch.getSelectedCount();
+        }
+        assertEquals(volume, returned + scan.getSkippedRows(), "未跳过的段全部返回，交给谓词过滤");
+        assertEquals(2L * ColumnSegment.MAX_VALUES, scan.getSkippedRows(), "前两个段的最大值小于常量，应整段跳过");
+        assertTrue(queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM events WHERE id >= " + (volume - 100) + ";")
+                .contains("100"));
+        assertTrue(queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM events WHERE kind = 3;")
+                .contains(String.valueOf(volume / 5)));
+    }
+
+    @Test
+    void testPersistenceAndUnsupportedStatements() throws IOException {
+        queryProcessor.close();
+        queryProcessor = new QueryProcessor(TEST_DB_NAME);
+        assertTrue(queryProcessor.getCatalog().getTable("sales").isColumnar());
+        assertTrue(queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM sales;").contains(String.valueOf(DATA_VOLUME)));
+
+        queryProcessor.execute("INSERT INTO sales (id, region, amount, note) VALUES (3001, 'north', 5, 'late');");
+        assertTrue(queryProcessor.executeAndGetResult("SELECT note FROM sales WHERE id = 3001;").contains("late"));
+
+        assertTrue(queryProcessor.executeAndGetResult("DELETE FROM sales WHERE id = 1;").contains("not supported"));
+        assertTrue(queryProcessor.executeAndGetResult("UPDATE sales SET amount = 1 WHERE id = 1;").contains("not supported"));
+        assertTrue(queryProcessor.executeAndGetResult(
+                "CREATE TABLE bad (id INT PRIMARY KEY, v INT) ENGINE = COLUMNAR;").contains("PRIMARY KEY"));
+
+        queryProcessor.execute("DROP TABLE sales;");
+        assertNull(queryProcessor.getCatalog().getTable("sales"));
+    }
+
+    private String sortedLines(String result) {
+        String[] lines = result.split("\n");
+        Arrays.sort(lines);
+        return String.join("\n", lines);
+    }
+
+    private void deleteDirectory(File directory) {
+        if (!directory.exists()) {
+            return;
+        }
+        File[] allContents = directory.listFiles();
+        if (allContents != null) {
+            for (File file : allContents) {
+                deleteDirectory(file);
+            }
+        }
+        directory.delete();
+    }
+}
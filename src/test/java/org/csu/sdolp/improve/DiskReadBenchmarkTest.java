@@ -0,0 +1,121 @@
+package org.csu.sdolp.improve;
+
+import org.csu.sdolp.storage.disk.DiskManager;
+import org.csu.sdolp.storage.page.Page;
+import org.csu.sdolp.storage.page.PageId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DiskManager 多线程随机读基准测试.
+ * <p>
+ * 比较基于 FileChannel 定位读 (pread) 的 DiskManager 与共享文件指针、整体加锁的 RandomAccessFile
+ * (seek + read) 在 1/2/4/8 个线程下的随机读吞吐量，同时校验每一页读到的内容正确。
+ * 吞吐量只打印不断言，多线程的收益取决于机器的核数和磁盘。
+ */
+public class DiskReadBenchmarkTest {
+
+    private static final String TEST_DB_FILE = "data/disk_read_benchmark_test.db";
+    private static final int PAGE_COUNT = 2048;
+    private static final int READS_PER_THREAD = 5000;
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8};
+    private static final int HEADER_SIZE = 4096;
+
+    private DiskManager diskManager;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        new File(TEST_DB_FILE).delete();
+        diskManager = new DiskManager(TEST_DB_FILE);
+        diskManager.open();
+        // 每页开头写入自己的页号，用于校验读到的是正确的页
+        for (int i = 0; i < PAGE_COUNT; i++) {
+            PageId pageId = diskManager.allocatePage();
+            Page page = new Page(pageId);
+            page.getData().putInt(0, pageId.getPageNum());
+            page.getData().putInt(Page.DEFAULT_PAGE_SIZE - 4, pageId.getPageNum());
+            diskManager.writePage(page);
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (diskManager != null) {
+            diskManager.close();
+        }
+        new File(TEST_DB_FILE).delete();
+    }
+
+    @Test
+    void testConcurrentRandomReadThroughput() throws Exception {
+        System.out.println("--- [基准测试] 多线程随机读页吞吐量 ---");
+        System.out.printf("  %-6s %-22s %-22s%n", "线程数", "FileChannel 定位读 (页/秒)", "RandomAccessFile 加锁 (页/秒)");
+        try (RandomAccessFile raf = new RandomAccessFile(TEST_DB_FILE, "r")) {
+            PageReader positionalReader = pageNum -> {
+                Page page = diskManager.readPage(new PageId(pageNum));
+                return page.getData().getInt(0) == pageNum
+                        && page.getData().getInt(Page.DEFAULT_PAGE_SIZE - 4) == pageNum;
+            };
+            PageReader lockedReader = pageNum -> {
+                byte[] data = new byte[Page.DEFAULT_PAGE_SIZE];
+                synchronized (raf) {
+                    raf.seek((long) pageNum * Page.DEFAULT_PAGE_SIZE + HEADER_SIZE);
+                    raf.readFully(data);
+                }
+                Page page = new Page(new PageId(pageNum), data);
+                return page.getData().getInt(0) == pageNum;
+            };
+            // 预热，避免 JIT 编译影响第一组结果
+            run(1, positionalReader);
+            run(1, lockedReader);
+            for (int threads : THREAD_COUNTS) {
+                double positional = run(threads, positionalReader);
+                double locked = run(threads, lockedReader);
+                System.out.printf("  %-6d %-22.0f %-22.0f%n", threads, positional, locked);
+            }
+        }
+    }
+
+    private interface PageReader {
+        boolean read(int pageNum) throws IOException;
+    }
+
+    private double run(int threads, PageReader reader) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long seed = t;
+            futures.add(pool.submit(() -> {
+                Random random = new Random(seed);
+                start.await();
+                int mismatches = 0;
+                for (int i = 0; i < READS_PER_THREAD; i++) {
+                    if (!reader.read(random.nextInt(PAGE_COUNT))) {
+                        mismatches++;
+                    }
+                }
+                return mismatches;
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<Integer> future : futures) {
+            assertEquals(0, future.get(), "读到的页面内容与页号不符");
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        pool.shutdown();
+        return (double) threads * READS_PER_THREAD / seconds;
+    }
+}
@@ -0,0 +1,94 @@
+package org.csu.sdolp.improve;
+
+import org.csu.sdolp.catalog.TableInfo;
+import org.csu.sdolp.engine.QueryProcessor;
+import org.csu.sdolp.storage.buffer.BufferPoolManager;
+import org.csu.sdolp.storage.page.Page;
+import org.csu.sdolp.storage.page.PageId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 按区分配页面的测试.
+ * <p>
+ * 两张表交替插入时，验证每张表的堆页在文件中仍然连续 (沿堆页链表页号依次加 1)，
+ * 全表扫描因此是顺序读，并打印各表的堆页数和连续段数 (逐页分配时两张表的页交错，每页自成一段)。
+ */
+public class ExtentAllocationTest {
+
+    private static final int ROWS_PER_TABLE = 1500;
+
+    private final String TEST_DB_NAME = "extent_allocation_test_db";
+
+    @AfterEach
+    void tearDown() {
+        deleteDirectory(new File("data/" + TEST_DB_NAME));
+    }
+
+    @Test
+    void testInterleavedTablesStayContiguous() throws IOException {
+        deleteDirectory(new File("data/" + TEST_DB_NAME));
+        QueryProcessor queryProcessor = new QueryProcessor(TEST_DB_NAME);
+        queryProcessor.execute("CREATE TABLE orders (id INT, note VARCHAR);");
+        queryProcessor.execute("CREATE TABLE events (id INT, note VARCHAR);");
+        for (int i = 1; i <= ROWS_PER_TABLE; i++) {
+            queryProcessor.execute(String.format("INSERT INTO orders (id, note) VALUES (%d, 'order_%d_%s');", i, i, "o".repeat(40)));
+            queryProcessor.execute(String.format("INSERT INTO events (id, note) VALUES (%d, 'event_%d_%s');", i, i, "e".repeat(40)));
+        }
+        queryProcessor.execute("CREATE INDEX idx_orders_id ON orders (id);");
+
+        System.out.println("--- [测试] 交替插入两张表后的堆页布局 ---");
+        System.out.printf("  %-8s %-8s %-10s%n", "表", "堆页数", "连续段数");
+        for (String tableName : List.of("orders", "events")) {
+            List<Integer> pages = heapPages(queryProcessor, tableName);
+            int runs = 1;
+            for (int i = 1; i < pages.size(); i++) {
+                if (pages.get(i) != pages.get(i - 1) + 1) {
+                    runs++;
+                }
+            }
+            System.out.printf("  %-8s %-8d %-10d%n", tableName, pages.size(), runs);
+            assertTrue(pages.size() > 1);
+            assertEquals(1, runs, tableName + " 的堆页应在一个区内连续分配");
+        }
+
+        String result = queryProcessor.executeAndGetResult("SELECT note FROM orders WHERE id = 777;");
+        assertTrue(result.contains("order_777_"), result);
+        result = queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM events;");
+        assertTrue(result.contains(String.valueOf(ROWS_PER_TABLE)), result);
+        queryProcessor.close();
+    }
+
+    private List<Integer> heapPages(QueryProcessor queryProcessor, String tableName) throws IOException {
+        BufferPoolManager bufferPoolManager = queryProcessor.getBufferPoolManager();
+        TableInfo tableInfo = queryProcessor.getCatalog().getTable(tableName);
+        List<Integer> pages = new ArrayList<>();
+        int pageNum = tableInfo.getFirstPageId().getPageNum();
+        while (pageNum != -1) {
+            pages.add(pageNum);
+            Page page = bufferPoolManager.getPage(new PageId(pageNum));
+            pageNum = page.getNextPageId();
+        }
+        return pages;
+    }
+
+    private void deleteDirectory(File directory) {
+        if (!directory.exists()) {
+            return;
+        }
+        File[] allContents = directory.listFiles();
+        if (allContents != null) {
+            for (File file : allContents) {
+                deleteDirectory(file);
+            }
+        }
+        directory.delete();
+    }
+}
@@ -0,0 +1,179 @@
+package org.csu.sdolp.improve;
+
+import org.csu.sdolp.engine.QueryProcessor;
+import org.csu.sdolp.executor.HeapVacuum;
+import org.csu.sdolp.storage.page.Page;
+import org.csu.sdolp.storage.page.PageId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 墓碑删除与后台清理的测试与基准.
+ * <p>
+ * 删除只在槽位上留下墓碑，同页其他行的 RID 不变，索引无需随删除调整；整页删空的页由后台清理从页链表中摘下并释放。
+ * 验证逐行删除的吞吐量、删除后重新插入时索引仍指向正确的行、清理后表的页数减少，以及重新打开后按原 RID 重做。
+ */
+public class HeapVacuumTest {
+
+    private static final int DATA_VOLUME = 3000;
+
+    private final String TEST_DB_NAME = "heap_vacuum_test_db";
+    private QueryProcessor queryProcessor;
+
+    @BeforeEach
+    void setUp() {
+        deleteDirectory(new File("data/" + TEST_DB_NAME));
+        queryProcessor = new QueryProcessor(TEST_DB_NAME);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (queryProcessor != null) {
+            queryProcessor.close();
+        }
+        deleteDirectory(new File("data/" + TEST_DB_NAME));
+    }
+
+    @Test
+    void testTombstoneDeleteKeepsRids() throws IOException {
+        queryProcessor.execute("CREATE TABLE events (id INT PRIMARY KEY, payload VARCHAR);");
+        StringBuilder sql = new StringBuilder("INSERT INTO events (id, payload) VALUES ");
+        for (int i = 0; i < DATA_VOLUME; i++) {
+            sql.append(i == 0 ? "" : ", ").append(String.format("(%d, 'event_%d_%s')", i, i, "p".repeat(20)));
+        }
+        queryProcessor.execute(sql.append(";").toString());
+        int pagesBefore = countPages("events");
+
+        // 逐行删除每 3 行中的一行：墓碑删除不移动同页的其他行
+        int deletes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < DATA_VOLUME; i += 3) {
+            assertEquals("Query OK, 1 rows affected.",
+                    queryProcessor.executeAndGetResult("DELETE FROM events WHERE id = " + i + ";"));
+            deletes++;
+        }
+        double deletesPerSecond = deletes / ((System.nanoTime() - start) / 1e9);
+        for (int i = 1; i < DATA_VOLUME; i += 300) {
+            assertTrue(queryProcessor.executeAndGetResult("SELECT payload FROM events WHERE id = " + i + ";")
+                    .contains("event_" + i + "_"), "key " + i);
+        }
+
+        // 重新插入的行复用墓碑槽位，主键索引指向新行
+        for (int i = 0; i < 30; i += 3) {
+            queryProcessor.execute(String.format("INSERT INTO events (id, payload) VALUES (%d, 'again_%d');", i, i));
+        }
+        assertTrue(queryProcessor.executeAndGetResult("SELECT payload FROM events WHERE id = 9;").contains("again_9"));
+        assertTrue(queryProcessor.executeAndGetResult("SELECT payload FROM events WHERE id = 10;").contains("event_10_"));
+        assertEquals(pagesBefore, countPages("events"), "墓碑槽位被复用，表不应增长");
+
+        // 重新打开时重做全部日志：删除只作用在槽位上仍是被删除的那一行时
+        queryProcessor.close();
+        queryProcessor = new QueryProcessor(TEST_DB_NAME);
+        assertTrue(queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM events;").contains("| 2010 "));
+        assertTrue(queryProcessor.executeAndGetResult("SELECT payload FROM events WHERE id = 3;").contains("again_3"));
+        assertTrue(queryProcessor.executeAndGetResult("SELECT payload FROM events WHERE id = 33;").contains("0 rows returned"));
+
+        System.out.println("--- [基准测试] 墓碑删除 ---");
+        System.out.printf("  %-10s %-16s %-12s%n", "删除行数", "吞吐量 (行/秒)", "表页数");
+        System.out.printf("  %-10d %-16.0f %-12d%n", deletes, deletesPerSecond, pagesBefore);
+    }
+
+    @Test
+    void testVacuumFreesEmptyPages() throws Exception {
+        queryProcessor.execute("CREATE TABLE logs (id INT, message VARCHAR);");
+        StringBuilder sql = new StringBuilder("INSERT INTO logs (id, message) VALUES ");
+        for (int i = 0; i < DATA_VOLUME; i++) {
+            sql.append(i == 0 ? "" : ", ").append(String.format("(%d, 'log_%d_%s')", i, i, "m".repeat(20)));
+        }
+        queryProcessor.execute(sql.append(";").toString());
+        int pagesBefore = countPages("logs");
+
+        // 删空大部分页后，后台清理在删除事务提交后把空页从页链表中摘下
+        queryProcessor.execute("DELETE FROM logs WHERE id >= 100;");
+        HeapVacuum heapVacuum = queryProcessor.getHeapVacuum();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (heapVacuum.getFreedPageCount() == 0 || !heapVacuum.isIdle()) {
+            assertTrue(System.currentTimeMillis() < deadline, "后台清理应释放删空的页");
+            Thread.sleep(20);
+        }
+        int pagesAfter = countPages("logs");
+
+        System.out.println("--- [基准测试] 后台清理 ---");
+        System.out.printf("  %-12s %-12s %-12s%n", "删除前页数", "清理后页数", "释放页数");
+        System.out.printf("  %-12d %-12d %-12d%n", pagesBefore, pagesAfter, heapVacuum.getFreedPageCount());
+        assertTrue(pagesAfter < pagesBefore, "空页应被释放: " + pagesAfter + " vs " + pagesBefore);
+        assertEquals(pagesBefore - heapVacuum.getFreedPageCount(), pagesAfter);
+        assertTrue(queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM logs;").contains("| 100 "));
+
+        // 释放的页可以重新用于插入
+        queryProcessor.execute("INSERT INTO logs (id, message) VALUES (5000, 'late');");
+        for (int i = 0; i < 50; i += 7) {
+            queryProcessor.execute("DELETE FROM logs WHERE id = " + i + ";");
+        }
+
+        // 重新打开时重做全部日志，清理前的 DML 日志不会再作用到已释放的页上
+        queryProcessor.close();
+        queryProcessor = new QueryProcessor(TEST_DB_NAME);
+        assertTrue(queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM logs;").contains("| 93 "));
+        assertTrue(queryProcessor.executeAndGetResult("SELECT message FROM logs WHERE id = 5000;").contains("late"));
+        assertTrue(queryProcessor.executeAndGetResult("SELECT message FROM logs WHERE id = 99;").contains("log_99_"));
+        assertTrue(queryProcessor.executeAndGetResult("SELECT id FROM logs WHERE id = 200;").contains("0 rows returned"));
+        assertEquals(pagesAfter, countPages("logs"));
+    }
+
+    @Test
+    void testRedoInsertRestoresExactRid() throws IOException {
+        queryProcessor.execute("CREATE TABLE slots (id INT PRIMARY KEY, name VARCHAR);");
+        queryProcessor.execute("INSERT INTO slots (id, name) VALUES (1, 'first'), (2, 'second');");
+        queryProcessor.execute("DELETE FROM slots WHERE id = 1;");
+        // 复用 id = 1 留下的墓碑槽位 0
+        queryProcessor.execute("INSERT INTO slots (id, name) VALUES (3, 'third');");
+
+        // 模拟首页的写入丢失：页面回到空页，重新打开时只能靠重做日志恢复
+        Page page = queryProcessor.getBufferPoolManager().getPage(queryProcessor.getCatalog().getTable("slots").getFirstPageId());
+        page.init();
+        queryProcessor.getBufferPoolManager().flushPage(page.getPageId());
+        queryProcessor.close();
+
+        // 重做必须把每一行放回日志中的 RID，主键索引按原 RID 找到正确的行
+        queryProcessor = new QueryProcessor(TEST_DB_NAME);
+        assertTrue(queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM slots;").contains("| 2 "));
+        assertTrue(queryProcessor.executeAndGetResult("SELECT name FROM slots WHERE id = 3;").contains("third"));
+        assertTrue(queryProcessor.executeAndGetResult("SELECT name FROM slots WHERE id = 2;").contains("second"));
+        assertTrue(queryProcessor.executeAndGetResult("SELECT name FROM slots WHERE id = 1;").contains("0 rows returned"));
+
+        // 再次打开：已重做的插入不会重复放入
+        queryProcessor.close();
+        queryProcessor = new QueryProcessor(TEST_DB_NAME);
+        assertTrue(queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM slots;").contains("| 2 "));
+    }
+
+    private int countPages(String tableName) throws IOException {
+        int count = 0;
+        int pageNum = queryProcessor.getCatalog().getTable(tableName).getFirstPageId().getPageNum();
+        while (pageNum != -1) {
+            count++;
+            pageNum = queryProcessor.getBufferPoolManager().getPage(new PageId(pageNum)).getNextPageId();
+        }
+        return count;
+    }
+
+    private void deleteDirectory(File directory) {
+        if (!directory.exists()) {
+            return;
+        }
+        File[] allContents = directory.listFiles();
+        if (allContents != null) {
+            for (File file : allContents) {
+                deleteDirectory(file);
+            }
+        }
+        directory.delete();
+    }
+}
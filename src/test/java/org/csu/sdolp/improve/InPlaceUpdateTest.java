@@ -0,0 +1,149 @@
+package org.csu.sdolp.improve;
+
+import org.csu.sdolp.engine.QueryProcessor;
+import org.csu.sdolp.storage.page.Page;
+import org.csu.sdolp.storage.page.PageId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 原地 UPDATE 的测试与基准.
+ * <p>
+ * 新行放得下时在原槽位或本页内更新，放不下时迁到其他页并在原槽位留下转发桩，行的 RID 始终不变。
+ * 验证大量更新后表不再增长、按索引仍能查到更新后的行，以及迁出的行的扫描、再次更新、删除和重新打开后的恢复。
+ */
+public class InPlaceUpdateTest {
+
+    private static final int DATA_VOLUME = 2000;
+
+    private final String TEST_DB_NAME = "in_place_update_test_db";
+    private QueryProcessor queryProcessor;
+
+    @BeforeEach
+    void setUp() {
+        deleteDirectory(new File("data/" + TEST_DB_NAME));
+        queryProcessor = new QueryProcessor(TEST_DB_NAME);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (queryProcessor != null) {
+            queryProcessor.close();
+        }
+        deleteDirectory(new File("data/" + TEST_DB_NAME));
+    }
+
+    @Test
+    void testUpdatesDoNotGrowTable() throws IOException {
+        queryProcessor.execute("CREATE TABLE accounts (id INT PRIMARY KEY, owner VARCHAR, balance INT);");
+        StringBuilder sql = new StringBuilder("INSERT INTO accounts (id, owner, balance) VALUES ");
+        for (int i = 0; i < DATA_VOLUME; i++) {
+            sql.append(i == 0 ? "" : ", ").append(String.format("(%d, 'owner_%d', %d)", i, i, 1000));
+        }
+        queryProcessor.execute(sql.append(";").toString());
+        int pagesBefore = countPages("accounts");
+
+        long start = System.nanoTime();
+        for (int i = 0; i < DATA_VOLUME; i++) {
+            assertEquals("Query OK, 1 rows affected.", queryProcessor.executeAndGetResult(
+                    String.format("UPDATE accounts SET balance = %d WHERE id = %d;", 2000 + i % 7, i)));
+        }
+        double updatesPerSecond = DATA_VOLUME / ((System.nanoTime() - start) / 1e9);
+        int pagesAfter = countPages("accounts");
+
+        System.out.println("--- [基准测试] 原地 UPDATE ---");
+        System.out.printf("  %-10s %-16s %-12s %-12s%n", "更新行数", "吞吐量 (行/秒)", "更新前页数", "更新后页数");
+        System.out.printf("  %-10d %-16.0f %-12d %-12d%n", DATA_VOLUME, updatesPerSecond, pagesBefore, pagesAfter);
+
+        assertEquals(pagesBefore, pagesAfter, "等长的新行原地覆盖，表不应增长");
+        // RID 不变，主键索引中的条目仍然指向更新后的行
+        String row = queryProcessor.executeAndGetResult("SELECT owner, balance FROM accounts WHERE id = 1234;");
+        assertTrue(row.contains("owner_1234") && row.contains(String.valueOf(2000 + 1234 % 7)), row);
+        assertTrue(queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM accounts WHERE balance >= 2000;")
+                .contains(String.valueOf(DATA_VOLUME)));
+
+        // 修改主键时只更新主键索引
+        queryProcessor.execute("UPDATE accounts SET id = 5000 WHERE id = 7;");
+        assertTrue(queryProcessor.executeAndGetResult("SELECT owner FROM accounts WHERE id = 5000;").contains("owner_7"));
+        assertTrue(queryProcessor.executeAndGetResult("SELECT owner FROM accounts WHERE id = 7;").contains("0 rows returned"));
+    }
+
+    @Test
+    void testGrowingRowIsForwarded() throws IOException {
+        queryProcessor.execute("CREATE TABLE notes (id INT PRIMARY KEY, body VARCHAR);");
+        StringBuilder sql = new StringBuilder("INSERT INTO notes (id, body) VALUES ");
+        for (int i = 0; i < 300; i++) {
+            sql.append(i == 0 ? "" : ", ").append(String.format("(%d, 'note_%d')", i, i));
+        }
+        queryProcessor.execute(sql.append(";").toString());
+
+        // 第一页已满，变长的行 (仍短于溢出阈值，保存在堆页内) 放不进原页，迁到其他页
+        String longBody = "z".repeat(200);
+        queryProcessor.execute("UPDATE notes SET body = '" + longBody + "' WHERE id = 3;");
+        assertTrue(countForwardingSlots("notes") > 0, "原页放不下的行应迁出并留下转发桩");
+        assertTrue(queryProcessor.executeAndGetResult("SELECT body FROM notes WHERE id = 3;").contains(longBody));
+        assertTrue(queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM notes;").contains("300"));
+        assertTrue(queryProcessor.executeAndGetResult("SELECT id FROM notes WHERE body = '" + longBody + "';").contains("| 3 "));
+
+        // 迁出的行再次更新仍只有一跳转发
+        queryProcessor.execute("UPDATE notes SET body = '" + longBody + "!' WHERE id = 3;");
+        assertEquals(1, countForwardingSlots("notes"));
+        assertTrue(queryProcessor.executeAndGetResult("SELECT body FROM notes WHERE id = 3;").contains(longBody + "!"));
+        queryProcessor.execute("UPDATE notes SET body = 'short' WHERE id = 3;");
+        assertTrue(countForwardingSlots("notes") <= 1);
+        queryProcessor.execute("UPDATE notes SET body = '" + longBody + "' WHERE id = 5;");
+        queryProcessor.execute("DELETE FROM notes WHERE id = 5;");
+        assertTrue(queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM notes;").contains("299"));
+
+        // 重新打开时重做全部日志，更新只作用在仍是更新前版本的行上
+        queryProcessor.close();
+        queryProcessor = new QueryProcessor(TEST_DB_NAME);
+        assertTrue(queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM notes;").contains("299"));
+        assertTrue(queryProcessor.executeAndGetResult("SELECT body FROM notes WHERE id = 3;").contains("short"));
+        assertTrue(queryProcessor.executeAndGetResult("SELECT body FROM notes WHERE id = 4;").contains("note_4"));
+    }
+
+    private int countPages(String tableName) throws IOException {
+        int count = 0;
+        int pageNum = queryProcessor.getCatalog().getTable(tableName).getFirstPageId().getPageNum();
+        while (pageNum != -1) {
+            count++;
+            pageNum = queryProcessor.getBufferPoolManager().getPage(new PageId(pageNum)).getNextPageId();
+        }
+        return count;
+    }
+
+    private int countForwardingSlots(String tableName) throws IOException {
+        int count = 0;
+        int pageNum = queryProcessor.getCatalog().getTable(tableName).getFirstPageId().getPageNum();
+        while (pageNum != -1) {
+            Page page = queryProcessor.getBufferPoolManager().getPage(new PageId(pageNum));
+            for (int slot = 0; slot < page.getNumTuples(); slot++) {
+                if (page.isForwardingSlot(slot)) {
+                    count++;
+                }
+            }
+            pageNum = page.getNextPageId();
+        }
+        return count;
+    }
+
+    private void deleteDirectory(File directory) {
+        if (!directory.exists()) {
+            return;
+        }
+        File[] allContents = directory.listFiles();
+        if (allContents != null) {
+            for (File file : allContents) {
+                deleteDirectory(file);
+            }
+        }
+        directory.delete();
+    }
+}
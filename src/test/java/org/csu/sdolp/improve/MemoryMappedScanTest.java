@@ -0,0 +1,131 @@
+package org.csu.sdolp.improve;
+
+import org.csu.sdolp.DatabaseManager;
+import org.csu.sdolp.engine.QueryProcessor;
+import org.csu.sdolp.storage.buffer.BufferPoolManager;
+import org.csu.sdolp.storage.disk.DiskManager;
+import org.csu.sdolp.storage.page.Page;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 内存映射读路径的测试与基准.
+ * <p>
+ * 验证以内存映射模式打开的数据库可以正常读写 (包括索引和溢出页)，关闭后普通模式能读出相同的数据，
+ * 并比较表大于缓存池时，缓存池模式与内存映射模式下热的全表扫描吞吐量和缓存池未命中 (页面复制) 次数。
+ */
+public class MemoryMappedScanTest {
+
+    private static final int DATA_VOLUME = 8000;
+    private static final int SCAN_ROUNDS = 10;
+
+    private final String TEST_DB_NAME = "mmap_scan_test_db";
+
+    @AfterEach
+    void tearDown() {
+        deleteDirectory(new File("data/" + TEST_DB_NAME));
+    }
+
+    @Test
+    void testReadWriteInMappedMode() throws IOException {
+        deleteDirectory(new File("data/" + TEST_DB_NAME));
+        QueryProcessor queryProcessor = new QueryProcessor(TEST_DB_NAME, DiskManager.IoMode.MEMORY_MAPPED);
+        queryProcessor.execute("CREATE TABLE docs (id INT, body VARCHAR);");
+        queryProcessor.execute("CREATE INDEX idx_docs_id ON docs (id);");
+        String longBody = "x".repeat(10000);
+        for (int i = 1; i <= 300; i++) {
+            String body = i == 7 ? longBody : "doc" + i;
+            queryProcessor.execute(String.format("INSERT INTO docs (id, body) VALUES (%d, '%s');", i, body));
+        }
+        queryProcessor.execute("DELETE FROM docs WHERE id > 250;");
+        queryProcessor.execute("UPDATE docs SET body = 'updated' WHERE id = 100;");
+
+        String result = queryProcessor.executeAndGetResult("SELECT id FROM docs WHERE body = 'updated';");
+        assertTrue(result.contains("1 rows returned"), result);
+        result = queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM docs;");
+        assertTrue(result.contains("250"), result);
+        queryProcessor.close();
+
+        // 文件截断到实际分配的页数
+        long length = new File(DatabaseManager.getDbFilePath(TEST_DB_NAME)).length();
+        assertEquals(0, (length - 4096) % Page.DEFAULT_PAGE_SIZE);
+
+        // 普通模式重新打开，数据一致
+        queryProcessor = new QueryProcessor(TEST_DB_NAME);
+        result = queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM docs;");
+        assertTrue(result.contains("250"), result);
+        result = queryProcessor.executeAndGetResult("SELECT body FROM docs WHERE id = 7;");
+        assertTrue(result.contains(longBody), "溢出页中的值应能完整读回");
+        result = queryProcessor.executeAndGetResult("SELECT body FROM docs WHERE body = 'doc42';");
+        assertTrue(result.contains("1 rows returned"), result);
+        queryProcessor.close();
+    }
+
+    @Test
+    void testWarmScanThroughput() throws IOException {
+        deleteDirectory(new File("data/" + TEST_DB_NAME));
+        // 以内存映射模式批量装载 (模拟夜间批量写入)，之后分别以两种模式只读扫描
+        QueryProcessor queryProcessor = new QueryProcessor(TEST_DB_NAME, DiskManager.IoMode.MEMORY_MAPPED);
+        queryProcessor.execute("CREATE TABLE bench (id INT, name VARCHAR, score INT);");
+        for (int i = 1; i <= DATA_VOLUME; i++) {
+            queryProcessor.execute(String.format(
+                    "INSERT INTO bench (id, name, score) VALUES (%d, '%s', %d);", i, name(i), i % 100));
+        }
+        long dataPages = queryProcessor.getBufferPoolManager().getAllocatedPageCount();
+        queryProcessor.close();
+
+        System.out.println("--- [基准测试] 缓存池模式 vs 内存映射模式的热扫描 ---");
+        System.out.printf("  数据页数: %d, 缓存池容量: 100 页%n", dataPages);
+        System.out.printf("  %-10s %-16s %-16s%n", "模式", "扫描 (行/秒)", "每次扫描未命中");
+        long bufferedMisses = -1;
+        for (boolean memoryMapped : new boolean[]{false, true}) {
+            queryProcessor = new QueryProcessor(TEST_DB_NAME,
+                    memoryMapped ? DiskManager.IoMode.MEMORY_MAPPED : DiskManager.IoMode.BUFFERED);
+            BufferPoolManager bufferPoolManager = queryProcessor.getBufferPoolManager();
+            scan(queryProcessor); // 预热
+            bufferPoolManager.resetStats();
+            long start = System.nanoTime();
+            for (int round = 0; round < SCAN_ROUNDS; round++) {
+                scan(queryProcessor);
+            }
+            double rowsPerSecond = (double) DATA_VOLUME * SCAN_ROUNDS / ((System.nanoTime() - start) / 1e9);
+            long missesPerScan = bufferPoolManager.getMissCount() / SCAN_ROUNDS;
+            System.out.printf("  %-10s %-16.0f %-16d%n", memoryMapped ? "内存映射" : "缓存池", rowsPerSecond, missesPerScan);
+            if (memoryMapped) {
+                assertEquals(0, missesPerScan, "内存映射模式下读页不应复制页面");
+            } else {
+                bufferedMisses = missesPerScan;
+            }
+            queryProcessor.close();
+        }
+        assertTrue(bufferedMisses > 0, "表大于缓存池时，缓存池模式的每次扫描都会换入页面");
+    }
+
+    private String name(int id) {
+        // 加宽记录，使表明显大于缓存池
+        return "user_" + id + "_" + "padding".repeat(8);
+    }
+
+    private void scan(QueryProcessor queryProcessor) {
+        String result = queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM bench WHERE score >= 0;");
+        assertTrue(result.contains(String.valueOf(DATA_VOLUME)), result);
+    }
+
+    private void deleteDirectory(File directory) {
+        if (!directory.exists()) {
+            return;
+        }
+        File[] allContents = directory.listFiles();
+        if (allContents != null) {
+            for (File file : allContents) {
+                deleteDirectory(file);
+            }
+        }
+        directory.delete();
+    }
+}
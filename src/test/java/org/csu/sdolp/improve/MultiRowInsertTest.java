@@ -0,0 +1,118 @@
+package org.csu.sdolp.improve;
+
+import org.csu.sdolp.catalog.IndexInfo;
+import org.csu.sdolp.common.model.Value;
+import org.csu.sdolp.engine.QueryProcessor;
+import org.csu.sdolp.storage.index.BPlusTree;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 多行 INSERT ... VALUES (...), (...) 的测试与基准.
+ * <p>
+ * 同样的行数分别用逐行 INSERT 和每条语句 1000 行的多行 INSERT 写入，比较耗时；
+ * 并验证多行插入后主键索引 (包括根页分裂) 可用、同一语句内的主键冲突使整条语句失败，以及列存表的多行插入。
+ */
+public class MultiRowInsertTest {
+
+    private static final int DATA_VOLUME = 3000;
+    private static final int ROWS_PER_STATEMENT = 1000;
+
+    private final String TEST_DB_NAME = "multi_row_insert_test_db";
+    private QueryProcessor queryProcessor;
+
+    @BeforeEach
+    void setUp() {
+        deleteDirectory(new File("data/" + TEST_DB_NAME));
+        queryProcessor = new QueryProcessor(TEST_DB_NAME);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (queryProcessor != null) {
+            queryProcessor.close();
+        }
+        deleteDirectory(new File("data/" + TEST_DB_NAME));
+    }
+
+    @Test
+    void testMultiRowInsertIsFasterAndIndexed() throws IOException {
+        queryProcessor.execute("CREATE TABLE single_rows (id INT PRIMARY KEY, name VARCHAR, score INT);");
+        queryProcessor.execute("CREATE TABLE multi_rows (id INT PRIMARY KEY, name VARCHAR, score INT);");
+
+        long start = System.nanoTime();
+        for (int i = 0; i < DATA_VOLUME; i++) {
+            queryProcessor.executeAndGetResult(String.format(
+                    "INSERT INTO single_rows (id, name, score) VALUES (%d, 'user_%d', %d);", i, i, i % 10));
+        }
+        double singleMillis = (System.nanoTime() - start) / 1e6;
+
+        start = System.nanoTime();
+        for (int from = 0; from < DATA_VOLUME; from += ROWS_PER_STATEMENT) {
+            StringBuilder sql = new StringBuilder("INSERT INTO multi_rows (id, name, score) VALUES ");
+            for (int i = from; i < from + ROWS_PER_STATEMENT; i++) {
+                sql.append(i == from ? "" : ", ").append(String.format("(%d, 'user_%d', %d)", i, i, i % 10));
+            }
+            String result = queryProcessor.executeAndGetResult(sql.append(";").toString());
+            assertEquals("Query OK, " + ROWS_PER_STATEMENT + " rows affected.", result);
+        }
+        double multiMillis = (System.nanoTime() - start) / 1e6;
+
+        System.out.println("--- [基准测试] 多行 INSERT ---");
+        System.out.printf("  %-16s %-10s %-12s%n", "方式", "行数", "耗时 (ms)");
+        System.out.printf("  %-16s %-10d %-12.0f%n", "逐行 INSERT", DATA_VOLUME, singleMillis);
+        System.out.printf("  %-16s %-10d %-12.0f%n", "每条 " + ROWS_PER_STATEMENT + " 行", DATA_VOLUME, multiMillis);
+        assertTrue(multiMillis * 5 < singleMillis, "多行插入只有一次事务提交和一次日志刷盘，应远快于逐行插入");
+
+        assertEquals(queryProcessor.executeAndGetResult("SELECT COUNT(*), SUM(score) FROM single_rows;"),
+                queryProcessor.executeAndGetResult("SELECT COUNT(*), SUM(score) FROM multi_rows;"));
+        // 一条语句插入的行超过一个叶子页，B+ 树根页分裂后目录中的根页号随之更新
+        IndexInfo pkIndex = queryProcessor.getCatalog().getIndex("multi_rows", "id");
+        BPlusTree tree = new BPlusTree(queryProcessor.getBufferPoolManager(), pkIndex.getRootPageId(), pkIndex.getSegmentName());
+        for (int i = 0; i < DATA_VOLUME; i += 101) {
+            assertNotNull(tree.search(new Value(i)), "key " + i);
+        }
+        String row = queryProcessor.executeAndGetResult("SELECT name FROM multi_rows WHERE id = 2345;");
+        assertTrue(row.contains("user_2345"), row);
+    }
+
+    @Test
+    void testDuplicateKeyRejectsWholeStatement() {
+        queryProcessor.execute("CREATE TABLE items (id INT PRIMARY KEY, title VARCHAR);");
+        queryProcessor.execute("INSERT INTO items (id, title) VALUES (1, 'a'), (2, 'b');");
+
+        assertTrue(queryProcessor.executeAndGetResult("INSERT INTO items (id, title) VALUES (3, 'c'), (3, 'd');")
+                .contains("Duplicate key '3'"));
+        assertTrue(queryProcessor.executeAndGetResult("INSERT INTO items (id, title) VALUES (4, 'e'), (2, 'f');")
+                .contains("Duplicate key '2'"));
+        assertTrue(queryProcessor.executeAndGetResult("INSERT INTO items (id, title) VALUES (5, 'g'), (6);")
+                .contains("Number of columns does not match"));
+        assertTrue(queryProcessor.executeAndGetResult("INSERT INTO items (id, title) VALUES (5, 'g'), ('x', 'h');")
+                .contains("ERROR"));
+        assertTrue(queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM items;").contains("| 2 "));
+
+        queryProcessor.execute("CREATE TABLE events (id INT, kind INT) ENGINE = COLUMNAR;");
+        assertEquals("Query OK, 3 rows affected.",
+                queryProcessor.executeAndGetResult("INSERT INTO events (id, kind) VALUES (1, 7), (2, 8), (3, 7);"));
+        assertTrue(queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM events WHERE kind = 7;").contains("| 2 "));
+    }
+
+    private void deleteDirectory(File directory) {
+        if (!directory.exists()) {
+            return;
+        }
+        File[] allContents = directory.listFiles();
+        if (allContents != null) {
+            for (File file : allContents) {
+                deleteDirectory(file);
+            }
+        }
+        directory.delete();
+    }
+}
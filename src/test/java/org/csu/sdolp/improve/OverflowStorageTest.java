@@ -0,0 +1,170 @@
+package org.csu.sdolp.improve;
+
+import org.csu.sdolp.DatabaseManager;
+import org.csu.sdolp.catalog.TableInfo;
+import org.csu.sdolp.common.model.Tuple;
+import org.csu.sdolp.engine.QueryProcessor;
+import org.csu.sdolp.executor.TableHeap;
+import org.csu.sdolp.storage.buffer.BufferPoolManager;
+import org.csu.sdolp.storage.overflow.OverflowStore;
+import org.csu.sdolp.transaction.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 大字段溢出页 (TOAST) 存储的测试.
+ * <p>
+ * 验证超过阈值的 VARCHAR 值写入溢出页后能完整读回、可以参与谓词比较，
+ * 超过单页容量的宽行可以插入，未被投影的溢出列不会读取溢出页，以及删除后溢出页被回收。
+ */
+public class OverflowStorageTest {
+
+    private final String TEST_DB_NAME = "overflow_storage_test_db";
+    private QueryProcessor queryProcessor;
+
+    @BeforeEach
+    void setUp() {
+        deleteDirectory(new File("data/" + TEST_DB_NAME));
+        queryProcessor = new QueryProcessor(TEST_DB_NAME);
+        queryProcessor.execute("CREATE TABLE docs (id INT, title VARCHAR, body VARCHAR);");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (queryProcessor != null) {
+            queryProcessor.close();
+        }
+        deleteDirectory(new File("data/" + TEST_DB_NAME));
+    }
+
+    private String body(int id, int length) {
+        StringBuilder sb = new StringBuilder("doc" + id + ":");
+        while (sb.length() < length) {
+            sb.append((char) ('a' + sb.length() % 26));
+        }
+        return sb.toString();
+    }
+
+    private void insertDoc(int id, int length) {
+        queryProcessor.executeAndGetResult(String.format(
+                "INSERT INTO docs (id, title, body) VALUES (%d, 't%d', '%s');", id, id, body(id, length)));
+    }
+
+    @Test
+    void testLargeValuesRoundTrip() {
+        int threshold = new OverflowStore(queryProcessor.getBufferPoolManager()).getInlineThreshold();
+        insertDoc(1, 20000);
+        insertDoc(2, threshold + 1);
+        insertDoc(3, 10);
+
+        String result = queryProcessor.executeAndGetResult("SELECT body FROM docs WHERE id = 1;");
+        assertTrue(result.contains(body(1, 20000)), "跨多个溢出页的值应能完整读回");
+        result = queryProcessor.executeAndGetResult("SELECT id, body FROM docs WHERE id = 2;");
+        assertTrue(result.contains(body(2, threshold + 1)));
+
+        // 谓词直接比较溢出列
+        result = queryProcessor.executeAndGetResult("SELECT id FROM docs WHERE body = '" + body(1, 20000) + "';");
+        assertTrue(result.contains("1 rows returned"), result);
+    }
+
+    @Test
+    void testWideRowIsStored() {
+        StringBuilder columns = new StringBuilder("id INT");
+        StringBuilder names = new StringBuilder("id");
+        StringBuilder values = new StringBuilder("1");
+        for (int i = 0; i < 20; i++) {
+            columns.append(", c").append(i).append(" VARCHAR");
+            names.append(", c").append(i);
+            values.append(", '").append(body(i, 240)).append("'");
+        }
+        queryProcessor.execute("CREATE TABLE wide (" + columns + ");");
+        // 每个值都低于阈值，但整行超过单页容量
+        queryProcessor.executeAndGetResult("INSERT INTO wide (" + names + ") VALUES (" + values + ");");
+
+        String result = queryProcessor.executeAndGetResult("SELECT * FROM wide;");
+        assertTrue(result.contains("1 rows returned"), result);
+        for (int i = 0; i < 20; i++) {
+            assertTrue(result.contains(body(i, 240)));
+        }
+    }
+
+    @Test
+    void testOverflowReadOnlyWhenProjected() throws IOException {
+        for (int i = 1; i <= 5; i++) {
+            insertDoc(i, 9000);
+        }
+        TableInfo tableInfo = queryProcessor.getCatalog().getTable("docs");
+
+        long withoutBody = countPageAccesses(tableInfo, new int[]{0, 1}, false);
+        long withBody = countPageAccesses(tableInfo, new int[]{0, 2}, true);
+        System.out.printf("  - 不投影 body: %d 次页面访问, 投影 body: %d 次页面访问%n", withoutBody, withBody);
+        // 每个 9000 字节的值占 3 个溢出页
+        assertTrue(withBody >= withoutBody + 5 * 3);
+    }
+
+    private long countPageAccesses(TableInfo tableInfo, int[] requiredColumns, boolean expectBody) throws IOException {
+        BufferPoolManager bufferPoolManager = queryProcessor.getBufferPoolManager();
+        Transaction txn = queryProcessor.getTransactionManager().begin();
+        TableHeap tableHeap = new TableHeap(bufferPoolManager, tableInfo,
+                queryProcessor.getLogManager(), queryProcessor.getLockManager());
+        tableHeap.setRequiredColumns(requiredColumns);
+
+        bufferPoolManager.resetStats();
+        tableHeap.initIterator(txn);
+        List<Tuple> tuples = new ArrayList<>();
+        while (tableHeap.hasNext()) {
+            tuples.add(tableHeap.next());
+        }
+        long accesses = bufferPoolManager.getHitCount() + bufferPoolManager.getMissCount();
+        queryProcessor.getTransactionManager().commit(txn);
+
+        assertEquals(5, tuples.size());
+        for (Tuple tuple : tuples) {
+            Object body = tuple.getValues().get(2).getValue();
+            if (expectBody) {
+                assertEquals(body((Integer) tuple.getValues().get(0).getValue(), 9000), body);
+            } else {
+                assertNull(body, "未投影的溢出列不应被读取");
+            }
+        }
+        return accesses;
+    }
+
+    @Test
+    void testDeleteReleasesOverflowPages() throws IOException {
+        insertDoc(1, 20000);
+        queryProcessor.executeAndGetResult("DELETE FROM docs WHERE id = 1;");
+        queryProcessor.getBufferPoolManager().flushAllPages();
+        File dbFile = new File(DatabaseManager.getDbFilePath(TEST_DB_NAME));
+        long lengthAfterDelete = dbFile.length();
+
+        // 释放的溢出页通过空闲链表被新的溢出值重用，文件不再增长
+        insertDoc(2, 20000);
+        queryProcessor.getBufferPoolManager().flushAllPages();
+        assertEquals(lengthAfterDelete, dbFile.length());
+
+        String result = queryProcessor.executeAndGetResult("SELECT body FROM docs WHERE id = 2;");
+        assertTrue(result.contains(body(2, 20000)));
+    }
+
+    private void deleteDirectory(File directory) {
+        if (!directory.exists()) {
+            return;
+        }
+        File[] allContents = directory.listFiles();
+        if (allContents != null) {
+            for (File file : allContents) {
+                deleteDirectory(file);
+            }
+        }
+        directory.delete();
+    }
+}
@@ -0,0 +1,255 @@
+package org.csu.sdolp.improve;
+
+import org.csu.sdolp.catalog.Catalog;
+import org.csu.sdolp.catalog.IndexInfo;
+import org.csu.sdolp.catalog.TableInfo;
+import org.csu.sdolp.cli.server.Session;
+import org.csu.sdolp.common.model.*;
+import org.csu.sdolp.compiler.planner.plan.ddl.DropTablePlanNode;
+import org.csu.sdolp.engine.QueryProcessor;
+import org.csu.sdolp.executor.HeapVacuum;
+import org.csu.sdolp.executor.TableHeap;
+import org.csu.sdolp.executor.TupleIterator;
+import org.csu.sdolp.executor.ddl.DropTableExecutor;
+import org.csu.sdolp.storage.buffer.BufferPoolManager;
+import org.csu.sdolp.storage.disk.DiskManager;
+import org.csu.sdolp.storage.index.BPlusTree;
+import org.csu.sdolp.storage.page.PageId;
+import org.csu.sdolp.transaction.LockManager;
+import org.csu.sdolp.transaction.Transaction;
+import org.csu.sdolp.transaction.TransactionManager;
+import org.csu.sdolp.transaction.log.LogManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DROP TABLE / TRUNCATE TABLE 之后后台回收页面的测试与基准.
+ * <p>
+ * TRUNCATE TABLE 只换上新的空首页和空索引根页，旧的堆页链表、溢出页和索引树由后台回收，重新插入时复用这些页，文件不再增长；
+ * 页在主文件中的表被删除后，整条堆页链表和索引树同样在后台归还给空闲链表；
+ * 未提交的 TRUNCATE 在崩溃恢复时撤销，表重新引用原来的页链表。
+ */
+public class PageReclaimTest {
+
+    private static final int DATA_VOLUME = 3000;
+    private static final int ROWS_PER_STATEMENT = 1000;
+    // 每隔这么多行写入一个超过溢出阈值的值
+    private static final int LONG_VALUE_INTERVAL = 50;
+
+    private final String TEST_DB_NAME = "page_reclaim_test_db";
+    private final String TEST_DB_FILE = "page_reclaim_test.db";
+    private QueryProcessor queryProcessor;
+
+    @BeforeEach
+    void setUp() {
+        deleteDirectory(new File("data/" + TEST_DB_NAME));
+        new File(TEST_DB_FILE).delete();
+        new File(TEST_DB_FILE + ".log").delete();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (queryProcessor != null) {
+            queryProcessor.close();
+        }
+        deleteDirectory(new File("data/" + TEST_DB_NAME));
+        new File(TEST_DB_FILE).delete();
+        new File(TEST_DB_FILE + ".log").delete();
+    }
+
+    @Test
+    void testTruncateReclaimsOldChain() throws Exception {
+        queryProcessor = new QueryProcessor(TEST_DB_NAME);
+        queryProcessor.execute("CREATE TABLE items (id INT PRIMARY KEY, body VARCHAR);");
+        insertItems("item");
+        int pagesBefore = countPages("items");
+        int allocatedBefore = queryProcessor.getBufferPoolManager().getAllocatedPageCount();
+
+        long start = System.nanoTime();
+        assertTrue(queryProcessor.executeAndGetResult("TRUNCATE TABLE items;").contains("truncated"));
+        double truncateMillis = (System.nanoTime() - start) / 1e6;
+        assertEquals(1, countPages("items"));
+        assertTrue(queryProcessor.executeAndGetResult("SELECT id FROM items;").contains("0 rows returned"));
+        assertTrue(queryProcessor.executeAndGetResult("SELECT body FROM items WHERE id = 7;").contains("0 rows returned"));
+
+        // 旧链表和旧索引树在 TRUNCATE 提交后由后台回收
+        HeapVacuum heapVacuum = queryProcessor.getHeapVacuum();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (heapVacuum.getFreedPageCount() < pagesBefore || !heapVacuum.isIdle()) {
+            assertTrue(System.currentTimeMillis() < deadline, "后台应回收旧的页链表");
+            Thread.sleep(20);
+        }
+        int freedPages = heapVacuum.getFreedPageCount();
+        assertTrue(freedPages > pagesBefore, "旧索引树的页也应被回收");
+
+        // 重新插入同样多的行复用回收的页 (包括溢出页)，文件不再增长
+        insertItems("again");
+        int allocatedAfter = queryProcessor.getBufferPoolManager().getAllocatedPageCount();
+
+        System.out.println("--- [基准测试] TRUNCATE TABLE ---");
+        System.out.printf("  %-10s %-12s %-12s %-16s %-16s%n", "表页数", "耗时 (ms)", "回收页数", "清空前已分配页数", "重新插入后已分配页数");
+        System.out.printf("  %-10d %-12.1f %-12d %-16d %-16d%n", pagesBefore, truncateMillis, freedPages, allocatedBefore, allocatedAfter);
+        assertTrue(allocatedAfter - allocatedBefore < pagesBefore / 4,
+                "重新插入应复用回收的页: " + allocatedBefore + " -> " + allocatedAfter);
+
+        String row = queryProcessor.executeAndGetResult("SELECT body FROM items WHERE id = 1234;");
+        assertTrue(row.contains("again_1234"), row);
+        row = queryProcessor.executeAndGetResult("SELECT body FROM items WHERE id = 100;");
+        assertTrue(row.contains("a".repeat(600)), row);
+
+        // 重新打开时重做全部日志：TRUNCATE 之前的 DML 日志作用在旧链表上，不再重做
+        queryProcessor.close();
+        queryProcessor = new QueryProcessor(TEST_DB_NAME);
+        assertTrue(queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM items;").contains("| " + DATA_VOLUME + " "));
+        assertTrue(queryProcessor.executeAndGetResult("SELECT body FROM items WHERE id = 7;").contains("again_7"));
+        assertTrue(queryProcessor.executeAndGetResult("SELECT id FROM items WHERE body = 'item_7';").contains("0 rows returned"));
+    }
+
+    @Test
+    void testUncommittedTruncateUndoneOnRecovery() throws Exception {
+        queryProcessor = new QueryProcessor(TEST_DB_NAME);
+        queryProcessor.execute("CREATE TABLE items (id INT PRIMARY KEY, body VARCHAR);");
+        insertItems("item");
+        int firstPageNum = queryProcessor.getCatalog().getTable("items").getFirstPageId().getPageNum();
+
+        // 在手动开启的事务中清空表，不提交也不关闭，模拟崩溃
+        Transaction txn = queryProcessor.getTransactionManager().begin();
+        TupleIterator truncate = queryProcessor.createExecutorForQuery("TRUNCATE TABLE items;", txn,
+                Session.createAuthenticatedSession(txn.getTransactionId(), "root"));
+        assertNotNull(truncate.next());
+        assertNotEquals(firstPageNum, queryProcessor.getCatalog().getTable("items").getFirstPageId().getPageNum());
+        queryProcessor.getHeapVacuum().shutdown();
+
+        // 恢复时撤销清空：目录重新引用旧链表，清空之前已提交的插入照常保留
+        queryProcessor = new QueryProcessor(TEST_DB_NAME);
+        assertEquals(firstPageNum, queryProcessor.getCatalog().getTable("items").getFirstPageId().getPageNum());
+        assertTrue(queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM items;").contains("| " + DATA_VOLUME + " "));
+        assertTrue(queryProcessor.executeAndGetResult("SELECT body FROM items WHERE id = 7;").contains("item_7"));
+    }
+
+    @Test
+    void testDropTableReclaimsMainFilePages() throws Exception {
+        // 不使用独立的表空间文件：表和索引的页都在主文件中，删除表时无法随文件一起回收
+        DiskManager diskManager = new DiskManager(TEST_DB_FILE);
+        diskManager.open();
+        BufferPoolManager bufferPoolManager = new BufferPoolManager(100, diskManager, "LRU");
+        Catalog catalog = new Catalog(bufferPoolManager);
+        LogManager logManager = new LogManager(TEST_DB_FILE + ".log");
+        LockManager lockManager = new LockManager();
+        TransactionManager transactionManager = new TransactionManager(lockManager, logManager);
+        HeapVacuum heapVacuum = new HeapVacuum(bufferPoolManager, catalog, logManager, lockManager);
+        try {
+            Schema schema = new Schema(List.of(new Column("id", DataType.INT), new Column("body", DataType.VARCHAR)));
+            TableInfo tableInfo = catalog.createTable("archive", schema);
+            String indexName = "idx_archive_id";
+            BPlusTree tree = new BPlusTree(bufferPoolManager,
+                    bufferPoolManager.newPage(IndexInfo.segmentName(indexName)).getPageId().getPageNum(),
+                    IndexInfo.segmentName(indexName));
+
+            Transaction txn = transactionManager.begin();
+            List<Tuple> tuples = new ArrayList<>();
+            int longValues = 0;
+            for (int i = 0; i < DATA_VOLUME; i++) {
+                boolean longValue = i % LONG_VALUE_INTERVAL == 0;
+                longValues += longValue ? 1 : 0;
+                tuples.add(new Tuple(List.of(new Value(i), new Value(longValue ? "a".repeat(600) : "archived_" + i))));
+            }
+            assertEquals(DATA_VOLUME, new TableHeap(bufferPoolManager, tableInfo, logManager, lockManager).insertTuples(tuples, txn));
+            for (Tuple tuple : tuples) {
+                tree.insert(tuple.getValues().get(0), tuple.getRid());
+            }
+            catalog.createIndex(indexName, "archive", "id", tree.getRootPageId());
+            transactionManager.commit(txn);
+            int heapPages = countChainPages(bufferPoolManager, tableInfo.getFirstPageId().getPageNum());
+            int indexPages = countTreePages(bufferPoolManager, tree.getRootPageId());
+
+            txn = transactionManager.begin();
+            new DropTableExecutor(new DropTablePlanNode("archive"), catalog, txn, logManager, lockManager, heapVacuum).next();
+            assertNull(catalog.getTable("archive"));
+            assertNull(catalog.getIndex(indexName));
+            Thread.sleep(200);
+            assertEquals(0, heapVacuum.getFreedPageCount(), "删除表的事务提交之前不应回收");
+            transactionManager.commit(txn);
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (!heapVacuum.isIdle()) {
+                assertTrue(System.currentTimeMillis() < deadline, "后台应回收被删除表的页");
+                Thread.sleep(20);
+            }
+            System.out.println("--- [测试] DROP TABLE 后回收主文件中的页 ---");
+            System.out.printf("  %-10s %-10s %-10s %-10s%n", "堆页数", "索引页数", "溢出页数", "回收页数");
+            System.out.printf("  %-10d %-10d %-10d %-10d%n", heapPages, indexPages, longValues, heapVacuum.getFreedPageCount());
+            assertEquals(heapPages + indexPages, heapVacuum.getFreedPageCount());
+
+            // 回收的堆页、索引页和溢出页都进入了空闲链表，再分配同样多的页不会扩展文件
+            int allocatedBefore = bufferPoolManager.getAllocatedPageCount();
+            for (int i = 0; i < heapPages + indexPages + longValues; i++) {
+                bufferPoolManager.newPage();
+            }
+            assertEquals(allocatedBefore, bufferPoolManager.getAllocatedPageCount());
+        } finally {
+            heapVacuum.shutdown();
+            diskManager.close();
+            logManager.close();
+        }
+    }
+
+    private void insertItems(String prefix) {
+        for (int from = 0; from < DATA_VOLUME; from += ROWS_PER_STATEMENT) {
+            StringBuilder sql = new StringBuilder("INSERT INTO items (id, body) VALUES ");
+            for (int i = from; i < from + ROWS_PER_STATEMENT; i++) {
+                String body = i % LONG_VALUE_INTERVAL == 0 ? "a".repeat(600) : prefix + "_" + i;
+                sql.append(i == from ? "" : ", ").append(String.format("(%d, '%s')", i, body));
+            }
+            assertEquals("Query OK, " + ROWS_PER_STATEMENT + " rows affected.",
+                    queryProcessor.executeAndGetResult(sql.append(";").toString()));
+        }
+    }
+
+    private int countPages(String tableName) throws IOException {
+        return countChainPages(queryProcessor.getBufferPoolManager(),
+                queryProcessor.getCatalog().getTable(tableName).getFirstPageId().getPageNum());
+    }
+
+    private int countChainPages(BufferPoolManager bufferPoolManager, int pageNum) throws IOException {
+        int count = 0;
+        while (pageNum != -1) {
+            count++;
+            pageNum = bufferPoolManager.getPage(new PageId(pageNum)).getNextPageId();
+        }
+        return count;
+    }
+
+    private int countTreePages(BufferPoolManager bufferPoolManager, int rootPageId) throws IOException {
+        int count = 0;
+        Deque<Integer> pending = new ArrayDeque<>(List.of(rootPageId));
+        while (!pending.isEmpty()) {
+            count++;
+            pending.addAll(BPlusTree.getChildPageIds(bufferPoolManager.getPage(new PageId(pending.poll()))));
+        }
+        return count;
+    }
+
+    private void deleteDirectory(File directory) {
+        if (!directory.exists()) {
+            return;
+        }
+        File[] allContents = directory.listFiles();
+        if (allContents != null) {
+            for (File file : allContents) {
+                deleteDirectory(file);
+            }
+        }
+        directory.delete();
+    }
+}
@@ -0,0 +1,126 @@
+package org.csu.sdolp.improve;
+
+import org.csu.sdolp.DatabaseManager;
+import org.csu.sdolp.engine.QueryProcessor;
+import org.csu.sdolp.storage.index.BPlusTreeLeafPage;
+import org.csu.sdolp.storage.page.Page;
+import org.csu.sdolp.storage.page.PageId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 按数据库配置页大小的测试与基准.
+ * <p>
+ * 验证 CREATE DATABASE ... PAGE_SIZE 指定的页大小被记录在数据文件头中并在重新打开后生效，
+ * 并在 4/8/16/32 KB 下比较全表扫描和索引点查的吞吐量。
+ */
+public class PageSizeBenchmarkTest {
+
+    private static final int[] PAGE_SIZES = {4 * 1024, 8 * 1024, 16 * 1024, 32 * 1024};
+    private static final int DATA_VOLUME = 3000;
+    private static final int SCAN_ROUNDS = 20;
+    private static final int LOOKUPS = 500;
+
+    private final String BOOT_DB_NAME = "page_size_boot_db";
+    private final String TEST_DB_PREFIX = "page_size_test_db_";
+
+    @AfterEach
+    void tearDown() {
+        deleteDirectory(new File("data/" + BOOT_DB_NAME));
+        for (int pageSize : PAGE_SIZES) {
+            deleteDirectory(new File("data/" + TEST_DB_PREFIX + pageSize / 1024 + "k"));
+        }
+    }
+
+    @Test
+    void testPageSizeChosenAtCreateDatabase() throws IOException {
+        String dbName = TEST_DB_PREFIX + "16k";
+        deleteDirectory(new File("data/" + dbName));
+        deleteDirectory(new File("data/" + BOOT_DB_NAME));
+
+        QueryProcessor boot = new QueryProcessor(BOOT_DB_NAME);
+        String result = boot.executeAndGetResult("CREATE DATABASE " + dbName + " PAGE_SIZE = 16K;");
+        assertTrue(result.contains("Query OK."), result);
+        String invalid = boot.executeAndGetResult("CREATE DATABASE page_size_invalid_db PAGE_SIZE = 5000;");
+        assertFalse(invalid.contains("Query OK."), invalid);
+        assertFalse(new File("data/page_size_invalid_db").exists());
+        boot.close();
+
+        QueryProcessor queryProcessor = new QueryProcessor(dbName);
+        assertEquals(16 * 1024, queryProcessor.getBufferPoolManager().getPageSize());
+        queryProcessor.execute("CREATE TABLE t (id INT, name VARCHAR);");
+        for (int i = 1; i <= 200; i++) {
+            queryProcessor.execute(String.format("INSERT INTO t (id, name) VALUES (%d, 'user%d');", i, i));
+        }
+        queryProcessor.close();
+
+        // 重新打开时以文件头中记录的页大小为准
+        queryProcessor = new QueryProcessor(dbName);
+        assertEquals(16 * 1024, queryProcessor.getBufferPoolManager().getPageSize());
+        result = queryProcessor.executeAndGetResult("SELECT * FROM t WHERE id = 150;");
+        assertTrue(result.contains("user150"), result);
+        result = queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM t;");
+        assertTrue(result.contains("200"), result);
+        queryProcessor.close();
+    }
+
+    @Test
+    void testScanAndPointLookupThroughput() throws IOException {
+        System.out.println("--- [基准测试] 不同页大小下的扫描与点查吞吐量 ---");
+        System.out.printf("  %-8s %-10s %-12s %-14s %-14s%n", "页大小", "叶子扇出", "数据页数", "扫描 (行/秒)", "点查 (次/秒)");
+        for (int pageSize : PAGE_SIZES) {
+            String dbName = TEST_DB_PREFIX + pageSize / 1024 + "k";
+            deleteDirectory(new File("data/" + dbName));
+            new DatabaseManager().createDatabase(dbName, pageSize);
+
+            QueryProcessor queryProcessor = new QueryProcessor(dbName);
+            assertEquals(pageSize, queryProcessor.getBufferPoolManager().getPageSize());
+            queryProcessor.execute("CREATE TABLE bench (id INT, name VARCHAR, score INT);");
+            for (int i = 1; i <= DATA_VOLUME; i++) {
+                queryProcessor.execute(String.format(
+                        "INSERT INTO bench (id, name, score) VALUES (%d, 'user_%d_padding_padding', %d);", i, i, i % 100));
+            }
+            queryProcessor.execute("CREATE INDEX idx_bench_id ON bench (id);");
+            queryProcessor.getBufferPoolManager().flushAllPages();
+            long dataPages = queryProcessor.getBufferPoolManager().getAllocatedPageCount();
+
+            long start = System.nanoTime();
+            for (int round = 0; round < SCAN_ROUNDS; round++) {
+                String result = queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM bench WHERE score >= 0;");
+                assertTrue(result.contains(String.valueOf(DATA_VOLUME)), result);
+            }
+            double scanRowsPerSecond = (double) DATA_VOLUME * SCAN_ROUNDS / ((System.nanoTime() - start) / 1e9);
+
+            start = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) {
+                int key = 1 + (i * 7919) % DATA_VOLUME;
+                String result = queryProcessor.executeAndGetResult("SELECT name FROM bench WHERE id = " + key + ";");
+                assertTrue(result.contains("user_" + key + "_"), result);
+            }
+            double lookupsPerSecond = LOOKUPS / ((System.nanoTime() - start) / 1e9);
+
+            int fanOut = new BPlusTreeLeafPage(new Page(new PageId(0), pageSize)).getMaxSize();
+            System.out.printf("  %-8s %-10d %-12d %-14.0f %-14.0f%n",
+                    pageSize / 1024 + "KB", fanOut, dataPages, scanRowsPerSecond, lookupsPerSecond);
+            queryProcessor.close();
+        }
+    }
+
+    private void deleteDirectory(File directory) {
+        if (!directory.exists()) {
+            return;
+        }
+        File[] allContents = directory.listFiles();
+        if (allContents != null) {
+            for (File file : allContents) {
+                deleteDirectory(file);
+            }
+        }
+        directory.delete();
+    }
+}
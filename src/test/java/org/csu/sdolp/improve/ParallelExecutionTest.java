@@ -0,0 +1,100 @@
+package org.csu.sdolp.improve;
+
+import org.csu.sdolp.cli.server.Session;
+import org.csu.sdolp.engine.QueryProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 并行扫描与并行聚合的集成测试.
+ * <p>
+ * 同一个查询分别在并行度为 1 和 4 的会话中执行，验证 morsel 并行执行的结果与串行执行完全一致。
+ */
+public class ParallelExecutionTest {
+
+    private final String TEST_DB_NAME = "parallel_test_db";
+    private QueryProcessor queryProcessor;
+
+    private static final int DATA_VOLUME = 2000;
+
+    @BeforeEach
+    void setUp() {
+        deleteDirectory(new File("data/" + TEST_DB_NAME));
+        queryProcessor = new QueryProcessor(TEST_DB_NAME);
+
+        queryProcessor.execute("CREATE TABLE sales (id INT, region VARCHAR, amount INT);");
+        String[] regions = {"north", "south", "east", "west"};
+        for (int i = 1; i <= DATA_VOLUME; i++) {
+            queryProcessor.executeAndGetResult(String.format(
+                    "INSERT INTO sales (id, region, amount) VALUES (%d, '%s', %d);", i, regions[i % 4], i % 100));
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (queryProcessor != null) {
+            queryProcessor.close();
+        }
+        deleteDirectory(new File("data/" + TEST_DB_NAME));
+    }
+
+    @Test
+    void testParallelMatchesSerial() {
+        Session serial = Session.createAuthenticatedSession(1, "root");
+        Session parallel = Session.createAuthenticatedSession(2, "root");
+        assertTrue(queryProcessor.executeAndGetResult("SET PARALLELISM = 4;", parallel).startsWith("Query OK"));
+        assertEquals(4, parallel.getParallelism());
+
+        String[] queries = {
+                "SELECT * FROM sales;",
+                "SELECT id, region FROM sales WHERE amount = 42 AND id > 1000;",
+                "SELECT * FROM sales WHERE amount > 90 LIMIT 30;",
+                "SELECT region, COUNT(*), SUM(amount), AVG(amount), MIN(amount), MAX(amount) FROM sales GROUP BY region;",
+                "SELECT region, SUM(amount) FROM sales GROUP BY region HAVING SUM(amount) > 24700;",
+                "SELECT COUNT(*) FROM sales WHERE amount >= 50;",
+                "SELECT COUNT(*) FROM sales WHERE amount > 1000;"
+        };
+        for (String sql : queries) {
+            String serialResult = queryProcessor.executeAndGetResult(sql, serial);
+            String parallelResult = queryProcessor.executeAndGetResult(sql, parallel);
+
+            assertFalse(parallelResult.startsWith("ERROR"), "并行执行失败: " + parallelResult);
+            // GROUP BY 的输出顺序取决于哈希表，不保证一致，按行比较
+            assertEquals(sortedLines(serialResult), sortedLines(parallelResult), "并行与串行执行的结果应当一致: " + sql);
+        }
+    }
+
+    private static List<String> sortedLines(String result) {
+        return result.lines().sorted().toList();
+    }
+
+    @Test
+    void testDmlUnderParallelSession() {
+        Session parallel = Session.createAuthenticatedSession(2, "root");
+        parallel.setParallelism(4);
+
+        queryProcessor.executeAndGetResult("DELETE FROM sales WHERE amount < 50;", parallel);
+        String result = queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM sales;", parallel);
+        assertTrue(result.contains("| 1000"), "删除后应剩余 1000 行: " + result);
+    }
+
+    private void deleteDirectory(File directory) {
+        if (!directory.exists()) {
+            return;
+        }
+        File[] allContents = directory.listFiles();
+        if (allContents != null) {
+            for (File file : allContents) {
+                deleteDirectory(file);
+            }
+        }
+        directory.delete();
+    }
+}
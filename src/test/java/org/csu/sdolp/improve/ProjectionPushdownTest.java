@@ -0,0 +1,119 @@
+package org.csu.sdolp.improve;
+
+import org.csu.sdolp.common.model.*;
+import org.csu.sdolp.compiler.lexer.Lexer;
+import org.csu.sdolp.compiler.parser.Parser;
+import org.csu.sdolp.compiler.planner.Planner;
+import org.csu.sdolp.compiler.planner.plan.PlanNode;
+import org.csu.sdolp.compiler.planner.plan.query.ProjectPlanNode;
+import org.csu.sdolp.compiler.planner.plan.query.SeqScanPlanNode;
+import org.csu.sdolp.engine.QueryProcessor;
+import org.csu.sdolp.storage.page.Page;
+import org.csu.sdolp.storage.page.PageId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 投影下推 (按需解码列) 的测试.
+ * <p>
+ * 验证规划器为顺序扫描计算出的列集合，页面只解码需要的列，
+ * 以及各种查询在投影下推后结果不变。
+ */
+public class ProjectionPushdownTest {
+
+    private final String TEST_DB_NAME = "projection_pushdown_test_db";
+    private QueryProcessor queryProcessor;
+
+    @BeforeEach
+    void setUp() {
+        deleteDirectory(new File("data/" + TEST_DB_NAME));
+        queryProcessor = new QueryProcessor(TEST_DB_NAME);
+
+        queryProcessor.execute("CREATE TABLE wide (id INT, name VARCHAR, note VARCHAR, price DECIMAL, born DATE, qty INT);");
+        queryProcessor.execute("CREATE TABLE tags (wide_id INT, tag VARCHAR);");
+        for (int i = 1; i <= 20; i++) {
+            queryProcessor.executeAndGetResult(String.format(
+                    "INSERT INTO wide (id, name, note, price, born, qty) VALUES (%d, 'n%d', 'note-%d', %d.50, '2024-01-%02d', %d);",
+                    i, i, i, i, i, i % 3));
+            queryProcessor.executeAndGetResult(String.format(
+                    "INSERT INTO tags (wide_id, tag) VALUES (%d, 't%d');", i, i % 2));
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (queryProcessor != null) {
+            queryProcessor.close();
+        }
+        deleteDirectory(new File("data/" + TEST_DB_NAME));
+    }
+
+    private SeqScanPlanNode scanOf(String sql) {
+        PlanNode plan = new Planner(queryProcessor.getCatalog())
+                .createPlan(new Parser(new Lexer(sql).tokenize()).parse());
+        while (plan instanceof ProjectPlanNode project) {
+            plan = project.getChild();
+        }
+        return (SeqScanPlanNode) plan;
+    }
+
+    @Test
+    void testPlannerComputesRequiredColumns() {
+        assertArrayEquals(new int[]{0}, scanOf("SELECT id FROM wide WHERE id > 3;").getRequiredColumns());
+        assertArrayEquals(new int[]{0, 5}, scanOf("SELECT id FROM wide WHERE qty = 1;").getRequiredColumns());
+        assertNull(scanOf("SELECT * FROM wide;").getRequiredColumns());
+    }
+
+    @Test
+    void testPageDecodesOnlyProjectedColumns() {
+        Schema schema = new Schema(List.of(
+                new Column("id", DataType.INT),
+                new Column("name", DataType.VARCHAR),
+                new Column("qty", DataType.INT)));
+        Page page = new Page(new PageId(0));
+        page.insertTuple(new Tuple(List.of(new Value(7), new Value("seven"), new Value(3))));
+
+        Tuple tuple = page.getTuple(0, schema, new boolean[]{false, false, true});
+        assertNull(tuple.getValues().get(0).getValue());
+        assertNull(tuple.getValues().get(1).getValue(), "未投影的 VARCHAR 列不应被解码");
+        assertEquals(3, tuple.getValues().get(2).getValue());
+        assertEquals("seven", page.getTuple(0, schema).getValues().get(1).getValue());
+    }
+
+    @Test
+    void testQueryResultsWithPushdown() {
+        String result = queryProcessor.executeAndGetResult("SELECT id FROM wide WHERE id > 18;");
+        assertTrue(result.contains("| 19") && result.contains("| 20"));
+        assertTrue(result.contains("2 rows returned"));
+
+        result = queryProcessor.executeAndGetResult("SELECT qty, COUNT(*) FROM wide GROUP BY qty;");
+        assertTrue(result.contains("3 rows returned"));
+
+        result = queryProcessor.executeAndGetResult("SELECT name, born FROM wide WHERE price > 19 ORDER BY name;");
+        assertTrue(result.contains("n19") && result.contains("2024-01-20"));
+
+        result = queryProcessor.executeAndGetResult(
+                "SELECT wide.name, tags.tag FROM wide JOIN tags ON wide.id = tags.wide_id WHERE wide.id = 5;");
+        assertTrue(result.contains("n5") && result.contains("t1"), result);
+    }
+
+    private void deleteDirectory(File directory) {
+        if (!directory.exists()) {
+            return;
+        }
+        File[] allContents = directory.listFiles();
+        if (allContents != null) {
+            for (File file : allContents) {
+                deleteDirectory(file);
+            }
+        }
+        directory.delete();
+    }
+}
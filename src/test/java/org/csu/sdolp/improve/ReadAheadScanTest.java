@@ -0,0 +1,145 @@
+package org.csu.sdolp.improve;
+
+import org.csu.sdolp.engine.QueryProcessor;
+import org.csu.sdolp.storage.buffer.BufferPoolManager;
+import org.csu.sdolp.storage.disk.DiskManager;
+import org.csu.sdolp.storage.page.Page;
+import org.csu.sdolp.storage.page.PageId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 顺序扫描预读的测试与基准.
+ * <p>
+ * 表大于缓存池，以直接 I/O 模式 (绕过操作系统页缓存) 清空缓存池后冷扫描，
+ * 比较关闭和开启预读时的扫描吞吐量、前台未命中次数 (同步读盘) 和预读装入的页数；
+ * 并验证缓存池已满时预读不会换出前台正在使用的页。
+ */
+public class ReadAheadScanTest {
+
+    private static final int DATA_VOLUME = 8000;
+    private static final int SCAN_ROUNDS = 5;
+
+    private final String TEST_DB_NAME = "read_ahead_scan_test_db";
+    private final String TEST_DB_FILE = "read_ahead_scan_test.db";
+
+    @AfterEach
+    void tearDown() {
+        deleteDirectory(new File("data/" + TEST_DB_NAME));
+        new File(TEST_DB_FILE).delete();
+    }
+
+    @Test
+    void testColdScanWithReadAhead() throws IOException {
+        deleteDirectory(new File("data/" + TEST_DB_NAME));
+        // 以内存映射模式批量装载，得到一张大于缓存池的表
+        QueryProcessor queryProcessor = new QueryProcessor(TEST_DB_NAME, DiskManager.IoMode.MEMORY_MAPPED);
+        queryProcessor.execute("CREATE TABLE bench (id INT, name VARCHAR, score INT);");
+        for (int i = 1; i <= DATA_VOLUME; i++) {
+            queryProcessor.execute(String.format(
+                    "INSERT INTO bench (id, name, score) VALUES (%d, 'user_%d_%s', %d);", i, i, "padding".repeat(8), i % 100));
+        }
+        queryProcessor.close();
+
+        System.out.println("--- [基准测试] 顺序扫描预读 (直接 I/O，冷缓存池) ---");
+        System.out.printf("  %-10s %-16s %-16s %-16s%n", "预读页数", "扫描 (行/秒)", "每次扫描未命中", "每次扫描预读页数");
+        long[] misses = new long[2];
+        int[] windows = {0, BufferPoolManager.DEFAULT_READ_AHEAD_PAGES};
+        for (int w = 0; w < windows.length; w++) {
+            queryProcessor = new QueryProcessor(TEST_DB_NAME, DiskManager.IoMode.DIRECT);
+            BufferPoolManager bufferPoolManager = queryProcessor.getBufferPoolManager();
+            bufferPoolManager.setReadAheadPages(windows[w]);
+            long nanos = 0;
+            long readAheads = 0;
+            bufferPoolManager.resetStats();
+            for (int round = 0; round < SCAN_ROUNDS; round++) {
+                bufferPoolManager.flushAllPages();
+                bufferPoolManager.clear();
+                int missesBefore = bufferPoolManager.getMissCount();
+                int readAheadsBefore = bufferPoolManager.getReadAheadCount();
+                long start = System.nanoTime();
+                scan(queryProcessor);
+                nanos += System.nanoTime() - start;
+                misses[w] += bufferPoolManager.getMissCount() - missesBefore;
+                readAheads += bufferPoolManager.getReadAheadCount() - readAheadsBefore;
+            }
+            double rowsPerSecond = (double) DATA_VOLUME * SCAN_ROUNDS / (nanos / 1e9);
+            System.out.printf("  %-10d %-16.0f %-16d %-16d%n", windows[w], rowsPerSecond,
+                    misses[w] / SCAN_ROUNDS, readAheads / SCAN_ROUNDS);
+            if (windows[w] == 0) {
+                assertEquals(0, readAheads, "关闭预读时不应有预读");
+            } else {
+                assertTrue(readAheads > 0, "顺序扫描应触发预读");
+            }
+            queryProcessor.close();
+        }
+        // 预读触发之后，后续页面都已在缓存池中或正在预读，前台几乎不再同步读盘
+        assertTrue(misses[1] * 4 < misses[0], "开启预读后前台未命中应大幅减少: " + misses[1] + " vs " + misses[0]);
+    }
+
+    @Test
+    void testReadAheadDoesNotEvictPagesInUse() throws Exception {
+        int poolSize = 16;
+        new File(TEST_DB_FILE).delete();
+        DiskManager diskManager = new DiskManager(TEST_DB_FILE);
+        diskManager.open();
+        try {
+            BufferPoolManager bufferPoolManager = new BufferPoolManager(poolSize, diskManager, "LRU");
+            List<PageId> pageIds = new ArrayList<>();
+            for (int i = 0; i < poolSize * 2; i++) {
+                pageIds.add(bufferPoolManager.newPage().getPageId());
+            }
+            bufferPoolManager.flushAllPages();
+            bufferPoolManager.clear();
+
+            // 前台占满缓存池并持有这些页
+            List<Page> pagesInUse = new ArrayList<>();
+            for (int i = 0; i < poolSize; i++) {
+                pagesInUse.add(bufferPoolManager.getPage(pageIds.get(i)));
+            }
+            bufferPoolManager.resetStats();
+            bufferPoolManager.readAhead(pageIds.get(poolSize), poolSize);
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (bufferPoolManager.getReadAheadCount() == 0) {
+                assertTrue(System.currentTimeMillis() < deadline, "预读应在后台读入页面");
+                Thread.sleep(10);
+            }
+            Thread.sleep(100);
+
+            assertEquals(poolSize, bufferPoolManager.getPageTable().size());
+            for (Page page : pagesInUse) {
+                assertSame(page, bufferPoolManager.getPageTable().get(page.getPageId()), "预读不应换出前台持有的页");
+            }
+            // 预读的页在前台取用时装入，不再读盘
+            bufferPoolManager.getPage(pageIds.get(poolSize));
+            assertEquals(0, bufferPoolManager.getMissCount());
+        } finally {
+            diskManager.close();
+        }
+    }
+
+    private void scan(QueryProcessor queryProcessor) {
+        String result = queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM bench WHERE score >= 0;");
+        assertTrue(result.contains(String.valueOf(DATA_VOLUME)), result);
+    }
+
+    private void deleteDirectory(File directory) {
+        if (!directory.exists()) {
+            return;
+        }
+        File[] allContents = directory.listFiles();
+        if (allContents != null) {
+            for (File file : allContents) {
+                deleteDirectory(file);
+            }
+        }
+        directory.delete();
+    }
+}
@@ -0,0 +1,223 @@
+package org.csu.sdolp.improve;
+
+import org.csu.sdolp.catalog.TableInfo;
+import org.csu.sdolp.common.model.*;
+import org.csu.sdolp.compiler.lexer.Lexer;
+import org.csu.sdolp.compiler.parser.Parser;
+import org.csu.sdolp.compiler.parser.ast.ExpressionNode;
+import org.csu.sdolp.compiler.parser.ast.dml.SelectStatementNode;
+import org.csu.sdolp.compiler.parser.ast.expression.AggregateExpressionNode;
+import org.csu.sdolp.compiler.parser.ast.expression.IdentifierNode;
+import org.csu.sdolp.compiler.parser.ast.expression.OrderByClauseNode;
+import org.csu.sdolp.compiler.planner.plan.query.AggregatePlanNode;
+import org.csu.sdolp.compiler.planner.plan.query.JoinPlanNode;
+import org.csu.sdolp.compiler.planner.plan.query.SeqScanPlanNode;
+import org.csu.sdolp.compiler.planner.plan.query.SortPlanNode;
+import org.csu.sdolp.engine.ExpressionCompiler;
+import org.csu.sdolp.executor.TupleIterator;
+import org.csu.sdolp.executor.dml.AggregateExecutor;
+import org.csu.sdolp.executor.dml.JoinExecutor;
+import org.csu.sdolp.executor.dml.ProjectExecutor;
+import org.csu.sdolp.executor.dml.SortExecutor;
+import org.csu.sdolp.executor.expressions.AbstractPredicate;
+import org.csu.sdolp.storage.page.PageId;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 行表示的内存分配基准测试.
+ * 让同一批数据流经 Join -> Sort -> Project -> Aggregate 四个算子，统计每个输入行分配的字节数，
+ * 并与按 List&lt;Value&gt; 复制行的参考流水线 (即改用 CompactRow 之前各算子的做法) 对比。
+ */
+public class RowAllocationBenchmarkTest {
+
+    private static final int EMPLOYEES = 4000;
+    private static final int DEPARTMENTS = 16;
+    private static final int ROUNDS = 5;
+
+    private final Schema empSchema = new Schema(List.of(
+            new Column("id", DataType.INT),
+            new Column("name", DataType.VARCHAR),
+            new Column("score", DataType.INT),
+            new Column("dept_id", DataType.INT),
+            new Column("level", DataType.INT)));
+    private final Schema deptSchema = new Schema(List.of(
+            new Column("did", DataType.INT),
+            new Column("dname", DataType.VARCHAR)));
+
+    private final List<Tuple> employees = new ArrayList<>();
+    private final List<Tuple> departments = new ArrayList<>();
+
+    /**
+     * 内存中的数据源，行的形式与存储层解码出来的一致 (List&lt;Value&gt;)。
+     */
+    private static class ListSource implements TupleIterator {
+        private final List<Tuple> tuples;
+        private final Schema schema;
+        private int cursor = 0;
+
+        ListSource(List<Tuple> tuples, Schema schema) {
+            this.tuples = tuples;
+            this.schema = schema;
+        }
+
+        @Override
+        public Tuple next() {
+            return hasNext() ? tuples.get(cursor++) : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor < tuples.size();
+        }
+
+        @Override
+        public Schema getOutputSchema() {
+            return schema;
+        }
+    }
+
+    private SelectStatementNode parse(String sql) {
+        return (SelectStatementNode) new Parser(new Lexer(sql).tokenize()).parse();
+    }
+
+    private void generateData() {
+        for (int i = 0; i < EMPLOYEES; i++) {
+            employees.add(new Tuple(new ArrayList<>(List.of(new Value(i), new Value("employee_" + i),
+                    new Value(i % 100), new Value(i % DEPARTMENTS), new Value(i % 7)))));
+        }
+        for (int d = 0; d < DEPARTMENTS; d++) {
+            departments.add(new Tuple(new ArrayList<>(List.of(new Value(d), new Value("dept_" + d)))));
+        }
+    }
+
+    private List<Tuple> runCompactPipeline() throws IOException {
+        SelectStatementNode select = parse("SELECT dname, COUNT(*), SUM(score) FROM emp JOIN dept ON emp.dept_id = dept.did "
+                + "GROUP BY dname ORDER BY score;");
+        SeqScanPlanNode empScan = new SeqScanPlanNode(new TableInfo("emp", empSchema, new PageId(-1)), null);
+        SeqScanPlanNode deptScan = new SeqScanPlanNode(new TableInfo("dept", deptSchema, new PageId(-1)), null);
+        JoinPlanNode joinPlan = new JoinPlanNode(empScan, deptScan, select.joinCondition());
+        TupleIterator join = new JoinExecutor(joinPlan, new ListSource(employees, empSchema), new ListSource(departments, deptSchema));
+
+        OrderByClauseNode orderBy = select.orderByClause();
+        SortPlanNode sortPlan = new SortPlanNode(joinPlan, orderBy);
+        TupleIterator sort = new SortExecutor(join, sortPlan);
+
+        // name, score, dname
+        TupleIterator project = new ProjectExecutor(sort, List.of(1, 2, 6));
+
+        Schema aggSchema = new Schema(List.of(new Column("dname", DataType.VARCHAR),
+                new Column("COUNT(*)", DataType.INT), new Column("SUM(score)", DataType.INT)));
+        List<AggregateExpressionNode> aggregates = new ArrayList<>();
+        for (ExpressionNode item : select.selectList()) {
+            if (item instanceof AggregateExpressionNode agg) {
+                aggregates.add(agg);
+            }
+        }
+        AggregatePlanNode aggPlan = new AggregatePlanNode(null, List.of(new IdentifierNode("dname")), aggregates, aggSchema, null);
+        TupleIterator aggregate = new AggregateExecutor(project, aggPlan);
+
+        List<Tuple> results = new ArrayList<>();
+        while (aggregate.hasNext()) {
+            results.add(aggregate.next());
+        }
+        return results;
+    }
+
+    /**
+     * 参考流水线：每个算子都复制 List&lt;Value&gt;，与原先的行式执行器相同。
+     */
+    private List<Tuple> runListPipeline() throws IOException {
+        SelectStatementNode select = parse("SELECT * FROM emp JOIN dept ON emp.dept_id = dept.did;");
+        TableInfo emp = new TableInfo("emp", empSchema, new PageId(-1));
+        TableInfo dept = new TableInfo("dept", deptSchema, new PageId(-1));
+        List<Column> joinedColumns = new ArrayList<>(empSchema.getColumns());
+        joinedColumns.addAll(deptSchema.getColumns());
+        AbstractPredicate joinPredicate = ExpressionCompiler.compile(select.joinCondition(), new Schema(joinedColumns), emp, dept);
+
+        List<Tuple> joined = new ArrayList<>();
+        for (Tuple left : employees) {
+            for (Tuple right : departments) {
+                List<Value> combined = new ArrayList<>(left.getValues());
+                combined.addAll(right.getValues());
+                Tuple tuple = new Tuple(combined);
+                if (joinPredicate.evaluate(tuple)) {
+                    joined.add(tuple);
+                }
+            }
+        }
+        joined.sort(Comparator.comparing(t -> (Integer) t.getValues().get(2).getValue()));
+
+        Map<List<Value>, int[]> groups = new HashMap<>();
+        for (Tuple tuple : joined) {
+            List<Value> projected = new ArrayList<>();
+            for (int index : new int[]{1, 2, 6}) {
+                projected.add(tuple.getValues().get(index));
+            }
+            int[] state = groups.computeIfAbsent(List.of(projected.get(2)), k -> new int[2]);
+            state[0]++;
+            state[1] += (Integer) projected.get(1).getValue();
+        }
+        List<Tuple> results = new ArrayList<>();
+        for (Map.Entry<List<Value>, int[]> entry : groups.entrySet()) {
+            List<Value> values = new ArrayList<>(entry.getKey());
+            values.add(new Value(entry.getValue()[0]));
+            values.add(new Value(entry.getValue()[1]));
+            results.add(new Tuple(values));
+        }
+        return results;
+    }
+
+    private interface Pipeline {
+        List<Tuple> run() throws IOException;
+    }
+
+    /**
+     * 统计当前线程运行若干轮流水线平均每个输入行分配的字节数。
+     */
+    private double bytesPerRow(Pipeline pipeline) throws IOException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        pipeline.run(); // 预热，排除类加载和编译缓存的分配
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < ROUNDS; i++) {
+            pipeline.run();
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        return (double) allocated / ((long) ROUNDS * EMPLOYEES);
+    }
+
+    private Map<String, List<Integer>> byGroup(List<Tuple> results) {
+        Map<String, List<Integer>> map = new TreeMap<>();
+        for (Tuple tuple : results) {
+            map.put((String) tuple.getValues().get(0).getValue(),
+                    List.of((Integer) tuple.getValues().get(1).getValue(), (Integer) tuple.getValues().get(2).getValue()));
+        }
+        return map;
+    }
+
+    @Test
+    void testBytesAllocatedPerRow() throws IOException {
+        generateData();
+        System.out.println("--- [基准测试] Join -> Sort -> Project -> Aggregate 每行分配字节数 ---");
+
+        // 两条流水线的结果必须一致
+        Map<String, List<Integer>> expected = byGroup(runListPipeline());
+        Map<String, List<Integer>> actual = byGroup(runCompactPipeline());
+        assertEquals(DEPARTMENTS, actual.size());
+        assertEquals(expected, actual);
+
+        double listBytes = bytesPerRow(this::runListPipeline);
+        double compactBytes = bytesPerRow(this::runCompactPipeline);
+        System.out.printf("  - List<Value> 行: %.0f 字节/行%n", listBytes);
+        System.out.printf("  - CompactRow 行: %.0f 字节/行%n", compactBytes);
+        System.out.printf("  - 分配减少: %.1f%%%n", 100.0 * (listBytes - compactBytes) / listBytes);
+
+        assertTrue(compactBytes < listBytes,
+                String.format("CompactRow 流水线的分配量应少于 List<Value> 流水线: %.0f vs %.0f", compactBytes, listBytes));
+    }
+}
@@ -0,0 +1,126 @@
+package org.csu.sdolp.improve;
+
+import org.csu.sdolp.DatabaseManager;
+import org.csu.sdolp.catalog.IndexInfo;
+import org.csu.sdolp.catalog.TableInfo;
+import org.csu.sdolp.engine.QueryProcessor;
+import org.csu.sdolp.storage.disk.DiskManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 每张表一个表空间文件的测试.
+ * <p>
+ * 验证表和索引的页保存在各自的表空间文件中，重新打开数据库后数据完整、不再被引用的索引文件被删除；
+ * DROP TABLE 直接删除表和索引的文件，并打印删除前后数据库目录的大小与删除耗时 (与表的大小无关)。
+ */
+public class TablespaceFileTest {
+
+    private static final int DATA_VOLUME = 3000;
+
+    private final String TEST_DB_NAME = "tablespace_file_test_db";
+
+    @AfterEach
+    void tearDown() {
+        deleteDirectory(new File("data/" + TEST_DB_NAME));
+    }
+
+    @Test
+    void testTablePerFileAndDrop() throws IOException {
+        deleteDirectory(new File("data/" + TEST_DB_NAME));
+        QueryProcessor queryProcessor = new QueryProcessor(TEST_DB_NAME);
+        queryProcessor.execute("CREATE TABLE orders (id INT, note VARCHAR);");
+        queryProcessor.execute("CREATE TABLE events (id INT, note VARCHAR);");
+        for (int i = 1; i <= DATA_VOLUME; i++) {
+            queryProcessor.execute(String.format("INSERT INTO orders (id, note) VALUES (%d, 'order_%d');", i, i));
+            if (i % 10 == 0) {
+                queryProcessor.execute(String.format("INSERT INTO events (id, note) VALUES (%d, 'event_%d');", i, i));
+            }
+        }
+        queryProcessor.execute("CREATE INDEX idx_orders_id ON orders (id);");
+
+        DiskManager diskManager = queryProcessor.getDiskManager();
+        File ordersFile = diskManager.getSegmentFile(TableInfo.segmentName("orders"));
+        File eventsFile = diskManager.getSegmentFile(TableInfo.segmentName("events"));
+        File indexFile = diskManager.getSegmentFile(IndexInfo.segmentName("idx_orders_id"));
+        assertNotNull(ordersFile);
+        assertNotNull(eventsFile);
+        assertNotNull(indexFile);
+        assertEquals(3, Set.of(ordersFile, eventsFile, indexFile).size(), "每个段应有自己的文件");
+        String result = queryProcessor.executeAndGetResult("SELECT note FROM orders WHERE id = 2500;");
+        assertTrue(result.contains("order_2500"), result);
+        queryProcessor.close();
+
+        // 重新打开后，各文件中的数据完整
+        queryProcessor = new QueryProcessor(TEST_DB_NAME);
+        result = queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM orders;");
+        assertTrue(result.contains(String.valueOf(DATA_VOLUME)), result);
+        result = queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM events;");
+        assertTrue(result.contains(String.valueOf(DATA_VOLUME / 10)), result);
+        // 索引元数据不持久化，重新打开后旧索引的文件被删除；重建索引得到新的文件
+        assertFalse(indexFile.exists(), "不再被引用的索引文件应被删除");
+        queryProcessor.execute("CREATE INDEX idx_orders_id ON orders (id);");
+        indexFile = queryProcessor.getDiskManager().getSegmentFile(IndexInfo.segmentName("idx_orders_id"));
+        assertTrue(indexFile.exists());
+
+        File dbDirectory = new File(DatabaseManager.getDbFilePath(TEST_DB_NAME)).getParentFile();
+        long sizeBefore = directorySize(dbDirectory);
+        long start = System.nanoTime();
+        queryProcessor.execute("DROP TABLE orders;");
+        double dropMillis = (System.nanoTime() - start) / 1e6;
+        long sizeAfter = directorySize(dbDirectory);
+
+        System.out.println("--- [测试] 每表一个表空间文件时的 DROP TABLE ---");
+        System.out.printf("  %-16s %-16s %-16s%n", "删除前 (KB)", "删除后 (KB)", "DROP 耗时 (ms)");
+        System.out.printf("  %-16d %-16d %-16.2f%n", sizeBefore / 1024, sizeAfter / 1024, dropMillis);
+        assertFalse(ordersFile.exists(), "DROP TABLE 应删除表的文件");
+        assertFalse(indexFile.exists(), "DROP TABLE 应删除索引的文件");
+        assertTrue(eventsFile.exists());
+        assertTrue(sizeAfter < sizeBefore);
+
+        // 同名表重新创建时使用新的文件
+        queryProcessor.execute("CREATE TABLE orders (id INT, note VARCHAR);");
+        queryProcessor.execute("INSERT INTO orders (id, note) VALUES (1, 'again');");
+        result = queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM orders;");
+        assertTrue(result.contains("1"), result);
+        queryProcessor.close();
+
+        // 重放日志 (包括已删除的表) 后仍能正常打开
+        queryProcessor = new QueryProcessor(TEST_DB_NAME);
+        result = queryProcessor.executeAndGetResult("SELECT note FROM orders;");
+        assertTrue(result.contains("again"), result);
+        result = queryProcessor.executeAndGetResult("SELECT COUNT(*) FROM events;");
+        assertTrue(result.contains(String.valueOf(DATA_VOLUME / 10)), result);
+        queryProcessor.close();
+    }
+
+    private long directorySize(File directory) {
+        long size = 0;
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                size += file.length();
+            }
+        }
+        return size;
+    }
+
+    private void deleteDirectory(File directory) {
+        if (!directory.exists()) {
+            return;
+        }
+        File[] allContents = directory.listFiles();
+        if (allContents != null) {
+            for (File file : allContents) {
+                deleteDirectory(file);
+            }
+        }
+        directory.delete();
+    }
+}
@@ -0,0 +1,180 @@
+package org.csu.sdolp.improve;
+
+import org.csu.sdolp.cli.server.Session;
+import org.csu.sdolp.engine.QueryProcessor;
+import org.csu.sdolp.executor.TupleIterator;
+import org.csu.sdolp.transaction.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 批量 (向量化) 执行模式的集成测试.
+ * <p>
+ * 对同一组查询分别以行式和批量模式执行，验证两种模式返回的结果完全一致，包括通过会话 "SET VECTORIZED" 切换模式
+ * 以及以原生数组存储的 DATE / DOUBLE / FLOAT 列；并在较大的表上对比分组聚合在两种模式下的耗时 (只打印，不作断言)。
+ */
+public class VectorizedExecutionTest {
+
+    private final String TEST_DB_NAME = "vectorized_test_db";
+    private QueryProcessor queryProcessor;
+
+    private static final int DATA_VOLUME = 2000;
+    private static final int BENCHMARK_VOLUME = 12_000;
+    private static final int ROWS_PER_STATEMENT = 1000;
+    private static final int WARMUP_RUNS = 200;
+    private static final int MEASURED_RUNS = 100;
+
+    @BeforeEach
+    void setUp() {
+        deleteDirectory(new File("data/" + TEST_DB_NAME));
+        queryProcessor = new QueryProcessor(TEST_DB_NAME);
+
+        queryProcessor.execute("CREATE TABLE sales (id INT, region VARCHAR, amount INT);");
+        String[] regions = {"north", "south", "east", "west"};
+        for (int i = 1; i <= DATA_VOLUME; i++) {
+            queryProcessor.executeAndGetResult(String.format(
+                    "INSERT INTO sales (id, region, amount) VALUES (%d, '%s', %d);", i, regions[i % 4], i % 100));
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (queryProcessor != null) {
+            queryProcessor.close();
+        }
+        deleteDirectory(new File("data/" + TEST_DB_NAME));
+    }
+
+    @Test
+    void testBatchModeMatchesRowMode() {
+        String[] queries = {
+                "SELECT * FROM sales WHERE amount > 90;",
+                "SELECT id, region FROM sales WHERE amount = 42 AND id > 1000;",
+                "SELECT id FROM sales WHERE region = 'east' OR amount < 3;",
+                "SELECT * FROM sales LIMIT 1500;",
+                "SELECT region, COUNT(*), SUM(amount), AVG(amount), MIN(amount), MAX(amount) FROM sales GROUP BY region;",
+                "SELECT region, SUM(amount) FROM sales GROUP BY region HAVING SUM(amount) > 24700;",
+                "SELECT COUNT(*) FROM sales WHERE amount >= 50;",
+                "SELECT * FROM sales WHERE amount > 1000;"
+        };
+        for (String sql : queries) {
+            queryProcessor.getExecutionEngine().setVectorizedExecution(false);
+            String rowResult = queryProcessor.executeAndGetResult(sql);
+            queryProcessor.getExecutionEngine().setVectorizedExecution(true);
+            String batchResult = queryProcessor.executeAndGetResult(sql);
+
+            assertFalse(batchResult.startsWith("ERROR"), "批量模式执行失败: " + batchResult);
+            assertEquals(rowResult, batchResult, "两种执行模式的结果应当一致: " + sql);
+        }
+    }
+
+    @Test
+    void testLimitAcrossBatches() {
+        queryProcessor.getExecutionEngine().setVectorizedExecution(true);
+        String result = queryProcessor.executeAndGetResult("SELECT id FROM sales WHERE amount > 10 LIMIT 1100;");
+        assertTrue(result.contains("1100 rows returned"), "LIMIT 应跨批次正确截断");
+    }
+
+    @Test
+    void testSessionSwitchWithTypedColumns() {
+        queryProcessor.execute("CREATE TABLE readings (id INT, day DATE, price DOUBLE, ratio FLOAT);");
+        StringBuilder sql = new StringBuilder("INSERT INTO readings (id, day, price, ratio) VALUES ");
+        for (int i = 0; i < DATA_VOLUME; i++) {
+            sql.append(i == 0 ? "" : ", ").append(String.format("(%d, '2024-%02d-%02d', %d.25, 0.%d)",
+                    i, i % 12 + 1, i % 28 + 1, i % 100, i % 10));
+        }
+        queryProcessor.execute(sql.append(";").toString());
+
+        Session rowSession = Session.createAuthenticatedSession(1, "root");
+        Session batchSession = Session.createAuthenticatedSession(2, "root");
+        assertEquals("Query OK, vectorized execution enabled.",
+                queryProcessor.executeAndGetResult("SET VECTORIZED = ON;", batchSession));
+        assertEquals(Boolean.TRUE, batchSession.getVectorized());
+        assertNull(rowSession.getVectorized());
+
+        String[] queries = {
+                "SELECT * FROM readings WHERE day > '2024-06-15';",
+                "SELECT id, price FROM readings WHERE price >= 50.5 AND day < '2024-03-01';",
+                "SELECT id, ratio FROM readings WHERE ratio > 0.5;",
+                "SELECT COUNT(*) FROM readings WHERE price < 10;"
+        };
+        for (String query : queries) {
+            String rowResult = queryProcessor.executeAndGetResult(query, rowSession);
+            String batchResult = queryProcessor.executeAndGetResult(query, batchSession);
+            assertFalse(batchResult.startsWith("ERROR"), "批量模式执行失败: " + batchResult);
+            assertEquals(rowResult, batchResult, "两种执行模式的结果应当一致: " + query);
+        }
+    }
+
+    @Test
+    void testAggregateBenchmark() throws Exception {
+        // 表的全部页都能留在缓存池中，两种模式比较的是执行本身而不是换页 I/O
+        queryProcessor.execute("CREATE TABLE metrics (id INT, bucket INT, reading INT);");
+        for (int from = 0; from < BENCHMARK_VOLUME; from += ROWS_PER_STATEMENT) {
+            StringBuilder sql = new StringBuilder("INSERT INTO metrics (id, bucket, reading) VALUES ");
+            for (int i = from; i < from + ROWS_PER_STATEMENT; i++) {
+                sql.append(i == from ? "" : ", ").append(String.format("(%d, %d, %d)", i, i % 16, i % 1000));
+            }
+            queryProcessor.execute(sql.append(";").toString());
+        }
+        String sql = "SELECT bucket, COUNT(*), SUM(reading), MIN(reading), MAX(reading) FROM metrics WHERE reading > 100 GROUP BY bucket;";
+
+        // 只计执行器树的构建和取数，不计解析和事务提交时的日志刷盘；两种模式交替预热，再各取多次执行中的最短耗时
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            timeExecution(sql, false);
+            timeExecution(sql, true);
+        }
+        long rowNanos = Long.MAX_VALUE;
+        long batchNanos = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            rowNanos = Math.min(rowNanos, timeExecution(sql, false));
+            batchNanos = Math.min(batchNanos, timeExecution(sql, true));
+        }
+        assertEquals(queryProcessor.executeAndGetResult(sql, session(false)), queryProcessor.executeAndGetResult(sql, session(true)));
+
+        System.out.println("--- [基准测试] 分组聚合: 行式执行 vs 批量执行 (" + BENCHMARK_VOLUME + " 行) ---");
+        System.out.printf("  %-16s %-16s %-10s%n", "行式耗时 (ms)", "批量耗时 (ms)", "加速比");
+        System.out.printf("  %-16.2f %-16.2f %-10.2f%n", rowNanos / 1e6, batchNanos / 1e6, (double) rowNanos / batchNanos);
+    }
+
+    private long timeExecution(String sql, boolean vectorized) throws Exception {
+        Session session = session(vectorized);
+        Transaction txn = queryProcessor.getTransactionManager().begin();
+        long start = System.nanoTime();
+        TupleIterator executor = queryProcessor.createExecutorForQuery(sql, txn, session);
+        int rows = 0;
+        while (executor.hasNext()) {
+            executor.next();
+            rows++;
+        }
+        long duration = System.nanoTime() - start;
+        queryProcessor.getTransactionManager().commit(txn);
+        assertEquals(16, rows);
+        return duration;
+    }
+
+    private Session session(boolean vectorized) {
+        Session session = Session.createAuthenticatedSession(-1, "root");
+        session.setVectorized(vectorized);
+        return session;
+    }
+
+    private void deleteDirectory(File directory) {
+        if (!directory.exists()) {
+            return;
+        }
+        File[] allContents = directory.listFiles();
+        if (allContents != null) {
+            for (File file : allContents) {
+                deleteDirectory(file);
+            }
+        }
+        directory.delete();
+    }
+}
@@ -0,0 +1,129 @@
+package org.csu.sdolp.storage;
+
+import org.csu.sdolp.common.model.DataType;
+import org.csu.sdolp.common.model.Value;
+import org.csu.sdolp.storage.column.ColumnSegment;
+import org.csu.sdolp.storage.page.Page;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ColumnSegment 的单元测试.
+ * 验证各种编码的选择与往返解码、段头中的 min/max，以及按页大小切分段。
+ */
+public class ColumnSegmentTest {
+
+    private List<Value> ints(int... values) {
+        List<Value> list = new ArrayList<>();
+        for (int v : values) {
+            list.add(new Value(v));
+        }
+        return list;
+    }
+
+    private ByteBuffer write(DataType type, List<Value> values) {
+        ByteBuffer page = ByteBuffer.allocate(Page.DEFAULT_PAGE_SIZE);
+        ColumnSegment.write(page, type, values, 0, values.size());
+        return page;
+    }
+
+    @Test
+    void testSortedIntsUseDelta() {
+        int[] ids = new int[1000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = 1000 + i;
+        }
+        ByteBuffer page = write(DataType.INT, ints(ids));
+
+        assertEquals(ColumnSegment.DELTA, ColumnSegment.getEncoding(page));
+        assertEquals(1000, ColumnSegment.getCount(page));
+        assertEquals(-1, ColumnSegment.getNextPage(page));
+        assertTrue(ColumnSegment.hasIntRange(page));
+        assertEquals(1000, ColumnSegment.getMin(page));
+        assertEquals(1999, ColumnSegment.getMax(page));
+        assertArrayEquals(ids, ColumnSegment.decodeInts(page));
+    }
+
+    @Test
+    void testUnsortedIntsUseFrameOfReference() {
+        Random random = new Random(42);
+        int[] amounts = new int[2000];
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = random.nextInt(101) - 50;
+        }
+        ByteBuffer page = write(DataType.INT, ints(amounts));
+
+        assertEquals(ColumnSegment.FOR, ColumnSegment.getEncoding(page));
+        assertTrue(ColumnSegment.getMin(page) >= -50 && ColumnSegment.getMax(page) <= 50);
+        assertArrayEquals(amounts, ColumnSegment.decodeInts(page));
+        // 101 种取值只需要 7 位
+        assertTrue(ColumnSegment.encodedSize(DataType.INT, ints(amounts), 0, amounts.length) < 2000);
+    }
+
+    @Test
+    void testLowCardinalityStringsUseDictionary() {
+        String[] regions = {"north", "south", "east", "west", "南方"};
+        List<Value> values = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            values.add(new Value(DataType.VARCHAR, regions[i % regions.length]));
+        }
+        ByteBuffer page = write(DataType.VARCHAR, values);
+
+        assertEquals(ColumnSegment.DICTIONARY, ColumnSegment.getEncoding(page));
+        assertFalse(ColumnSegment.hasIntRange(page));
+        assertEquals(values, Arrays.asList(ColumnSegment.decodeValues(page, DataType.VARCHAR)));
+    }
+
+    @Test
+    void testOtherTypesArePlain() {
+        List<Value> values = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            values.add(new Value(i * 0.25));
+        }
+        ByteBuffer page = write(DataType.DOUBLE, values);
+
+        assertEquals(ColumnSegment.PLAIN, ColumnSegment.getEncoding(page));
+        assertEquals(values, Arrays.asList(ColumnSegment.decodeValues(page, DataType.DOUBLE)));
+    }
+
+    @Test
+    void testFitSplitsIntoSegments() throws IOException {
+        Random random = new Random(7);
+        int[] wide = new int[3000];
+        for (int i = 0; i < wide.length; i++) {
+            wide[i] = random.nextInt();
+        }
+        List<Value> values = ints(wide);
+
+        List<Integer> decoded = new ArrayList<>();
+        int from = 0;
+        int segments = 0;
+        while (from < values.size()) {
+            int to = ColumnSegment.fit(DataType.INT, values, from, Page.DEFAULT_PAGE_SIZE);
+            assertTrue(to > from);
+            ByteBuffer page = ByteBuffer.allocate(Page.DEFAULT_PAGE_SIZE);
+            ColumnSegment.write(page, DataType.INT, values, from, to);
+            for (int v : ColumnSegment.decodeInts(page)) {
+                decoded.add(v);
+            }
+            from = to;
+            segments++;
+        }
+        assertTrue(segments > 1, "32 位宽的值一页放不下 3000 个");
+        assertEquals(values.stream().map(v -> (Integer) v.getValue()).toList(), decoded);
+    }
+
+    @Test
+    void testValueLargerThanPageIsRejected() {
+        List<Value> values = List.of(new Value(DataType.VARCHAR, "x".repeat(Page.DEFAULT_PAGE_SIZE)));
+        assertThrows(IOException.class, () -> ColumnSegment.fit(DataType.VARCHAR, values, 0, Page.DEFAULT_PAGE_SIZE));
+    }
+}
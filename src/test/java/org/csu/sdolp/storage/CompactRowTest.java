@@ -0,0 +1,92 @@
+package org.csu.sdolp.storage;
+
+import org.csu.sdolp.common.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CompactRow 的单元测试.
+ * 验证各类型列的存取、NULL、投影与拼接，以及按列比较和基于值的 equals / hashCode。
+ */
+public class CompactRowTest {
+
+    private final Schema schema = new Schema(List.of(
+            new Column("id", DataType.INT),
+            new Column("name", DataType.VARCHAR),
+            new Column("price", DataType.DECIMAL),
+            new Column("born", DataType.DATE),
+            new Column("ratio", DataType.DOUBLE),
+            new Column("active", DataType.BOOLEAN)));
+    private final DataType[] types = CompactRow.typesOf(schema);
+
+    private Tuple tuple(int id, String name) {
+        return new Tuple(new ArrayList<>(Arrays.asList(
+                new Value(id),
+                new Value(DataType.VARCHAR, name),
+                new Value(new BigDecimal("-12345678901234567890.25")),
+                new Value(LocalDate.of(2024, 2, 29)),
+                new Value(0.5),
+                new Value(true))));
+    }
+
+    @Test
+    void testRoundTripAndAccessors() {
+        Tuple source = tuple(7, "数据库");
+        source.setRid(new RID(3, 4));
+        CompactRow row = CompactRow.of(source, types);
+
+        assertEquals(source.getValues(), row.getValues());
+        assertEquals(source.getRid(), row.getRid());
+        assertEquals(7, row.getInt(0));
+        assertEquals("数据库", row.getString(1));
+        assertEquals(new BigDecimal("-12345678901234567890.25"), row.getDecimal(2));
+        assertEquals(LocalDate.of(2024, 2, 29).toEpochDay(), row.getEpochDay(3));
+        assertEquals(0.5, row.getDouble(4));
+        assertTrue(row.getBoolean(5));
+    }
+
+    @Test
+    void testNullsProjectAndConcat() {
+        CompactRow row = CompactRow.of(tuple(1, null), types);
+        assertTrue(row.isNull(1));
+        assertFalse(row.isNull(0));
+        assertNull(row.getValue(1).getValue());
+        assertEquals(DataType.VARCHAR, row.getValue(1).getType());
+
+        CompactRow projected = CompactRow.project(tuple(2, "b"), new int[]{1, 0}, null);
+        assertEquals(List.of(new Value("b"), new Value(2)), projected.getValues());
+
+        CompactRow joined = CompactRow.concat(projected, row, null);
+        assertEquals(2 + types.length, joined.getColumnCount());
+        assertEquals("b", joined.getString(0));
+        assertTrue(joined.isNull(3));
+        assertEquals(0.5, joined.getDouble(6));
+    }
+
+    @Test
+    void testCompareAndEquality() {
+        CompactRow a = CompactRow.of(tuple(1, "apple"), types);
+        CompactRow b = CompactRow.of(tuple(2, "banana"), types);
+        CompactRow c = CompactRow.of(tuple(1, "ápple"), types);
+        CompactRow nullName = CompactRow.of(tuple(3, null), types);
+
+        assertTrue(a.compareColumn(0, b) < 0);
+        assertTrue(a.compareColumn(1, b) < 0);
+        assertTrue(a.compareColumn(1, c) < 0);
+        // NULL 排在最前
+        assertTrue(nullName.compareColumn(1, a) < 0);
+        assertEquals(0, a.compareColumn(2, b));
+
+        CompactRow copy = CompactRow.of(tuple(1, "apple"), types);
+        assertEquals(a, copy);
+        assertEquals(a.hashCode(), copy.hashCode());
+        assertNotEquals(a, b);
+    }
+}
@@ -1,6 +1,7 @@
 package org.csu.sdolp.storage;
 
 import org.csu.sdolp.storage.disk.DiskManager;
+import org.csu.sdolp.storage.disk.PageCompression;
 import org.csu.sdolp.storage.page.Page;
 import org.csu.sdolp.storage.page.PageId;
 import org.junit.jupiter.api.AfterEach;
@@ -9,6 +10,14 @@ import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.*;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class DiskManagerTest {
@@ -93,4 +102,201 @@ public class DiskManagerTest {
         PageId reusedPageId = diskManager.allocatePage();
         assertEquals(1, reusedPageId.getPageNum(), "重启后，应该能重用之前被释放的 Page 1");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testConcurrentAllocateAndDeallocate() throws Exception {
+        System.out.println("\n--- 测试并发分配与释放 ---");
+        int threads = 8;
+        int rounds = 200;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<List<Integer>>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                // 每个线程交替分配和释放，最后保留一半页面
+                List<Integer> kept = new ArrayList<>();
+                for (int i = 0; i < rounds; i++) {
+                    PageId pageId = diskManager.allocatePage();
+                    if (i % 2 == 0) {
+                        diskManager.deallocatePage(pageId);
+                    } else {
+                        kept.add(pageId.getPageNum());
+                    }
+                }
+                return kept;
+            }));
+        }
+        Set<Integer> owned = new HashSet<>();
+        for (Future<List<Integer>> future : futures) {
+            for (int pageNum : future.get()) {
+                assertTrue(owned.add(pageNum), "页 " + pageNum + " 被重复分配");
+            }
+        }
+        pool.shutdown();
+        assertEquals(threads * rounds / 2, owned.size());
+
+        // 空闲链表中的页都没有被任何线程持有
+        int free = 0;
+        PageId pageId;
+        while ((pageId = diskManager.allocatePage()).getPageNum() < threads * rounds) {
+            assertFalse(owned.contains(pageId.getPageNum()));
+            free++;
+            if (free > threads * rounds) {
+                fail("空闲链表出现环");
+            }
+        }
+    }
+
+    @Test
+    void testMemoryMappedMode() throws IOException {
+        System.out.println("\n--- 测试内存映射模式 ---");
+        diskManager.close();
+        new File(TEST_FILE).delete();
+        DiskManager mapped = new DiskManager(TEST_FILE, Page.DEFAULT_PAGE_SIZE, DiskManager.IoMode.MEMORY_MAPPED);
+        mapped.open();
+        // 分配超过一个映射段 (16MB) 的页面，映射随之增长
+        int pageCount = 16 * 1024 * 1024 / Page.DEFAULT_PAGE_SIZE + 10;
+        for (int i = 0; i < pageCount; i++) {
+            Page page = mapped.readPage(mapped.allocatePage());
+            page.getData().putInt(0, i);
+        }
+        // 普通的堆内存页面也可以写入
+        Page heapPage = new Page(new PageId(pageCount - 1));
+        heapPage.getData().putInt(100, 42);
+        mapped.writePage(heapPage);
+        mapped.deallocatePage(new PageId(5));
+        mapped.close();
+
+        // 关闭后文件截断到实际分配的页数，普通模式可以读出映射模式写入的内容
+        assertEquals(4096L + (long) pageCount * Page.DEFAULT_PAGE_SIZE, new File(TEST_FILE).length());
+        diskManager = new DiskManager(TEST_FILE);
+        diskManager.open();
+        assertEquals(1000, diskManager.readPage(new PageId(1000)).getData().getInt(0));
+        assertEquals(pageCount - 20, diskManager.readPage(new PageId(pageCount - 20)).getData().getInt(0));
+        assertEquals(42, diskManager.readPage(new PageId(pageCount - 1)).getData().getInt(100));
+        assertEquals(5, diskManager.allocatePage().getPageNum(), "释放的页应被重用");
+    }
+
+    @Test
+    void testExtentAllocationAndPreallocation() throws IOException {
+        System.out.println("\n--- 测试按区分配与文件预分配 ---");
+        // 两个段交替分配，各自的页在区内连续
+        List<Integer> tablePages = new ArrayList<>();
+        List<Integer> indexPages = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            tablePages.add(diskManager.allocatePage("table:t").getPageNum());
+            indexPages.add(diskManager.allocatePage("index:idx").getPageNum());
+        }
+        for (List<Integer> pages : List.of(tablePages, indexPages)) {
+            int runs = 1;
+            for (int i = 1; i < pages.size(); i++) {
+                if (pages.get(i) != pages.get(i - 1) + 1) {
+                    runs++;
+                }
+            }
+            assertEquals((200 + DiskManager.EXTENT_PAGES - 1) / DiskManager.EXTENT_PAGES, runs);
+        }
+        // 文件按块预先扩展，而不是每写一页增长一次
+        assertTrue(diskManager.getFileLength() >= 4096L + 400L * Page.DEFAULT_PAGE_SIZE);
+        int allocated = diskManager.getAllocatedPageCount();
+        diskManager.close();
+
+        // 关闭后截断到已分配的页数，各段未用完的页挂回空闲链表
+        assertEquals(4096L + (long) allocated * Page.DEFAULT_PAGE_SIZE, new File(TEST_FILE).length());
+        diskManager = new DiskManager(TEST_FILE);
+        diskManager.open();
+        Set<Integer> reused = new HashSet<>();
+        for (int i = 0; i < allocated - 400; i++) {
+            reused.add(diskManager.allocatePage().getPageNum());
+        }
+        assertEquals(allocated - 400, reused.size());
+        assertTrue(reused.stream().allMatch(pageNum -> !tablePages.contains(pageNum) && !indexPages.contains(pageNum)));
+        assertEquals(allocated, diskManager.allocatePage().getPageNum(), "空闲页用完后才从文件末尾分配");
+    }
+
+    @Test
+    void testFilePerSegment() throws IOException {
+        System.out.println("\n--- 测试按段分文件 ---");
+        diskManager.setFilePerSegment(true);
+        PageId catalogPage = diskManager.allocatePage();
+        PageId tablePage = diskManager.allocatePage("table:t");
+        PageId indexPage = diskManager.allocatePage("index:idx");
+        // 主文件的页号不变，各段的页在自己的文件中从 0 开始编号
+        assertEquals(0, catalogPage.getFileId());
+        assertNotEquals(0, tablePage.getFileId());
+        assertNotEquals(tablePage.getFileId(), indexPage.getFileId());
+        assertEquals(0, tablePage.getFilePageNum());
+        assertEquals(tablePage, new PageId(tablePage.getFileId(), tablePage.getFilePageNum()));
+
+        for (PageId pageId : List.of(catalogPage, tablePage, indexPage)) {
+            Page page = new Page(pageId);
+            page.getData().putInt(100, pageId.getPageNum());
+            diskManager.writePage(page);
+        }
+        File tableFile = diskManager.getSegmentFile("table:t");
+        assertTrue(tableFile.exists());
+        diskManager.close();
+
+        // 重新打开 (不启用按段分文件) 后仍能按页号找到各文件中的页，已有的段继续在自己的文件中分配
+        diskManager = new DiskManager(TEST_FILE);
+        diskManager.open();
+        for (PageId pageId : List.of(catalogPage, tablePage, indexPage)) {
+            assertEquals(pageId.getPageNum(), diskManager.readPage(pageId).getData().getInt(100));
+        }
+        assertEquals(tablePage.getFileId(), diskManager.allocatePage("table:t").getFileId());
+
+        // 删除段即删除文件，之后该文件中的页读作全 0
+        assertTrue(diskManager.dropSegment("table:t"));
+        assertFalse(tableFile.exists());
+        assertEquals(0, diskManager.readPage(tablePage).getData().getInt(100));
+        assertTrue(diskManager.dropSegment("index:idx"));
+        assertFalse(diskManager.dropSegment("index:idx"));
+        new File(TEST_FILE + ".tablespaces").delete();
+    }
+
+    @Test
+    void testCompressedSegment() throws IOException {
+        System.out.println("\n--- 测试压缩的表空间文件 ---");
+        diskManager.setFilePerSegment(true);
+        assertTrue(diskManager.createSegment("table:c", PageCompression.DEFLATE));
+        assertFalse(diskManager.createSegment("table:c", PageCompression.DEFLATE), "段已有文件");
+        Random random = new Random(42);
+        List<PageId> pageIds = new ArrayList<>();
+        List<byte[]> contents = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            PageId pageId = diskManager.allocatePage("table:c");
+            byte[] content = new byte[Page.DEFAULT_PAGE_SIZE];
+            if (i % 5 == 0) {
+                random.nextBytes(content); // 无法压缩，按原样存放
+            } else {
+                Arrays.fill(content, 0, 1000 + i * 20, (byte) ('a' + i % 26));
+            }
+            diskManager.writePage(new Page(pageId, content.clone()));
+            pageIds.add(pageId);
+            contents.add(content);
+        }
+        // 重写后变大的页换到新的槽，旧槽被之后的写入重用
+        for (int i = 1; i < 50; i += 5) {
+            random.nextBytes(contents.get(i));
+            diskManager.writePage(new Page(pageIds.get(i), contents.get(i).clone()));
+        }
+        diskManager.deallocatePage(pageIds.get(2));
+        assertEquals(pageIds.get(2), diskManager.allocatePage("table:c"), "释放的页应被重用");
+        contents.set(2, new byte[Page.DEFAULT_PAGE_SIZE]);
+        assertTrue(diskManager.getBytesWritten() < 60L * Page.DEFAULT_PAGE_SIZE);
+        File tableFile = diskManager.getSegmentFile("table:c");
+        diskManager.close();
+        assertTrue(tableFile.length() < 30L * Page.DEFAULT_PAGE_SIZE, "压缩后的文件应明显小于 50 页");
+
+        diskManager = new DiskManager(TEST_FILE);
+        diskManager.open();
+        assertEquals(PageCompression.DEFLATE, diskManager.getSegmentCompression("table:c"));
+        for (int i = 0; i < 50; i++) {
+            byte[] read = new byte[Page.DEFAULT_PAGE_SIZE];
+            diskManager.readPage(pageIds.get(i)).getData().get(0, read);
+            assertArrayEquals(contents.get(i), read, "第 " + i + " 页的内容不一致");
+        }
+        assertTrue(diskManager.dropSegment("table:c"));
+        assertFalse(tableFile.exists());
+        new File(TEST_FILE + ".tablespaces").delete();
+    }
+}
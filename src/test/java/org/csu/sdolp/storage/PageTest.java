@@ -91,4 +91,87 @@ public class PageTest {
         assertFalse(page.insertTuple(smallTuple), "页面已满，插入应该失败");
         System.out.println("Page full test passed.");
     }
+
+    @Test
+    void testUpdateTupleKeepsSlot() {
+        Schema schema = new Schema(Arrays.asList(
+                new Column("id", DataType.INT),
+                new Column("name", DataType.VARCHAR)
+        ));
+        Page page = new Page(new PageId(2));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(page.insertTuple(new Tuple(List.of(new Value(i), new Value("name_" + i)))));
+        }
+
+        // 不更长的新行原地覆盖，不占用空闲空间
+        int freeSpace = page.getFreeSpace();
+        assertTrue(page.updateTuple(0, new Tuple(List.of(new Value(0), new Value("a"))).toBytes()));
+        assertEquals(freeSpace, page.getFreeSpace());
+        assertEquals("a", page.getTuple(0, schema).getValues().get(1).getValue());
+
+        // 更长的新行写入本页空闲空间，槽位号不变
+        assertTrue(page.updateTuple(1, new Tuple(List.of(new Value(1), new Value("x".repeat(100)))).toBytes()));
+        assertTrue(page.getFreeSpace() < freeSpace);
+        assertEquals("x".repeat(100), page.getTuple(1, schema).getValues().get(1).getValue());
+        // 本页放不下时不做任何修改
+        assertFalse(page.updateTuple(2, new Tuple(List.of(new Value(2), new Value("y".repeat(5000)))).toBytes()));
+        assertEquals("name_2", page.getTuple(2, schema).getValues().get(1).getValue());
+
+        // 删除只留下墓碑，其他行的槽位号不变
+        assertTrue(page.deleteTuple(0));
+        assertNull(page.getTuple(0, schema));
+        assertEquals("x".repeat(100), page.getTuple(1, schema).getValues().get(1).getValue());
+        assertEquals("name_2", page.getTuple(2, schema).getValues().get(1).getValue());
+
+        // 转发桩和迁入的行都不会被扫描到，只能经转发地址访问
+        assertTrue(page.setForwardingAddress(1, new RID(7, 3)));
+        assertFalse(page.isTupleValid(1));
+        assertEquals(new RID(7, 3), page.getForwardingAddress(1));
+        int relocatedSlot = page.insertRelocatedTuple(new Tuple(List.of(new Value(9), new Value("moved"))).toBytes());
+        assertNull(page.getTuple(relocatedSlot, schema));
+        assertEquals("moved", page.getRelocatedTuple(relocatedSlot, schema, null).getValues().get(1).getValue());
+        assertEquals(0, relocatedSlot, "迁入的行复用墓碑槽位");
+        assertEquals(1, page.getAllTuples(schema).size());
+    }
+
+    @Test
+    void testTombstonesAndCompaction() {
+        Schema schema = new Schema(Arrays.asList(
+                new Column("id", DataType.INT),
+                new Column("name", DataType.VARCHAR)
+        ));
+        Page page = new Page(new PageId(3));
+        int count = 0;
+        while (page.insertTuple(new Tuple(List.of(new Value(count), new Value("row_" + count + "_" + "p".repeat(40)))))) {
+            count++;
+        }
+        int numTuples = page.getNumTuples();
+
+        // 删除偶数行：留下墓碑，槽位数和奇数行的槽位号都不变
+        for (int i = 0; i < count; i += 2) {
+            assertTrue(page.deleteTuple(i));
+        }
+        assertFalse(page.deleteTuple(0), "已删除的槽位不能再删除");
+        assertEquals(numTuples, page.getNumTuples());
+        assertTrue(page.getCompactedFreeSpace() > page.getFreeSpace());
+
+        // 整理页面只移动数据，不移动槽位
+        assertTrue(page.compact());
+        assertEquals(page.getCompactedFreeSpace(), page.getFreeSpace());
+        for (int i = 1; i < count; i += 2) {
+            assertEquals(new Value(i), page.getTuple(i, schema).getValues().get(0));
+        }
+
+        // 新行复用墓碑槽位；空闲空间不够时先在页内整理
+        int slot = page.addTuple(new Tuple(List.of(new Value(-1), new Value("reused"))).toBytes());
+        assertEquals(0, slot);
+        assertEquals(numTuples, page.getNumTuples());
+        for (int i = 1; i < count; i += 2) {
+            assertTrue(page.deleteTuple(i));
+        }
+        assertFalse(page.isEmpty());
+        assertTrue(page.deleteTuple(0));
+        assertTrue(page.isEmpty());
+        assertTrue(page.insertTuple(new Tuple(List.of(new Value(1), new Value("x".repeat(2000))))));
+    }
 }
\ No newline at end of file
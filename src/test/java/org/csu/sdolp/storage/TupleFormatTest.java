@@ -0,0 +1,192 @@
+package org.csu.sdolp.storage;
+
+import org.csu.sdolp.common.model.*;
+import org.csu.sdolp.storage.page.Page;
+import org.csu.sdolp.storage.page.PageId;
+import org.csu.sdolp.storage.page.TupleView;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 元组编码格式的单元测试.
+ * 验证 DECIMAL / DATE 的二进制编码、行格式的 NULL 位图和列偏移表、文本格式回退，以及旧格式页面的读取和在线升级。
+ */
+public class TupleFormatTest {
+
+    private final Schema schema = new Schema(List.of(
+            new Column("id", DataType.INT),
+            new Column("price", DataType.DECIMAL),
+            new Column("born", DataType.DATE),
+            new Column("name", DataType.VARCHAR)));
+
+    private Tuple row(int id) {
+        return new Tuple(List.of(
+                new Value(id),
+                new Value(new BigDecimal(id + ".50")),
+                new Value(LocalDate.of(2020, 2, 29).plusDays(id)),
+                new Value("n" + id)));
+    }
+
+    @Test
+    void testBinaryEncodingRoundTrip() {
+        Tuple tuple = row(42);
+        byte[] bytes = tuple.toBytes();
+        assertEquals(Tuple.FORMAT_ROW, bytes[0]);
+        // 1 (版本头) + 2 (列数) + 1 (NULL 位图) + 4 (INT) + 9 (DECIMAL) + 4 (DATE) + 2 (偏移表) + 3 (VARCHAR)
+        assertEquals(26, bytes.length);
+        assertEquals(tuple.getValues(), Tuple.fromBytes(bytes, schema).getValues());
+
+        // 顺序排列的二进制格式仍可读取
+        byte[] binary = tuple.toBytes(Tuple.FORMAT_BINARY);
+        assertEquals(1 + 4 + 9 + 4 + 4 + 3, binary.length);
+        assertEquals(tuple.getValues(), Tuple.fromBytes(binary, schema).getValues());
+
+        // 超出 long 范围的 DECIMAL 退回文本格式，值保持不变
+        Tuple huge = new Tuple(List.of(new Value(1), new Value(new BigDecimal("123456789012345678901234567890.5")),
+                new Value(LocalDate.of(1999, 12, 31)), new Value("x")));
+        byte[] hugeBytes = huge.toBytes();
+        assertEquals(Tuple.FORMAT_TEXT, hugeBytes[0]);
+        assertEquals(huge.getValues(), Tuple.fromBytes(hugeBytes, schema).getValues());
+    }
+
+    @Test
+    void testRowFormatStoresNullsAndLocatesColumnsDirectly() {
+        Schema wide = new Schema(List.of(
+                new Column("a", DataType.VARCHAR),
+                new Column("b", DataType.INT),
+                new Column("c", DataType.VARCHAR),
+                new Column("d", DataType.DATE),
+                new Column("e", DataType.DOUBLE),
+                new Column("f", DataType.VARCHAR),
+                new Column("g", DataType.BOOLEAN),
+                new Column("h", DataType.INT),
+                new Column("i", DataType.CHAR)));
+        Tuple tuple = new Tuple(List.of(
+                new Value("alpha"),
+                new Value(DataType.INT, null),
+                new Value(DataType.VARCHAR, null),
+                new Value(LocalDate.of(2001, 9, 9)),
+                new Value(2.5),
+                new Value("中文"),
+                new Value(true),
+                new Value(-7),
+                new Value(DataType.CHAR, null)));
+
+        Tuple decoded = Tuple.fromBytes(tuple.toBytes(), wide);
+        assertNull(decoded.getValues().get(1).getValue());
+        assertNull(decoded.getValues().get(2).getValue());
+        assertNull(decoded.getValues().get(8).getValue());
+        assertEquals("中文", decoded.getValues().get(5).getValue());
+        assertEquals(-7, decoded.getValues().get(7).getValue());
+
+        Page page = new Page(new PageId(1));
+        assertTrue(page.insertTuple(tuple));
+        TupleView view = new TupleView(wide);
+        assertTrue(view.bind(page, 0));
+        // 直接访问靠后的列，不需要先解析前面的列
+        assertEquals(-7, view.getInt(7));
+        assertTrue(view.getBoolean(6));
+        assertEquals(0, view.compareString(5, "中文".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(2.5, view.getDouble(4));
+        assertEquals(LocalDate.of(2001, 9, 9), view.getDate(3));
+        assertTrue(view.isNull(1));
+        assertTrue(view.isNull(2));
+        assertFalse(view.isNull(0));
+        assertEquals("alpha", view.getValue(0).getValue());
+        assertNull(view.getValue(8).getValue());
+
+        // 文本格式无法表示 NULL
+        assertThrows(IllegalArgumentException.class, () -> tuple.toBytes(Tuple.FORMAT_TEXT));
+    }
+
+    @Test
+    void testRowsWrittenBeforeAddColumnReadNewColumnAsNull() {
+        Schema before = new Schema(List.of(new Column("id", DataType.INT), new Column("name", DataType.VARCHAR)));
+        Schema after = new Schema(List.of(new Column("id", DataType.INT), new Column("name", DataType.VARCHAR),
+                new Column("score", DataType.INT), new Column("note", DataType.VARCHAR)));
+        Page page = new Page(new PageId(2));
+        assertTrue(page.insertTuple(new Tuple(List.of(new Value(1), new Value("old")))));
+
+        Tuple tuple = page.getTuple(0, after);
+        assertEquals(4, tuple.getValues().size());
+        assertEquals("old", tuple.getValues().get(1).getValue());
+        assertNull(tuple.getValues().get(2).getValue());
+        assertNull(tuple.getValues().get(3).getValue());
+
+        TupleView view = new TupleView(after);
+        assertTrue(view.bind(page, 0));
+        assertEquals(1, view.getInt(0));
+        assertTrue(view.isNull(2));
+        assertTrue(view.isNull(3));
+        assertEquals(2, page.getTuple(0, before).getValues().size());
+    }
+
+    /**
+     * 按旧版本的页面布局构造页面：元组没有格式版本头，槽位偏移也没有标志位。
+     */
+    private Page legacyPage(int count) {
+        ByteBuffer buffer = ByteBuffer.allocate(Page.DEFAULT_PAGE_SIZE);
+        int pointer = Page.DEFAULT_PAGE_SIZE;
+        for (int i = 0; i < count; i++) {
+            byte[] withHeader = row(i).toBytes(Tuple.FORMAT_TEXT);
+            byte[] legacy = Arrays.copyOfRange(withHeader, Tuple.FORMAT_HEADER_SIZE, withHeader.length);
+            pointer -= legacy.length;
+            buffer.put(pointer, legacy);
+            buffer.putInt(12 + i * 8, pointer);
+            buffer.putInt(12 + i * 8 + 4, legacy.length);
+        }
+        buffer.putInt(0, count);
+        buffer.putInt(4, pointer);
+        buffer.putInt(8, -1);
+        return new Page(new PageId(5), buffer.array());
+    }
+
+    @Test
+    void testLegacyPageIsReadableAndUpgradedOnline() {
+        Page page = legacyPage(10);
+        page.markTupleAsDeleted(3);
+        assertTrue(page.hasLegacyTuples());
+        assertEquals(row(7).getValues(), page.getTuple(7, schema).getValues());
+        TupleView view = new TupleView(schema);
+        assertTrue(view.bind(page, 7));
+        assertEquals(LocalDate.of(2020, 3, 7), view.getDate(2));
+
+        assertTrue(page.upgradeTupleFormat(schema, 0));
+        assertFalse(page.hasLegacyTuples());
+        assertEquals(9, page.getAllTuples(schema).size(), "已删除的元组升级后仍保持删除状态");
+        for (int i = 0; i < 10; i++) {
+            if (i == 3) {
+                assertNull(page.getTuple(i, schema));
+                continue;
+            }
+            assertEquals(row(i).getValues(), page.getTuple(i, schema).getValues());
+            assertTrue(view.bind(page, i));
+            assertEquals(LocalDate.of(2020, 2, 29).plusDays(i).toEpochDay(), view.getEpochDay(2));
+        }
+        // 撤销删除后仍能读到升级后的记录
+        assertTrue(page.undoMarkTupleAsDeleted(3));
+        assertEquals(row(3).getValues(), page.getTuple(3, schema).getValues());
+        // 升级后的页面可以继续插入
+        assertTrue(page.insertTuple(row(10)));
+        assertEquals(row(10).getValues(), page.getTuple(10, schema).getValues());
+    }
+
+    @Test
+    void testUpgradeIsSkippedWhenPageWouldOverflow() {
+        Page page = legacyPage(10);
+        int freeSpace = page.getFreeSpace();
+        // 二进制格式更紧凑，要求预留超过整页的空间才能触发放弃升级
+        assertFalse(page.upgradeTupleFormat(schema, Page.DEFAULT_PAGE_SIZE));
+        assertTrue(page.hasLegacyTuples());
+        assertEquals(freeSpace, page.getFreeSpace());
+        assertEquals(row(2).getValues(), page.getTuple(2, schema).getValues());
+    }
+}
@@ -0,0 +1,96 @@
+package org.csu.sdolp.storage;
+
+import org.csu.sdolp.common.model.*;
+import org.csu.sdolp.compiler.lexer.Lexer;
+import org.csu.sdolp.compiler.parser.Parser;
+import org.csu.sdolp.compiler.parser.ast.dml.SelectStatementNode;
+import org.csu.sdolp.engine.ExpressionCompiler;
+import org.csu.sdolp.executor.expressions.AbstractPredicate;
+import org.csu.sdolp.storage.page.Page;
+import org.csu.sdolp.storage.page.PageId;
+import org.csu.sdolp.storage.page.TupleView;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 元组视图 (TupleView) 的单元测试.
+ * 验证视图直接从页面读取字段，以及谓词在视图上和在物化元组上求值的结果一致。
+ */
+public class TupleViewTest {
+
+    private final Schema schema = new Schema(List.of(
+            new Column("name", DataType.VARCHAR),
+            new Column("id", DataType.INT),
+            new Column("price", DataType.DECIMAL),
+            new Column("born", DataType.DATE),
+            new Column("ratio", DataType.DOUBLE)));
+
+    private Page pageWithRows() {
+        Page page = new Page(new PageId(3));
+        for (int i = 0; i < 20; i++) {
+            page.insertTuple(new Tuple(List.of(
+                    new Value("user" + i),
+                    new Value(i),
+                    new Value(new BigDecimal(i + ".25")),
+                    new Value(LocalDate.of(2024, 1, 1).plusDays(i)),
+                    new Value(i / 4.0))));
+        }
+        return page;
+    }
+
+    @Test
+    void testTypedAccessorsReadFromPage() {
+        Page page = pageWithRows();
+        TupleView view = new TupleView(schema);
+
+        assertTrue(view.bind(page, 7));
+        assertEquals(7, view.getInt(1));
+        assertEquals(1.75, view.getDouble(4));
+        assertEquals(LocalDate.of(2024, 1, 8), view.getDate(3));
+        assertEquals(0, view.compareString(0, "user7".getBytes(StandardCharsets.UTF_8)));
+        assertTrue(view.compareString(0, "user8".getBytes(StandardCharsets.UTF_8)) < 0);
+
+        Tuple tuple = view.materialize(null);
+        assertEquals(new RID(3, 7), tuple.getRid());
+        assertEquals("user7", tuple.getValues().get(0).getValue());
+
+        // 视图可以反复绑定到其他槽位
+        assertTrue(view.bind(page, 12));
+        assertEquals(12, view.getInt(1));
+        assertEquals(new BigDecimal("12.25"), view.getValue(2).getValue());
+
+        page.markTupleAsDeleted(5);
+        assertFalse(view.bind(page, 5), "已删除的槽位不能绑定");
+    }
+
+    @Test
+    void testPredicatesOnViewMatchTupleEvaluation() throws IOException {
+        Page page = pageWithRows();
+        TupleView view = new TupleView(schema);
+        String[] conditions = {
+                "id >= 10",
+                "name = 'user3'",
+                "name > 'user15' AND id < 18",
+                "born <= '2024-01-05' OR ratio > 4",
+                "price > 10",
+                "ratio < 2.5"
+        };
+        for (String condition : conditions) {
+            SelectStatementNode select = (SelectStatementNode) new Parser(
+                    new Lexer("SELECT * FROM t WHERE " + condition + ";").tokenize()).parse();
+            AbstractPredicate predicate = ExpressionCompiler.compile(select.whereClause(), schema);
+            for (int slot = 0; slot < page.getNumTuples(); slot++) {
+                assertTrue(view.bind(page, slot));
+                assertEquals(predicate.evaluate(page.getTuple(slot, schema)), predicate.evaluate(view),
+                        condition + " @ slot " + slot);
+            }
+        }
+    }
+}